@@ -55,7 +55,13 @@ public interface ControlFacade {
 
     /**
      * 워크플로 상태 DTO(MVP: 런타임 제어형).
+     *
+     * @param workflowId 워크플로 이름
+     * @param running start 이후 stop 되지 않았는지 여부(일시정지 중에도 true)
+     * @param paused 일시정지 여부
+     * @param queueDepth 워커 큐에 대기 중인 컨텍스트 수
+     * @param inFlight Sink 까지 처리되지 않은 컨텍스트 수
      */
-    record ControlWorkflowState(String workflowId, boolean running) { }
+    record ControlWorkflowState(String workflowId, boolean running, boolean paused, long queueDepth, long inFlight) { }
 }
 
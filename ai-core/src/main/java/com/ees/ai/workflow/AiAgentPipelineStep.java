@@ -10,7 +10,6 @@ import com.ees.framework.pipeline.PipelineStep;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -96,9 +95,10 @@ public class AiAgentPipelineStep implements PipelineStep<Object, Object> {
 
     private FxContext<Object> attachResponse(FxContext<Object> context, com.ees.ai.core.AiResponse response) {
         // aiResponse/aiSessionId를 메타데이터에 저장하고 pipelineStep 정보를 갱신한다.
-        Map<String, Object> attributes = new HashMap<>(context.meta().attributes());
-        attributes.put(ATTR_RESPONSE, response.content());
-        attributes.put(ATTR_SESSION, response.sessionId());
+        Map<String, Object> attributes = context.meta().toAttributeBuilder()
+            .put(ATTR_RESPONSE, response.content())
+            .put(ATTR_SESSION, response.sessionId())
+            .build();
         FxMeta meta = new FxMeta(
             context.meta().sourceId(),
             PIPELINE_STEP,
@@ -111,8 +111,9 @@ public class AiAgentPipelineStep implements PipelineStep<Object, Object> {
 
     private FxContext<Object> attachError(FxContext<Object> context, Throwable ex) {
         // 오류 메시지를 기록하고 retries를 1 증가시킨다.
-        Map<String, Object> attributes = new HashMap<>(context.meta().attributes());
-        attributes.put(ATTR_ERROR, ex.getMessage());
+        Map<String, Object> attributes = context.meta().toAttributeBuilder()
+            .put(ATTR_ERROR, ex.getMessage())
+            .build();
         FxMeta meta = new FxMeta(
             context.meta().sourceId(),
             PIPELINE_STEP,
@@ -0,0 +1,79 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxAffinity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메시지마다 affinity 를 만들어 키별 워커 맵({@code ConcurrentHashMap})에서 워커를 찾는 비용을 비교한다.
+ * <p>
+ * {@code uninterned} 는 생성자로 만든(캐시를 거치지 않은) 인스턴스, {@code interned}/{@code numeric} 은 intern 캐시를 거친 인스턴스다.
+ * 문자열 키는 Kafka 레코드 키처럼 매번 바이트에서 새로 디코딩하고, {@code numeric} 은 키 없는 레코드의 파티션 번호처럼 정수로 조회한다.
+ * 실행: {@code java -jar benchmarks/target/benchmarks.jar AffinityLookup -prof gc}
+ * 에서 {@code gc.alloc.rate.norm} 이 조회 한 번당 바이트다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AffinityLookupBenchmark {
+
+    private static final String KIND = "equipmentId";
+    private static final int KEYS = 256;
+
+    private final String[] values = new String[KEYS];
+    private final byte[][] keyBytes = new byte[KEYS][];
+    private final ConcurrentMap<FxAffinity, Object> workers = new ConcurrentHashMap<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < KEYS; i++) {
+            values[i] = Integer.toString(100_000 + i);
+            keyBytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            workers.put(FxAffinity.of(KIND, values[i]), values[i]);
+        }
+    }
+
+    @Benchmark
+    public Object uninterned() {
+        return workers.get(new FxAffinity(KIND, decodeKey()));
+    }
+
+    @Benchmark
+    public Object interned() {
+        return workers.get(FxAffinity.of(KIND, decodeKey()));
+    }
+
+    @Benchmark
+    public Object numeric() {
+        return workers.get(FxAffinity.of(KIND, 100_000L + nextIndex()));
+    }
+    // decodeKey 동작을 수행한다.
+
+    private String decodeKey() {
+        return new String(keyBytes[nextIndex()], StandardCharsets.UTF_8);
+    }
+    // nextIndex 동작을 수행한다.
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (KEYS - 1);
+        return index;
+    }
+}
@@ -0,0 +1,162 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.workflow.engine.ChainCompiler;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 단건 프로세서 체인을 람다 배열로 순회하는 방식(이전 엔진 구현)과 {@link ChainCompiler} 가 만든
+ * 프로세서별 hidden class 체인의 메시지당 비용을 비교한다.
+ * <p>
+ * step 은 모두 다른 구현 클래스다. 한 JVM 에서 여러 워크플로가 돌 때처럼 setUp 에서 20 종의 step 으로
+ * 두 방식을 먼저 실행해 공유 호출 지점의 타입 프로파일을 오염시킨다.
+ * 실행: {@code java -jar benchmarks/target/benchmarks.jar CompiledChain}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CompiledChainBenchmark.BATCH)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledChainBenchmark {
+
+    static final int BATCH = 256;
+    private static final int STEP_TYPES = 20;
+
+    @Param({"1", "5", "20"})
+    public int steps;
+
+    private final BinaryOperator<FxContext<Object>> reconciler = CompiledChainBenchmark::reconcile;
+    private List<FxContext<Object>> batch;
+    private UnaryOperator<List<FxContext<Object>>> lambdaLoop;
+    private UnaryOperator<List<FxContext<Object>>> compiled;
+
+    @Setup
+    public void setUp() {
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new FxContext<>(
+                FxCommand.of("ingest"),
+                FxHeaders.empty(),
+                FxMessage.now("bench", (Object) i),
+                FxMeta.empty(),
+                FxAffinity.of("equipmentId", "eq-" + (i % 16))
+            ));
+        }
+        ChainCompiler compiler = new ChainCompiler(reconciler);
+        UnaryOperator<List<FxContext<Object>>> pollutingLoop = lambdaLoop(STEP_TYPES);
+        UnaryOperator<List<FxContext<Object>>> pollutingCompiled = compiler.compile(elementSteps(STEP_TYPES));
+        for (int i = 0; i < 20_000; i++) {
+            pollutingLoop.apply(batch);
+            pollutingCompiled.apply(batch);
+        }
+        lambdaLoop = lambdaLoop(steps);
+        compiled = compiler.compile(elementSteps(steps));
+    }
+
+    @Benchmark
+    public List<FxContext<Object>> lambdaLoop() {
+        return lambdaLoop.apply(batch);
+    }
+
+    @Benchmark
+    public List<FxContext<Object>> compiled() {
+        return compiled.apply(batch);
+    }
+    // lambdaLoop 동작을 수행한다.
+
+    /**
+     * 이전 엔진의 flushElementStage 와 같은 모양: 프로세서마다 같은 람다 클래스로 감싸 배열을 순회한다.
+     */
+    private UnaryOperator<List<FxContext<Object>>> lambdaLoop(int count) {
+        @SuppressWarnings("unchecked")
+        Function<FxContext<Object>, FxContext<Object>>[] fns = new Function[count];
+        for (int i = 0; i < count; i++) {
+            PipelineStep<Object, Object> step = step(i);
+            fns[i] = ctx -> step.supports(ctx) ? reconciler.apply(ctx, step.apply(ctx)) : ctx;
+        }
+        return contexts -> {
+            List<FxContext<Object>> out = new ArrayList<>(contexts.size());
+            for (FxContext<Object> context : contexts) {
+                FxContext<Object> processed = context;
+                for (Function<FxContext<Object>, FxContext<Object>> fn : fns) {
+                    processed = fn.apply(processed);
+                }
+                out.add(processed);
+            }
+            return out;
+        };
+    }
+    // elementSteps 동작을 수행한다.
+
+    private static List<ChainCompiler.ElementStep> elementSteps(int count) {
+        List<ChainCompiler.ElementStep> elementSteps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elementSteps.add(new ChainCompiler.ElementStep(WorkflowNodeKind.PIPELINE_STEP, step(i)));
+        }
+        return elementSteps;
+    }
+    // reconcile 동작을 수행한다.
+
+    private static FxContext<Object> reconcile(FxContext<Object> input, FxContext<Object> output) {
+        if (output == input || output.affinity().equals(input.affinity())) {
+            return output;
+        }
+        throw new IllegalStateException("affinity changed");
+    }
+    // step 동작을 수행한다.
+
+    /**
+     * 인덱스마다 다른 구현 클래스의 step 을 돌려준다. 각 람다 식은 별도 클래스로 만들어진다.
+     */
+    private static PipelineStep<Object, Object> step(int index) {
+        return switch (index % STEP_TYPES) {
+            case 0 -> ctx -> ctx;
+            case 1 -> ctx -> ctx;
+            case 2 -> ctx -> ctx;
+            case 3 -> ctx -> ctx;
+            case 4 -> ctx -> ctx;
+            case 5 -> ctx -> ctx;
+            case 6 -> ctx -> ctx;
+            case 7 -> ctx -> ctx;
+            case 8 -> ctx -> ctx;
+            case 9 -> ctx -> ctx;
+            case 10 -> ctx -> ctx;
+            case 11 -> ctx -> ctx;
+            case 12 -> ctx -> ctx;
+            case 13 -> ctx -> ctx;
+            case 14 -> ctx -> ctx;
+            case 15 -> ctx -> ctx;
+            case 16 -> ctx -> ctx;
+            case 17 -> ctx -> ctx;
+            case 18 -> ctx -> ctx;
+            default -> ctx -> ctx;
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.context.MutableFxContext;
+import com.ees.framework.pipeline.InPlacePipelineStep;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.engine.Workflow;
+import com.ees.framework.workflow.engine.WorkflowEngine;
+import com.ees.framework.workflow.engine.WorkflowNodeResolver;
+import com.ees.framework.workflow.model.WorkflowEdgeDefinition;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 헤더와 속성을 하나씩 덧붙이는 step N 개를 거치는 워크플로의 메시지당 시간/할당량을
+ * 불변 컨텍스트를 매번 만드는 {@link PipelineStep} 과 워커가 재사용하는 가변 컨텍스트를 쓰는 {@link InPlacePipelineStep} 으로 비교한다.
+ * <p>
+ * 실행: {@code java -jar benchmarks/target/benchmarks.jar ContextCarrier -prof gc}
+ * 에서 {@code gc.alloc.rate.norm} 이 메시지당 바이트다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ContextCarrierBenchmark.MESSAGES)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextCarrierBenchmark {
+
+    static final int MESSAGES = 10_000;
+    private static final int KEYS = 16;
+
+    @Param({"1", "4"})
+    public int steps;
+
+    @Param({"immutable", "inPlace"})
+    public String mode;
+
+    private final LongAdder written = new LongAdder();
+    private WorkflowEngine engine;
+    private WorkflowGraphDefinition graph;
+    private WorkflowNodeResolver resolver;
+
+    @Setup
+    public void setUp() {
+        List<FxContext<Object>> contexts = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            contexts.add(new FxContext<>(
+                FxCommand.of("ingest"),
+                FxHeaders.empty().with("source", "bench"),
+                FxMessage.now("bench", (Object) i),
+                FxMeta.empty(),
+                FxAffinity.of("equipmentId", "eq-" + (i % KEYS))
+            ));
+        }
+        Source<Object> source = () -> contexts;
+        Sink<Object> sink = ctx -> written.increment();
+
+        List<WorkflowNodeDefinition> nodes = new ArrayList<>();
+        List<WorkflowEdgeDefinition> edges = new ArrayList<>();
+        Map<String, Object> beans = new HashMap<>();
+        nodes.add(new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source"));
+        beans.put("source", source);
+        String previous = "source";
+        for (int i = 0; i < steps; i++) {
+            String id = "step-" + i;
+            nodes.add(new WorkflowNodeDefinition(id, WorkflowNodeKind.PIPELINE_STEP, id));
+            beans.put(id, "inPlace".equals(mode) ? inPlaceStep(id) : immutableStep(id));
+            edges.add(new WorkflowEdgeDefinition(previous, id, null));
+            previous = id;
+        }
+        nodes.add(new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink"));
+        beans.put("sink", sink);
+        edges.add(new WorkflowEdgeDefinition(previous, "sink", null));
+
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(1024)
+            .batchSize(256)
+            .batchTimeout(Duration.ofMillis(5))
+            .build();
+        graph = new WorkflowGraphDefinition("carrier", "source", Set.of("sink"), nodes, edges, options);
+        resolver = node -> beans.get(node.getRefName());
+        engine = new WorkflowEngine(options);
+    }
+
+    @Benchmark
+    public long runWorkflow() {
+        Workflow workflow = engine.createWorkflow(graph, resolver);
+        workflow.start();
+        workflow.stop();
+        return written.sum();
+    }
+
+    private static PipelineStep<Object, Object> immutableStep(String id) {
+        return ctx -> new FxContext<>(ctx.command(), ctx.headers().with(id, "done"), ctx.message(),
+            ctx.meta().withAttribute(id, Boolean.TRUE), ctx.affinity());
+    }
+
+    private static InPlacePipelineStep<Object> inPlaceStep(String id) {
+        return new InPlacePipelineStep<>() {
+            @Override
+            public boolean supportsInPlace(MutableFxContext<Object> context) {
+                return true;
+            }
+
+            @Override
+            public void applyInPlace(MutableFxContext<Object> context) {
+                context.putHeader(id, "done").putAttribute(id, Boolean.TRUE);
+            }
+        };
+    }
+}
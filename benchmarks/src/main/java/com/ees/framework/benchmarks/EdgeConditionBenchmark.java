@@ -0,0 +1,73 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.workflow.engine.ExpressionEdgeConditionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 컴파일된 엣지 조건 Predicate 와 메시지마다 조건식을 해석하는 인터프리터의 평가 비용을 비교한다.
+ * <p>
+ * 실행: {@code mvn -Pbenchmarks -pl benchmarks -am package -DskipTests && java -jar benchmarks/target/benchmarks.jar EdgeCondition -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeConditionBenchmark {
+
+    @Param({
+        "command == 'ingest'",
+        "header.severity == 'high' && affinity.kind == 'equipmentId'",
+        "(header.severity in ('high', 'critical') || meta.line == 'L1') && !(affinity.value == 'eq-9')"
+    })
+    public String condition;
+
+    private FxContext<String> context;
+    private Predicate<FxContext<?>> compiled;
+
+    @Setup
+    public void setUp() {
+        context = new FxContext<>(
+            FxCommand.of("ingest"),
+            FxHeaders.empty().with("severity", "critical"),
+            FxMessage.now("bench", "payload"),
+            new FxMeta("bench", null, 0, Map.of("line", "L2")),
+            FxAffinity.of("equipmentId", "eq-1")
+        );
+        compiled = new ExpressionEdgeConditionCompiler().compile(condition);
+        if (compiled.test(context) != NaiveConditionInterpreter.evaluate(condition, context)) {
+            throw new IllegalStateException("Compiled and interpreted results differ for: " + condition);
+        }
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.test(context);
+    }
+
+    @Benchmark
+    public boolean interpreted() {
+        return NaiveConditionInterpreter.evaluate(condition, context);
+    }
+}
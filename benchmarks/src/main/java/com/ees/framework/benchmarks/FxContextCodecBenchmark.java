@@ -0,0 +1,110 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.context.codec.FxContextCodec;
+import com.ees.framework.context.codec.PayloadSerializer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KafkaSource 가 만드는 형태의 컨텍스트(헤더 5 개, 속성 4 개, 256 자 문자열 payload)를
+ * {@link FxContextCodec} 과 Jackson JSON 으로 인코딩/디코딩하는 비용을 비교한다.
+ * <p>
+ * Jackson 은 레코드를 그대로 직렬화한다.
+ * JSON 은 속성의 long/int 구분을 잃으므로(작은 long 이 Integer 로 돌아온다) 왕복 결과가 같지 않다.
+ * 실행: {@code java -jar benchmarks/target/benchmarks.jar FxContextCodec -prof gc}
+ * 에서 {@code gc.alloc.rate.norm} 이 컨텍스트 하나당 바이트다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FxContextCodecBenchmark {
+
+    private final FxContextCodec<String> codec = FxContextCodec.of(PayloadSerializer.UTF8_STRING);
+    private FxContext<String> context;
+    private ObjectWriter jsonWriter;
+    private ObjectReader jsonReader;
+    private ByteBuffer binary;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new FxContext<>(
+            FxCommand.of("ingest"),
+            FxHeaders.builder(5)
+                .put("affinity-kind", "equipmentId")
+                .put("affinity-value", "eqp-17")
+                .put("kafka-topic", "orders")
+                .put("kafka-partition", "3")
+                .put("kafka-offset", "1048576")
+                .build(),
+            new FxMessage<>("kafka", "x".repeat(256), Instant.parse("2026-01-01T00:00:00Z"), "eqp-17"),
+            new FxMeta("kafka-source", null, 0, FxMeta.attributeBuilder(4)
+                .put("kafka.topic", "orders")
+                .putInt("kafka.partition", 3)
+                .putLong("kafka.offset", 1_048_576L)
+                .putLong("kafka.timestamp", 1_767_225_600_000L)
+                .build()),
+            FxAffinity.of("equipmentId", "eqp-17")
+        );
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        jsonWriter = mapper.writerFor(new TypeReference<FxContext<String>>() { });
+        jsonReader = mapper.readerFor(new TypeReference<FxContext<String>>() { });
+
+        binary = codec.encode(context);
+        json = jsonWriter.writeValueAsBytes(context);
+        if (!codec.decode(binary.duplicate()).equals(context)) {
+            throw new IllegalStateException("binary round trip mismatch");
+        }
+        FxContext<String> fromJson = jsonReader.readValue(json);
+        if (!fromJson.affinity().equals(context.affinity()) || !fromJson.headers().equals(context.headers())) {
+            throw new IllegalStateException("json round trip mismatch");
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer binaryEncode() {
+        return codec.encode(context);
+    }
+
+    @Benchmark
+    public FxContext<String> binaryDecode() {
+        return codec.decode(binary.duplicate());
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return jsonWriter.writeValueAsBytes(context);
+    }
+
+    @Benchmark
+    public FxContext<String> jsonDecode() throws IOException {
+        return jsonReader.readValue(json);
+    }
+}
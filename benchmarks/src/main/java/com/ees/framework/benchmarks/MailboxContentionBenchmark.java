@@ -0,0 +1,107 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.engine.Workflow;
+import com.ees.framework.workflow.engine.WorkflowEngine;
+import com.ees.framework.workflow.engine.WorkflowNodeResolver;
+import com.ees.framework.workflow.model.WorkflowEdgeDefinition;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Source dispatch 스레드와 per-key 워커가 같은 mailbox 를 두고 경합할 때의 메시지당 처리 시간을 mailbox 구현별로 비교한다.
+ * <p>
+ * keys=1 은 생산자 하나와 워커 하나가 한 큐를 계속 다투는 최악의 경우이고, keys=16 은 생산자 하나가 여러 큐에 분산한다.
+ * 실행: {@code java -jar benchmarks/target/benchmarks.jar MailboxContention}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(MailboxContentionBenchmark.MESSAGES)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailboxContentionBenchmark {
+
+    static final int MESSAGES = 100_000;
+
+    @Param({"ARRAY_BLOCKING", "MPSC_RING"})
+    public WorkflowEngine.MailboxType mailboxType;
+
+    @Param({"1", "16"})
+    public int keys;
+
+    private final LongAdder written = new LongAdder();
+    private WorkflowEngine engine;
+    private WorkflowGraphDefinition graph;
+    private WorkflowNodeResolver resolver;
+
+    @Setup
+    public void setUp() {
+        List<FxContext<Object>> contexts = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            contexts.add(new FxContext<>(
+                FxCommand.of("ingest"),
+                FxHeaders.empty(),
+                FxMessage.now("bench", (Object) i),
+                FxMeta.empty(),
+                FxAffinity.of("equipmentId", "eq-" + (i % keys))
+            ));
+        }
+        Source<Object> source = () -> contexts;
+        Sink<Object> sink = ctx -> written.increment();
+        Map<String, Object> beans = Map.of("source", source, "sink", sink);
+
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .mailboxType(mailboxType)
+            .build();
+        graph = new WorkflowGraphDefinition(
+            "mailbox",
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink")
+            ),
+            List.of(new WorkflowEdgeDefinition("source", "sink", null)),
+            options
+        );
+        resolver = node -> beans.get(node.getRefName());
+        engine = new WorkflowEngine(options);
+    }
+
+    @Benchmark
+    public long runWorkflow() {
+        Workflow workflow = engine.createWorkflow(graph, resolver);
+        workflow.start();
+        workflow.stop();
+        return written.sum();
+    }
+}
@@ -0,0 +1,162 @@
+package com.ees.framework.benchmarks;
+
+import com.ees.framework.context.FxContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 비교 기준용 조건식 인터프리터. 메시지마다 조건 문자열을 토큰화하고 재귀적으로 평가한다.
+ * <p>
+ * {@link com.ees.framework.workflow.engine.ExpressionEdgeConditionCompiler} 와 같은 문법의 부분집합
+ * (==, !=, in, &amp;&amp;, ||, !, 괄호)을 지원한다. 벤치마크 전용이며 운영 코드에서 사용하지 않는다.
+ */
+final class NaiveConditionInterpreter {
+
+    private NaiveConditionInterpreter() {
+    }
+
+    /**
+     * 조건식을 컨텍스트에 대해 평가한다.
+     *
+     * @param condition 조건식
+     * @param context 평가 대상 컨텍스트
+     * @return 조건 충족 여부
+     */
+    static boolean evaluate(String condition, FxContext<?> context) {
+        Evaluation evaluation = new Evaluation(tokenize(condition), context);
+        return evaluation.or();
+    }
+    // tokenize 동작을 수행한다.
+
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                int end = source.indexOf('\'', i + 1);
+                tokens.add(source.substring(i, end + 1));
+                i = end + 1;
+            } else if (source.startsWith("==", i) || source.startsWith("!=", i)
+                || source.startsWith("&&", i) || source.startsWith("||", i)) {
+                tokens.add(source.substring(i, i + 2));
+                i += 2;
+            } else if (c == '!' || c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i))
+                    || "_-.".indexOf(source.charAt(i)) >= 0)) {
+                    i++;
+                }
+                tokens.add(source.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Evaluation {
+
+        private final List<String> tokens;
+        private final FxContext<?> context;
+        private int index;
+
+        private Evaluation(List<String> tokens, FxContext<?> context) {
+            this.tokens = tokens;
+            this.context = context;
+        }
+        // or 동작을 수행한다.
+
+        private boolean or() {
+            boolean result = and();
+            while (peek("||")) {
+                index++;
+                boolean right = and();
+                result = result || right;
+            }
+            return result;
+        }
+        // and 동작을 수행한다.
+
+        private boolean and() {
+            boolean result = unary();
+            while (peek("&&")) {
+                index++;
+                boolean right = unary();
+                result = result && right;
+            }
+            return result;
+        }
+        // unary 동작을 수행한다.
+
+        private boolean unary() {
+            if (peek("!")) {
+                index++;
+                return !unary();
+            }
+            if (peek("(")) {
+                index++;
+                boolean inner = or();
+                index++;
+                return inner;
+            }
+            Object value = field(tokens.get(index++));
+            if (peek("==")) {
+                index++;
+                return Objects.equals(String.valueOf(value), unquote(tokens.get(index++)));
+            }
+            if (peek("!=")) {
+                index++;
+                return !Objects.equals(String.valueOf(value), unquote(tokens.get(index++)));
+            }
+            if (peek("in")) {
+                index += 2;
+                boolean found = false;
+                while (!peek(")")) {
+                    String token = tokens.get(index++);
+                    if (!token.equals(",") && Objects.equals(String.valueOf(value), unquote(token))) {
+                        found = true;
+                    }
+                }
+                index++;
+                return found;
+            }
+            return value != null;
+        }
+        // field 동작을 수행한다.
+
+        private Object field(String name) {
+            if (name.equals("command")) {
+                return context.command().name();
+            }
+            if (name.equals("affinity.kind")) {
+                return context.affinity().kind();
+            }
+            if (name.equals("affinity.value")) {
+                return context.affinity().value();
+            }
+            if (name.startsWith("header.")) {
+                return context.headers().get(name.substring("header.".length()));
+            }
+            if (name.startsWith("meta.")) {
+                return context.meta().attributes().get(name.substring("meta.".length()));
+            }
+            throw new IllegalArgumentException("unknown field: " + name);
+        }
+        // unquote 동작을 수행한다.
+
+        private String unquote(String token) {
+            return token.startsWith("'") ? token.substring(1, token.length() - 1) : token;
+        }
+        // peek 동작을 수행한다.
+
+        private boolean peek(String token) {
+            return index < tokens.size() && tokens.get(index).equals(token);
+        }
+    }
+}
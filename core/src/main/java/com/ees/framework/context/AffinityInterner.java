@@ -0,0 +1,96 @@
+package com.ees.framework.context;
+
+/**
+ * {@link FxAffinity} intern 캐시. 크기가 고정된 direct-mapped 테이블이다.
+ * <p>
+ * 해시로 슬롯 하나를 정하고, 같은 kind/value 가 있으면 그 인스턴스를 돌려주고 없으면 새로 만들어 슬롯을 덮어쓴다(축출).
+ * 따라서 메모리는 {@link #CAPACITY} 개로 제한되고, 자주 쓰이는 키는 캐시에 남아 메시지마다 같은 인스턴스가 재사용된다.
+ * 슬롯이 충돌하면 두 키가 번갈아 새로 만들어질 뿐 결과는 항상 올바르다(equals 는 값으로 비교).
+ * <p>
+ * 슬롯에는 affinity 와 함께 해시와 정수 값을 담은 {@link Entry} 를 두어, 정수 키는 value 문자열을 만들지 않고 비교한다.
+ * 슬롯은 동기화 없이 읽고 쓴다. Entry 와 FxAffinity 의 필드는 모두 final 이므로 다른 스레드가 쓴 항목도 완전히 초기화된 상태로
+ * 보이며, 경합 시 같은 키의 인스턴스가 둘 생길 수 있지만 값이 같으므로 문제가 되지 않는다.
+ */
+final class AffinityInterner {
+
+    static final int CAPACITY = 4096;
+
+    private static final Entry[] TABLE = new Entry[CAPACITY];
+
+    private AffinityInterner() {
+    }
+
+    /**
+     * kind/value 의 canonical 인스턴스를 반환한다.
+     */
+    static FxAffinity intern(String kind, String value) {
+        int hash = FxAffinity.hash(kind, value.hashCode());
+        int slot = slot(hash);
+        Entry cached = TABLE[slot];
+        if (cached != null && cached.hash == hash
+            && cached.affinity.kind().equals(kind) && cached.affinity.value().equals(value)) {
+            return cached.affinity;
+        }
+        boolean numeric = FxAffinity.isNumeric(value);
+        Entry created = new Entry(new FxAffinity(kind, value), hash, numeric, numeric ? Long.parseLong(value) : 0L);
+        TABLE[slot] = created;
+        return created.affinity;
+    }
+
+    /**
+     * kind/정수 키의 canonical 인스턴스를 반환한다. 캐시에 있으면 value 문자열을 만들지 않는다.
+     */
+    static FxAffinity intern(String kind, long id) {
+        int hash = FxAffinity.hash(kind, decimalHash(id));
+        int slot = slot(hash);
+        Entry cached = TABLE[slot];
+        if (cached != null && cached.numeric && cached.id == id && cached.affinity.kind().equals(kind)) {
+            return cached.affinity;
+        }
+        Entry created = new Entry(new FxAffinity(kind, Long.toString(id)), hash, true, id);
+        TABLE[slot] = created;
+        return created.affinity;
+    }
+
+    /**
+     * {@code Long.toString(id).hashCode()} 를 문자열을 만들지 않고 계산한다.
+     */
+    static int decimalHash(long id) {
+        if (id == Long.MIN_VALUE) {
+            return Long.toString(id).hashCode();
+        }
+        // 낮은 자리부터 31 의 거듭제곱을 곱해 더한다(상수 10 나눗셈은 곱셈으로 컴파일된다).
+        long remaining = Math.abs(id);
+        int hash = 0;
+        int power = 1;
+        while (remaining > Integer.MAX_VALUE) {
+            long quotient = remaining / 10;
+            hash += ('0' + (int) (remaining - quotient * 10)) * power;
+            power *= 31;
+            remaining = quotient;
+        }
+        // 파티션 번호 같은 작은 키는 int 연산만으로 끝난다.
+        int digits = (int) remaining;
+        do {
+            int quotient = digits / 10;
+            hash += ('0' + digits - quotient * 10) * power;
+            power *= 31;
+            digits = quotient;
+        } while (digits != 0);
+        if (id < 0) {
+            hash += '-' * power;
+        }
+        return hash;
+    }
+    // slot 동작을 수행한다.
+
+    private static int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (CAPACITY - 1);
+    }
+
+    /**
+     * 캐시 슬롯 하나. numeric 이면 id 가 value 의 정수 값이다.
+     */
+    private record Entry(FxAffinity affinity, int hash, boolean numeric, long id) {
+    }
+}
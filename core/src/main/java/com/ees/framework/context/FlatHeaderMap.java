@@ -0,0 +1,212 @@
+package com.ees.framework.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link FxHeaders} 의 불변 맵 구현. 키 순으로 정렬된 {@code [k0, v0, k1, v1, ...]} 배열 하나에 항목을 담는다.
+ * <p>
+ * 헤더는 보통 수 개~십여 개이므로 해시 테이블 대신 평탄한 배열을 쓰면 항목마다 Node 를 만들지 않고,
+ * 작은 크기에서는 선형 탐색, 그보다 크면 이진 탐색으로 조회한다. {@link #with(String, String)} 는 배열 하나만
+ * 복사해 새 인스턴스를 만들고 원본은 그대로 두므로(경로 복사) 이전 인스턴스를 공유하는 컨텍스트에 영향을 주지 않는다.
+ * 값은 null 일 수 있지만 키는 null 일 수 없다.
+ */
+final class FlatHeaderMap extends AbstractMap<String, String> {
+
+    static final FlatHeaderMap EMPTY = new FlatHeaderMap(new String[0]);
+
+    // 이 크기(항목 수) 이하에서는 앞에서부터 선형 탐색한다.
+    private static final int LINEAR_SCAN_LIMIT = 8;
+
+    private final String[] entries;
+
+    private FlatHeaderMap(String[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 임의의 맵을 복사한다. 이미 FlatHeaderMap 이면 그대로 반환한다.
+     */
+    static FlatHeaderMap copyOf(Map<String, String> map) {
+        if (map instanceof FlatHeaderMap flat) {
+            return flat;
+        }
+        if (map.isEmpty()) {
+            return EMPTY;
+        }
+        String[] pairs = new String[map.size() * 2];
+        int size = 0;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            pairs[size * 2] = entry.getKey();
+            pairs[size * 2 + 1] = entry.getValue();
+            size++;
+        }
+        return sorted(pairs, size);
+    }
+
+    /**
+     * 삽입 순서의 {@code [k, v, ...]} 배열 앞 size 개 항목을 키 순으로 정렬해 맵을 만든다.
+     * 같은 키가 여러 번 나오면 나중 값이 이긴다. pairs 는 제자리에서 정렬되어 결과가 그대로 소유할 수 있으므로 호출자는 다시 쓰지 않는다.
+     */
+    static FlatHeaderMap sorted(String[] pairs, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        // 앞쪽 sorted 개 항목을 정렬된 상태로 유지하며 하나씩 삽입한다. 헤더 수가 작아 삽입 정렬이 가장 싸다.
+        int sorted = 0;
+        for (int i = 0; i < size; i++) {
+            String key = Objects.requireNonNull(pairs[i * 2], "header key must not be null");
+            String value = pairs[i * 2 + 1];
+            int index = binarySearch(pairs, sorted, key);
+            if (index >= 0) {
+                pairs[index * 2 + 1] = value;
+                continue;
+            }
+            int insertAt = -index - 1;
+            System.arraycopy(pairs, insertAt * 2, pairs, insertAt * 2 + 2, (sorted - insertAt) * 2);
+            pairs[insertAt * 2] = key;
+            pairs[insertAt * 2 + 1] = value;
+            sorted++;
+        }
+        return new FlatHeaderMap(sorted * 2 == pairs.length ? pairs : Arrays.copyOf(pairs, sorted * 2));
+    }
+
+    /**
+     * key 를 value 로 추가/덮어쓴 새 맵을 반환한다. 값이 같으면 자기 자신을 반환한다.
+     */
+    FlatHeaderMap with(String key, String value) {
+        Objects.requireNonNull(key, "header key must not be null");
+        int index = indexOf(key);
+        if (index >= 0) {
+            if (Objects.equals(entries[index * 2 + 1], value)) {
+                return this;
+            }
+            String[] copy = entries.clone();
+            copy[index * 2 + 1] = value;
+            return new FlatHeaderMap(copy);
+        }
+        int insertAt = -index - 1;
+        String[] copy = new String[entries.length + 2];
+        System.arraycopy(entries, 0, copy, 0, insertAt * 2);
+        copy[insertAt * 2] = key;
+        copy[insertAt * 2 + 1] = value;
+        System.arraycopy(entries, insertAt * 2, copy, insertAt * 2 + 2, entries.length - insertAt * 2);
+        return new FlatHeaderMap(copy);
+    }
+
+    /**
+     * 항목을 {@code [k, v, ...]} 배열로 복사해 dest 의 앞에 채운다.
+     */
+    void copyTo(String[] dest) {
+        System.arraycopy(entries, 0, dest, 0, entries.length);
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        int index = indexOf(name);
+        return index >= 0 ? entries[index * 2 + 1] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && indexOf(name) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return entries.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < entries.length; i += 2) {
+            action.accept(entries[i], entries[i + 1]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < entries.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (next >= entries.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, String> entry = new SimpleImmutableEntry<>(entries[next], entries[next + 1]);
+                        next += 2;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.length / 2;
+            }
+        };
+    }
+    // indexOf 동작을 수행한다.
+
+    /**
+     * key 의 항목 번호를 반환한다. 없으면 {@code -(삽입 위치) - 1}.
+     */
+    private int indexOf(String key) {
+        int size = entries.length / 2;
+        if (size > LINEAR_SCAN_LIMIT) {
+            return binarySearch(entries, size, key);
+        }
+        for (int i = 0; i < size; i++) {
+            int cmp = entries[i * 2].compareTo(key);
+            if (cmp == 0) {
+                return i;
+            }
+            if (cmp > 0) {
+                return -i - 1;
+            }
+        }
+        return -size - 1;
+    }
+    // binarySearch 동작을 수행한다.
+
+    private static int binarySearch(String[] pairs, int size, String key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = pairs[mid * 2].compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+}
@@ -1,29 +1,55 @@
 package com.ees.framework.context;
 
+import java.beans.Transient;
+import java.util.Objects;
+
 /**
  * 클러스터 라우팅 및 per-key 실행을 위한 affinity 키(kind + value).
  * <p>
  * kind/value가 모두 존재할 때만 유효한 affinity로 간주한다.
+ * <p>
+ * 엔진은 affinity 를 키별 워커 맵의 키로 매 메시지 조회한다. {@link #of(String, String)}/{@link #of(String, long)} 는
+ * 크기가 제한된 intern 캐시({@link AffinityInterner})에서 같은 kind/value 의 인스턴스를 돌려주므로 맵 조회의 equals 가
+ * 대부분 동일 참조 비교로 끝난다. 캐시는 정확성에 관여하지 않으므로 생성자로 만든 인스턴스와도 값이 같으면 같다.
+ * value 가 정수 표기(예: 파티션 번호, 숫자 설비 ID)면 {@link #numericId()} 로 읽을 수 있다.
  *
  * @param kind affinity 종류(예: {@code "equipmentId"})
  * @param value affinity 값(예: {@code "EQP-1"})
  */
 public record FxAffinity(String kind, String value) {
 
+    private static final FxAffinity NONE = new FxAffinity(null, null);
+
     /**
-     * kind/value로 affinity를 생성한다.
+     * kind/value로 affinity를 반환한다. 둘 다 있으면 intern 캐시의 인스턴스를 돌려준다.
      * <p>
      * 둘 다 {@code null}이면 {@link #none()}을 반환한다.
      *
      * @param kind affinity 종류
      * @param value affinity 값
-     * @return 생성된 affinity
+     * @return affinity
      */
     public static FxAffinity of(String kind, String value) {
         if (kind == null && value == null) {
             return none();
         }
-        return new FxAffinity(kind, value);
+        if (kind == null || value == null) {
+            return new FxAffinity(kind, value);
+        }
+        return AffinityInterner.intern(kind, value);
+    }
+
+    /**
+     * 정수 키(파티션 번호, 숫자 설비 ID 등)로 affinity를 반환한다. value 는 {@link Long#toString(long)} 표기이며,
+     * intern 캐시에 있으면 문자열을 만들지 않는다.
+     *
+     * @param kind affinity 종류(널 불가)
+     * @param id 정수 키
+     * @return affinity
+     */
+    public static FxAffinity of(String kind, long id) {
+        Objects.requireNonNull(kind, "kind must not be null");
+        return AffinityInterner.intern(kind, id);
     }
 
     /**
@@ -32,15 +58,88 @@ public record FxAffinity(String kind, String value) {
      * @return kind/value가 모두 {@code null}인 affinity
      */
     public static FxAffinity none() {
-        return new FxAffinity(null, null);
+        return NONE;
+    }
+
+    /**
+     * value 가 정수 표기({@link Long#toString(long)} 과 같은 형태)인지 반환한다. "007", "-0" 은 정수 표기가 아니다.
+     *
+     * @return 정수 표기면 true
+     */
+    public boolean hasNumericId() {
+        return isNumeric(value);
+    }
+
+    /**
+     * value 의 정수 값을 반환한다.
+     *
+     * @return 정수 값
+     * @throws IllegalStateException value 가 정수 표기가 아닌 경우
+     */
+    public long numericId() {
+        if (!hasNumericId()) {
+            throw new IllegalStateException("affinity value is not numeric: " + value);
+        }
+        return Long.parseLong(value);
     }
 
     /**
      * kind/value 중 하나라도 없으면 비어있다고 판단한다.
+     * 직렬화 대상 속성이 아니므로 {@link Transient} 로 표시한다(Jackson 등이 kind/value 만 쓰고 읽는다).
      *
      * @return 비어있으면 true
      */
+    @Transient
     public boolean isEmpty() {
         return kind == null || value == null;
     }
+
+    /**
+     * {@link #hash(String, int)} 와 같은 값을 반환한다. intern 캐시가 문자열 없이 같은 해시를 계산할 수 있도록 식을 고정한다.
+     */
+    @Override
+    public int hashCode() {
+        return hash(kind, value == null ? 0 : value.hashCode());
+    }
+
+    /**
+     * kind 와 value 해시로 affinity 해시를 계산한다.
+     */
+    static int hash(String kind, int valueHash) {
+        return 31 * (kind == null ? 0 : kind.hashCode()) + valueHash;
+    }
+
+    /**
+     * value 가 {@link Long#toString(long)} 과 같은 정수 표기인지 반환한다.
+     */
+    static boolean isNumeric(String value) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        int start = length > 1 && value.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > 19) {
+            return false;
+        }
+        // Long.toString 과 같은 표기만 정수로 본다("007", "-0" 은 문자열 값).
+        if (value.charAt(start) == '0' && (length - start > 1 || start == 1)) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (length - start < 19) {
+            return true;
+        }
+        // 19 자리는 long 범위를 넘을 수 있다.
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 }
@@ -1,20 +1,27 @@
 package com.ees.framework.context;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * 메시지 헤더 모음.
  * <p>
- * 내부적으로 불변 맵을 유지하며, {@link #with(String, String)} 호출 시 복사본을 생성한다.
+ * 내부적으로 키 순으로 정렬된 평탄한 배열 기반의 불변 맵을 유지한다. 다른 맵으로 생성하면 복사해 같은 표현으로 바꾸므로
+ * 생성 후 원본 맵을 바꿔도 헤더에는 반영되지 않는다. 키는 null 일 수 없으며(null 키가 있으면 {@link NullPointerException}),
+ * 값은 null 일 수 있다.
+ * {@link #with(String, String)} 는 배열 하나만 복사한 새 인스턴스를 반환하며, 여러 헤더를 한 번에 만들 때는
+ * {@link #builder()} 로 모아 한 번에 정렬하는 편이 싸다.
  *
- * @param values 헤더 키-값(널 불가)
+ * @param values 헤더 키-값(널 불가). 생성 시 복사된다.
  */
 public record FxHeaders(Map<String, String> values) {
+
+    private static final FxHeaders EMPTY = new FxHeaders(FlatHeaderMap.EMPTY);
+
     public FxHeaders {
         Objects.requireNonNull(values, "values must not be null");
+        values = FlatHeaderMap.copyOf(values);
     }
 
     /**
@@ -23,7 +30,38 @@ public record FxHeaders(Map<String, String> values) {
      * @return 빈 헤더
      */
     public static FxHeaders empty() {
-        return new FxHeaders(Collections.emptyMap());
+        return EMPTY;
+    }
+
+    /**
+     * 빈 빌더를 반환한다.
+     *
+     * @return 헤더 빌더
+     */
+    public static Builder builder() {
+        return new Builder(new String[16], 0);
+    }
+
+    /**
+     * 예상 헤더 수만큼 공간을 잡은 빈 빌더를 반환한다.
+     *
+     * @param expectedSize 넣을 헤더 수
+     * @return 헤더 빌더
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(new String[Math.max(2, expectedSize * 2)], 0);
+    }
+
+    /**
+     * 현재 헤더를 담은 빌더를 반환한다.
+     *
+     * @return 헤더 빌더
+     */
+    public Builder toBuilder() {
+        FlatHeaderMap flat = (FlatHeaderMap) values;
+        String[] pairs = new String[Math.max(16, flat.size() * 2 + 8)];
+        flat.copyTo(pairs);
+        return new Builder(pairs, flat.size());
     }
 
     /**
@@ -41,11 +79,91 @@ public record FxHeaders(Map<String, String> values) {
      *
      * @param key 헤더 키
      * @param value 헤더 값
-     * @return 갱신된 헤더
+     * @return 갱신된 헤더(값이 같으면 자기 자신)
      */
     public FxHeaders with(String key, String value) {
-        Map<String, String> copy = new HashMap<>(values);
-        copy.put(key, value);
-        return new FxHeaders(Collections.unmodifiableMap(copy));
+        FlatHeaderMap current = (FlatHeaderMap) values;
+        FlatHeaderMap updated = current.with(key, value);
+        return updated == current ? this : new FxHeaders(updated);
+    }
+
+    /**
+     * 여러 헤더를 모아 한 번에 {@link FxHeaders} 를 만드는 빌더. 같은 키를 여러 번 넣으면 나중 값이 이긴다.
+     * thread-safe 하지 않다.
+     */
+    public static final class Builder {
+
+        private String[] pairs;
+        private int size;
+
+        private Builder(String[] pairs, int size) {
+            this.pairs = pairs;
+            this.size = size;
+        }
+
+        /**
+         * 헤더를 추가한다.
+         *
+         * @param key 헤더 키
+         * @param value 헤더 값
+         * @return 이 빌더
+         */
+        public Builder put(String key, String value) {
+            Objects.requireNonNull(key, "header key must not be null");
+            if (size * 2 == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[size * 2] = key;
+            pairs[size * 2 + 1] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * 맵의 모든 항목을 추가한다.
+         *
+         * @param headers 추가할 헤더
+         * @return 이 빌더
+         */
+        public Builder putAll(Map<String, String> headers) {
+            headers.forEach(this::put);
+            return this;
+        }
+
+        /**
+         * 빌더를 base 의 헤더만 담은 상태로 되돌린다. 배열은 모자랄 때만 새로 잡는다.
+         */
+        Builder reset(FxHeaders base) {
+            FlatHeaderMap flat = (FlatHeaderMap) base.values;
+            int needed = flat.size() * 2 + 8;
+            if (pairs.length < needed) {
+                pairs = new String[Math.max(needed, pairs.length * 2)];
+            } else if (size > flat.size()) {
+                Arrays.fill(pairs, flat.size() * 2, size * 2, null);
+            }
+            flat.copyTo(pairs);
+            size = flat.size();
+            return this;
+        }
+
+        /**
+         * 모은 헤더를 모두 버린다.
+         */
+        void clear() {
+            Arrays.fill(pairs, 0, size * 2, null);
+            size = 0;
+        }
+
+        /**
+         * 모은 헤더로 불변 {@link FxHeaders} 를 만든다. 빌더는 이후에도 계속 쓸 수 있다.
+         *
+         * @return 헤더
+         */
+        public FxHeaders build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new FxHeaders(FlatHeaderMap.sorted(Arrays.copyOf(pairs, size * 2), size));
+        }
     }
 }
@@ -1,13 +1,14 @@
 package com.ees.framework.context;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 처리 과정에서 사용하는 메타데이터.
  * <p>
  * {@code attributes}는 불변(읽기 전용) 맵으로 보관되며, {@code null}인 경우 빈 맵으로 대체된다.
+ * 다른 {@link FxMeta} 의 {@link #attributes()} 를 그대로 넘기면 복사하지 않고 공유하며,
+ * {@link #withAttribute(String, Object)}/{@link #toAttributeBuilder()} 로 만든 속성은 원본 위에 바뀐 항목만 얹으므로
+ * 비용이 전체 속성 수가 아니라 변경 수에 비례한다.
  *
  * @param sourceId 메시지를 생성한 소스 인스턴스 식별자(옵션)
  * @param pipelineStep 현재(또는 마지막) 파이프라인 스텝 이름(옵션)
@@ -20,8 +21,10 @@ public record FxMeta(
     int retries,
     Map<String, Object> attributes
 ) {
+    private static final FxMeta EMPTY = new FxMeta(null, null, 0, OverlayAttributeMap.EMPTY);
+
     public FxMeta {
-        attributes = attributes == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(attributes));
+        attributes = OverlayAttributeMap.copyOf(attributes);
     }
     /**
      * empty를 수행한다.
@@ -29,6 +32,161 @@ public record FxMeta(
      */
 
     public static FxMeta empty() {
-        return new FxMeta(null, null, 0, Collections.emptyMap());
+        return EMPTY;
+    }
+
+    /**
+     * 빈 속성 빌더를 반환한다.
+     *
+     * @param expectedSize 넣을 속성 수
+     * @return 속성 빌더
+     */
+    public static AttributeBuilder attributeBuilder(int expectedSize) {
+        return new AttributeBuilder(OverlayAttributeMap.EMPTY, expectedSize);
+    }
+
+    /**
+     * 현재 속성 위에 항목을 덧붙이는 빌더를 반환한다. 현재 속성은 복사하지 않는다.
+     *
+     * @return 속성 빌더
+     */
+    public AttributeBuilder toAttributeBuilder() {
+        return new AttributeBuilder((OverlayAttributeMap) attributes, 4);
+    }
+
+    /**
+     * 속성 하나를 추가/덮어쓴 새 메타데이터를 반환한다.
+     *
+     * @param key 속성 키
+     * @param value 속성 값
+     * @return 갱신된 메타데이터
+     */
+    public FxMeta withAttribute(String key, Object value) {
+        return new FxMeta(sourceId, pipelineStep, retries, toAttributeBuilder().put(key, value).build());
+    }
+
+    /**
+     * 재시도 횟수를 바꾼 새 메타데이터를 반환한다. 속성은 공유한다.
+     *
+     * @param retries 재시도 횟수
+     * @return 갱신된 메타데이터
+     */
+    public FxMeta withRetries(int retries) {
+        return new FxMeta(sourceId, pipelineStep, retries, attributes);
+    }
+
+    /**
+     * 속성 값을 long 으로 읽는다. {@link AttributeBuilder#putLong(String, long)} 로 넣은 값은 박싱 없이 읽으며,
+     * 다른 {@link Number} 는 {@code longValue()}, 문자열은 파싱해 반환한다.
+     *
+     * @param key 속성 키
+     * @param defaultValue 값이 없거나 숫자가 아닐 때 반환할 값
+     * @return 속성 값
+     */
+    public long longAttribute(String key, long defaultValue) {
+        return ((OverlayAttributeMap) attributes).longValue(key, defaultValue);
+    }
+
+    /**
+     * 속성 값을 int 로 읽는다. {@link AttributeBuilder#putInt(String, int)} 로 넣은 값은 박싱 없이 읽는다.
+     *
+     * @param key 속성 키
+     * @param defaultValue 값이 없거나 int 범위의 숫자가 아닐 때 반환할 값
+     * @return 속성 값
+     */
+    public int intAttribute(String key, int defaultValue) {
+        return ((OverlayAttributeMap) attributes).intValue(key, defaultValue);
+    }
+
+    /**
+     * 속성 값이 정수인지 반환한다. {@link AttributeBuilder#putLong(String, long)}/{@link AttributeBuilder#putInt(String, int)}
+     * 로 넣은 값과 Long/Integer/Short/Byte 값이 해당하며, 이 경우 {@link #longAttribute(String, long)} 가 값을 그대로 돌려준다.
+     * 박싱하지 않는다.
+     *
+     * @param key 속성 키
+     * @return 정수 값이 있으면 true
+     */
+    public boolean hasIntegralAttribute(String key) {
+        return ((OverlayAttributeMap) attributes).integral(key);
+    }
+
+    /**
+     * 기존 속성 위에 바뀐 항목만 얹은 속성 맵을 만드는 빌더. 같은 키를 여러 번 넣으면 나중 값이 이긴다.
+     * thread-safe 하지 않다.
+     */
+    public static final class AttributeBuilder {
+
+        private OverlayAttributeMap base;
+        private final OverlayAttributeMap.Delta delta;
+
+        private AttributeBuilder(OverlayAttributeMap base, int expectedSize) {
+            this.base = base;
+            this.delta = new OverlayAttributeMap.Delta(expectedSize);
+        }
+
+        /**
+         * 속성을 추가한다.
+         *
+         * @param key 속성 키
+         * @param value 속성 값
+         * @return 이 빌더
+         */
+        public AttributeBuilder put(String key, Object value) {
+            delta.put(key, value);
+            return this;
+        }
+
+        /**
+         * long 속성을 박싱하지 않고 추가한다. Map 으로 조회하면 {@link Long} 으로 보인다.
+         *
+         * @param key 속성 키
+         * @param value 속성 값
+         * @return 이 빌더
+         */
+        public AttributeBuilder putLong(String key, long value) {
+            delta.putLong(key, value);
+            return this;
+        }
+
+        /**
+         * int 속성을 박싱하지 않고 추가한다. Map 으로 조회하면 {@link Integer} 로 보인다.
+         *
+         * @param key 속성 키
+         * @param value 속성 값
+         * @return 이 빌더
+         */
+        public AttributeBuilder putInt(String key, int value) {
+            delta.putInt(key, value);
+            return this;
+        }
+
+        /**
+         * 맵의 모든 항목을 추가한다.
+         *
+         * @param attributes 추가할 속성
+         * @return 이 빌더
+         */
+        public AttributeBuilder putAll(Map<String, ?> attributes) {
+            attributes.forEach(delta::put);
+            return this;
+        }
+
+        /**
+         * 빌더를 meta 의 속성 위에 아무 항목도 없는 상태로 되돌린다.
+         */
+        AttributeBuilder reset(FxMeta meta) {
+            base = (OverlayAttributeMap) meta.attributes();
+            delta.clear();
+            return this;
+        }
+
+        /**
+         * 모은 항목으로 불변 속성 맵을 만든다. 빌더는 이후에도 계속 쓸 수 있다.
+         *
+         * @return {@link FxMeta} 에 그대로 넘길 수 있는 속성 맵
+         */
+        public Map<String, Object> build() {
+            return delta.applyTo(base);
+        }
     }
 }
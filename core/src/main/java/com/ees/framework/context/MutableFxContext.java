@@ -0,0 +1,256 @@
+package com.ees.framework.context;
+
+import java.util.Objects;
+
+/**
+ * 단계마다 {@link FxContext} 를 새로 만들지 않고 제자리에서 고치는 가변 컨텍스트.
+ * <p>
+ * 워크플로 엔진은 워커마다 인스턴스 하나를 두고 메시지마다 {@link #load(FxContext)} 로 채워 연속된 in-place 단계에 넘기며,
+ * {@link #toContext()} 로 만든 불변 컨텍스트를 다음 단계/Sink 로 보낸다. 배치의 Sink 쓰기가 끝나면 {@link #clear()} 로 참조를 놓는다.
+ * 헤더/속성 변경은 빌더에 모았다가 {@link #headers()}/{@link #meta()}/{@link #toContext()} 를 호출할 때 한 번에 반영하므로,
+ * 여러 단계가 헤더를 덧붙여도 FxHeaders/FxMeta/FxContext 는 한 번씩만 만들어진다.
+ * <p>
+ * thread-safe 하지 않다. 넘겨받은 인스턴스는 호출이 끝난 뒤 재사용되므로 보관하지 않아야 하며,
+ * 보관이 필요하면 {@link #toContext()} 결과(불변)를 보관한다.
+ *
+ * @param <T> 메시지 payload 타입
+ */
+public final class MutableFxContext<T> {
+
+    private final FxHeaders.Builder headerChanges = FxHeaders.builder();
+    private final FxMeta.AttributeBuilder attributeChanges = FxMeta.attributeBuilder(4);
+    // 마지막으로 만든(또는 load 한) 불변 컨텍스트. 필드가 바뀌면 null.
+    private FxContext<T> snapshot;
+    private FxCommand command;
+    private FxHeaders headers;
+    private FxMessage<T> message;
+    private FxMeta meta;
+    private FxAffinity affinity;
+    // headerChanges/attributeChanges 에 아직 반영하지 않은 변경이 있는지 여부.
+    private boolean headersChanged;
+    private boolean attributesChanged;
+
+    /**
+     * 컨텍스트의 값으로 채운다. 이전 변경은 버린다.
+     *
+     * @param context 원본 컨텍스트(널 불가)
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> load(FxContext<T> context) {
+        Objects.requireNonNull(context, "context must not be null");
+        snapshot = context;
+        command = context.command();
+        headers = context.headers();
+        message = context.message();
+        meta = context.meta();
+        affinity = context.affinity();
+        headersChanged = false;
+        attributesChanged = false;
+        return this;
+    }
+
+    /**
+     * 커맨드를 반환한다.
+     *
+     * @return 커맨드
+     */
+    public FxCommand command() {
+        return command;
+    }
+
+    /**
+     * 모은 헤더 변경을 반영한 헤더를 반환한다.
+     *
+     * @return 헤더
+     */
+    public FxHeaders headers() {
+        if (headersChanged) {
+            headers = headerChanges.build();
+            headersChanged = false;
+        }
+        return headers;
+    }
+
+    /**
+     * 헤더 값을 조회한다.
+     *
+     * @param key 헤더 키
+     * @return 헤더 값(없으면 null)
+     */
+    public String header(String key) {
+        return headers().get(key);
+    }
+
+    /**
+     * 메시지를 반환한다.
+     *
+     * @return 메시지
+     */
+    public FxMessage<T> message() {
+        return message;
+    }
+
+    /**
+     * 모은 속성 변경을 반영한 메타데이터를 반환한다.
+     *
+     * @return 메타데이터
+     */
+    public FxMeta meta() {
+        if (attributesChanged) {
+            meta = new FxMeta(meta.sourceId(), meta.pipelineStep(), meta.retries(), attributeChanges.build());
+            attributesChanged = false;
+        }
+        return meta;
+    }
+
+    /**
+     * affinity 를 반환한다.
+     *
+     * @return affinity
+     */
+    public FxAffinity affinity() {
+        return affinity;
+    }
+
+    /**
+     * 커맨드를 바꾼다.
+     *
+     * @param command 커맨드(널 불가)
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> setCommand(FxCommand command) {
+        this.command = Objects.requireNonNull(command, "command must not be null");
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * 헤더 전체를 바꾼다. 아직 반영하지 않은 헤더 변경은 버린다.
+     *
+     * @param headers 헤더(널 불가)
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> setHeaders(FxHeaders headers) {
+        this.headers = Objects.requireNonNull(headers, "headers must not be null");
+        headersChanged = false;
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * 헤더를 추가/덮어쓴다.
+     *
+     * @param key 헤더 키
+     * @param value 헤더 값
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> putHeader(String key, String value) {
+        if (!headersChanged) {
+            headerChanges.reset(headers);
+            headersChanged = true;
+        }
+        headerChanges.put(key, value);
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * 메시지를 바꾼다.
+     *
+     * @param message 메시지(널 불가)
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> setMessage(FxMessage<T> message) {
+        this.message = Objects.requireNonNull(message, "message must not be null");
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * 메타데이터 전체를 바꾼다. 아직 반영하지 않은 속성 변경은 버린다.
+     *
+     * @param meta 메타데이터(널 불가)
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> setMeta(FxMeta meta) {
+        this.meta = Objects.requireNonNull(meta, "meta must not be null");
+        attributesChanged = false;
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * 속성을 추가/덮어쓴다.
+     *
+     * @param key 속성 키
+     * @param value 속성 값
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> putAttribute(String key, Object value) {
+        attributeChanges().put(key, value);
+        return this;
+    }
+
+    /**
+     * long 속성을 박싱하지 않고 추가/덮어쓴다.
+     *
+     * @param key 속성 키
+     * @param value 속성 값
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> putLongAttribute(String key, long value) {
+        attributeChanges().putLong(key, value);
+        return this;
+    }
+
+    /**
+     * affinity 를 바꾼다. 엔진은 in-place 단계 묶음이 끝난 뒤 바뀐 affinity 를 한 번 검증한다.
+     *
+     * @param affinity affinity(널이면 {@link FxAffinity#none()})
+     * @return 이 인스턴스
+     */
+    public MutableFxContext<T> setAffinity(FxAffinity affinity) {
+        this.affinity = affinity == null ? FxAffinity.none() : affinity;
+        snapshot = null;
+        return this;
+    }
+
+    /**
+     * 현재 값으로 불변 컨텍스트를 반환한다. 마지막 호출 이후 바뀐 것이 없으면 같은 인스턴스를 반환하며,
+     * 아무것도 바꾸지 않았다면 {@link #load(FxContext)} 에 넘긴 컨텍스트를 그대로 반환한다.
+     *
+     * @return 불변 컨텍스트
+     */
+    public FxContext<T> toContext() {
+        if (snapshot == null) {
+            snapshot = new FxContext<>(command, headers(), message, meta(), affinity);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 참조를 모두 놓아 재사용할 수 있게 한다. 다시 쓰려면 {@link #load(FxContext)} 를 호출한다.
+     */
+    public void clear() {
+        snapshot = null;
+        command = null;
+        headers = null;
+        message = null;
+        meta = null;
+        affinity = null;
+        headersChanged = false;
+        attributesChanged = false;
+        headerChanges.clear();
+        attributeChanges.reset(FxMeta.empty());
+    }
+    // attributeChanges 동작을 수행한다.
+
+    private FxMeta.AttributeBuilder attributeChanges() {
+        if (!attributesChanged) {
+            attributeChanges.reset(meta);
+            attributesChanged = true;
+        }
+        snapshot = null;
+        return attributeChanges;
+    }
+}
@@ -0,0 +1,371 @@
+package com.ees.framework.context;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link FxMeta#attributes()} 의 불변 맵 구현. 부모 맵 위에 바뀐 항목(delta)만 얹는 overlay 구조다.
+ * <p>
+ * 속성을 바꿔 새 {@link FxMeta} 를 만들 때 전체 맵을 복사하지 않고 부모를 공유한 채 바뀐 키만 담은 노드를 하나 만들므로
+ * 비용이 속성 수가 아니라 변경 수에 비례한다. 조회는 자식에서 부모 방향으로 delta 를 선형 탐색하며,
+ * 체인이 {@link #MAX_DEPTH} 를 넘으면 한 번 평탄화해 조회 비용이 계속 늘어나지 않게 한다.
+ * <p>
+ * delta 의 long/int 값은 박싱하지 않고 원시값으로 보관한다. {@link #longValue(String, long)}/{@link #intValue(String, int)} 는
+ * 그대로 읽고, {@link #get(Object)} 나 순회처럼 Map 으로 접근할 때만 박싱한다. 순회가 필요하면 평탄화한 맵을 한 번 만들어 캐시한다.
+ * 키는 null 일 수 없고 값은 null 일 수 있다. 삭제는 지원하지 않는다.
+ */
+final class OverlayAttributeMap extends AbstractMap<String, Object> {
+
+    static final OverlayAttributeMap EMPTY = new OverlayAttributeMap(null, Collections.emptyMap(),
+        new String[0], new Object[0], null, 0);
+
+    // 부모 체인이 이 깊이를 넘으면 평탄화한다.
+    private static final int MAX_DEPTH = 8;
+    // values 에서 실제 값이 numbers 에 원시값으로 있음을 나타내는 표식.
+    private static final Object LONG_SLOT = new Object();
+    private static final Object INT_SLOT = new Object();
+
+    // 루트이면 null.
+    private final OverlayAttributeMap parent;
+    // 루트의 기반 맵(읽기 전용). 루트가 아니면 null.
+    private final Map<String, Object> base;
+    private final String[] keys;
+    private final Object[] values;
+    // 원시값 항목이 없으면 null.
+    private final long[] numbers;
+    private final int depth;
+    private final int size;
+    private volatile Map<String, Object> flattened;
+
+    private OverlayAttributeMap(OverlayAttributeMap parent, Map<String, Object> base,
+                                String[] keys, Object[] values, long[] numbers, int depth) {
+        this.parent = parent;
+        this.base = base;
+        this.keys = keys;
+        this.values = values;
+        this.numbers = numbers;
+        this.depth = depth;
+        int added = 0;
+        for (String key : keys) {
+            if (!inherited(key)) {
+                added++;
+            }
+        }
+        this.size = (parent != null ? parent.size : base.size()) + added;
+    }
+
+    /**
+     * 임의의 맵을 복사한다. 이미 OverlayAttributeMap 이면 그대로 반환한다.
+     */
+    static OverlayAttributeMap copyOf(Map<String, Object> map) {
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+        if (map instanceof OverlayAttributeMap overlay) {
+            return overlay;
+        }
+        return new OverlayAttributeMap(null, Collections.unmodifiableMap(new HashMap<>(map)),
+            EMPTY.keys, EMPTY.values, null, 0);
+    }
+
+    /**
+     * 앞 count 개 항목을 덮어쓴 새 맵을 반환한다. 배열은 결과가 그대로 소유하므로 호출자는 다시 쓰지 않는다.
+     * keys 에 중복이 없어야 한다.
+     */
+    OverlayAttributeMap with(String[] keys, Object[] values, long[] numbers, int count) {
+        if (count == 0) {
+            return this;
+        }
+        if (size == 0) {
+            return new OverlayAttributeMap(null, Collections.emptyMap(), keys, values, numbers, 0);
+        }
+        if (depth >= MAX_DEPTH) {
+            Map<String, Object> merged = new HashMap<>(flattened());
+            for (int i = 0; i < count; i++) {
+                merged.put(keys[i], boxed(values, numbers, i));
+            }
+            return new OverlayAttributeMap(null, Collections.unmodifiableMap(merged), EMPTY.keys, EMPTY.values, null, 0);
+        }
+        return new OverlayAttributeMap(this, null, keys, values, numbers, depth + 1);
+    }
+
+    /**
+     * key 의 값을 long 으로 반환한다. 원시값으로 저장된 값은 박싱 없이 읽는다.
+     * 값이 없거나 숫자로 해석할 수 없으면 defaultValue 를 반환한다.
+     */
+    long longValue(String key, long defaultValue) {
+        for (OverlayAttributeMap node = this; node != null; node = node.parent) {
+            int index = node.indexOf(key);
+            if (index >= 0) {
+                Object value = node.values[index];
+                if (value == LONG_SLOT || value == INT_SLOT) {
+                    return node.numbers[index];
+                }
+                return toLong(value, defaultValue);
+            }
+            if (node.base != null) {
+                return toLong(node.base.get(key), defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * key 의 값을 int 로 반환한다. 원시값으로 저장된 값은 박싱 없이 읽는다.
+     * 값이 없거나 숫자로 해석할 수 없으면 defaultValue 를 반환한다.
+     */
+    int intValue(String key, int defaultValue) {
+        for (OverlayAttributeMap node = this; node != null; node = node.parent) {
+            int index = node.indexOf(key);
+            if (index >= 0) {
+                Object value = node.values[index];
+                if (value == LONG_SLOT || value == INT_SLOT) {
+                    return toInt(node.numbers[index], defaultValue);
+                }
+                return toInt(value, defaultValue);
+            }
+            if (node.base != null) {
+                return toInt(node.base.get(key), defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * key 의 값이 정수(원시 long/int 또는 Long/Integer/Short/Byte)인지 반환한다. 박싱하지 않는다.
+     */
+    boolean integral(String key) {
+        for (OverlayAttributeMap node = this; node != null; node = node.parent) {
+            int index = node.indexOf(key);
+            if (index >= 0) {
+                Object value = node.values[index];
+                return value == LONG_SLOT || value == INT_SLOT || isIntegral(value);
+            }
+            if (node.base != null) {
+                return isIntegral(node.base.get(key));
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object get(Object key) {
+        for (OverlayAttributeMap node = this; node != null; node = node.parent) {
+            int index = node.indexOf(key);
+            if (index >= 0) {
+                return boxed(node.values, node.numbers, index);
+            }
+            if (node.base != null) {
+                return node.base.get(key);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        for (OverlayAttributeMap node = this; node != null; node = node.parent) {
+            if (node.indexOf(key) >= 0) {
+                return true;
+            }
+            if (node.base != null) {
+                return node.base.containsKey(key);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return flattened().entrySet();
+    }
+    // inherited 동작을 수행한다.
+
+    private boolean inherited(String key) {
+        return parent != null ? parent.containsKey(key) : base.containsKey(key);
+    }
+    // flattened 동작을 수행한다.
+
+    /**
+     * 체인 전체를 합친 읽기 전용 맵을 반환한다. 처음 호출할 때 한 번 만들어 캐시한다.
+     */
+    private Map<String, Object> flattened() {
+        Map<String, Object> result = flattened;
+        if (result != null) {
+            return result;
+        }
+        if (parent == null && keys.length == 0) {
+            result = base;
+        } else {
+            Map<String, Object> merged = new HashMap<>(parent != null ? parent.flattened() : base);
+            for (int i = 0; i < keys.length; i++) {
+                merged.put(keys[i], boxed(values, numbers, i));
+            }
+            result = Collections.unmodifiableMap(merged);
+        }
+        flattened = result;
+        return result;
+    }
+    // indexOf 동작을 수행한다.
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    // boxed 동작을 수행한다.
+
+    private static Object boxed(Object[] values, long[] numbers, int index) {
+        Object value = values[index];
+        if (value == LONG_SLOT) {
+            return numbers[index];
+        }
+        if (value == INT_SLOT) {
+            return (int) numbers[index];
+        }
+        return value;
+    }
+    // isIntegral 동작을 수행한다.
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+    // toLong 동작을 수행한다.
+
+    private static long toLong(Object value, long defaultValue) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    // toInt 동작을 수행한다.
+
+    private static int toInt(Object value, int defaultValue) {
+        if (value instanceof Number number) {
+            return toInt(number.longValue(), defaultValue);
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return toInt(Long.parseLong(value.toString().trim()), defaultValue);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    // toInt 동작을 수행한다.
+
+    private static int toInt(long value, int defaultValue) {
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? defaultValue : (int) value;
+    }
+
+    /**
+     * 바뀔 항목을 모으는 버퍼. 같은 키를 여러 번 넣으면 나중 값이 이긴다. thread-safe 하지 않다.
+     */
+    static final class Delta {
+
+        private String[] keys;
+        private Object[] values;
+        private long[] numbers;
+        private int size;
+
+        Delta(int expectedSize) {
+            int capacity = Math.max(2, expectedSize);
+            this.keys = new String[capacity];
+            this.values = new Object[capacity];
+        }
+
+        void put(String key, Object value) {
+            // slot 이 배열을 키울 수 있으므로 위치를 먼저 구한 뒤 values 를 읽는다.
+            int index = slot(key);
+            values[index] = value;
+        }
+
+        void putLong(String key, long value) {
+            int index = slot(key);
+            values[index] = LONG_SLOT;
+            numbers()[index] = value;
+        }
+
+        void putInt(String key, int value) {
+            int index = slot(key);
+            values[index] = INT_SLOT;
+            numbers()[index] = value;
+        }
+
+        /**
+         * 모은 항목을 모두 버린다.
+         */
+        void clear() {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+
+        /**
+         * 모은 항목을 target 위에 얹은 맵을 반환한다. 버퍼는 이후에도 계속 쓸 수 있다.
+         */
+        OverlayAttributeMap applyTo(OverlayAttributeMap target) {
+            if (size == 0) {
+                return target;
+            }
+            return target.with(Arrays.copyOf(keys, size), Arrays.copyOf(values, size),
+                numbers != null ? Arrays.copyOf(numbers, size) : null, size);
+        }
+        // slot 동작을 수행한다.
+
+        /**
+         * key 의 항목 위치를 반환한다. 없으면 새로 만든다.
+         */
+        private int slot(String key) {
+            Objects.requireNonNull(key, "attribute key must not be null");
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                if (numbers != null) {
+                    numbers = Arrays.copyOf(numbers, size * 2);
+                }
+            }
+            keys[size] = key;
+            return size++;
+        }
+        // numbers 동작을 수행한다.
+
+        private long[] numbers() {
+            if (numbers == null) {
+                numbers = new long[keys.length];
+            }
+            return numbers;
+        }
+    }
+}
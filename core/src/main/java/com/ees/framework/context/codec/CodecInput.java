@@ -0,0 +1,135 @@
+package com.ees.framework.context.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link CodecOutput} 형식을 {@link ByteBuffer} 에서 바로 읽는다. 버퍼의 position 을 읽은 만큼 옮긴다.
+ * <p>
+ * 힙 버퍼는 내부 배열에서 문자열을 바로 만들고, direct 버퍼만 문자열 바이트를 임시 배열로 옮긴다.
+ * 버퍼가 모자라거나 길이/개수가 남은 바이트로 담을 수 없으면 {@link IllegalStateException} 을 던진다.
+ */
+final class CodecInput {
+
+    private final ByteBuffer buffer;
+    private final String[] dictionary;
+    private String[] inline = new String[8];
+    private int inlineCount;
+
+    CodecInput(ByteBuffer buffer, String[] dictionary) {
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+    }
+
+    int readByte() {
+        if (!buffer.hasRemaining()) {
+            throw new IllegalStateException("truncated FxContext record");
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    int readInt() {
+        // 버퍼의 byte order 설정과 무관하게 big-endian 으로 읽는다.
+        return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("varint out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 항목 수를 읽는다. 항목마다 최소 1 바이트를 차지하므로 남은 바이트보다 크면 손상된 레코드다.
+     */
+    int readCount() {
+        int count = readVarInt();
+        if (count > buffer.remaining()) {
+            throw new IllegalStateException("corrupt FxContext record: count " + count
+                + " exceeds remaining " + buffer.remaining() + " bytes");
+        }
+        return count;
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+        long reference = readVarLong();
+        if (reference == 0) {
+            return null;
+        }
+        if (reference == 1) {
+            String value = readUtf8();
+            if (inlineCount < CodecOutput.MAX_INLINE_ENTRIES && value.length() <= CodecOutput.MAX_INLINE_LENGTH) {
+                if (inlineCount == inline.length) {
+                    inline = Arrays.copyOf(inline, inlineCount * 2);
+                }
+                inline[inlineCount++] = value;
+            }
+            return value;
+        }
+        long index = reference - 2;
+        if (index < dictionary.length) {
+            return dictionary[(int) index];
+        }
+        index -= dictionary.length;
+        if (index < inlineCount) {
+            return inline[(int) index];
+        }
+        throw new IllegalStateException("unknown string reference: " + reference);
+    }
+
+    /**
+     * 다음 length 바이트를 가리키는 뷰를 반환하고 그만큼 건너뛴다(복사 없음).
+     */
+    ByteBuffer slice(int length) {
+        requireRemaining(length);
+        int position = buffer.position();
+        ByteBuffer view = buffer.slice(position, length);
+        buffer.position(position + length);
+        return view;
+    }
+    // readUtf8 동작을 수행한다.
+
+    private String readUtf8() {
+        int length = readVarInt();
+        requireRemaining(length);
+        int position = buffer.position();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(position + length);
+        return value;
+    }
+    // requireRemaining 동작을 수행한다.
+
+    private void requireRemaining(int length) {
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("truncated FxContext record: need " + length
+                + " bytes but " + buffer.remaining() + " remain");
+        }
+    }
+}
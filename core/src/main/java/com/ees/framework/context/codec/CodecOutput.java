@@ -0,0 +1,128 @@
+package com.ees.framework.context.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 인코딩 한 번에 쓰는 가변 길이 바이트 출력. 정수는 varint, 문자열은 사전 참조 또는 UTF-8 로 쓴다.
+ * <p>
+ * 문자열 참조 번호: 0 은 null, 1 은 뒤따르는 인라인 문자열, 2 이상은 정적 사전 다음 메시지 내 사전 순의 색인이다.
+ * 인라인으로 쓴 문자열은 메시지 내 사전에 등록되어 같은 메시지에서 다시 나오면 번호만 쓴다.
+ */
+final class CodecOutput {
+
+    // 메시지 내 사전에 등록할 최대 문자열 수와 길이. 긴 값은 반복될 가능성이 낮아 등록하지 않는다.
+    static final int MAX_INLINE_ENTRIES = 64;
+    static final int MAX_INLINE_LENGTH = 64;
+
+    private final Map<String, Integer> dictionary;
+    private String[] inline = new String[8];
+    private int inlineCount;
+    private byte[] bytes;
+    private int size;
+
+    CodecOutput(Map<String, Integer> dictionary, int expectedSize) {
+        this.dictionary = dictionary;
+        this.bytes = new byte[Math.max(expectedSize, 64)];
+    }
+
+    void writeByte(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] source) {
+        ensure(source.length);
+        System.arraycopy(source, 0, bytes, size, source.length);
+        size += source.length;
+    }
+
+    void writeInt(int value) {
+        ensure(4);
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    /**
+     * 부호 없는 varint(7 비트씩, 하위 먼저)를 쓴다.
+     */
+    void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    /**
+     * 부호 있는 값을 zigzag 로 바꿔 varint 로 쓴다.
+     */
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarLong(2L + index);
+            return;
+        }
+        for (int i = 0; i < inlineCount; i++) {
+            String candidate = inline[i];
+            if (candidate == value || candidate.equals(value)) {
+                writeVarLong(2L + dictionary.size() + i);
+                return;
+            }
+        }
+        writeVarLong(1);
+        writeUtf8(value);
+        if (inlineCount < MAX_INLINE_ENTRIES && value.length() <= MAX_INLINE_LENGTH) {
+            if (inlineCount == inline.length) {
+                inline = Arrays.copyOf(inline, inlineCount * 2);
+            }
+            inline[inlineCount++] = value;
+        }
+    }
+
+    /**
+     * 지금까지 쓴 바이트를 감싼 버퍼를 반환한다(복사 없음).
+     */
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+    // writeUtf8 동작을 수행한다.
+
+    private void writeUtf8(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(encoded.length);
+                writeBytes(encoded);
+                return;
+            }
+        }
+        // ASCII 는 문자 수와 바이트 수가 같으므로 중간 배열 없이 쓴다.
+        writeVarLong(length);
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            bytes[size++] = (byte) value.charAt(i);
+        }
+    }
+    // ensure 동작을 수행한다.
+
+    private void ensure(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
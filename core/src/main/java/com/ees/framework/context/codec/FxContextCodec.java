@@ -0,0 +1,319 @@
+package com.ees.framework.context.codec;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link FxContext} 의 버전 있는 바이너리 표현. 큐를 디스크로 내리거나(spill), 노드 간 hand-off 나
+ * {@code MessageBus} 로 컨텍스트를 보낼 때 쓴다.
+ * <p>
+ * 레코드 형식(version 1):
+ * <pre>
+ * version(1B) dictionaryFingerprint(4B)
+ * command  : name version correlationId
+ * headers  : count (key value)*
+ * message  : sourceType epochSecond(zigzag) nanos key payloadLength payload
+ * meta     : sourceId pipelineStep retries count (key tag value)*
+ * affinity : kind value
+ * </pre>
+ * 개수/길이/정수는 varint 이고 문자열은 {@link CodecOutput} 의 사전 참조 형식이다. 헤더 키처럼 반복되는 문자열은
+ * 생성 시 넘긴 정적 사전에 있으면 번호만 쓰고, 같은 레코드 안에서 두 번 이상 나오면 두 번째부터 번호만 쓴다.
+ * 인코더와 디코더는 같은 사전을 써야 하며, 다르면 디코딩 시 fingerprint 가 맞지 않아 실패한다.
+ * <p>
+ * 속성 값은 null, String, Integer, Long, Boolean, Double, byte[], Instant 와 이들의 List(중첩 32 단계까지)만 지원한다.
+ * Integer/Long 은 디코딩 시 {@link FxMeta.AttributeBuilder#putInt}/{@link FxMeta.AttributeBuilder#putLong} 으로
+ * 박싱 없이 복원된다. payload 는 {@link PayloadSerializer} 로 바꾸며, 디코딩 시 원본 버퍼의 payload 구간 뷰를 넘긴다.
+ * <p>
+ * 인스턴스는 불변이며 thread-safe 하다.
+ *
+ * @param <T> payload 타입
+ */
+public final class FxContextCodec<T> {
+
+    /**
+     * 현재 레코드 형식 버전.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * 기본 정적 사전. 엔진/소스가 붙이는 잘 알려진 헤더/속성 키다.
+     */
+    public static final List<String> DEFAULT_DICTIONARY = List.of(
+        "affinity-kind", "affinity-value", "equipmentId",
+        "kafka-topic", "kafka-partition", "kafka-offset",
+        "kafka.topic", "kafka.partition", "kafka.offset", "kafka.timestamp", "kafka.key",
+        "processed-by", "processed-at",
+        "deadLetter.workflow", "deadLetter.node", "deadLetter.error", "deadLetter.message", "deadLetter.expiredAt"
+    );
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INT = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_TRUE = 4;
+    private static final int TAG_FALSE = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_BYTES = 7;
+    private static final int TAG_INSTANT = 8;
+    private static final int TAG_LIST = 9;
+    // 손상된 레코드가 깊은 재귀를 일으키지 않도록 중첩 List 깊이를 제한한다.
+    private static final int MAX_LIST_DEPTH = 32;
+
+    private final PayloadSerializer<T> payloads;
+    private final String[] dictionary;
+    private final Map<String, Integer> dictionaryIndex;
+    private final int fingerprint;
+
+    private FxContextCodec(PayloadSerializer<T> payloads, List<String> dictionary) {
+        this.payloads = Objects.requireNonNull(payloads, "payloads must not be null");
+        Objects.requireNonNull(dictionary, "dictionary must not be null");
+        this.dictionary = dictionary.toArray(String[]::new);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < this.dictionary.length; i++) {
+            String entry = Objects.requireNonNull(this.dictionary[i], "dictionary entry must not be null");
+            if (index.putIfAbsent(entry, i) != null) {
+                throw new IllegalArgumentException("duplicate dictionary entry: " + entry);
+            }
+        }
+        this.dictionaryIndex = Map.copyOf(index);
+        this.fingerprint = dictionary.hashCode();
+    }
+
+    /**
+     * {@link #DEFAULT_DICTIONARY} 를 쓰는 코덱을 만든다.
+     *
+     * @param payloads payload 직렬화기(널 불가)
+     * @param <T> payload 타입
+     * @return 코덱
+     */
+    public static <T> FxContextCodec<T> of(PayloadSerializer<T> payloads) {
+        return new FxContextCodec<>(payloads, DEFAULT_DICTIONARY);
+    }
+
+    /**
+     * 정적 사전을 지정해 코덱을 만든다. 순서도 형식의 일부이므로 양쪽이 같은 목록을 써야 한다.
+     *
+     * @param payloads payload 직렬화기(널 불가)
+     * @param dictionary 정적 사전(널 불가, 중복 불가)
+     * @param <T> payload 타입
+     * @return 코덱
+     */
+    public static <T> FxContextCodec<T> of(PayloadSerializer<T> payloads, List<String> dictionary) {
+        return new FxContextCodec<>(payloads, dictionary);
+    }
+
+    /**
+     * 컨텍스트를 인코딩한다.
+     *
+     * @param context 컨텍스트(널 불가)
+     * @return position 0 부터 레코드가 담긴 힙 버퍼
+     * @throws IllegalArgumentException 지원하지 않는 속성 값 타입이나 너무 깊이 중첩된 List 가 있는 경우
+     */
+    public ByteBuffer encode(FxContext<T> context) {
+        Objects.requireNonNull(context, "context must not be null");
+        byte[] payload = payloads.write(context.message().payload());
+        CodecOutput out = new CodecOutput(dictionaryIndex, payload.length + 128);
+        out.writeByte(VERSION);
+        out.writeInt(fingerprint);
+
+        FxCommand command = context.command();
+        out.writeString(command.name());
+        out.writeString(command.version());
+        out.writeString(command.correlationId());
+
+        Map<String, String> headers = context.headers().values();
+        out.writeVarLong(headers.size());
+        headers.forEach((key, value) -> {
+            out.writeString(key);
+            out.writeString(value);
+        });
+
+        FxMessage<T> message = context.message();
+        out.writeString(message.sourceType());
+        out.writeSignedVarLong(message.timestamp().getEpochSecond());
+        out.writeVarLong(message.timestamp().getNano());
+        out.writeString(message.key());
+        out.writeVarLong(payload.length);
+        out.writeBytes(payload);
+
+        FxMeta meta = context.meta();
+        out.writeString(meta.sourceId());
+        out.writeString(meta.pipelineStep());
+        out.writeVarLong(meta.retries());
+        Map<String, Object> attributes = meta.attributes();
+        out.writeVarLong(attributes.size());
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            out.writeString(entry.getKey());
+            writeValue(out, entry.getKey(), entry.getValue(), 0);
+        }
+
+        FxAffinity affinity = context.affinity();
+        out.writeString(affinity.kind());
+        out.writeString(affinity.value());
+        return out.toByteBuffer();
+    }
+
+    /**
+     * 버퍼의 position 부터 레코드 하나를 읽고 position 을 레코드 끝으로 옮긴다.
+     * 연속으로 쓴 레코드(예: spill 파일)는 반복 호출로 차례로 읽을 수 있다.
+     *
+     * @param buffer 레코드가 담긴 버퍼(널 불가)
+     * @return 컨텍스트
+     * @throws IllegalStateException 버전/사전이 맞지 않거나 레코드가 잘렸거나 손상된 경우
+     */
+    public FxContext<T> decode(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "buffer must not be null");
+        try {
+            return read(new CodecInput(buffer, dictionary));
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IllegalStateException("corrupt FxContext record: " + e.getMessage(), e);
+        }
+    }
+    // read 동작을 수행한다.
+
+    private FxContext<T> read(CodecInput in) {
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported FxContext codec version: " + version);
+        }
+        if (in.readInt() != fingerprint) {
+            throw new IllegalStateException("FxContext codec dictionary mismatch");
+        }
+
+        String commandName = required(in.readString(), "command name");
+        FxCommand command = new FxCommand(commandName, in.readString(), in.readString());
+
+        int headerCount = in.readCount();
+        FxHeaders.Builder headers = FxHeaders.builder(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(required(in.readString(), "header key"), in.readString());
+        }
+
+        String sourceType = required(in.readString(), "message sourceType");
+        Instant timestamp = Instant.ofEpochSecond(in.readSignedVarLong(), in.readVarInt());
+        String key = in.readString();
+        T payload = required(payloads.read(in.slice(in.readVarInt())), "message payload");
+        FxMessage<T> message = new FxMessage<>(sourceType, payload, timestamp, key);
+
+        String sourceId = in.readString();
+        String pipelineStep = in.readString();
+        int retries = in.readVarInt();
+        int attributeCount = in.readCount();
+        FxMeta.AttributeBuilder attributes = FxMeta.attributeBuilder(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            readAttribute(in, required(in.readString(), "attribute key"), attributes);
+        }
+        FxMeta meta = new FxMeta(sourceId, pipelineStep, retries, attributes.build());
+
+        FxAffinity affinity = FxAffinity.of(in.readString(), in.readString());
+        return new FxContext<>(command, headers.build(), message, meta, affinity);
+    }
+    // required 동작을 수행한다.
+
+    private static <V> V required(V value, String field) {
+        if (value == null) {
+            throw new IllegalStateException("corrupt FxContext record: missing " + field);
+        }
+        return value;
+    }
+    // writeValue 동작을 수행한다.
+
+    private static void writeValue(CodecOutput out, String key, Object value, int depth) {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(TAG_STRING);
+            out.writeString(string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(TAG_INT);
+            out.writeSignedVarLong(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(TAG_LONG);
+            out.writeSignedVarLong(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(flag ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Double number) {
+            out.writeByte(TAG_DOUBLE);
+            // 흔한 값(정수, 짧은 소수)은 가수 하위 바이트가 0 이므로 바이트를 뒤집어 varint 로 쓰면 짧아진다.
+            out.writeVarLong(Long.reverseBytes(Double.doubleToRawLongBits(number)));
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(TAG_BYTES);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Instant instant) {
+            out.writeByte(TAG_INSTANT);
+            out.writeSignedVarLong(instant.getEpochSecond());
+            out.writeVarLong(instant.getNano());
+        } else if (value instanceof List<?> list) {
+            if (depth >= MAX_LIST_DEPTH) {
+                throw new IllegalArgumentException("attribute lists nested deeper than " + MAX_LIST_DEPTH + " for key " + key);
+            }
+            out.writeByte(TAG_LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                writeValue(out, key, element, depth + 1);
+            }
+        } else {
+            throw new IllegalArgumentException(
+                "unsupported attribute type for key " + key + ": " + value.getClass().getName());
+        }
+    }
+    // readAttribute 동작을 수행한다.
+
+    private static void readAttribute(CodecInput in, String key, FxMeta.AttributeBuilder attributes) {
+        int tag = in.readByte();
+        if (tag == TAG_INT) {
+            attributes.putInt(key, (int) in.readSignedVarLong());
+        } else if (tag == TAG_LONG) {
+            attributes.putLong(key, in.readSignedVarLong());
+        } else {
+            attributes.put(key, readValue(in, tag, 0));
+        }
+    }
+    // readValue 동작을 수행한다.
+
+    private static Object readValue(CodecInput in, int tag, int depth) {
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_STRING -> in.readString();
+            case TAG_INT -> (int) in.readSignedVarLong();
+            case TAG_LONG -> in.readSignedVarLong();
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_DOUBLE -> Double.longBitsToDouble(Long.reverseBytes(in.readVarLong()));
+            case TAG_BYTES -> {
+                ByteBuffer view = in.slice(in.readVarInt());
+                byte[] bytes = new byte[view.remaining()];
+                view.get(bytes);
+                yield bytes;
+            }
+            case TAG_INSTANT -> Instant.ofEpochSecond(in.readSignedVarLong(), in.readVarInt());
+            case TAG_LIST -> {
+                if (depth >= MAX_LIST_DEPTH) {
+                    throw new IllegalStateException("corrupt FxContext record: attribute lists nested deeper than "
+                        + MAX_LIST_DEPTH);
+                }
+                int size = in.readCount();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, in.readByte(), depth + 1));
+                }
+                yield List.copyOf(list);
+            }
+            default -> throw new IllegalStateException("unknown attribute tag: " + tag);
+        };
+    }
+}
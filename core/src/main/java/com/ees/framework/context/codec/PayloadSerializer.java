@@ -0,0 +1,87 @@
+package com.ees.framework.context.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link FxContextCodec} 가 메시지 payload 를 바이트로 바꾸는 방법.
+ * <p>
+ * 디코딩 시 {@link #read(ByteBuffer)} 에는 원본 버퍼의 payload 구간을 가리키는 뷰가 넘어온다(복사 없음).
+ * 뷰는 원본 버퍼와 내용을 공유하므로, 원본 버퍼를 재사용한다면 구현은 필요한 값을 꺼내 두어야 한다
+ * ({@link #BYTE_BUFFER} 는 예외적으로 뷰를 그대로 payload 로 쓴다).
+ *
+ * @param <T> payload 타입
+ */
+public interface PayloadSerializer<T> {
+
+    /**
+     * UTF-8 문자열 payload.
+     */
+    PayloadSerializer<String> UTF8_STRING = new PayloadSerializer<>() {
+        @Override
+        public byte[] write(String payload) {
+            return payload.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String read(ByteBuffer payload) {
+            if (payload.hasArray()) {
+                return new String(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(),
+                    StandardCharsets.UTF_8);
+            }
+            return StandardCharsets.UTF_8.decode(payload).toString();
+        }
+    };
+
+    /**
+     * 바이트 배열 payload. 디코딩 시 payload 구간을 새 배열로 복사한다.
+     */
+    PayloadSerializer<byte[]> BYTES = new PayloadSerializer<>() {
+        @Override
+        public byte[] write(byte[] payload) {
+            return payload;
+        }
+
+        @Override
+        public byte[] read(ByteBuffer payload) {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            return bytes;
+        }
+    };
+
+    /**
+     * 읽기 전용 {@link ByteBuffer} payload. 디코딩 시 원본 버퍼의 payload 구간 뷰를 그대로 돌려준다(zero-copy).
+     * 원본 버퍼를 재사용하기 전까지만 유효하다.
+     */
+    PayloadSerializer<ByteBuffer> BYTE_BUFFER = new PayloadSerializer<>() {
+        @Override
+        public byte[] write(ByteBuffer payload) {
+            ByteBuffer source = payload.duplicate();
+            byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return bytes;
+        }
+
+        @Override
+        public ByteBuffer read(ByteBuffer payload) {
+            return payload.asReadOnlyBuffer();
+        }
+    };
+
+    /**
+     * payload 를 바이트로 바꾼다. 인코더는 배열 전체를 출력에 복사하므로 호출이 끝나면 배열을 보관하지 않는다.
+     *
+     * @param payload payload(널 불가)
+     * @return payload 바이트
+     */
+    byte[] write(T payload);
+
+    /**
+     * payload 구간에서 payload 를 읽는다.
+     *
+     * @param payload position~limit 이 payload 바이트인 버퍼 뷰
+     * @return payload(널 불가)
+     */
+    T read(ByteBuffer payload);
+}
@@ -0,0 +1,90 @@
+package com.ees.framework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AffinityInternerTest {
+
+    @Test
+    void decimalHashMatchesStringHashCode() {
+        long[] fixed = {
+            0, 1, -1, 9, 10, -10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE
+        };
+        for (long value : fixed) {
+            assertThat(AffinityInterner.decimalHash(value)).as("%d", value).isEqualTo(Long.toString(value).hashCode());
+        }
+        Random random = new Random(20261017L);
+        for (int i = 0; i < 500_000; i++) {
+            long value = switch (i % 4) {
+                case 0 -> random.nextLong();
+                case 1 -> -Math.abs(random.nextLong());
+                case 2 -> random.nextInt();
+                default -> random.nextInt(200_000) - 100_000;
+            };
+            if (AffinityInterner.decimalHash(value) != Long.toString(value).hashCode()) {
+                assertThat(AffinityInterner.decimalHash(value)).as("%d", value).isEqualTo(Long.toString(value).hashCode());
+            }
+        }
+    }
+
+    @Test
+    void numericAndStringKeysShareCanonicalInstances() {
+        FxAffinity fromString = FxAffinity.of("partition", "42");
+        FxAffinity fromLong = FxAffinity.of("partition", 42L);
+
+        assertThat(fromLong).isSameAs(fromString);
+        assertThat(FxAffinity.of("partition", -7L)).isEqualTo(new FxAffinity("partition", "-7"));
+        assertThat(FxAffinity.of("partition", Long.MIN_VALUE).value()).isEqualTo(Long.toString(Long.MIN_VALUE));
+        assertThat(FxAffinity.of("partition", Long.MIN_VALUE).numericId()).isEqualTo(Long.MIN_VALUE);
+        assertThat(FxAffinity.of("other", 42L)).isNotEqualTo(fromLong);
+    }
+
+    @Test
+    void onlyCanonicalDecimalStringsAreNumeric() {
+        assertThat(FxAffinity.of("k", "007").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("k", "-0").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("k", "+7").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("k", "-").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("k", "").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("k", "9223372036854775808").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("k", "0").hasNumericId()).isTrue();
+        assertThat(FxAffinity.of("k", "9223372036854775807").numericId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(new FxAffinity("k", "-12").numericId()).isEqualTo(-12L);
+        assertThatThrownBy(() -> FxAffinity.of("k", "007").numericId()).isInstanceOf(IllegalStateException.class);
+
+        // "007" 과 7 은 다른 키이므로 캐시에서도 섞이지 않는다.
+        FxAffinity padded = FxAffinity.of("k", "007");
+        assertThat(FxAffinity.of("k", 7L)).isNotEqualTo(padded);
+        assertThat(FxAffinity.of("k", 7L).value()).isEqualTo("7");
+    }
+
+    @Test
+    void collidingKeysStayCorrect() {
+        for (int i = 0; i < AffinityInterner.CAPACITY * 3; i++) {
+            FxAffinity byLong = FxAffinity.of("eq", (long) i);
+            FxAffinity byString = FxAffinity.of("eq", "id-" + i);
+
+            assertThat(byLong.value()).isEqualTo(Integer.toString(i));
+            assertThat(byLong.numericId()).isEqualTo(i);
+            assertThat(byString.value()).isEqualTo("id-" + i);
+        }
+        assertThat(FxAffinity.of("eq", 5L)).isEqualTo(new FxAffinity("eq", "5"));
+        assertThat(FxAffinity.of("eq", 5L).hashCode()).isEqualTo(new FxAffinity("eq", "5").hashCode());
+    }
+
+    @Test
+    void staysARecord() {
+        Object affinity = FxAffinity.of("equipmentId", "eq-1");
+
+        assertThat(FxAffinity.class.isRecord()).isTrue();
+        assertThat(affinity instanceof FxAffinity(String kind, String value) && kind.equals("equipmentId")
+            && value.equals("eq-1")).isTrue();
+        assertThat(FxAffinity.of(null, null)).isSameAs(FxAffinity.none());
+        assertThat(FxAffinity.of("k", null).isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ees.framework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlatHeaderMapTest {
+
+    @Test
+    void looksUpKeysWithLinearAndBinarySearch() {
+        for (int size : new int[] {1, 8, 9, 40}) {
+            Map<String, String> expected = new LinkedHashMap<>();
+            for (int i = size - 1; i >= 0; i--) {
+                expected.put("h" + i, "v" + i);
+            }
+            FlatHeaderMap map = FlatHeaderMap.copyOf(expected);
+
+            assertThat(map).hasSize(size);
+            for (int i = 0; i < size; i++) {
+                assertThat(map.get("h" + i)).isEqualTo("v" + i);
+                assertThat(map.containsKey("h" + i)).isTrue();
+            }
+            assertThat(map.get("a")).isNull();
+            assertThat(map.get("h" + size + "z")).isNull();
+            assertThat(map.get("zz")).isNull();
+            assertThat(map.get(1)).isNull();
+            assertThat(map.containsKey("zz")).isFalse();
+        }
+    }
+
+    @Test
+    void iteratesInKeyOrder() {
+        FlatHeaderMap map = FlatHeaderMap.copyOf(Map.of("c", "3", "a", "1", "b", "2"));
+
+        assertThat(map.keySet()).containsExactly("a", "b", "c");
+        List<String> visited = new ArrayList<>();
+        map.forEach((key, value) -> visited.add(key + "=" + value));
+        assertThat(visited).containsExactly("a=1", "b=2", "c=3");
+    }
+
+    @Test
+    void lastDuplicateKeyWinsWhenSorting() {
+        String[] pairs = {"b", "1", "a", "2", "b", "3", "c", null, "a", "4"};
+
+        FlatHeaderMap map = FlatHeaderMap.sorted(pairs, 5);
+
+        assertThat(map).hasSize(3);
+        assertThat(map.keySet()).containsExactly("a", "b", "c");
+        assertThat(map.get("a")).isEqualTo("4");
+        assertThat(map.get("b")).isEqualTo("3");
+        assertThat(map.containsKey("c")).isTrue();
+        assertThat(map.get("c")).isNull();
+    }
+
+    @Test
+    void withReplacesOrInsertsWithoutTouchingOriginal() {
+        FlatHeaderMap base = FlatHeaderMap.copyOf(Map.of("b", "1", "d", "2", "f", "3"));
+
+        assertThat(base.with("d", "2")).isSameAs(base);
+        assertThat(base.with("d", "x")).containsExactly(Map.entry("b", "1"), Map.entry("d", "x"), Map.entry("f", "3"));
+        assertThat(base.with("a", "0").keySet()).containsExactly("a", "b", "d", "f");
+        assertThat(base.with("c", "0").keySet()).containsExactly("b", "c", "d", "f");
+        assertThat(base.with("g", "0").keySet()).containsExactly("b", "d", "f", "g");
+        assertThat(base.with("c", "0").get("c")).isEqualTo("0");
+        assertThat(FlatHeaderMap.EMPTY.with("a", "1")).containsExactly(Map.entry("a", "1"));
+        assertThat(base).containsExactly(Map.entry("b", "1"), Map.entry("d", "2"), Map.entry("f", "3"));
+    }
+
+    @Test
+    void equalsAndHashCodeMatchJavaUtilMaps() {
+        Map<String, String> source = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            source.put("key-" + i, i % 3 == 0 ? null : "value-" + i);
+        }
+
+        FlatHeaderMap map = FlatHeaderMap.copyOf(source);
+
+        assertThat(map).isEqualTo(source);
+        assertThat(source).isEqualTo(map);
+        assertThat(map.hashCode()).isEqualTo(source.hashCode());
+        assertThat(map).isNotEqualTo(map.with("key-1", "other"));
+        assertThat(FlatHeaderMap.EMPTY).isEqualTo(Map.of());
+        assertThat(FlatHeaderMap.EMPTY.hashCode()).isZero();
+    }
+
+    @Test
+    void rejectsNullKeys() {
+        Map<String, String> source = new HashMap<>();
+        source.put(null, "v");
+
+        assertThatThrownBy(() -> FlatHeaderMap.copyOf(source)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> FlatHeaderMap.EMPTY.with(null, "v")).isInstanceOf(NullPointerException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ees.framework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FxHeadersTest {
+
+    @Test
+    void copiesInputMapOnConstruction() {
+        Map<String, String> source = new HashMap<>(Map.of("a", "1"));
+
+        FxHeaders headers = new FxHeaders(source);
+        source.put("b", "2");
+        source.put("a", "changed");
+
+        assertThat(headers.values()).containsExactly(Map.entry("a", "1"));
+        assertThat(new FxHeaders(headers.values()).values()).isSameAs(headers.values());
+    }
+
+    @Test
+    void rejectsNullKeys() {
+        Map<String, String> source = new HashMap<>();
+        source.put(null, "v");
+
+        assertThatThrownBy(() -> new FxHeaders(source)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> FxHeaders.empty().with(null, "v")).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> FxHeaders.builder().put(null, "v")).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void builderKeepsLastValueAndToBuilderStartsFromCurrentHeaders() {
+        FxHeaders headers = FxHeaders.builder(1)
+            .put("b", "1")
+            .put("a", "2")
+            .put("b", "3")
+            .build();
+
+        assertThat(headers.values()).containsExactly(Map.entry("a", "2"), Map.entry("b", "3"));
+        assertThat(headers.toBuilder().put("c", "4").build().values())
+            .containsExactly(Map.entry("a", "2"), Map.entry("b", "3"), Map.entry("c", "4"));
+        assertThat(headers.with("b", "3")).isSameAs(headers);
+        assertThat(headers.with("b", "x").get("b")).isEqualTo("x");
+        assertThat(headers.get("b")).isEqualTo("3");
+        assertThat(FxHeaders.builder().build()).isSameAs(FxHeaders.empty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ees.framework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FxMetaTest {
+
+    @Test
+    void readsPrimitiveSlotsWithoutConversion() {
+        FxMeta meta = new FxMeta("src", null, 0, FxMeta.attributeBuilder(2)
+            .putLong("offset", 1L << 40)
+            .putInt("partition", -3)
+            .putLong("min", Long.MIN_VALUE)
+            .build());
+
+        assertThat(meta.longAttribute("offset", -1L)).isEqualTo(1L << 40);
+        assertThat(meta.longAttribute("partition", -1L)).isEqualTo(-3L);
+        assertThat(meta.intAttribute("partition", 0)).isEqualTo(-3);
+        assertThat(meta.longAttribute("min", 0L)).isEqualTo(Long.MIN_VALUE);
+        assertThat(meta.intAttribute("offset", 7)).isEqualTo(7);
+        assertThat(meta.intAttribute("min", 7)).isEqualTo(7);
+        assertThat(meta.attributes()).containsEntry("offset", 1L << 40).containsEntry("partition", -3);
+        assertThat(meta.hasIntegralAttribute("offset")).isTrue();
+        assertThat(meta.hasIntegralAttribute("partition")).isTrue();
+    }
+
+    @Test
+    void convertsBoxedAndStringValues() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("long", 42L);
+        attributes.put("int", 7);
+        attributes.put("short", (short) 2);
+        attributes.put("double", 3.9);
+        attributes.put("text", " 15 ");
+        attributes.put("word", "abc");
+        attributes.put("none", null);
+        attributes.put("big", "9999999999");
+        FxMeta meta = new FxMeta("src", null, 0, attributes);
+
+        assertThat(meta.longAttribute("long", -1L)).isEqualTo(42L);
+        assertThat(meta.intAttribute("int", -1)).isEqualTo(7);
+        assertThat(meta.intAttribute("short", -1)).isEqualTo(2);
+        assertThat(meta.longAttribute("double", -1L)).isEqualTo(3L);
+        assertThat(meta.longAttribute("text", -1L)).isEqualTo(15L);
+        assertThat(meta.intAttribute("text", -1)).isEqualTo(15);
+        assertThat(meta.longAttribute("word", -1L)).isEqualTo(-1L);
+        assertThat(meta.intAttribute("word", -1)).isEqualTo(-1);
+        assertThat(meta.longAttribute("none", -1L)).isEqualTo(-1L);
+        assertThat(meta.longAttribute("missing", -1L)).isEqualTo(-1L);
+        assertThat(meta.intAttribute("missing", Integer.MIN_VALUE)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(meta.longAttribute("big", -1L)).isEqualTo(9_999_999_999L);
+        assertThat(meta.intAttribute("big", -1)).isEqualTo(-1);
+
+        assertThat(meta.hasIntegralAttribute("long")).isTrue();
+        assertThat(meta.hasIntegralAttribute("short")).isTrue();
+        assertThat(meta.hasIntegralAttribute("double")).isFalse();
+        assertThat(meta.hasIntegralAttribute("text")).isFalse();
+        assertThat(meta.hasIntegralAttribute("missing")).isFalse();
+    }
+
+    @Test
+    void readsIntBoundariesAndOverriddenValues() {
+        FxMeta base = new FxMeta("src", null, 0, FxMeta.attributeBuilder(2)
+            .putLong("max", Integer.MAX_VALUE)
+            .putLong("min", Integer.MIN_VALUE)
+            .putLong("over", Integer.MAX_VALUE + 1L)
+            .build());
+        FxMeta updated = base.withAttribute("max", "overridden");
+
+        assertThat(base.intAttribute("max", 0)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(base.intAttribute("min", 0)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(base.intAttribute("over", 0)).isZero();
+        assertThat(updated.intAttribute("max", 0)).isZero();
+        assertThat(updated.hasIntegralAttribute("max")).isFalse();
+        assertThat(updated.intAttribute("min", 0)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(updated.attributes()).hasSize(3);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ees.framework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OverlayAttributeMapTest {
+
+    @Test
+    void deltaGrowsPastExpectedSizeAcrossAllPutKinds() {
+        OverlayAttributeMap.Delta delta = new OverlayAttributeMap.Delta(1);
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            switch (i % 3) {
+                case 0 -> {
+                    delta.put("k" + i, "v" + i);
+                    expected.put("k" + i, "v" + i);
+                }
+                case 1 -> {
+                    delta.putLong("k" + i, 1_000_000_000_000L + i);
+                    expected.put("k" + i, 1_000_000_000_000L + i);
+                }
+                default -> {
+                    delta.putInt("k" + i, i);
+                    expected.put("k" + i, i);
+                }
+            }
+        }
+
+        OverlayAttributeMap map = delta.applyTo(OverlayAttributeMap.EMPTY);
+
+        assertThat(map).isEqualTo(expected).hasSize(30);
+        assertThat(map.longValue("k1", -1L)).isEqualTo(1_000_000_000_001L);
+        assertThat(map.intValue("k29", -1)).isEqualTo(29);
+    }
+
+    @Test
+    void lastWriteWinsForRepeatedKeys() {
+        OverlayAttributeMap.Delta delta = new OverlayAttributeMap.Delta(2);
+        delta.put("a", "text");
+        delta.putLong("a", 5L);
+        delta.putLong("b", 7L);
+        delta.putInt("b", 8);
+        delta.putInt("c", 9);
+        delta.put("c", "last");
+
+        OverlayAttributeMap map = delta.applyTo(OverlayAttributeMap.EMPTY);
+
+        assertThat(map).hasSize(3);
+        assertThat(map.get("a")).isEqualTo(5L);
+        assertThat(map.get("b")).isEqualTo(8);
+        assertThat(map.get("c")).isEqualTo("last");
+        assertThat(map.integral("c")).isFalse();
+    }
+
+    @Test
+    void sizeCountsOverriddenKeysOnce() {
+        OverlayAttributeMap base = OverlayAttributeMap.copyOf(Map.of("a", 1, "b", 2));
+        OverlayAttributeMap.Delta delta = new OverlayAttributeMap.Delta(2);
+        delta.putLong("a", 10L);
+        delta.put("c", 3);
+
+        OverlayAttributeMap child = delta.applyTo(base);
+        delta.clear();
+        delta.put("b", null);
+        delta.put("c", 30);
+        delta.put("d", 4);
+        OverlayAttributeMap grandChild = delta.applyTo(child);
+
+        assertThat(base).hasSize(2);
+        assertThat(child).hasSize(3).containsEntry("a", 10L).containsEntry("b", 2).containsEntry("c", 3);
+        assertThat(grandChild).hasSize(4).containsEntry("b", null).containsEntry("c", 30).containsEntry("d", 4);
+        assertThat(grandChild.entrySet()).hasSize(4);
+        assertThat(grandChild.containsKey("b")).isTrue();
+        assertThat(child.containsKey("d")).isFalse();
+    }
+
+    @Test
+    void flattensChainsDeeperThanMaxDepth() {
+        OverlayAttributeMap map = OverlayAttributeMap.copyOf(Map.of("root", "r"));
+        Map<String, Object> expected = new HashMap<>(Map.of("root", "r"));
+        OverlayAttributeMap.Delta delta = new OverlayAttributeMap.Delta(2);
+        for (int i = 0; i < 25; i++) {
+            delta.clear();
+            delta.putLong("shared", i);
+            delta.putInt("k" + i, i);
+            map = delta.applyTo(map);
+            expected.put("shared", (long) i);
+            expected.put("k" + i, i);
+
+            assertThat(map).isEqualTo(expected).hasSize(expected.size());
+        }
+
+        assertThat(map.longValue("shared", -1L)).isEqualTo(24L);
+        assertThat(map.intValue("k3", -1)).isEqualTo(3);
+        assertThat(map.integral("k3")).isTrue();
+        assertThat(map.get("shared")).isEqualTo(24L);
+        assertThat(map.get("k24")).isEqualTo(24);
+    }
+}
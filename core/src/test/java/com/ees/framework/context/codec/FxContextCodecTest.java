@@ -0,0 +1,184 @@
+package com.ees.framework.context.codec;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FxContextCodecTest {
+
+    private final FxContextCodec<String> codec = FxContextCodec.of(PayloadSerializer.UTF8_STRING);
+
+    @Test
+    void roundTripsHeadersAttributesAndAffinity() {
+        FxContext<String> context = context();
+
+        FxContext<String> decoded = codec.decode(codec.encode(context));
+
+        assertThat(decoded.command()).isEqualTo(context.command());
+        assertThat(decoded.headers()).isEqualTo(context.headers());
+        assertThat(decoded.message()).isEqualTo(context.message());
+        assertThat(decoded.affinity()).isSameAs(context.affinity());
+        FxMeta meta = decoded.meta();
+        assertThat(meta.sourceId()).isEqualTo("kafka-source");
+        assertThat(meta.pipelineStep()).isNull();
+        assertThat(meta.retries()).isEqualTo(2);
+        assertThat(meta.attributes()).hasSize(context.meta().attributes().size());
+        assertThat(meta.longAttribute("kafka.offset", -1L)).isEqualTo(1L << 40);
+        assertThat(meta.intAttribute("kafka.partition", -1)).isEqualTo(3);
+        assertThat(meta.attributes().get("kafka.offset")).isInstanceOf(Long.class);
+        assertThat(meta.attributes().get("kafka.partition")).isInstanceOf(Integer.class);
+        assertThat(meta.hasIntegralAttribute("kafka.offset")).isTrue();
+        assertThat(meta.attributes())
+            .containsEntry("kafka.topic", "orders")
+            .containsEntry("flag", true)
+            .containsEntry("ratio", 1.5)
+            .containsEntry("none", null)
+            .containsEntry("when", Instant.parse("2026-01-01T00:00:00.123456789Z"))
+            .containsEntry("list", List.of("a", 7L, List.of(true)))
+            .containsEntry("text", "한글 값");
+        assertThat((byte[]) meta.attributes().get("bytes")).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void decodesConsecutiveRecordsFromDirectBuffer() {
+        FxContext<String> first = context();
+        FxContext<String> second = first.withAffinity(FxAffinity.of("partition", 5L));
+        ByteBuffer a = codec.encode(first);
+        ByteBuffer b = codec.encode(second);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(a.remaining() + b.remaining());
+        buffer.put(a).put(b).flip();
+
+        assertThat(codec.decode(buffer).affinity()).isEqualTo(first.affinity());
+        assertThat(codec.decode(buffer).affinity()).isEqualTo(second.affinity());
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownOrNewerVersion() {
+        for (int version : new int[] {0, FxContextCodec.VERSION + 1, 0xFF}) {
+            ByteBuffer encoded = codec.encode(context());
+            encoded.put(0, (byte) version);
+
+            assertThatThrownBy(() -> codec.decode(encoded))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("unsupported FxContext codec version: " + version);
+        }
+    }
+
+    @Test
+    void rejectsDictionaryMismatch() {
+        FxContextCodec<String> other = FxContextCodec.of(PayloadSerializer.UTF8_STRING, List.of("kafka.topic"));
+
+        assertThatThrownBy(() -> other.decode(codec.encode(context())))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("FxContext codec dictionary mismatch");
+    }
+
+    @Test
+    void rejectsTruncatedRecords() {
+        ByteBuffer encoded = codec.encode(context());
+        for (int length = 0; length < encoded.remaining(); length++) {
+            ByteBuffer truncated = encoded.slice(0, length);
+
+            assertThatThrownBy(() -> codec.decode(truncated))
+                .as("length %d", length)
+                .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void rejectsCountsLargerThanTheBuffer() {
+        ByteBuffer encoded = ByteBuffer.allocate(32);
+        encoded.put((byte) FxContextCodec.VERSION).putInt(FxContextCodec.DEFAULT_DICTIONARY.hashCode());
+        // command: 인라인 "c", version/correlationId null
+        encoded.put((byte) 1).put((byte) 1).put((byte) 'c').put((byte) 0).put((byte) 0);
+        // 헤더 수 0x0FFFFFFF
+        encoded.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0x7F);
+        encoded.flip();
+
+        assertThatThrownBy(() -> codec.decode(encoded))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("count");
+    }
+
+    @Test
+    void corruptRecordsFailWithIllegalStateException() {
+        ByteBuffer encoded = codec.encode(context());
+        int length = encoded.remaining();
+        byte[] original = Arrays.copyOfRange(encoded.array(), 0, length);
+        Random random = new Random(20261017L);
+        for (int i = 0; i < 5_000; i++) {
+            byte[] corrupt = original.clone();
+            int flips = 1 + random.nextInt(3);
+            for (int f = 0; f < flips; f++) {
+                // version/fingerprint 뒤의 본문만 바꾼다.
+                corrupt[5 + random.nextInt(length - 5)] = (byte) random.nextInt(256);
+            }
+            try {
+                codec.decode(ByteBuffer.wrap(corrupt));
+            } catch (IllegalStateException expected) {
+                // 손상을 감지했다.
+            }
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedAttributeValuesOnEncode() {
+        FxContext<String> context = context().withMeta(FxMeta.empty().withAttribute("object", new Object()));
+
+        Object nested = "leaf";
+        for (int i = 0; i < 40; i++) {
+            nested = List.of(nested);
+        }
+        FxContext<String> deep = context().withMeta(FxMeta.empty().withAttribute("deep", nested));
+
+        assertThatThrownBy(() -> codec.encode(context))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("object");
+        assertThatThrownBy(() -> codec.encode(deep))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("deep");
+    }
+
+    private FxContext<String> context() {
+        Map<String, Object> attributes = FxMeta.attributeBuilder(10)
+            .put("kafka.topic", "orders")
+            .putInt("kafka.partition", 3)
+            .putLong("kafka.offset", 1L << 40)
+            .put("flag", true)
+            .put("ratio", 1.5)
+            .put("none", null)
+            .put("when", Instant.parse("2026-01-01T00:00:00.123456789Z"))
+            .put("list", List.of("a", 7L, List.of(true)))
+            .put("bytes", new byte[] {1, 2, 3})
+            .put("text", "한글 값")
+            .build();
+        return new FxContext<>(
+            new FxCommand("ingest", "v1", null),
+            FxHeaders.builder()
+                .put("affinity-kind", "equipmentId")
+                .put("affinity-value", "eqp-17")
+                .put("kafka-topic", "orders")
+                .put("custom", "orders")
+                .put("unicode", "값")
+                .build(),
+            new FxMessage<>("kafka", "payload-é-" + "x".repeat(300), Instant.ofEpochSecond(-5, 7), null),
+            new FxMeta("kafka-source", null, 2, attributes),
+            FxAffinity.of("equipmentId", "eqp-17")
+        );
+    }
+}
@@ -6,8 +6,6 @@ import com.ees.framework.context.FxMeta;
 import com.ees.framework.handlers.SourceHandler;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,14 +51,7 @@ public class AiSourceHandler implements SourceHandler<String> {
 
     @Override
     public FxContext<String> handle(FxContext<String> context) {
-        Map<String, Object> attributes = new HashMap<>(context.meta().attributes());
-        attributes.put(AI_PROMPT_KEY, classificationPrompt);
-        FxMeta meta = new FxMeta(
-            context.meta().sourceId(),
-            context.meta().pipelineStep(),
-            context.meta().retries(),
-            attributes
-        );
+        FxMeta meta = context.meta().withAttribute(AI_PROMPT_KEY, classificationPrompt);
         return new FxContext<>(context.command(), context.headers(), context.message(), meta, context.affinity());
     }
     /**
@@ -6,7 +6,6 @@ import com.ees.framework.context.FxMeta;
 import com.ees.framework.handlers.SinkHandler;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -22,9 +21,10 @@ public class AuditSinkHandler implements SinkHandler<String> {
 
     @Override
     public FxContext<String> handle(FxContext<String> context) {
-        Map<String, Object> attributes = new HashMap<>(context.meta().attributes());
-        attributes.put("auditedBy", "AuditSinkHandler");
-        attributes.put("auditedAt", Instant.now().toString());
+        Map<String, Object> attributes = context.meta().toAttributeBuilder()
+            .put("auditedBy", "AuditSinkHandler")
+            .put("auditedAt", Instant.now().toString())
+            .build();
 
         FxMeta meta = new FxMeta(
             context.meta().sourceId(),
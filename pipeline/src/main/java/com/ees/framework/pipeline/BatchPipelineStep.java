@@ -0,0 +1,35 @@
+package com.ees.framework.pipeline;
+
+import com.ees.framework.context.FxContext;
+
+import java.util.List;
+
+/**
+ * 같은 affinity 키로 모인 컨텍스트 배치를 한 번에 변환하는 {@link PipelineStep}.
+ * <p>
+ * 조회/보강/AI 호출처럼 여러 메시지를 묶어 처리하면 호출 비용을 줄일 수 있는 단계에서 구현한다.
+ * 워크플로 엔진은 per-key 워커가 드레인한 배치 중 {@link #supports(FxContext)} 를 만족하는 컨텍스트만 모아
+ * {@link #applyBatch(List)} 를 호출하고, 나머지는 그대로 통과시킨다.
+ * 등록은 일반 단계와 같이 {@link com.ees.framework.annotations.FxPipelineStep} 으로 한다.
+ *
+ * @param <I> 입력 타입
+ * @param <O> 출력 타입
+ */
+public interface BatchPipelineStep<I, O> extends PipelineStep<I, O> {
+
+    /**
+     * 배치를 입력받아 같은 순서, 같은 크기의 변환 결과를 반환한다.
+     *
+     * @param contexts 입력 배치(엔진이 재사용하므로 호출 후 보관하지 않는다)
+     * @return 입력과 인덱스가 1:1 로 대응하는 결과 목록
+     */
+    List<FxContext<O>> applyBatch(List<FxContext<I>> contexts);
+
+    /**
+     * 단일 컨텍스트를 크기 1 배치로 변환한다.
+     */
+    @Override
+    default FxContext<O> apply(FxContext<I> context) {
+        return applyBatch(List.of(context)).get(0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ees.framework.pipeline;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.MutableFxContext;
+
+/**
+ * 컨텍스트를 새로 만들지 않고 {@link MutableFxContext} 를 제자리에서 고치는 {@link PipelineStep}.
+ * <p>
+ * 워크플로 엔진은 연속된 in-place 단계를 워커가 재사용하는 가변 컨텍스트 하나로 실행하고, 묶음이 끝날 때 한 번만
+ * 불변 {@link FxContext} 를 만들어 다음 단계/Sink 로 넘긴다. 헤더/속성을 덧붙이는 단계가 여럿 이어질 때
+ * 단계마다 생기던 FxContext/FxHeaders/FxMeta 할당이 묶음당 한 번으로 줄어든다.
+ * 가변 컨텍스트는 다음 메시지에서 재사용되므로 구현은 넘겨받은 인스턴스를 보관하지 않아야 한다.
+ * 등록은 일반 단계와 같이 {@link com.ees.framework.annotations.FxPipelineStep} 으로 한다.
+ *
+ * @param <T> 입력/출력 payload 타입
+ */
+public interface InPlacePipelineStep<T> extends PipelineStep<T, T> {
+
+    /**
+     * 컨텍스트를 제자리에서 변환한다.
+     *
+     * @param context 가변 컨텍스트(호출 후 보관하지 않는다)
+     */
+    void applyInPlace(MutableFxContext<T> context);
+
+    /**
+     * 가변 컨텍스트를 처리할 수 있는지 반환한다. 기본 구현은 불변 컨텍스트를 만들어 {@link #supports(FxContext)} 에 묻는다.
+     * 앞 단계가 컨텍스트를 바꿨다면 그때마다 불변 컨텍스트가 만들어지므로, 조건이 있으면 이 메서드를 재정의하는 편이 좋다.
+     *
+     * @param context 가변 컨텍스트
+     * @return 처리 가능 여부
+     */
+    default boolean supportsInPlace(MutableFxContext<T> context) {
+        return supports(context.toContext());
+    }
+
+    /**
+     * 새 가변 컨텍스트에서 {@link #applyInPlace(MutableFxContext)} 를 실행한 결과를 반환한다.
+     */
+    @Override
+    default FxContext<T> apply(FxContext<T> context) {
+        MutableFxContext<T> mutable = new MutableFxContext<T>().load(context);
+        applyInPlace(mutable);
+        return mutable.toContext();
+    }
+}
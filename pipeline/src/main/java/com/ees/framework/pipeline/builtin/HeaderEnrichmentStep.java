@@ -1,9 +1,8 @@
 package com.ees.framework.pipeline.builtin;
 
 import com.ees.framework.annotations.FxPipelineStep;
-import com.ees.framework.context.FxContext;
-import com.ees.framework.context.FxHeaders;
-import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.context.MutableFxContext;
+import com.ees.framework.pipeline.InPlacePipelineStep;
 import org.springframework.stereotype.Component;
 import java.time.Instant;
 
@@ -12,18 +11,20 @@ import java.time.Instant;
  */
 @FxPipelineStep("enrich-header")
 @Component
-public class HeaderEnrichmentStep implements PipelineStep<Object, Object> {
+public class HeaderEnrichmentStep implements InPlacePipelineStep<Object> {
     /**
-     * apply를 수행한다.
-     * @param context 
-     * @return 
+     * applyInPlace를 수행한다.
+     * @param context
      */
 
     @Override
-    public FxContext<Object> apply(FxContext<Object> context) {
-        FxHeaders headers = context.headers()
-            .with("processed-by", getClass().getSimpleName())
-            .with("processed-at", Instant.now().toString());
-        return context.withHeaders(headers);
+    public void applyInPlace(MutableFxContext<Object> context) {
+        context.putHeader("processed-by", getClass().getSimpleName())
+            .putHeader("processed-at", Instant.now().toString());
+    }
+
+    @Override
+    public boolean supportsInPlace(MutableFxContext<Object> context) {
+        return true;
     }
 }
@@ -0,0 +1,72 @@
+package com.ees.framework.sink;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link Sink#writeBatch(List)} 결과. 배치 크기와 실패한 요소의 인덱스/원인을 담는다.
+ *
+ * @param size 배치 크기
+ * @param failures 실패한 요소 목록(인덱스 오름차순, 전부 성공이면 빈 목록)
+ */
+public record BatchWriteResult(int size, List<Failure> failures) {
+
+    public BatchWriteResult {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0");
+        }
+        failures = List.copyOf(Objects.requireNonNull(failures, "failures must not be null"));
+    }
+
+    /**
+     * 모든 요소가 성공한 결과를 반환한다.
+     *
+     * @param size 배치 크기
+     * @return 성공 결과
+     */
+    public static BatchWriteResult success(int size) {
+        return new BatchWriteResult(size, List.of());
+    }
+
+    /**
+     * 실패 요소 목록으로 결과를 생성한다.
+     *
+     * @param size 배치 크기
+     * @param failures 실패 요소 목록(null 이면 전부 성공)
+     * @return 배치 결과
+     */
+    public static BatchWriteResult of(int size, List<Failure> failures) {
+        return failures == null || failures.isEmpty() ? success(size) : new BatchWriteResult(size, failures);
+    }
+
+    /**
+     * 모든 요소가 성공했는지 여부.
+     *
+     * @return 실패가 없으면 true
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * 성공한 요소 수를 반환한다.
+     *
+     * @return 성공 건수
+     */
+    public int succeeded() {
+        return size - failures.size();
+    }
+
+    /**
+     * 배치 내 개별 요소의 실패 정보.
+     *
+     * @param index 배치 내 인덱스
+     * @param error 실패 원인
+     */
+    public record Failure(int index, Throwable error) {
+
+        public Failure {
+            Objects.requireNonNull(error, "error must not be null");
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.ees.framework.sink;
 
 import com.ees.framework.context.FxContext;
 import com.ees.framework.context.SupportsContext;
+
+import java.util.ArrayList;
+import java.util.List;
 /**
  * 출력(Sink) 추상화.
  *
@@ -13,4 +16,29 @@ public interface Sink<T> extends SupportsContext {
      * 컨텍스트를 받아서 저장/전송을 수행.
      */
     void write(FxContext<T> context);
+
+    /**
+     * 같은 affinity 키로 모인 컨텍스트 배치를 순서대로 저장/전송한다.
+     * <p>
+     * 기본 구현은 요소마다 {@link #write(FxContext)} 를 호출하고 예외를 요소 단위 실패로 기록한다.
+     * 호출 비용을 묶어서 줄일 수 있는 Sink 는 재정의한다. 부분 실패는 예외 대신 결과로 보고해야 하며,
+     * 배치 전체를 처리할 수 없는 경우에만 예외를 던진다.
+     *
+     * @param contexts 배치(엔진이 재사용하므로 호출 후 보관하지 않는다)
+     * @return 요소별 실패 정보를 담은 결과
+     */
+    default BatchWriteResult writeBatch(List<FxContext<T>> contexts) {
+        List<BatchWriteResult.Failure> failures = null;
+        for (int i = 0; i < contexts.size(); i++) {
+            try {
+                write(contexts.get(i));
+            } catch (RuntimeException ex) {
+                if (failures == null) {
+                    failures = new ArrayList<>();
+                }
+                failures.add(new BatchWriteResult.Failure(i, ex));
+            }
+        }
+        return BatchWriteResult.of(contexts.size(), failures);
+    }
 }
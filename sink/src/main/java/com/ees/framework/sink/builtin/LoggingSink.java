@@ -2,10 +2,13 @@ package com.ees.framework.sink.builtin;
 
 import com.ees.framework.annotations.FxSink;
 import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.BatchWriteResult;
 import com.ees.framework.sink.Sink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+
+import java.util.List;
 /**
  * 컨텍스트 내용을 로그로 출력하는 기본 Sink 구현.
  */
@@ -23,11 +26,32 @@ public class LoggingSink implements Sink<Object> {
     @Override
     public void write(FxContext<Object> context) {
         if (log.isInfoEnabled()) {
-            log.info("[LoggingSink] command={} payload={} headers={} meta={}",
-                context.command(),
-                context.message().payload(),
-                context.headers().values(),
-                context.meta());
+            logContext(context);
+        }
+    }
+
+    /**
+     * 로그 레벨을 배치당 한 번만 확인하고, INFO 가 꺼져 있으면 배치를 순회하지 않는다.
+     *
+     * @param contexts 출력할 배치
+     * @return 성공 결과
+     */
+    @Override
+    public BatchWriteResult writeBatch(List<FxContext<Object>> contexts) {
+        if (log.isInfoEnabled()) {
+            for (FxContext<Object> context : contexts) {
+                logContext(context);
+            }
         }
+        return BatchWriteResult.success(contexts.size());
+    }
+    // logContext 동작을 수행한다.
+
+    private void logContext(FxContext<Object> context) {
+        log.info("[LoggingSink] command={} payload={} headers={} meta={}",
+            context.command(),
+            context.message().payload(),
+            context.headers().values(),
+            context.meta());
     }
 }
@@ -2,8 +2,11 @@ package com.ees.framework.sink.builtin;
 
 import com.ees.framework.annotations.FxSink;
 import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.BatchWriteResult;
 import com.ees.framework.sink.Sink;
 import org.springframework.stereotype.Component;
+
+import java.util.List;
 /**
  * 입력을 그대로 무시하고 완료 신호만 반환하는 기본 Sink 구현.
  */
@@ -19,4 +22,15 @@ public class NoopSink implements Sink<Object> {
     public void write(FxContext<Object> context) {
         // no-op
     }
+
+    /**
+     * 배치를 순회하지 않고 바로 성공을 반환한다.
+     *
+     * @param contexts 무시할 배치
+     * @return 성공 결과
+     */
+    @Override
+    public BatchWriteResult writeBatch(List<FxContext<Object>> contexts) {
+        return BatchWriteResult.success(contexts.size());
+    }
 }
@@ -0,0 +1,95 @@
+package com.ees.framework.sink.kafka;
+
+import com.ees.framework.context.FxContext;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 트랜잭션 {@link KafkaSink} 가 출력과 함께 커밋할 입력 offset 을 제공한다.
+ * <p>
+ * consume-transform-produce 흐름에서 입력 consumer 쪽(예: TRANSACTIONAL 모드의 KafkaSource)이 구현하며,
+ * Sink 는 트랜잭션마다 {@link #committableIncluding(List)} 결과를 {@code sendOffsetsToTransaction} 으로 보내고,
+ * 커밋에 성공하면 같은 임계 구역에서 {@link #committed(List)} 를 호출한다.
+ */
+public interface ConsumedOffsets {
+
+    /**
+     * 입력 consumer 의 group id.
+     *
+     * @return group id
+     */
+    String groupId();
+
+    /**
+     * written 이 모두 처리 완료되었다고 가정했을 때 파티션별로 커밋해도 되는 위치를 반환한다.
+     * 다른 키의 앞선 레코드가 아직 처리 중이면 그 offset 을 넘지 않아야 한다.
+     *
+     * @param written 이번 트랜잭션으로 출력하는 컨텍스트
+     * @return 파티션별 커밋 위치
+     */
+    Map<TopicPartition, OffsetAndMetadata> committableIncluding(List<? extends FxContext<?>> written);
+
+    /**
+     * written 을 출력한 트랜잭션이 커밋된 직후, 다음 트랜잭션이 위치를 계산하기 전에 호출된다.
+     * 구현은 written 을 처리 완료로 표시해야 한다. 엔진의 완료 통지는 트랜잭션 밖에서 늦게 도착하므로, 표시하지 않으면
+     * 다음 트랜잭션이 이미 커밋된 위치보다 낮은 위치를 보내 그룹 offset 이 뒤로 갈 수 있다. 기본 구현은 아무것도 하지 않는다.
+     *
+     * @param written 커밋된 트랜잭션으로 출력한 컨텍스트
+     */
+    default void committed(List<? extends FxContext<?>> written) {
+    }
+
+    /**
+     * group id 와 위치 계산 함수로 구현을 만든다. {@link #committed(List)} 는 아무것도 하지 않는다.
+     *
+     * @param groupId 입력 consumer 의 group id
+     * @param committable 위치 계산 함수
+     * @return ConsumedOffsets
+     */
+    static ConsumedOffsets of(
+        String groupId,
+        Function<List<? extends FxContext<?>>, Map<TopicPartition, OffsetAndMetadata>> committable
+    ) {
+        return of(groupId, committable, written -> { });
+    }
+
+    /**
+     * group id, 위치 계산 함수, 커밋 완료 표시 함수로 구현을 만든다.
+     *
+     * @param groupId 입력 consumer 의 group id
+     * @param committable 위치 계산 함수
+     * @param committed 커밋된 컨텍스트를 처리 완료로 표시하는 함수
+     * @return ConsumedOffsets
+     */
+    static ConsumedOffsets of(
+        String groupId,
+        Function<List<? extends FxContext<?>>, Map<TopicPartition, OffsetAndMetadata>> committable,
+        Consumer<List<? extends FxContext<?>>> committed
+    ) {
+        Objects.requireNonNull(groupId, "groupId must not be null");
+        Objects.requireNonNull(committable, "committable must not be null");
+        Objects.requireNonNull(committed, "committed must not be null");
+        return new ConsumedOffsets() {
+            @Override
+            public String groupId() {
+                return groupId;
+            }
+
+            @Override
+            public Map<TopicPartition, OffsetAndMetadata> committableIncluding(List<? extends FxContext<?>> written) {
+                return committable.apply(written);
+            }
+
+            @Override
+            public void committed(List<? extends FxContext<?>> written) {
+                committed.accept(written);
+            }
+        };
+    }
+}
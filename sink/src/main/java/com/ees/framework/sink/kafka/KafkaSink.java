@@ -2,21 +2,33 @@ package com.ees.framework.sink.kafka;
 
 import com.ees.framework.annotations.FxSink;
 import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.BatchWriteResult;
 import com.ees.framework.sink.Sink;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -26,6 +38,12 @@ import java.util.concurrent.TimeoutException;
  * - topic: 설정된 기본 토픽 또는 {@link KafkaSinkSettings#topicHeaderKey()} 헤더 값
  * - key: {@code keyHeaderKey -> message.key -> affinity.value} 우선순위로 결정
  * - headers: (옵션) FxHeaders를 Kafka record headers로 복사
+ * <p>
+ * {@link KafkaSinkSettings#transactionalId()} 가 있으면 배치를 트랜잭션 하나로 전송한다. {@link ConsumedOffsets} 가 주어지면
+ * 같은 트랜잭션에서 입력 offset 도 {@code sendOffsetsToTransaction} 으로 커밋해, 출력과 입력 커밋이 함께 반영되거나
+ * 함께 취소된다. 트랜잭션은 producer 하나를 공유하므로 워커들의 배치 쓰기는 순차로 실행된다.
+ * 커밋한 컨텍스트는 같은 잠금 안에서 {@link ConsumedOffsets#committed(List)} 로 완료 표시하므로,
+ * 다음 트랜잭션이 보내는 입력 offset 은 앞선 트랜잭션이 보낸 위치보다 뒤로 가지 않는다.
  */
 @FxSink(KafkaSink.SINK_TYPE)
 public final class KafkaSink implements Sink<String>, AutoCloseable {
@@ -40,7 +58,11 @@ public final class KafkaSink implements Sink<String>, AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(KafkaSink.class);
 
     private final KafkaSinkSettings settings;
+    private final ConsumedOffsets consumedOffsets;
+    private final Object transactionLock = new Object();
     private volatile Producer<String, String> producer;
+    // transactionLock 안에서만 접근한다.
+    private boolean transactionsInitialized;
 
     /**
      * 설정 기반으로 KafkaSink를 생성한다.
@@ -48,12 +70,30 @@ public final class KafkaSink implements Sink<String>, AutoCloseable {
      * @param settings Kafka 전송 설정
      */
     public KafkaSink(KafkaSinkSettings settings) {
-        this(settings, null);
+        this(settings, null, null);
+    }
+
+    /**
+     * 트랜잭션마다 입력 offset 을 함께 커밋하는 KafkaSink를 생성한다.
+     *
+     * @param settings Kafka 전송 설정(transactionalId 필수)
+     * @param consumedOffsets 트랜잭션에 포함할 입력 offset 제공자
+     */
+    public KafkaSink(KafkaSinkSettings settings, ConsumedOffsets consumedOffsets) {
+        this(settings, null, Objects.requireNonNull(consumedOffsets, "consumedOffsets must not be null"));
     }
 
     KafkaSink(KafkaSinkSettings settings, Producer<String, String> producer) {
+        this(settings, producer, null);
+    }
+
+    KafkaSink(KafkaSinkSettings settings, Producer<String, String> producer, ConsumedOffsets consumedOffsets) {
         this.settings = Objects.requireNonNull(settings, "settings must not be null");
+        if (consumedOffsets != null && !settings.transactional()) {
+            throw new IllegalArgumentException("consumedOffsets requires transactionalId");
+        }
         this.producer = producer;
+        this.consumedOffsets = consumedOffsets;
     }
 
     /**
@@ -66,33 +106,18 @@ public final class KafkaSink implements Sink<String>, AutoCloseable {
      */
     @Override
     public void write(FxContext<String> context) {
-        if (context == null) {
+        if (settings.transactional()) {
+            writeTransactional(List.of(context));
             return;
         }
-        String payload = context.message().payload();
-        if (payload == null) {
+        ProducerRecord<String, String> record = toRecord(context);
+        if (record == null) {
             return;
         }
 
-        String topic = resolveTopic(context);
-        String key = resolveKey(context);
-
-        ProducerRecord<String, String> record = new ProducerRecord<>(
-            topic,
-            null,
-            context.message().timestamp() != null ? context.message().timestamp().toEpochMilli() : null,
-            key,
-            payload,
-            buildHeaders(context, key)
-        );
-
         Producer<String, String> producer = ensureProducer();
         if (!settings.synchronous()) {
-            producer.send(record, (metadata, exception) -> {
-                if (exception != null) {
-                    log.warn("Failed to send Kafka record topic={} sinkId={}", topic, settings.sinkId(), exception);
-                }
-            });
+            producer.send(record, asyncCallback(record.topic()));
             return;
         }
 
@@ -108,6 +133,54 @@ public final class KafkaSink implements Sink<String>, AutoCloseable {
         }
     }
 
+    /**
+     * 배치의 모든 레코드를 먼저 send 한 뒤, synchronous 모드이면 배치 전체에 대해
+     * {@link KafkaSinkSettings#sendTimeout()} 한 번의 기한 안에서 결과를 모은다.
+     * <p>
+     * 레코드별 ack 를 기다리지 않고 연속으로 send 하므로 producer 가 같은 파티션 레코드를 한 요청으로 묶을 수 있다.
+     * send 자체가 실패하거나 ack 가 실패/타임아웃된 요소는 결과의 실패 목록으로 보고한다.
+     *
+     * @param contexts 전송할 배치
+     * @return 요소별 실패 정보를 담은 결과
+     */
+    @Override
+    public BatchWriteResult writeBatch(List<FxContext<String>> contexts) {
+        int size = contexts.size();
+        if (size == 0) {
+            return BatchWriteResult.success(0);
+        }
+        if (settings.transactional()) {
+            writeTransactional(contexts);
+            return BatchWriteResult.success(size);
+        }
+        Producer<String, String> producer = ensureProducer();
+        boolean synchronous = settings.synchronous();
+        List<Future<RecordMetadata>> pending = synchronous ? new ArrayList<>(size) : null;
+        Throwable[] errors = null;
+        for (int i = 0; i < size; i++) {
+            Future<RecordMetadata> future = null;
+            try {
+                ProducerRecord<String, String> record = toRecord(contexts.get(i));
+                if (record != null) {
+                    if (synchronous) {
+                        future = producer.send(record);
+                    } else {
+                        producer.send(record, asyncCallback(record.topic()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                errors = recordError(errors, size, i, e);
+            }
+            if (synchronous) {
+                pending.add(future);
+            }
+        }
+        if (synchronous) {
+            errors = awaitAcks(pending, errors);
+        }
+        return toResult(size, errors);
+    }
+
     /**
      * 생성된 Kafka producer 리소스를 정리한다.
      */
@@ -127,6 +200,156 @@ public final class KafkaSink implements Sink<String>, AutoCloseable {
         }
     }
 
+    /**
+     * 배치를 트랜잭션 하나로 전송하고 입력 offset 을 함께 커밋한다. 어느 레코드든 실패하면 트랜잭션 전체를 취소하고
+     * 예외를 던지므로, 엔진이 컨텍스트별로 다시 실행할 때 각 컨텍스트가 자기 트랜잭션으로 재시도된다.
+     * producer 가 fence 되는 등 복구할 수 없으면 producer 를 닫고 다음 쓰기에서 새로 만든다.
+     */
+    private void writeTransactional(List<FxContext<String>> contexts) {
+        synchronized (transactionLock) {
+            Producer<String, String> producer = ensureProducer();
+            if (!transactionsInitialized) {
+                producer.initTransactions();
+                transactionsInitialized = true;
+            }
+            try {
+                producer.beginTransaction();
+                for (FxContext<String> context : contexts) {
+                    ProducerRecord<String, String> record = toRecord(context);
+                    if (record != null) {
+                        producer.send(record);
+                    }
+                }
+                if (consumedOffsets != null) {
+                    Map<TopicPartition, OffsetAndMetadata> offsets = consumedOffsets.committableIncluding(contexts);
+                    if (!offsets.isEmpty()) {
+                        producer.sendOffsetsToTransaction(offsets, new ConsumerGroupMetadata(consumedOffsets.groupId()));
+                    }
+                }
+                producer.commitTransaction();
+            } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+                discardProducer(producer);
+                throw new IllegalStateException("Kafka transaction failed; producer discarded", e);
+            } catch (RuntimeException e) {
+                abortTransaction(producer);
+                throw new IllegalStateException("Kafka transaction aborted", e);
+            }
+            markCommitted(contexts);
+        }
+    }
+
+    /**
+     * 커밋된 트랜잭션의 컨텍스트를 입력 쪽에 완료로 표시한다. 트랜잭션은 이미 커밋되었으므로 실패해도 쓰기를 실패로 만들지 않는다
+     * (엔진의 완료 통지가 뒤이어 같은 표시를 한다).
+     */
+    private void markCommitted(List<FxContext<String>> contexts) {
+        if (consumedOffsets == null) {
+            return;
+        }
+        try {
+            consumedOffsets.committed(contexts);
+        } catch (RuntimeException e) {
+            log.warn("Failed to mark committed contexts as processed sinkId={}", settings.sinkId(), e);
+        }
+    }
+
+    private void abortTransaction(Producer<String, String> producer) {
+        try {
+            producer.abortTransaction();
+        } catch (RuntimeException e) {
+            log.warn("Failed to abort Kafka transaction sinkId={}", settings.sinkId(), e);
+            discardProducer(producer);
+        }
+    }
+
+    private void discardProducer(Producer<String, String> producer) {
+        try {
+            producer.close();
+        } catch (RuntimeException e) {
+            log.warn("Failed to close Kafka producer for sinkType={}", SINK_TYPE, e);
+        }
+        this.producer = null;
+        this.transactionsInitialized = false;
+    }
+
+    private ProducerRecord<String, String> toRecord(FxContext<String> context) {
+        if (context == null) {
+            return null;
+        }
+        String payload = context.message().payload();
+        if (payload == null) {
+            return null;
+        }
+
+        String topic = resolveTopic(context);
+        String key = resolveKey(context);
+
+        return new ProducerRecord<>(
+            topic,
+            null,
+            context.message().timestamp() != null ? context.message().timestamp().toEpochMilli() : null,
+            key,
+            payload,
+            buildHeaders(context, key)
+        );
+    }
+
+    private Callback asyncCallback(String topic) {
+        return (metadata, exception) -> {
+            if (exception != null) {
+                log.warn("Failed to send Kafka record topic={} sinkId={}", topic, settings.sinkId(), exception);
+            }
+        };
+    }
+
+    private Throwable[] awaitAcks(List<Future<RecordMetadata>> pending, Throwable[] errors) {
+        long deadline = System.nanoTime() + settings.sendTimeout().toNanos();
+        for (int i = 0; i < pending.size(); i++) {
+            Future<RecordMetadata> future = pending.get(i);
+            if (future == null) {
+                continue;
+            }
+            try {
+                future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                IllegalStateException interrupted = new IllegalStateException("Kafka send interrupted", e);
+                for (int j = i; j < pending.size(); j++) {
+                    if (pending.get(j) != null) {
+                        errors = recordError(errors, pending.size(), j, interrupted);
+                    }
+                }
+                return errors;
+            } catch (TimeoutException e) {
+                errors = recordError(errors, pending.size(), i,
+                    new IllegalStateException("Kafka send timed out after " + settings.sendTimeout(), e));
+            } catch (ExecutionException e) {
+                errors = recordError(errors, pending.size(), i,
+                    new IllegalStateException("Kafka send failed", e.getCause() != null ? e.getCause() : e));
+            }
+        }
+        return errors;
+    }
+
+    private static Throwable[] recordError(Throwable[] errors, int size, int index, Throwable error) {
+        Throwable[] target = errors != null ? errors : new Throwable[size];
+        target[index] = error;
+        return target;
+    }
+
+    private static BatchWriteResult toResult(int size, Throwable[] errors) {
+        if (errors == null) {
+            return BatchWriteResult.success(size);
+        }
+        List<BatchWriteResult.Failure> failures = new ArrayList<>();
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                failures.add(new BatchWriteResult.Failure(i, errors[i]));
+            }
+        }
+        return BatchWriteResult.of(size, failures);
+    }
+
     private Producer<String, String> ensureProducer() {
         Producer<String, String> current = producer;
         if (current != null) {
@@ -151,8 +374,13 @@ public final class KafkaSink implements Sink<String>, AutoCloseable {
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
 
-        props.put(ProducerConfig.ACKS_CONFIG, settings.acks());
-        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, Boolean.toString(settings.enableIdempotence()));
+        // 트랜잭션 producer 는 idempotence 와 acks=all 이 필요하다.
+        props.put(ProducerConfig.ACKS_CONFIG, settings.transactional() ? "all" : settings.acks());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG,
+            Boolean.toString(settings.enableIdempotence() || settings.transactional()));
+        if (settings.transactional()) {
+            props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, settings.transactionalId());
+        }
 
         settings.additionalProperties().forEach(props::putIfAbsent);
         return props;
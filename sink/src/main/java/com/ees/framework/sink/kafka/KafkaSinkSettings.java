@@ -8,7 +8,10 @@ import java.util.Objects;
  * {@link KafkaSink} 생성에 필요한 설정 값 모음.
  * <p>
  * {@link KafkaSink}는 {@link com.ees.framework.sink.Sink#write(com.ees.framework.context.FxContext)} 호출마다
- * 1건의 Kafka 메시지를 전송한다.
+ * 1건의 Kafka 메시지를 전송하고, {@link com.ees.framework.sink.Sink#writeBatch(java.util.List)} 는 배치를 연속 전송한 뒤
+ * {@link #sendTimeout()} 안에서 ack 를 한 번에 기다린다.
+ * <p>
+ * {@link #transactionalId()} 가 있으면 배치마다 하나의 트랜잭션으로 전송하고 commit 까지 기다린다(synchronous 무시).
  */
 public record KafkaSinkSettings(
     String bootstrapServers,
@@ -22,7 +25,8 @@ public record KafkaSinkSettings(
     String keyHeaderKey,
     boolean includeFxHeaders,
     String sinkId,
-    Map<String, String> additionalProperties
+    Map<String, String> additionalProperties,
+    String transactionalId
 ) {
 
     public KafkaSinkSettings {
@@ -41,5 +45,35 @@ public record KafkaSinkSettings(
             throw new IllegalArgumentException("sendTimeout must be > 0");
         }
     }
+
+    /**
+     * 트랜잭션 없이 전송하는 설정을 생성한다.
+     */
+    public KafkaSinkSettings(
+        String bootstrapServers,
+        String topic,
+        String clientId,
+        String acks,
+        boolean enableIdempotence,
+        Duration sendTimeout,
+        boolean synchronous,
+        String topicHeaderKey,
+        String keyHeaderKey,
+        boolean includeFxHeaders,
+        String sinkId,
+        Map<String, String> additionalProperties
+    ) {
+        this(bootstrapServers, topic, clientId, acks, enableIdempotence, sendTimeout, synchronous, topicHeaderKey,
+            keyHeaderKey, includeFxHeaders, sinkId, additionalProperties, null);
+    }
+
+    /**
+     * 트랜잭션 모드 여부.
+     *
+     * @return transactionalId 가 있으면 true
+     */
+    public boolean transactional() {
+        return transactionalId != null && !transactionalId.isBlank();
+    }
 }
 
@@ -5,20 +5,33 @@ import com.ees.framework.context.FxCommand;
 import com.ees.framework.context.FxContext;
 import com.ees.framework.context.FxHeaders;
 import com.ees.framework.context.FxMessage;
+import com.ees.framework.sink.BatchWriteResult;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.producer.MockProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class KafkaSinkTest {
 
@@ -65,5 +78,150 @@ class KafkaSinkTest {
         assertArrayEquals("bar".getBytes(StandardCharsets.UTF_8),
             record.headers().lastHeader("fx-header-foo").value());
     }
-}
 
+    @Test
+    void writeBatchSendsAllRecordsBeforeAwaitingAcksAndReportsPerElementFailures() throws Exception {
+        MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        KafkaSinkSettings settings = new KafkaSinkSettings(
+            "localhost:9092",
+            "out",
+            "client-1",
+            "all",
+            false,
+            Duration.ofSeconds(5),
+            true,
+            null,
+            null,
+            false,
+            "kafka-sink-test",
+            Map.of()
+        );
+        KafkaSink sink = new KafkaSink(settings, producer);
+        List<FxContext<String>> batch = List.of(
+            FxContext.of(FxMessage.now("test", "p-0"), FxCommand.of("cmd")),
+            FxContext.of(FxMessage.now("test", "p-1"), FxCommand.of("cmd")),
+            FxContext.of(FxMessage.now("test", "p-2"), FxCommand.of("cmd"))
+        );
+
+        CompletableFuture<BatchWriteResult> result = CompletableFuture.supplyAsync(() -> sink.writeBatch(batch));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (producer.history().size() < batch.size() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(batch.size(), producer.history().size());
+        assertTrue(producer.completeNext());
+        assertTrue(producer.errorNext(new RuntimeException("broker rejected")));
+        assertTrue(producer.completeNext());
+
+        BatchWriteResult outcome = result.get(2, TimeUnit.SECONDS);
+        assertEquals(3, outcome.size());
+        assertEquals(2, outcome.succeeded());
+        assertEquals(1, outcome.failures().size());
+        assertEquals(1, outcome.failures().get(0).index());
+    }
+
+    @Test
+    void transactionalWriteBatchCommitsRecordsAndConsumedOffsetsTogether() {
+        MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        TopicPartition input = new TopicPartition("in", 0);
+        ConsumedOffsets offsets = ConsumedOffsets.of("ees", written -> Map.of(input, new OffsetAndMetadata(written.size())));
+        KafkaSink sink = new KafkaSink(transactionalSettings(), producer, offsets);
+
+        BatchWriteResult result = sink.writeBatch(List.of(context("p0"), context("p1")));
+
+        assertTrue(result.isSuccess());
+        assertTrue(producer.transactionCommitted());
+        assertEquals(2, producer.history().size());
+        assertEquals(List.of(Map.of("ees", Map.of(input, new OffsetAndMetadata(2L)))),
+            producer.consumerGroupOffsetsHistory());
+    }
+
+    @Test
+    void interleavedTransactionsNeverSendLowerOffsetsWhileAcknowledgementIsDelayed() throws Exception {
+        MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        TopicPartition input = new TopicPartition("in", 0);
+        // 입력 offset 0, 1 이 처리 중이다. 엔진의 완료 통지는 테스트가 끝날 때까지 오지 않는다.
+        Set<Long> pending = new ConcurrentSkipListSet<>(List.of(0L, 1L));
+        CountDownLatch firstComputing = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        ConsumedOffsets offsets = ConsumedOffsets.of("ees", written -> {
+            Set<Long> including = offsetsOf(written);
+            if (including.contains(0L)) {
+                firstComputing.countDown();
+                await(releaseFirst);
+            }
+            long position = pending.stream().filter(offset -> !including.contains(offset)).findFirst().orElse(2L);
+            return Map.of(input, new OffsetAndMetadata(position));
+        }, written -> pending.removeAll(offsetsOf(written)));
+        KafkaSink sink = new KafkaSink(transactionalSettings(), producer, offsets);
+
+        CompletableFuture<BatchWriteResult> first = CompletableFuture.supplyAsync(() -> sink.writeBatch(List.of(context("0"))));
+        assertTrue(firstComputing.await(2, TimeUnit.SECONDS));
+        CompletableFuture<BatchWriteResult> second = CompletableFuture.supplyAsync(() -> sink.writeBatch(List.of(context("1"))));
+        Thread.sleep(50);
+        releaseFirst.countDown();
+
+        assertTrue(first.get(2, TimeUnit.SECONDS).isSuccess());
+        assertTrue(second.get(2, TimeUnit.SECONDS).isSuccess());
+        assertEquals(List.of(
+            Map.of("ees", Map.of(input, new OffsetAndMetadata(1L))),
+            Map.of("ees", Map.of(input, new OffsetAndMetadata(2L)))
+        ), producer.consumerGroupOffsetsHistory());
+    }
+
+    @Test
+    void transactionalWriteAbortsWhenAnyPartOfTransactionFails() {
+        MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        AtomicBoolean committed = new AtomicBoolean();
+        ConsumedOffsets offsets = ConsumedOffsets.of("ees", written -> {
+            throw new IllegalStateException("offsets unavailable");
+        }, written -> committed.set(true));
+        KafkaSink sink = new KafkaSink(transactionalSettings(), producer, offsets);
+
+        assertThrows(IllegalStateException.class, () -> sink.writeBatch(List.of(context("p0"))));
+
+        assertFalse(committed.get());
+        assertTrue(producer.transactionAborted());
+        assertFalse(producer.transactionCommitted());
+        assertTrue(producer.history().isEmpty());
+    }
+
+    private static KafkaSinkSettings transactionalSettings() {
+        return new KafkaSinkSettings(
+            "localhost:9092",
+            "out",
+            "client-1",
+            "all",
+            true,
+            Duration.ofSeconds(1),
+            true,
+            null,
+            null,
+            false,
+            "kafka-sink-test",
+            Map.of(),
+            "ees-tx"
+        );
+    }
+
+    private static Set<Long> offsetsOf(List<? extends FxContext<?>> written) {
+        Set<Long> offsets = new HashSet<>();
+        for (FxContext<?> context : written) {
+            offsets.add(Long.parseLong((String) context.message().payload()));
+        }
+        return offsets;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static FxContext<String> context(String payload) {
+        return FxContext.of(FxMessage.now("test", payload), FxCommand.of("cmd"))
+            .withAffinity(FxAffinity.of("equipmentId", "eqp-1"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ees.framework.source;
+
+import com.ees.framework.context.FxContext;
+
+import java.util.List;
+
+/**
+ * 워크플로 엔진으로부터 처리가 끝난 컨텍스트를 통지받는 Source.
+ * <p>
+ * 엔진은 컨텍스트가 마지막 per-key 워커에서 끝났을 때(Sink 기록 성공, 재시도 후 dead-letter, 만료 처리 포함)와
+ * 백프레셔 정책으로 버렸을 때 워커 배치 단위로 {@link #acknowledge(List)} 를 호출한다. 전용 스테이지로 넘어간 컨텍스트는 그 스테이지 워커가 통지한다.
+ * 통지받은 컨텍스트는 앞 단계에서 변환된 인스턴스일 수 있으므로, 구현은 원본 레코드의 위치를
+ * {@link com.ees.framework.context.FxMeta#attributes()} 처럼 변환 뒤에도 남는 정보로 식별해야 한다.
+ * <p>
+ * 여러 워커 스레드에서 동시에 호출되므로 구현은 thread-safe 해야 하며, 오래 블로킹하지 않아야 한다.
+ * {@link PartitionedSource} 이면 엔진은 최상위 Source 에만 통지하므로 파티션으로의 전달은 구현이 맡는다.
+ *
+ * @param <T> 소스에서 내보내는 레코드 타입
+ */
+public interface AcknowledgingSource<T> extends Source<T> {
+
+    /**
+     * 처리가 끝난 컨텍스트를 통지한다.
+     *
+     * @param contexts 한 워커 배치에서 처리가 끝난 컨텍스트
+     */
+    void acknowledge(List<? extends FxContext<?>> contexts);
+
+    /**
+     * 현재 설정에서 완료 통지가 필요한지 반환한다. false 이면 엔진은 통지하지 않는다.
+     *
+     * @return 통지가 필요하면 true
+     */
+    default boolean requiresAcknowledgement() {
+        return true;
+    }
+}
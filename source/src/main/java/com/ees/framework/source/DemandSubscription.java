@@ -0,0 +1,153 @@
+package com.ees.framework.source;
+
+import java.time.Duration;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link PushSource} 구현에서 공통으로 사용하는 demand 추적용 {@link Flow.Subscription}.
+ * <p>
+ * 구독자가 요청한 건수를 누적(최대 {@link Long#MAX_VALUE})하고, 발행 스레드는
+ * {@link #awaitDemand(Duration)} 로 수요가 생길 때까지 대기한 뒤 {@link #tryConsume()} 으로
+ * 1건씩 소비한다. 잘못된 요청(n &lt;= 0)은 구독을 취소하고 {@link #failure()} 로 노출한다.
+ */
+public final class DemandSubscription implements Flow.Subscription {
+
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition demandAvailable = lock.newCondition();
+    private final Runnable onCancel;
+    private volatile IllegalArgumentException failure;
+
+    /**
+     * 취소 시 추가 동작이 없는 구독을 생성한다.
+     */
+    public DemandSubscription() {
+        this(() -> { });
+    }
+
+    /**
+     * 취소 시 실행할 동작(예: 블로킹 poll 깨우기)을 지정해 구독을 생성한다.
+     *
+     * @param onCancel 취소 시 1회 실행할 동작
+     */
+    public DemandSubscription(Runnable onCancel) {
+        this.onCancel = onCancel;
+    }
+
+    /**
+     * 수요를 n 만큼 늘린다.
+     *
+     * @param n 추가 요청 건수(양수)
+     */
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            failure = new IllegalArgumentException("request must be > 0 but was " + n);
+            cancel();
+            return;
+        }
+        long current;
+        long updated;
+        do {
+            current = demand.get();
+            updated = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!demand.compareAndSet(current, updated));
+        if (current == 0) {
+            signal();
+        }
+    }
+
+    /**
+     * 구독을 취소하고 대기 중인 발행 스레드를 깨운다.
+     */
+    @Override
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            signal();
+            onCancel.run();
+        }
+    }
+
+    /**
+     * 취소 여부를 반환한다.
+     *
+     * @return 취소되었으면 true
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * 잘못된 request 호출로 발생한 오류를 반환한다.
+     *
+     * @return 오류(없으면 null)
+     */
+    public IllegalArgumentException failure() {
+        return failure;
+    }
+
+    /**
+     * 현재 남은 수요를 반환한다.
+     *
+     * @return 남은 요청 건수
+     */
+    public long demand() {
+        return demand.get();
+    }
+
+    /**
+     * 수요가 남아 있으면 1건 소비한다.
+     *
+     * @return 소비했으면 true
+     */
+    public boolean tryConsume() {
+        long current;
+        do {
+            current = demand.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (current == Long.MAX_VALUE) {
+                return true;
+            }
+        } while (!demand.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    /**
+     * 수요가 생기거나 취소될 때까지 최대 timeout 만큼 대기한다.
+     *
+     * @param timeout 최대 대기 시간
+     * @return 취소되지 않았고 수요가 있으면 true
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    public boolean awaitDemand(Duration timeout) throws InterruptedException {
+        if (demand.get() > 0 || cancelled.get()) {
+            return !cancelled.get() && demand.get() > 0;
+        }
+        long remainingNanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (demand.get() == 0 && !cancelled.get() && remainingNanos > 0) {
+                remainingNanos = demandAvailable.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return !cancelled.get() && demand.get() > 0;
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            demandAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
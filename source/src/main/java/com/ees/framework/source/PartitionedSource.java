@@ -0,0 +1,25 @@
+package com.ees.framework.source;
+
+import java.util.List;
+
+/**
+ * 여러 개의 독립 Source 인스턴스(파티션/컨슈머)로 나뉘어 병렬로 읽을 수 있는 Source.
+ * <p>
+ * 워크플로 엔진은 이 인터페이스를 구현한 Source 를 감지하면 {@link #partitions()} 가 돌려준 인스턴스마다
+ * 전용 리더 스레드를 띄우고, 모든 리더가 같은 per-key 디스패처로 컨텍스트를 넘긴다.
+ * 키 단위 순서는 같은 affinity 키가 항상 하나의 파티션에서만 읽힐 때 보장된다
+ * (예: 같은 consumer group 의 Kafka 컨슈머는 파티션을 나눠 가지므로 레코드 키가 한 컨슈머로만 간다).
+ * <p>
+ * 각 파티션은 {@link PushSource} 일 수 있으며, 이 경우 continuous 모드에서 파티션마다 구독한다.
+ *
+ * @param <T> 소스에서 내보내는 레코드 타입
+ */
+public interface PartitionedSource<T> extends Source<T> {
+
+    /**
+     * 병렬로 읽을 Source 인스턴스 목록을 반환한다. 같은 인스턴스에 대해 여러 번 호출해도 같은 목록을 돌려줘야 한다.
+     *
+     * @return 하나 이상의 Source 인스턴스
+     */
+    List<? extends Source<T>> partitions();
+}
@@ -0,0 +1,21 @@
+package com.ees.framework.source;
+
+import com.ees.framework.context.FxContext;
+
+import java.util.concurrent.Flow;
+
+/**
+ * 데이터를 당겨오는({@link #read()}) 대신 수요(demand)만큼 밀어주는 push 기반 Source.
+ * <p>
+ * {@link Flow.Publisher} 계약을 따르며, 구독자가 {@link Flow.Subscription#request(long)} 으로
+ * 허용한 건수까지만 {@code onNext} 를 호출해야 한다. 워크플로 엔진은 continuous 모드에서
+ * 이 인터페이스를 구현한 Source 를 감지하면 폴링 루프 대신 구독하고, per-key 큐에서 처리가 끝난
+ * 만큼 credit 을 다시 요청한다.
+ * <p>
+ * 기존 레지스트리/비 continuous 실행과의 호환을 위해 {@link Source#read()} 도 함께 제공한다.
+ * 하나의 인스턴스에서 read 와 subscribe 를 동시에 사용하지 않는다.
+ *
+ * @param <T> 소스에서 내보내는 레코드 타입
+ */
+public interface PushSource<T> extends Source<T>, Flow.Publisher<FxContext<T>> {
+}
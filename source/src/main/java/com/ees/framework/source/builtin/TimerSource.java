@@ -6,18 +6,23 @@ import com.ees.framework.context.FxContext;
 import com.ees.framework.context.FxHeaders;
 import com.ees.framework.context.FxMessage;
 import com.ees.framework.context.FxMeta;
-import com.ees.framework.source.Source;
+import com.ees.framework.source.DemandSubscription;
+import com.ees.framework.source.PushSource;
 import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
 
 /**
  * 주기적으로 틱 값을 생성하는 기본 Source 구현.
+ * <p>
+ * push 구독 시에는 구독자의 수요가 있을 때만 틱을 발행하며, 수요가 없으면 타이머를 멈춘다.
  */
 @FxSource(type = "timer")
 @Component
-public class TimerSource implements Source<Long> {
+public class TimerSource implements PushSource<Long> {
 
     private final Duration period;
     private final FxCommand command;
@@ -69,14 +74,60 @@ public class TimerSource implements Source<Long> {
                     Thread.currentThread().interrupt();
                     throw new IllegalStateException("TimerSource interrupted", e);
                 }
-                return new FxContext<>(
-                    command,
-                    FxHeaders.empty(),
-                    new FxMessage<>("timer", seq++, Instant.now(), null),
-                    FxMeta.empty(),
-                    com.ees.framework.context.FxAffinity.none()
-                );
+                return tick(seq++);
             }
         };
     }
+
+    /**
+     * 전용 가상 스레드에서 수요만큼 주기적으로 틱을 발행한다.
+     *
+     * @param subscriber 틱을 받을 구독자
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super FxContext<Long>> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber must not be null");
+        DemandSubscription subscription = new DemandSubscription();
+        subscriber.onSubscribe(subscription);
+        Thread.ofVirtual().name("timer-source").start(() -> emit(subscriber, subscription));
+    }
+    // emit 동작을 수행한다.
+
+    private void emit(Flow.Subscriber<? super FxContext<Long>> subscriber, DemandSubscription subscription) {
+        long seq = 0;
+        try {
+            while (!subscription.isCancelled()) {
+                if (!subscription.awaitDemand(period)) {
+                    continue;
+                }
+                Thread.sleep(period.toMillis());
+                if (subscription.isCancelled() || !subscription.tryConsume()) {
+                    continue;
+                }
+                subscriber.onNext(tick(seq++));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscriber.onError(new IllegalStateException("TimerSource interrupted", e));
+            return;
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            subscriber.onError(e);
+            return;
+        }
+        if (subscription.failure() != null) {
+            subscriber.onError(subscription.failure());
+        }
+    }
+    // tick 동작을 수행한다.
+
+    private FxContext<Long> tick(long seq) {
+        return new FxContext<>(
+            command,
+            FxHeaders.empty(),
+            new FxMessage<>("timer", seq, Instant.now(), null),
+            FxMeta.empty(),
+            com.ees.framework.context.FxAffinity.none()
+        );
+    }
 }
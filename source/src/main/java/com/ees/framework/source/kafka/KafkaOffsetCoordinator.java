@@ -0,0 +1,233 @@
+package com.ees.framework.source.kafka;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxMeta;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 파티션별로 처리 중인 offset 을 추적해 커밋해도 되는 위치(앞선 offset 이 모두 처리 완료된 다음 offset)를 계산한다.
+ * <p>
+ * poll 스레드가 발행하는 레코드마다 {@link #track(String, int, long)} 를 호출하고, 워크플로 엔진의 per-key 워커들이
+ * 처리 완료된 컨텍스트를 {@link #acknowledge(FxContext)} 로 통지한다. 키마다 처리 속도가 달라 완료 순서가 offset 순서와
+ * 다르더라도, 커밋 위치는 가장 낮은 미완료 offset 을 넘지 않는다.
+ * <p>
+ * {@link #acknowledge(FxContext)} 와 {@link #committableIncluding(List)} 를 제외한 메서드는
+ * consumer 를 소유한 poll 스레드에서만 호출한다(두 메서드는 어느 스레드에서나 호출할 수 있다).
+ */
+final class KafkaOffsetCoordinator {
+
+    private final ConcurrentMap<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final long commitIntervalNanos;
+    // poll 스레드에서만 접근한다.
+    private long lastCommitNanos = System.nanoTime();
+
+    KafkaOffsetCoordinator(long commitIntervalNanos) {
+        this.commitIntervalNanos = commitIntervalNanos;
+    }
+
+    /**
+     * 발행한 레코드의 offset 을 미완료로 등록한다.
+     */
+    void track(String topic, int partition, long offset) {
+        partitions.computeIfAbsent(new TopicPartition(topic, partition), tp -> new PartitionOffsets()).track(offset);
+    }
+
+    /**
+     * 발행하지 않고 건너뛴 레코드(예: tombstone)의 offset 을 완료된 것으로 본다.
+     */
+    void skip(String topic, int partition, long offset) {
+        partitions.computeIfAbsent(new TopicPartition(topic, partition), tp -> new PartitionOffsets()).skip(offset);
+    }
+
+    /**
+     * 처리가 끝난 컨텍스트의 offset 을 완료로 표시한다.
+     *
+     * @return 추적 중인 파티션의 offset 이면 true
+     */
+    boolean acknowledge(FxContext<?> context) {
+        TopicPartition partition = partitionOf(context);
+        long offset = offsetOf(context);
+        if (partition == null || offset < 0) {
+            return false;
+        }
+        PartitionOffsets offsets = partitions.get(partition);
+        return offsets != null && offsets.pending.remove(offset);
+    }
+
+    /**
+     * 마지막 커밋 이후 위치가 전진한 파티션의 커밋 위치를 반환한다.
+     */
+    Map<TopicPartition, OffsetAndMetadata> committable() {
+        Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+        partitions.forEach((partition, offsets) -> {
+            long position = offsets.position(Set.of());
+            if (position > offsets.committed) {
+                result.put(partition, new OffsetAndMetadata(position));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * contexts 가 모두 처리 완료되었다고 가정했을 때의 커밋 위치를 반환한다. 추적 상태는 바꾸지 않는다.
+     * 트랜잭션 Sink 가 출력과 같은 트랜잭션으로 커밋할 위치를 계산할 때 사용한다.
+     */
+    Map<TopicPartition, OffsetAndMetadata> committableIncluding(List<? extends FxContext<?>> contexts) {
+        Map<TopicPartition, Set<Long>> including = new HashMap<>();
+        for (FxContext<?> context : contexts) {
+            TopicPartition partition = partitionOf(context);
+            long offset = offsetOf(context);
+            if (partition != null && offset >= 0) {
+                including.computeIfAbsent(partition, tp -> new HashSet<>()).add(offset);
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+        partitions.forEach((partition, offsets) -> {
+            long position = offsets.position(including.getOrDefault(partition, Set.of()));
+            if (position >= 0) {
+                result.put(partition, new OffsetAndMetadata(position));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 커밋을 요청한 위치를 기록한다. 커밋이 실패하면 {@link #commitFailed(Collection)} 로 되돌린다.
+     */
+    void markCommitted(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        offsets.forEach((partition, offset) -> {
+            PartitionOffsets state = partitions.get(partition);
+            if (state != null) {
+                state.committed = Math.max(state.committed, offset.offset());
+            }
+        });
+        lastCommitNanos = System.nanoTime();
+    }
+
+    /**
+     * 커밋에 실패한 파티션을 다음 주기에 다시 커밋하도록 표시한다.
+     */
+    void commitFailed(Collection<TopicPartition> failed) {
+        for (TopicPartition partition : failed) {
+            PartitionOffsets state = partitions.get(partition);
+            if (state != null) {
+                state.committed = -1L;
+            }
+        }
+    }
+
+    /**
+     * 마지막 커밋 후 커밋 주기가 지났는지 반환한다.
+     */
+    boolean commitDue(long nowNanos) {
+        return nowNanos - lastCommitNanos >= commitIntervalNanos;
+    }
+
+    /**
+     * 회수된 파티션의 추적 상태를 버린다. 이후 도착하는 그 파티션의 완료 통지는 무시된다.
+     */
+    void revoke(Collection<TopicPartition> revoked) {
+        revoked.forEach(partitions::remove);
+    }
+
+    /**
+     * 추적 중인 파티션 중 revoked 에 속한 것만 골라 커밋 위치를 반환한다.
+     */
+    Map<TopicPartition, OffsetAndMetadata> committableFor(Collection<TopicPartition> revoked) {
+        Map<TopicPartition, OffsetAndMetadata> all = committable();
+        all.keySet().retainAll(new HashSet<>(revoked));
+        return all;
+    }
+    /**
+     * 컨텍스트의 원본 파티션을 반환한다. 메타 속성이 없으면 헤더를 본다.
+     *
+     * @return 파티션, 알 수 없으면 null
+     */
+    static TopicPartition partitionOf(FxContext<?> context) {
+        FxMeta meta = context.meta() != null ? context.meta() : FxMeta.empty();
+        Object topic = meta.attributes().get(KafkaSource.ATTRIBUTE_TOPIC);
+        if (topic == null) {
+            topic = context.headers().get(KafkaSource.HEADER_KAFKA_TOPIC);
+        }
+        long partition = meta.intAttribute(KafkaSource.ATTRIBUTE_PARTITION, -1);
+        if (partition < 0) {
+            partition = toLong(context.headers().get(KafkaSource.HEADER_KAFKA_PARTITION));
+        }
+        if (topic == null || partition < 0) {
+            return null;
+        }
+        return new TopicPartition(topic.toString(), (int) partition);
+    }
+    // offsetOf 동작을 수행한다.
+
+    private static long offsetOf(FxContext<?> context) {
+        long offset = context.meta() != null ? context.meta().longAttribute(KafkaSource.ATTRIBUTE_OFFSET, -1L) : -1L;
+        return offset >= 0 ? offset : toLong(context.headers().get(KafkaSource.HEADER_KAFKA_OFFSET));
+    }
+    // toLong 동작을 수행한다.
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * 파티션 하나의 미완료 offset 집합과 다음 offset.
+     */
+    private static final class PartitionOffsets {
+
+        private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+        // 추적한 가장 높은 offset + 1. pending 보다 먼저 읽어야 등록 중인 offset 을 건너뛰지 않는다.
+        private volatile long next = -1L;
+        // 마지막으로 커밋을 요청한 위치. poll 스레드에서만 접근한다.
+        private long committed = -1L;
+        // track 동작을 수행한다.
+
+        private void track(long offset) {
+            pending.add(offset);
+            next = Math.max(next, offset + 1);
+        }
+        // skip 동작을 수행한다.
+
+        private void skip(long offset) {
+            next = Math.max(next, offset + 1);
+        }
+        // position 동작을 수행한다.
+
+        /**
+         * 가장 낮은 미완료 offset(없으면 next)을 반환한다. including 의 offset 은 완료된 것으로 본다.
+         */
+        private long position(Set<Long> including) {
+            long limit = next;
+            for (Long offset : pending) {
+                if (offset >= limit) {
+                    break;
+                }
+                if (!including.contains(offset)) {
+                    return offset;
+                }
+            }
+            return limit;
+        }
+    }
+}
@@ -7,23 +7,36 @@ import com.ees.framework.context.FxContext;
 import com.ees.framework.context.FxHeaders;
 import com.ees.framework.context.FxMessage;
 import com.ees.framework.context.FxMeta;
-import com.ees.framework.source.Source;
+import com.ees.framework.source.AcknowledgingSource;
+import com.ees.framework.source.DemandSubscription;
+import com.ees.framework.source.PartitionedSource;
+import com.ees.framework.source.PushSource;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.function.IntFunction;
 
 /**
  * Kafka 토픽에서 레코드를 poll 하여 {@link FxContext} 배치로 변환하는 {@link Source} 구현.
@@ -32,11 +45,23 @@ import java.util.Properties;
  * - message.key: Kafka record key(String)
  * - affinity: 기본적으로 record key를 사용(키가 없으면 파티션 번호 문자열로 대체)
  * <p>
- * 주의: 현재 프레임워크는 처리 성공/실패에 따른 ack 모델이 없으므로, 기본 구현은
- * {@code enable.auto.commit=true} 전제를 권장한다.
+ * push 구독 시에는 전용 가상 스레드가 consumer 를 소유하고 poll 한다. 구독자의 수요가 소진되면
+ * 할당된 파티션을 {@code pause} 한 채 heartbeat 용 poll 만 계속하고, 수요가 생기면 {@code resume} 한다.
+ * <p>
+ * {@link KafkaSourceSettings#concurrency()} 가 1 보다 크면 {@link #partitions()} 는 같은 groupId 의
+ * KafkaSource 를 그만큼 만들어 돌려주고, 워크플로 엔진은 각 consumer 를 별도 스레드에서 읽는다.
+ * Kafka 는 파티션을 group 안의 consumer 하나에만 할당하므로 같은 레코드 키는 한 consumer 에서만 읽혀 키 순서가 유지된다.
+ * <p>
+ * 기본({@link KafkaSourceSettings.CommitMode#AUTO})은 {@code enable.auto.commit} 설정을 따르므로 per-key 큐에서
+ * 대기 중인 레코드의 offset 도 커밋될 수 있다. COORDINATED/TRANSACTIONAL 모드에서는 auto commit 을 끄고
+ * {@link AcknowledgingSource} 로 엔진의 처리 완료 통지를 받아, 파티션별로 앞선 offset 이 모두 처리된 위치까지만 커밋한다.
+ * COORDINATED 는 poll 스레드에서 {@link KafkaSourceSettings#commitInterval()} 마다 commitAsync 로 모아 커밋하고,
+ * 파티션이 회수되거나 close 될 때 commitSync 로 마무리한다. TRANSACTIONAL 은 직접 커밋하지 않고
+ * {@link #committableOffsets(List)} 로 위치만 제공해 트랜잭션 Sink 가 출력과 함께 커밋하게 한다.
  */
 @FxSource(type = KafkaSource.SOURCE_TYPE)
-public final class KafkaSource implements Source<String>, AutoCloseable {
+public final class KafkaSource
+    implements PushSource<String>, PartitionedSource<String>, AcknowledgingSource<String>, AutoCloseable {
 
     public static final String SOURCE_TYPE = "kafka";
 
@@ -47,12 +72,24 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
     public static final String HEADER_KAFKA_PARTITION = "kafka-partition";
     public static final String HEADER_KAFKA_OFFSET = "kafka-offset";
 
+    public static final String ATTRIBUTE_TOPIC = "kafka.topic";
+    public static final String ATTRIBUTE_PARTITION = "kafka.partition";
+    public static final String ATTRIBUTE_OFFSET = "kafka.offset";
+    public static final String ATTRIBUTE_TIMESTAMP = "kafka.timestamp";
+    public static final String ATTRIBUTE_KEY = "kafka.key";
+
     private static final Logger log = LoggerFactory.getLogger(KafkaSource.class);
 
     private final KafkaSourceSettings settings;
     private final FxCommand command;
+    private final IntFunction<Consumer<String, String>> memberConsumers;
+    // commitMode 가 AUTO 이면 null.
+    private final KafkaOffsetCoordinator offsets;
 
     private volatile Consumer<String, String> consumer;
+    private volatile List<KafkaSource> members;
+    private volatile DemandSubscription activeSubscription;
+    private volatile Thread pollThread;
 
     /**
      * 설정 기반으로 KafkaSource를 생성한다.
@@ -60,15 +97,108 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
      * @param settings Kafka 연결/구독/affinity 설정
      */
     public KafkaSource(KafkaSourceSettings settings) {
-        this(settings, null);
+        this(settings, (Consumer<String, String>) null);
     }
 
     KafkaSource(KafkaSourceSettings settings, Consumer<String, String> consumer) {
+        this(settings, consumer, null);
+    }
+
+    KafkaSource(KafkaSourceSettings settings, IntFunction<Consumer<String, String>> memberConsumers) {
+        this(settings, null, memberConsumers);
+    }
+
+    private KafkaSource(
+        KafkaSourceSettings settings,
+        Consumer<String, String> consumer,
+        IntFunction<Consumer<String, String>> memberConsumers
+    ) {
         this.settings = Objects.requireNonNull(settings, "settings must not be null");
         this.command = FxCommand.of(
             settings.commandName() != null && !settings.commandName().isBlank() ? settings.commandName() : SOURCE_TYPE
         );
         this.consumer = consumer;
+        this.memberConsumers = memberConsumers;
+        this.offsets = settings.coordinatesCommits()
+            ? new KafkaOffsetCoordinator(settings.commitInterval().toNanos())
+            : null;
+    }
+
+    /**
+     * concurrency 만큼의 같은 group consumer 를 반환한다. concurrency 가 1 이면 자기 자신만 반환한다.
+     * 처음 호출할 때 만든 목록을 이후에도 그대로 돌려주며, {@link #close()} 시 함께 닫는다.
+     *
+     * @return 병렬로 읽을 KafkaSource 목록
+     */
+    @Override
+    public List<KafkaSource> partitions() {
+        if (settings.concurrency() == 1) {
+            return List.of(this);
+        }
+        List<KafkaSource> current = members;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (members == null) {
+                List<KafkaSource> created = new ArrayList<>(settings.concurrency());
+                for (int i = 0; i < settings.concurrency(); i++) {
+                    Consumer<String, String> memberConsumer = memberConsumers != null ? memberConsumers.apply(i) : null;
+                    created.add(new KafkaSource(settings.forMember(i), memberConsumer));
+                }
+                members = List.copyOf(created);
+            }
+            return members;
+        }
+    }
+
+    /**
+     * 워크플로 엔진의 처리 완료 통지를 커밋 위치 계산에 반영한다. concurrency 가 1 보다 크면
+     * 해당 파티션을 추적 중인 consumer 로 전달하며, 회수된 파티션의 통지는 무시한다.
+     *
+     * @param contexts 처리가 끝난 컨텍스트
+     */
+    @Override
+    public void acknowledge(List<? extends FxContext<?>> contexts) {
+        if (offsets == null) {
+            return;
+        }
+        List<KafkaSource> readers = readers();
+        for (FxContext<?> context : contexts) {
+            for (KafkaSource reader : readers) {
+                if (reader.offsets.acknowledge(context)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * commitMode 가 AUTO 가 아니면 완료 통지가 필요하다.
+     */
+    @Override
+    public boolean requiresAcknowledgement() {
+        return offsets != null;
+    }
+
+    /**
+     * 이미 완료 통지된 offset 과 including 이 모두 처리되었다고 가정했을 때 파티션별 커밋 위치를 반환한다.
+     * 트랜잭션 Sink 가 출력과 같은 트랜잭션에서 {@code sendOffsetsToTransaction} 으로 커밋할 위치를 구할 때 사용한다.
+     * Sink 는 트랜잭션이 커밋되면 다음 트랜잭션을 시작하기 전에 including 을 {@link #acknowledge(List)} 해야 한다.
+     * 엔진의 완료 통지를 기다리면 그 사이 다음 트랜잭션이 더 낮은 위치를 보내 그룹 offset 이 뒤로 갈 수 있다.
+     *
+     * @param including 이번 트랜잭션으로 처리가 끝날 컨텍스트
+     * @return 파티션별 커밋 위치(commitMode 가 AUTO 이면 빈 맵)
+     */
+    public Map<TopicPartition, OffsetAndMetadata> committableOffsets(List<? extends FxContext<?>> including) {
+        if (offsets == null) {
+            return Map.of();
+        }
+        Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+        for (KafkaSource reader : readers()) {
+            result.putAll(reader.offsets.committableIncluding(including));
+        }
+        return result;
     }
 
     /**
@@ -79,30 +209,69 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
     @Override
     public Iterable<FxContext<String>> read() {
         Consumer<String, String> consumer = ensureConsumer();
+        commitIfDue(consumer);
         ConsumerRecords<String, String> records = consumer.poll(settings.pollTimeout());
         if (records.isEmpty()) {
             return List.of();
         }
         List<FxContext<String>> batch = new ArrayList<>(records.count());
         for (ConsumerRecord<String, String> record : records) {
-            if (record.value() == null) {
-                continue;
+            FxContext<String> context = track(record);
+            if (context != null) {
+                batch.add(context);
             }
-            batch.add(toContext(record));
         }
         return batch;
     }
 
     /**
-     * 생성된 Kafka consumer 리소스를 정리한다.
+     * 전용 가상 스레드에서 consumer 를 poll 하며 구독자의 수요만큼 레코드를 발행한다.
+     * 하나의 KafkaSource 는 동시에 하나의 구독만 허용한다.
+     *
+     * @param subscriber 레코드를 받을 구독자
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super FxContext<String>> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber must not be null");
+        DemandSubscription subscription;
+        synchronized (this) {
+            if (activeSubscription != null && !activeSubscription.isCancelled()) {
+                subscriber.onSubscribe(new DemandSubscription());
+                subscriber.onError(new IllegalStateException("KafkaSource already has an active subscriber"));
+                return;
+            }
+            subscription = new DemandSubscription(this::wakeupConsumer);
+            activeSubscription = subscription;
+        }
+        subscriber.onSubscribe(subscription);
+        pollThread = Thread.ofVirtual()
+            .name("kafka-source-" + settings.groupId())
+            .start(() -> pollLoop(subscriber, subscription));
+    }
+
+    /**
+     * 활성 push 구독을 취소하고 생성된 Kafka consumer 리소스를 정리한다.
      */
     @Override
     public void close() {
+        List<KafkaSource> created = members;
+        if (created != null) {
+            created.forEach(KafkaSource::close);
+        }
+        DemandSubscription subscription = activeSubscription;
+        if (subscription != null) {
+            subscription.cancel();
+            if (!joinPollThread()) {
+                log.warn("Kafka poll thread did not stop; leaving consumer open sourceId={}", settings.sourceId());
+                return;
+            }
+        }
         Consumer<String, String> consumer = this.consumer;
         if (consumer == null) {
             return;
         }
         try {
+            commitFinal(consumer);
             consumer.close();
         } catch (RuntimeException e) {
             log.warn("Failed to close Kafka consumer for sourceType={}", SOURCE_TYPE, e);
@@ -111,6 +280,180 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
         }
     }
 
+    /**
+     * 수요가 없어 버퍼가 남아 있는 동안은 할당된 파티션을 모두 pause 한 채 poll 해 그룹 멤버십만 유지한다.
+     * 리밸런스로 새로 할당된 파티션도 멈추도록 매 반복 pause 를 다시 적용하고, 회수된 파티션의 버퍼 레코드는 버린다
+     * (새 소유자가 다시 읽는다).
+     */
+    private void pollLoop(Flow.Subscriber<? super FxContext<String>> subscriber, DemandSubscription subscription) {
+        ArrayDeque<FxContext<String>> buffer = new ArrayDeque<>();
+        boolean paused = false;
+        Set<TopicPartition> assigned = Set.of();
+        try {
+            Consumer<String, String> consumer = ensureConsumer();
+            while (!subscription.isCancelled()) {
+                commitIfDue(consumer);
+                assigned = dropRevoked(consumer.assignment(), assigned, buffer);
+                while (!buffer.isEmpty() && subscription.tryConsume()) {
+                    subscriber.onNext(buffer.poll());
+                }
+                if (!buffer.isEmpty()) {
+                    consumer.pause(assigned);
+                    paused = true;
+                    subscription.awaitDemand(settings.pollTimeout());
+                    bufferRecords(consumer.poll(Duration.ZERO), buffer);
+                    continue;
+                }
+                if (paused) {
+                    consumer.resume(consumer.assignment());
+                    paused = false;
+                }
+                bufferRecords(consumer.poll(settings.pollTimeout()), buffer);
+            }
+        } catch (WakeupException e) {
+            if (!subscription.isCancelled()) {
+                subscriber.onError(e);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscriber.onError(new IllegalStateException("KafkaSource interrupted", e));
+            return;
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            log.warn("Kafka push polling failed sourceId={}", settings.sourceId(), e);
+            subscriber.onError(e);
+            return;
+        }
+        if (subscription.failure() != null) {
+            subscriber.onError(subscription.failure());
+        }
+    }
+
+    /**
+     * 할당이 바뀌었으면 더 이상 할당되지 않은 파티션의 버퍼 레코드를 버리고 현재 할당을 반환한다.
+     */
+    private Set<TopicPartition> dropRevoked(
+        Set<TopicPartition> assignment,
+        Set<TopicPartition> previous,
+        ArrayDeque<FxContext<String>> buffer
+    ) {
+        if (assignment.equals(previous)) {
+            return previous;
+        }
+        if (!buffer.isEmpty()) {
+            int before = buffer.size();
+            buffer.removeIf(context -> !assignment.contains(KafkaOffsetCoordinator.partitionOf(context)));
+            if (buffer.size() < before && log.isDebugEnabled()) {
+                log.debug("Dropped buffered records of revoked partitions sourceId={} dropped={}",
+                    settings.sourceId(), before - buffer.size());
+            }
+        }
+        return Set.copyOf(assignment);
+    }
+
+    private void bufferRecords(ConsumerRecords<String, String> records, ArrayDeque<FxContext<String>> buffer) {
+        for (ConsumerRecord<String, String> record : records) {
+            FxContext<String> context = track(record);
+            if (context != null) {
+                buffer.add(context);
+            }
+        }
+    }
+
+    /**
+     * 레코드를 컨텍스트로 바꾸고 커밋 추적에 등록한다. value 가 없는 레코드는 발행하지 않고 완료로 본다.
+     *
+     * @return 발행할 컨텍스트, 건너뛰면 null
+     */
+    private FxContext<String> track(ConsumerRecord<String, String> record) {
+        if (record.value() == null) {
+            if (offsets != null) {
+                offsets.skip(record.topic(), record.partition(), record.offset());
+            }
+            return null;
+        }
+        if (offsets != null) {
+            offsets.track(record.topic(), record.partition(), record.offset());
+        }
+        return toContext(record);
+    }
+
+    private List<KafkaSource> readers() {
+        return settings.concurrency() == 1 ? List.of(this) : partitions();
+    }
+
+    /**
+     * COORDINATED 모드에서 커밋 주기가 지났으면 전진한 위치를 commitAsync 로 커밋한다. poll 스레드에서만 호출한다.
+     * 실패한 파티션은 다음 주기에 현재 위치로 다시 커밋한다.
+     */
+    private void commitIfDue(Consumer<String, String> consumer) {
+        if (settings.commitMode() != KafkaSourceSettings.CommitMode.COORDINATED
+            || !offsets.commitDue(System.nanoTime())) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.committable();
+        if (committable.isEmpty()) {
+            return;
+        }
+        offsets.markCommitted(committable);
+        consumer.commitAsync(committable, (committed, exception) -> {
+            if (exception != null) {
+                log.warn("Kafka offset commit failed sourceId={} offsets={}", settings.sourceId(), committable, exception);
+                offsets.commitFailed(committable.keySet());
+            }
+        });
+    }
+
+    private void commitFinal(Consumer<String, String> consumer) {
+        if (settings.commitMode() != KafkaSourceSettings.CommitMode.COORDINATED) {
+            return;
+        }
+        commitSync(consumer, offsets.committable());
+    }
+
+    private void commitSync(Consumer<String, String> consumer, Map<TopicPartition, OffsetAndMetadata> committable) {
+        if (committable.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(committable);
+            offsets.markCommitted(committable);
+        } catch (RuntimeException e) {
+            log.warn("Kafka offset commit failed sourceId={} offsets={}", settings.sourceId(), committable, e);
+        }
+    }
+
+    private void wakeupConsumer() {
+        Consumer<String, String> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    /**
+     * poll 스레드가 끝날 때까지 wakeup 을 반복하며 기다린다. consumer 는 스레드 안전하지 않으므로 poll 스레드가 끝나기 전에는
+     * close 할 수 없다.
+     *
+     * @return poll 스레드가 끝났으면 true, 기다리는 중 인터럽트되면 false
+     */
+    private boolean joinPollThread() {
+        Thread thread = pollThread;
+        if (thread == null || thread == Thread.currentThread()) {
+            return true;
+        }
+        try {
+            while (!thread.join(settings.pollTimeout())) {
+                log.warn("Waiting for Kafka poll thread to stop sourceId={}", settings.sourceId());
+                wakeupConsumer();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     private Consumer<String, String> ensureConsumer() {
         Consumer<String, String> current = consumer;
         if (current != null) {
@@ -121,7 +464,11 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
                 return consumer;
             }
             Consumer<String, String> created = new KafkaConsumer<>(buildConsumerProperties());
-            created.subscribe(settings.topics());
+            if (offsets != null) {
+                created.subscribe(settings.topics(), new RevokeCommitListener(created));
+            } else {
+                created.subscribe(settings.topics());
+            }
             this.consumer = created;
             return created;
         }
@@ -142,7 +489,8 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
 
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, Boolean.toString(settings.enableAutoCommit()));
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,
+            Boolean.toString(settings.enableAutoCommit() && !settings.coordinatesCommits()));
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, settings.autoOffsetReset());
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Integer.toString(settings.maxPollRecords()));
 
@@ -152,25 +500,28 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
 
     private FxContext<String> toContext(ConsumerRecord<String, String> record) {
         String affinityKind = settings.affinityKind() != null ? settings.affinityKind() : "equipmentId";
-        String affinityValue = record.key() != null ? record.key() : Integer.toString(record.partition());
-
-        FxHeaders headers = FxHeaders.empty()
-            .with(HEADER_AFFINITY_KIND, affinityKind)
-            .with(HEADER_AFFINITY_VALUE, affinityValue)
-            .with(HEADER_KAFKA_TOPIC, record.topic())
-            .with(HEADER_KAFKA_PARTITION, Integer.toString(record.partition()))
-            .with(HEADER_KAFKA_OFFSET, Long.toString(record.offset()));
-
-        Map<String, Object> attributes = new HashMap<>();
-        attributes.put("kafka.topic", record.topic());
-        attributes.put("kafka.partition", record.partition());
-        attributes.put("kafka.offset", record.offset());
-        attributes.put("kafka.timestamp", record.timestamp());
+        FxAffinity affinity = record.key() != null
+            ? FxAffinity.of(affinityKind, record.key())
+            : FxAffinity.of(affinityKind, record.partition());
+
+        FxHeaders headers = FxHeaders.builder(5)
+            .put(HEADER_AFFINITY_KIND, affinityKind)
+            .put(HEADER_AFFINITY_VALUE, affinity.value())
+            .put(HEADER_KAFKA_TOPIC, record.topic())
+            .put(HEADER_KAFKA_PARTITION, Integer.toString(record.partition()))
+            .put(HEADER_KAFKA_OFFSET, Long.toString(record.offset()))
+            .build();
+
+        FxMeta.AttributeBuilder attributes = FxMeta.attributeBuilder(5)
+            .put(ATTRIBUTE_TOPIC, record.topic())
+            .putInt(ATTRIBUTE_PARTITION, record.partition())
+            .putLong(ATTRIBUTE_OFFSET, record.offset())
+            .putLong(ATTRIBUTE_TIMESTAMP, record.timestamp());
         if (record.key() != null) {
-            attributes.put("kafka.key", record.key());
+            attributes.put(ATTRIBUTE_KEY, record.key());
         }
 
-        FxMeta meta = new FxMeta(settings.sourceId(), null, 0, attributes);
+        FxMeta meta = new FxMeta(settings.sourceId(), null, 0, attributes.build());
 
         Instant timestamp = record.timestamp() >= 0 ? Instant.ofEpochMilli(record.timestamp()) : Instant.now();
         FxMessage<String> message = new FxMessage<>(SOURCE_TYPE, record.value(), timestamp, record.key());
@@ -180,7 +531,32 @@ public final class KafkaSource implements Source<String>, AutoCloseable {
             headers,
             message,
             meta,
-            FxAffinity.of(affinityKind, affinityValue)
+            affinity
         );
     }
+
+    /**
+     * 파티션이 회수되기 전에 처리 완료된 위치까지 커밋하고 추적 상태를 버린다. 회수된 파티션에서 처리 중이던 레코드는
+     * 새 소유자가 다시 읽는다(at-least-once).
+     */
+    private final class RevokeCommitListener implements ConsumerRebalanceListener {
+
+        private final Consumer<String, String> consumer;
+
+        private RevokeCommitListener(Consumer<String, String> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            if (settings.commitMode() == KafkaSourceSettings.CommitMode.COORDINATED) {
+                commitSync(consumer, offsets.committableFor(partitions));
+            }
+            offsets.revoke(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        }
+    }
 }
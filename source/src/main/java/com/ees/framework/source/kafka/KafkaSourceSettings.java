@@ -10,6 +10,11 @@ import java.util.Objects;
  * <p>
  * 프레임워크의 {@code Source<T>#read()} 모델에 맞추기 위해 {@link KafkaSource}는
  * {@link #pollTimeout()} 동안 poll 한 결과를 "한 번의 read 호출 결과"로 반환한다.
+ * <p>
+ * {@link #concurrency()} 가 1 보다 크면 같은 groupId 로 그만큼의 consumer 를 만들어 파티션을 나눠 읽는다.
+ * <p>
+ * {@link #commitMode()} 가 {@link CommitMode#AUTO} 가 아니면 {@code enable.auto.commit} 을 끄고, 워크플로 엔진이
+ * 처리 완료를 통지한 offset 만 커밋한다(자세한 내용은 {@link CommitMode}).
  */
 public record KafkaSourceSettings(
     String bootstrapServers,
@@ -23,9 +28,31 @@ public record KafkaSourceSettings(
     boolean enableAutoCommit,
     String autoOffsetReset,
     String sourceId,
-    Map<String, String> additionalProperties
+    Map<String, String> additionalProperties,
+    int concurrency,
+    CommitMode commitMode,
+    Duration commitInterval
 ) {
 
+    /**
+     * offset 커밋 방식.
+     */
+    public enum CommitMode {
+        /**
+         * {@link #enableAutoCommit()} 설정을 그대로 따른다. 큐에서 대기 중인 레코드의 offset 도 커밋될 수 있다.
+         */
+        AUTO,
+        /**
+         * 파티션별로 앞선 offset 이 모두 처리 완료된 위치까지만 {@link #commitInterval()} 마다 commitAsync 로 커밋한다.
+         */
+        COORDINATED,
+        /**
+         * COORDINATED 와 같은 위치를 계산하되 Source 는 커밋하지 않고, 트랜잭션 KafkaSink 가
+         * {@code sendOffsetsToTransaction} 으로 출력과 함께 원자적으로 커밋한다.
+         */
+        TRANSACTIONAL
+    }
+
     public KafkaSourceSettings {
         if (bootstrapServers == null || bootstrapServers.isBlank()) {
             throw new IllegalArgumentException("bootstrapServers must not be blank");
@@ -49,5 +76,78 @@ public record KafkaSourceSettings(
         if (topics.isEmpty()) {
             throw new IllegalArgumentException("topics must not be empty");
         }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be > 0");
+        }
+        Objects.requireNonNull(commitMode, "commitMode must not be null");
+        Objects.requireNonNull(commitInterval, "commitInterval must not be null");
+        if (commitInterval.isNegative() || commitInterval.isZero()) {
+            throw new IllegalArgumentException("commitInterval must be > 0");
+        }
+    }
+
+    /**
+     * {@link CommitMode#AUTO} 로 커밋하는 설정을 생성한다.
+     */
+    public KafkaSourceSettings(
+        String bootstrapServers,
+        List<String> topics,
+        String groupId,
+        String clientId,
+        String commandName,
+        String affinityKind,
+        Duration pollTimeout,
+        int maxPollRecords,
+        boolean enableAutoCommit,
+        String autoOffsetReset,
+        String sourceId,
+        Map<String, String> additionalProperties,
+        int concurrency
+    ) {
+        this(bootstrapServers, topics, groupId, clientId, commandName, affinityKind, pollTimeout, maxPollRecords,
+            enableAutoCommit, autoOffsetReset, sourceId, additionalProperties, concurrency, CommitMode.AUTO, Duration.ofSeconds(1));
+    }
+
+    /**
+     * consumer 하나로 읽는 설정을 생성한다.
+     */
+    public KafkaSourceSettings(
+        String bootstrapServers,
+        List<String> topics,
+        String groupId,
+        String clientId,
+        String commandName,
+        String affinityKind,
+        Duration pollTimeout,
+        int maxPollRecords,
+        boolean enableAutoCommit,
+        String autoOffsetReset,
+        String sourceId,
+        Map<String, String> additionalProperties
+    ) {
+        this(bootstrapServers, topics, groupId, clientId, commandName, affinityKind, pollTimeout, maxPollRecords,
+            enableAutoCommit, autoOffsetReset, sourceId, additionalProperties, 1);
+    }
+
+    /**
+     * 엔진의 처리 완료 통지를 기준으로 offset 을 커밋하는지 여부.
+     *
+     * @return commitMode 가 AUTO 가 아니면 true
+     */
+    public boolean coordinatesCommits() {
+        return commitMode != CommitMode.AUTO;
+    }
+
+    /**
+     * 같은 group 의 index 번째 consumer 설정을 반환한다. clientId 가 있으면 {@code -index} 를 붙여 구분한다.
+     *
+     * @param index 0 부터 시작하는 consumer 순번
+     * @return concurrency 가 1 인 설정
+     */
+    public KafkaSourceSettings forMember(int index) {
+        String memberClientId = clientId != null && !clientId.isBlank() ? clientId + "-" + index : null;
+        return new KafkaSourceSettings(bootstrapServers, topics, groupId, memberClientId, commandName, affinityKind,
+            pollTimeout, maxPollRecords, enableAutoCommit, autoOffsetReset, sourceId, additionalProperties, 1,
+            commitMode, commitInterval);
     }
 }
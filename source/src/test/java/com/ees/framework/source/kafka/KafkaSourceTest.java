@@ -2,17 +2,27 @@ package com.ees.framework.source.kafka;
 
 import com.ees.framework.context.FxContext;
 import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class KafkaSourceTest {
@@ -59,6 +69,347 @@ class KafkaSourceTest {
         assertNotNull(ctx.meta());
         assertEquals("kafka-source-test", ctx.meta().sourceId());
         assertTrue(ctx.meta().attributes().containsKey("kafka.offset"));
+        assertEquals(12L, ctx.meta().longAttribute(KafkaSource.ATTRIBUTE_OFFSET, -1L));
+        assertEquals(0, ctx.meta().intAttribute(KafkaSource.ATTRIBUTE_PARTITION, -1));
+        assertEquals(12L, ctx.meta().attributes().get(KafkaSource.ATTRIBUTE_OFFSET));
+    }
+
+    @Test
+    void readUsesNumericPartitionAffinityWhenRecordHasNoKey() {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tp = new TopicPartition("orders", 2);
+        consumer.assign(List.of(tp));
+        consumer.updateBeginningOffsets(Map.of(tp, 0L));
+        consumer.addRecord(new ConsumerRecord<>("orders", 2, 0L, null, "payload-1"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 2, 1L, null, "payload-2"));
+
+        KafkaSourceSettings settings = new KafkaSourceSettings(
+            "localhost:9092",
+            List.of("orders"),
+            "ees",
+            null,
+            "ingest",
+            "partition",
+            Duration.ofMillis(10),
+            10,
+            true,
+            "earliest",
+            "kafka-source-test",
+            Map.of()
+        );
+
+        KafkaSource source = new KafkaSource(settings, consumer);
+
+        List<FxContext<String>> batch = new ArrayList<>();
+        source.read().forEach(batch::add);
+
+        assertEquals(2, batch.size());
+        FxContext<String> ctx = batch.get(0);
+        assertEquals("2", ctx.affinity().value());
+        assertTrue(ctx.affinity().hasNumericId());
+        assertEquals(2L, ctx.affinity().numericId());
+        assertEquals("2", ctx.headers().get(KafkaSource.HEADER_AFFINITY_VALUE));
+        assertSame(ctx.affinity(), batch.get(1).affinity());
+    }
+
+    @Test
+    void subscribeEmitsOnlyRequestedRecordsAndPausesWhenDemandIsExhausted() throws Exception {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tp = new TopicPartition("orders", 0);
+        consumer.assign(List.of(tp));
+        consumer.updateBeginningOffsets(Map.of(tp, 0L));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 0L, "eqp-1", "p0"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 1L, "eqp-1", "p1"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 2L, "eqp-1", "p2"));
+
+        KafkaSourceSettings settings = new KafkaSourceSettings(
+            "localhost:9092",
+            List.of("orders"),
+            "ees",
+            null,
+            "ingest",
+            "equipmentId",
+            Duration.ofMillis(10),
+            10,
+            true,
+            "earliest",
+            "kafka-source-test",
+            Map.of()
+        );
+        KafkaSource source = new KafkaSource(settings, consumer);
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+        source.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(FxContext<String> item) {
+                received.add(item.message().payload());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                received.add("error:" + throwable.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertEquals("p0", received.poll(1, TimeUnit.SECONDS));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+        assertTrue(consumer.paused().contains(tp));
+
+        subscription[0].request(2);
+        assertEquals("p1", received.poll(1, TimeUnit.SECONDS));
+        assertEquals("p2", received.poll(1, TimeUnit.SECONDS));
+
+        source.close();
+        assertTrue(consumer.closed());
+    }
+
+    @Test
+    void subscribePausesNewlyAssignedPartitionsAndDropsRecordsOfRevokedOnes() throws Exception {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tp0 = new TopicPartition("orders", 0);
+        TopicPartition tp1 = new TopicPartition("orders", 1);
+        consumer.assign(List.of(tp0));
+        consumer.updateBeginningOffsets(Map.of(tp0, 0L, tp1, 0L));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 0L, "eqp-1", "p0"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 1L, "eqp-1", "p1"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 2L, "eqp-1", "p2"));
+        KafkaSource source = new KafkaSource(committingSettings(KafkaSourceSettings.CommitMode.AUTO), consumer);
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        source.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(FxContext<String> item) {
+                received.add(item.message().payload());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                received.add("error:" + throwable.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertEquals("p0", received.poll(1, TimeUnit.SECONDS));
+
+        // 리밸런스는 poll 안에서 일어난다. 버퍼(p1, p2)가 남아 있는 동안 새로 할당된 파티션도 멈춘다.
+        consumer.schedulePollTask(() -> {
+            consumer.assign(List.of(tp0, tp1));
+            consumer.addRecord(new ConsumerRecord<>("orders", 1, 0L, "eqp-2", "q0"));
+        });
+        assertTrue(awaitPaused(consumer, Set.of(tp0, tp1)));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+
+        // tp0 이 회수되면 버퍼의 p1, p2 는 버리고 tp1 레코드만 발행한다.
+        consumer.schedulePollTask(() -> consumer.assign(List.of(tp1)));
+        subscription[0].request(5);
+        assertEquals("q0", received.poll(1, TimeUnit.SECONDS));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+
+        source.close();
+        assertTrue(consumer.closed());
+    }
+
+    @Test
+    void partitionsCreatesOneConsumerPerConcurrencyInSameGroup() {
+        KafkaSourceSettings settings = new KafkaSourceSettings(
+            "localhost:9092",
+            List.of("orders"),
+            "ees",
+            "ingest-client",
+            "ingest",
+            "equipmentId",
+            Duration.ofMillis(10),
+            10,
+            true,
+            "earliest",
+            "kafka-source-test",
+            Map.of(),
+            3
+        );
+        List<MockConsumer<String, String>> consumers = new ArrayList<>();
+        KafkaSource source = new KafkaSource(settings, index -> {
+            MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+            TopicPartition tp = new TopicPartition("orders", index);
+            consumer.assign(List.of(tp));
+            consumer.updateBeginningOffsets(Map.of(tp, 0L));
+            consumer.addRecord(new ConsumerRecord<>("orders", index, 0L, "eqp-" + index, "p" + index));
+            consumers.add(consumer);
+            return consumer;
+        });
+
+        List<KafkaSource> partitions = source.partitions();
+
+        assertEquals(3, partitions.size());
+        assertSame(partitions, source.partitions());
+        for (int i = 0; i < partitions.size(); i++) {
+            FxContext<String> ctx = partitions.get(i).read().iterator().next();
+            assertEquals("p" + i, ctx.message().payload());
+            assertEquals("eqp-" + i, ctx.affinity().value());
+        }
+        assertEquals("ingest-client-1", settings.forMember(1).clientId());
+        assertEquals(1, settings.forMember(1).concurrency());
+
+        source.close();
+        assertTrue(consumers.stream().allMatch(MockConsumer::closed));
+    }
+
+    @Test
+    void partitionsReturnsItselfWhenConcurrencyIsOne() {
+        KafkaSourceSettings settings = new KafkaSourceSettings(
+            "localhost:9092",
+            List.of("orders"),
+            "ees",
+            null,
+            "ingest",
+            "equipmentId",
+            Duration.ofMillis(10),
+            10,
+            true,
+            "earliest",
+            "kafka-source-test",
+            Map.of()
+        );
+        KafkaSource source = new KafkaSource(settings, new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+
+        assertEquals(List.of(source), source.partitions());
+    }
+
+    @Test
+    void coordinatedModeCommitsOnlyUpToLowestUnacknowledgedOffset() throws Exception {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tp = new TopicPartition("orders", 0);
+        consumer.assign(List.of(tp));
+        consumer.updateBeginningOffsets(Map.of(tp, 0L));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 0L, "eqp-1", "p0"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 1L, "eqp-2", "p1"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 2L, "eqp-1", null));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 3L, "eqp-1", "p3"));
+        KafkaSource source = new KafkaSource(committingSettings(KafkaSourceSettings.CommitMode.COORDINATED), consumer);
+        assertTrue(source.requiresAcknowledgement());
+
+        List<FxContext<String>> batch = new ArrayList<>();
+        source.read().forEach(batch::add);
+        assertEquals(3, batch.size());
+
+        // 다른 키(eqp-2)의 offset 1 이 아직 처리 중이면 그 앞까지만 커밋한다.
+        source.acknowledge(List.of(batch.get(0), batch.get(2)));
+        Thread.sleep(5);
+        source.read();
+        assertEquals(1L, consumer.committed(Set.of(tp)).get(tp).offset());
+
+        source.acknowledge(List.of(batch.get(1)));
+        Thread.sleep(5);
+        source.read();
+        assertEquals(4L, consumer.committed(Set.of(tp)).get(tp).offset());
+
+        source.close();
+    }
+
+    @Test
+    void transactionalModeExposesCommittableOffsetsWithoutCommitting() throws Exception {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tp = new TopicPartition("orders", 0);
+        consumer.assign(List.of(tp));
+        consumer.updateBeginningOffsets(Map.of(tp, 0L));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 0L, "eqp-1", "p0"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 1L, "eqp-2", "p1"));
+        KafkaSource source = new KafkaSource(committingSettings(KafkaSourceSettings.CommitMode.TRANSACTIONAL), consumer);
+
+        List<FxContext<String>> batch = new ArrayList<>();
+        source.read().forEach(batch::add);
+
+        assertEquals(Map.of(tp, new OffsetAndMetadata(0L)), source.committableOffsets(List.of(batch.get(1))));
+        assertEquals(Map.of(tp, new OffsetAndMetadata(1L)), source.committableOffsets(List.of(batch.get(0))));
+
+        source.acknowledge(List.of(batch.get(0)));
+        assertEquals(Map.of(tp, new OffsetAndMetadata(2L)), source.committableOffsets(List.of(batch.get(1))));
+
+        Thread.sleep(5);
+        source.read();
+        assertTrue(consumer.committed(Set.of(tp)).isEmpty());
+    }
+
+    @Test
+    void transactionalOffsetsStayMonotonicWhenEngineAcknowledgementIsDelayed() {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tp = new TopicPartition("orders", 0);
+        consumer.assign(List.of(tp));
+        consumer.updateBeginningOffsets(Map.of(tp, 0L));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 0L, "eqp-1", "p0"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 1L, "eqp-2", "p1"));
+        consumer.addRecord(new ConsumerRecord<>("orders", 0, 2L, "eqp-1", "p2"));
+        KafkaSource source = new KafkaSource(committingSettings(KafkaSourceSettings.CommitMode.TRANSACTIONAL), consumer);
+        List<FxContext<String>> batch = new ArrayList<>();
+        source.read().forEach(batch::add);
+        List<Long> sent = new ArrayList<>();
+
+        // 트랜잭션 1(offset 0)을 커밋하고 Sink 가 잠금 안에서 완료 표시한다. 엔진의 완료 통지는 아직 오지 않았다.
+        sent.add(source.committableOffsets(List.of(batch.get(0))).get(tp).offset());
+        source.acknowledge(List.of(batch.get(0)));
+        // 트랜잭션 2(offset 1)가 엔진 통지보다 먼저 위치를 계산한다.
+        sent.add(source.committableOffsets(List.of(batch.get(1))).get(tp).offset());
+        source.acknowledge(List.of(batch.get(1)));
+        // 늦게 도착한 엔진 통지는 위치를 바꾸지 않는다.
+        source.acknowledge(List.of(batch.get(0), batch.get(1)));
+        sent.add(source.committableOffsets(List.of(batch.get(2))).get(tp).offset());
+
+        assertEquals(List.of(1L, 2L, 3L), sent);
+    }
+
+    @Test
+    void autoModeDoesNotRequireAcknowledgement() {
+        KafkaSource source = new KafkaSource(committingSettings(KafkaSourceSettings.CommitMode.AUTO),
+            new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+
+        assertFalse(source.requiresAcknowledgement());
+        assertTrue(source.committableOffsets(List.of()).isEmpty());
+    }
+
+    private static boolean awaitPaused(MockConsumer<String, String> consumer, Set<TopicPartition> expected)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!consumer.paused().containsAll(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return consumer.paused().containsAll(expected);
     }
-}
 
+    private static KafkaSourceSettings committingSettings(KafkaSourceSettings.CommitMode commitMode) {
+        return new KafkaSourceSettings(
+            "localhost:9092",
+            List.of("orders"),
+            "ees",
+            null,
+            "ingest",
+            "equipmentId",
+            Duration.ofMillis(10),
+            10,
+            true,
+            "earliest",
+            "kafka-source-test",
+            Map.of(),
+            1,
+            commitMode,
+            Duration.ofMillis(1)
+        );
+    }
+}
@@ -15,12 +15,17 @@ import com.ees.framework.registry.SinkRegistry;
 import com.ees.framework.registry.SourceHandlerRegistry;
 import com.ees.framework.registry.SourceRegistry;
 import com.ees.framework.sink.Sink;
+import com.ees.framework.sink.kafka.ConsumedOffsets;
 import com.ees.framework.sink.kafka.KafkaSink;
 import com.ees.framework.sink.kafka.KafkaSinkProperties;
 import com.ees.framework.source.Source;
 import com.ees.framework.source.kafka.KafkaSource;
 import com.ees.framework.source.kafka.KafkaSourceProperties;
+import com.ees.framework.source.kafka.KafkaSourceSettings;
 import com.ees.framework.workflow.DefaultWorkflowNodeResolver;
+import com.ees.framework.workflow.engine.EdgeConditionCompiler;
+import com.ees.framework.workflow.engine.ExpressionEdgeConditionCompiler;
+import com.ees.framework.workflow.engine.MessageSizeEstimator;
 import com.ees.framework.workflow.engine.WorkflowEngine;
 import com.ees.framework.workflow.engine.WorkflowRuntime;
 import com.ees.framework.workflow.engine.WorkflowNodeResolver;
@@ -29,6 +34,7 @@ import com.ees.framework.workflow.model.WorkflowDefinition;
 import com.ees.framework.workflow.model.WorkflowGraphDefinition;
 import com.ees.framework.workflow.util.LinearToGraphConverter;
 import com.ees.framework.workflow.util.WorkflowGraphValidator;
+import com.ees.framework.workflow.WorkflowMetricsRegistrar;
 import com.ees.framework.workflow.WorkflowProperties;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -126,10 +132,24 @@ public class FxFrameworkAutoConfiguration {
     // ------------------------------------------------------------------------
     /**
      * {@code ees.sink.kafka.enabled=true} 인 경우 기본 Kafka Sink(@FxSink("kafka"))를 등록한다.
+     * <p>
+     * {@code ees.sink.kafka.transactional-id} 가 있고 기본 Kafka Source 가 TRANSACTIONAL 커밋 모드이면,
+     * Source 가 계산한 입력 offset 을 Sink 트랜잭션에 함께 커밋하도록 연결한다.
      */
     @Bean
     @ConditionalOnProperty(prefix = "ees.sink.kafka", name = "enabled", havingValue = "true")
-    public KafkaSink kafkaSink(KafkaSinkProperties properties) {
+    public KafkaSink kafkaSink(
+        KafkaSinkProperties properties,
+        KafkaSourceProperties sourceProperties,
+        ObjectProvider<KafkaSource> kafkaSource
+    ) {
+        KafkaSource source = kafkaSource.getIfAvailable();
+        if (source != null
+            && properties.getTransactionalId() != null && !properties.getTransactionalId().isBlank()
+            && sourceProperties.getCommitMode() == KafkaSourceSettings.CommitMode.TRANSACTIONAL) {
+            return new KafkaSink(properties.toSettings(),
+                ConsumedOffsets.of(sourceProperties.getGroupId(), source::committableOffsets, source::acknowledge));
+        }
         return new KafkaSink(properties.toSettings());
     }
 
@@ -158,15 +178,29 @@ public class FxFrameworkAutoConfiguration {
      * reactorWorkflowEngine를 수행한다.
      * @param clusterProperties 
      * @param workflowProperties 
+     * @param conditionCompiler 엣지 조건 컴파일러(없으면 기본 표현식 컴파일러)
+     * @param sizeEstimator in-flight 바이트 예산용 크기 추정기(없으면 기본 추정기)
+     * @param sinkRegistry {@code ees.workflow.failure.dead-letter-sink} 타입을 조회할 Sink 레지스트리
      * @return 
      */
 
     @Bean
+    @SuppressWarnings("unchecked")
     public WorkflowEngine reactorWorkflowEngine(ClusterProperties clusterProperties,
-                                                        WorkflowProperties workflowProperties) {
+                                                        WorkflowProperties workflowProperties,
+                                                        ObjectProvider<EdgeConditionCompiler> conditionCompiler,
+                                                        ObjectProvider<MessageSizeEstimator> sizeEstimator,
+                                                        SinkRegistry sinkRegistry) {
+        String deadLetterType = workflowProperties.getFailure().getDeadLetterSink();
+        Sink<Object> deadLetterSink = deadLetterType == null || deadLetterType.isBlank()
+            ? null
+            : (Sink<Object>) sinkRegistry.getByType(deadLetterType);
         return new WorkflowEngine(
             workflowProperties.toBatchingOptions(),
-            new DefaultAffinityKeyResolver(clusterProperties.getAssignmentAffinityKind())
+            new DefaultAffinityKeyResolver(clusterProperties.getAssignmentAffinityKind()),
+            conditionCompiler.getIfAvailable(ExpressionEdgeConditionCompiler::new),
+            sizeEstimator.getIfAvailable(MessageSizeEstimator::heuristic),
+            deadLetterSink
         );
     }
     /**
@@ -228,4 +262,14 @@ public class FxFrameworkAutoConfiguration {
             resolver
         );
     }
+    /**
+     * workflowMetricsRegistrar를 수행한다.
+     * @param runtime 
+     * @return 
+     */
+
+    @Bean
+    public WorkflowMetricsRegistrar workflowMetricsRegistrar(WorkflowRuntime runtime) {
+        return new WorkflowMetricsRegistrar(runtime);
+    }
 }
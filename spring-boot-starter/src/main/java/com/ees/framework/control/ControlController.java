@@ -10,6 +10,7 @@ import com.ees.cluster.model.KeyAssignment;
 import com.ees.cluster.model.LockRecord;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -82,25 +83,25 @@ public class ControlController {
     @PostMapping("/workflows/{workflowId}/start")
     public ControlWorkflowState start(@PathVariable String workflowId, @RequestBody(required = false) Map<String, Object> params) {
         require(workflowId, "workflowId");
-        return facade.startWorkflow(workflowId, params == null ? Map.of() : params);
+        return workflowCall(() -> facade.startWorkflow(workflowId, params == null ? Map.of() : params));
     }
 
     @PostMapping("/workflows/{workflowId}/pause")
     public ControlWorkflowState pause(@PathVariable String workflowId) {
         require(workflowId, "workflowId");
-        return facade.pauseWorkflow(workflowId);
+        return workflowCall(() -> facade.pauseWorkflow(workflowId));
     }
 
     @PostMapping("/workflows/{workflowId}/resume")
     public ControlWorkflowState resume(@PathVariable String workflowId) {
         require(workflowId, "workflowId");
-        return facade.resumeWorkflow(workflowId);
+        return workflowCall(() -> facade.resumeWorkflow(workflowId));
     }
 
     @PostMapping("/workflows/{workflowId}/cancel")
     public ControlWorkflowState cancel(@PathVariable String workflowId) {
         require(workflowId, "workflowId");
-        return facade.cancelWorkflow(workflowId);
+        return workflowCall(() -> facade.cancelWorkflow(workflowId));
     }
 
     @GetMapping("/workflows/{workflowId}")
@@ -109,6 +110,14 @@ public class ControlController {
         return facade.workflowState(workflowId);
     }
 
+    private ControlWorkflowState workflowCall(Supplier<ControlWorkflowState> call) {
+        try {
+            return call.get();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(CONFLICT, e.getMessage());
+        }
+    }
+
     private void require(String value, String name) {
         if (!StringUtils.hasText(value)) {
             throw new ResponseStatusException(BAD_REQUEST, name + " is required");
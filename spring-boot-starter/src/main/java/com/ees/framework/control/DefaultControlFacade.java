@@ -20,13 +20,16 @@ import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.util.StringUtils;
 
 /**
  * EES 내부 서비스들을 조합해 Control 기능을 제공하는 기본 구현.
  * <p>
- * MVP 단계에서는 “워크플로 실행 인스턴스”가 아닌 “워크플로 런타임 start/stop” 중심으로 제어한다(옵션 A).
+ * MVP 단계에서는 “워크플로 실행 인스턴스”가 아닌 “워크플로 런타임 start/pause/resume/stop” 중심으로 제어한다(옵션 A).
+ * pause 는 큐와 per-key 워커를 유지하므로 resume 시 바로 이어서 처리되고, cancel 만 워크플로를 중지한다.
+ * start/cancel 은 {@link WorkflowRuntime} 을 거친다. start 는 런타임이 관리하는 워크플로 스레드에서 비동기로 실행되고,
+ * cancel 된 워크플로는 런타임이 새 인스턴스로 교체하므로 이후 resume/start 로 다시 시작할 수 있다.
+ * pause 를 지원하지 않는 워크플로({@link Workflow#supportsPause()} 가 false)의 pause 요청은 {@link IllegalStateException} 으로 거절한다.
  */
 public class DefaultControlFacade implements ControlFacade {
 
@@ -37,8 +40,6 @@ public class DefaultControlFacade implements ControlFacade {
     private final WorkflowRuntime workflowRuntime;
     private final ClusterProperties clusterProperties;
 
-    private final ConcurrentHashMap<String, Boolean> workflowRunning = new ConcurrentHashMap<>();
-
     public DefaultControlFacade(ClusterMembershipService membershipService,
                                LeaderElectionService leaderElectionService,
                                AssignmentService assignmentService,
@@ -91,35 +92,44 @@ public class DefaultControlFacade implements ControlFacade {
 
     @Override
     public ControlWorkflowState startWorkflow(String workflowId, Map<String, Object> params) {
-        Workflow workflow = workflow(workflowId);
-        workflow.start();
-        workflowRunning.put(workflowId, true);
-        return new ControlWorkflowState(workflowId, true);
+        return state(workflowRuntime.start(workflow(workflowId).getName()));
     }
 
     @Override
     public ControlWorkflowState pauseWorkflow(String workflowId) {
-        Workflow workflow = workflow(workflowId);
-        workflow.stop();
-        workflowRunning.put(workflowId, false);
-        return new ControlWorkflowState(workflowId, false);
+        Workflow workflow = pausable(workflowId);
+        workflow.pause();
+        return state(workflow);
     }
 
     @Override
     public ControlWorkflowState resumeWorkflow(String workflowId) {
-        return startWorkflow(workflowId, Map.of());
+        Workflow workflow = workflow(workflowId);
+        if (!workflow.supportsPause() || !workflow.isPaused()) {
+            return workflow.isRunning() ? state(workflow) : startWorkflow(workflowId, Map.of());
+        }
+        workflow.resume();
+        return state(workflow);
     }
 
     @Override
     public ControlWorkflowState cancelWorkflow(String workflowId) {
-        return pauseWorkflow(workflowId);
+        return state(workflowRuntime.stop(workflow(workflowId).getName()));
     }
 
     @Override
     public ControlWorkflowState workflowState(String workflowId) {
-        required(workflowId, "workflowId");
-        boolean running = workflowRunning.getOrDefault(workflowId, false);
-        return new ControlWorkflowState(workflowId, running);
+        return state(workflow(workflowId));
+    }
+
+    private ControlWorkflowState state(Workflow workflow) {
+        return new ControlWorkflowState(
+            workflow.getName(),
+            workflow.isRunning(),
+            workflow.isPaused(),
+            workflow.queueDepth(),
+            workflow.inFlight()
+        );
     }
 
     private Workflow workflow(String workflowId) {
@@ -128,6 +138,14 @@ public class DefaultControlFacade implements ControlFacade {
             .orElseThrow(() -> new IllegalArgumentException("Unknown workflow: " + resolved));
     }
 
+    private Workflow pausable(String workflowId) {
+        Workflow workflow = workflow(workflowId);
+        if (!workflow.supportsPause()) {
+            throw new IllegalStateException("Workflow does not support pause: " + workflow.getName());
+        }
+        return workflow;
+    }
+
     private String ownerNodeId() {
         return "control:" + clusterProperties.getNodeId();
     }
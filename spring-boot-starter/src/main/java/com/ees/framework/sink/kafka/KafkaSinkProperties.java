@@ -29,6 +29,7 @@ public class KafkaSinkProperties {
     private boolean includeFxHeaders = true;
     private String sinkId = KafkaSink.SINK_TYPE;
     private Map<String, String> additionalProperties = new HashMap<>();
+    private String transactionalId;
 
     /**
      * 현재 프로퍼티 값을 {@link KafkaSinkSettings}로 변환한다.
@@ -48,7 +49,8 @@ public class KafkaSinkProperties {
             keyHeaderKey,
             includeFxHeaders,
             sinkId,
-            additionalProperties
+            additionalProperties,
+            transactionalId
         );
     }
 
@@ -155,5 +157,12 @@ public class KafkaSinkProperties {
     public void setAdditionalProperties(Map<String, String> additionalProperties) {
         this.additionalProperties = additionalProperties;
     }
-}
 
+    public String getTransactionalId() {
+        return transactionalId;
+    }
+
+    public void setTransactionalId(String transactionalId) {
+        this.transactionalId = transactionalId;
+    }
+}
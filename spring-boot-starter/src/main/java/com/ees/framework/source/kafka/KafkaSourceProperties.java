@@ -31,6 +31,9 @@ public class KafkaSourceProperties {
     private String autoOffsetReset = "earliest";
     private String sourceId = KafkaSource.SOURCE_TYPE;
     private Map<String, String> additionalProperties = new HashMap<>();
+    private int concurrency = 1;
+    private KafkaSourceSettings.CommitMode commitMode = KafkaSourceSettings.CommitMode.AUTO;
+    private Duration commitInterval = Duration.ofSeconds(1);
 
     /**
      * 현재 프로퍼티 값을 {@link KafkaSourceSettings}로 변환한다.
@@ -50,7 +53,10 @@ public class KafkaSourceProperties {
             enableAutoCommit,
             autoOffsetReset,
             sourceId,
-            additionalProperties
+            additionalProperties,
+            concurrency,
+            commitMode,
+            commitInterval
         );
     }
 
@@ -157,5 +163,28 @@ public class KafkaSourceProperties {
     public void setAdditionalProperties(Map<String, String> additionalProperties) {
         this.additionalProperties = additionalProperties;
     }
-}
 
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public KafkaSourceSettings.CommitMode getCommitMode() {
+        return commitMode;
+    }
+
+    public void setCommitMode(KafkaSourceSettings.CommitMode commitMode) {
+        this.commitMode = commitMode;
+    }
+
+    public Duration getCommitInterval() {
+        return commitInterval;
+    }
+
+    public void setCommitInterval(Duration commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+}
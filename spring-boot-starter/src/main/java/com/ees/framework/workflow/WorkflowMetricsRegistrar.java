@@ -0,0 +1,74 @@
+package com.ees.framework.workflow;
+
+import com.ees.framework.workflow.engine.HotKey;
+import com.ees.framework.workflow.engine.LaneWaitTime;
+import com.ees.framework.workflow.engine.Workflow;
+import com.ees.framework.workflow.engine.WorkflowRuntime;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 등록된 워크플로별 in-flight 건수/추정 바이트(현재값과 최대치), 현재 배치 크기와 큐 깊이를 Micrometer 게이지로 등록한다.
+ * hot key 는 키 값이 태그 카디널리티를 키우지 않도록 가장 큰 키의 유입 비율/속도만 노출한다.
+ * 만료(TTL/deadline)로 처리 전에 버린 컨텍스트 수는 {@code ees.workflow.expired} 카운터로 노출한다.
+ * 우선순위 레인이 켜진 워크플로는 레인별 평균/최대 큐 대기 시간(ms)을 {@code lane} 태그로 노출한다.
+ */
+public class WorkflowMetricsRegistrar implements MeterBinder {
+
+    private final WorkflowRuntime runtime;
+
+    /**
+     * 워크플로 런타임으로 메트릭 등록기를 생성한다.
+     *
+     * @param runtime 워크플로 런타임
+     */
+    public WorkflowMetricsRegistrar(WorkflowRuntime runtime) {
+        this.runtime = Objects.requireNonNull(runtime, "runtime must not be null");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Workflow workflow : runtime.getWorkflows()) {
+            Tags tags = Tags.of("workflow", workflow.getName());
+            registry.gauge("ees.workflow.inflight", tags, workflow, Workflow::inFlight);
+            registry.gauge("ees.workflow.inflight.peak", tags, workflow, Workflow::peakInFlight);
+            registry.gauge("ees.workflow.inflight.bytes", tags, workflow, Workflow::inFlightBytes);
+            registry.gauge("ees.workflow.inflight.bytes.peak", tags, workflow, Workflow::peakInFlightBytes);
+            registry.gauge("ees.workflow.batch.size", tags, workflow, Workflow::currentBatchSize);
+            registry.gauge("ees.workflow.queue.depth", tags, workflow, Workflow::queueDepth);
+            registry.gauge("ees.workflow.hotkey.share", tags, workflow, w -> topHotKey(w).share());
+            registry.gauge("ees.workflow.hotkey.rate", tags, workflow, w -> topHotKey(w).ratePerSecond());
+            FunctionCounter.builder("ees.workflow.expired", workflow, Workflow::expiredCount)
+                .tags(tags)
+                .register(registry);
+            for (LaneWaitTime laneWait : workflow.laneWaitTimes()) {
+                int lane = laneWait.lane();
+                Tags laneTags = tags.and("lane", Integer.toString(lane));
+                registry.gauge("ees.workflow.lane.wait.avg", laneTags, workflow,
+                    w -> toMillis(w.laneWaitTimes().get(lane).averageWaitNanos()));
+                registry.gauge("ees.workflow.lane.wait.max", laneTags, workflow,
+                    w -> toMillis(w.laneWaitTimes().get(lane).maxWaitNanos()));
+            }
+        }
+    }
+    // toMillis 동작을 수행한다.
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    // topHotKey 동작을 수행한다.
+
+    private static HotKey topHotKey(Workflow workflow) {
+        List<HotKey> top = workflow.hotKeys(1);
+        return top.isEmpty() ? new HotKey(null, 0.0, 0.0, 0L) : top.get(0);
+    }
+}
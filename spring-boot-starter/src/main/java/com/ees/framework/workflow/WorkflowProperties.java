@@ -5,6 +5,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * 워크플로 엔진 실행 옵션을 프로퍼티로 바인딩하는 설정 클래스.
@@ -23,6 +25,16 @@ public class WorkflowProperties {
     private Duration cleanupIdleAfter = Duration.ofSeconds(30);
     private WorkflowEngine.BackpressurePolicy backpressurePolicy = WorkflowEngine.BackpressurePolicy.BLOCK;
     private boolean continuous = false;
+    private WorkflowEngine.DispatchMode dispatchMode = WorkflowEngine.DispatchMode.PER_KEY;
+    private int shardCount = 0;
+    private WorkflowEngine.MailboxType mailboxType = WorkflowEngine.MailboxType.ARRAY_BLOCKING;
+    private int maxInFlight = 0;
+    private long maxInFlightBytes = 0L;
+    private final Adaptive adaptive = new Adaptive();
+    private final Failure failure = new Failure();
+    private final HotKeys hotKeys = new HotKeys();
+    private final PriorityLanes priorityLanes = new PriorityLanes();
+    private final Expiry expiry = new Expiry();
 
     /**
      * 현재 프로퍼티 값을 {@link WorkflowEngine.BatchingOptions}로 변환한다.
@@ -41,13 +53,29 @@ public class WorkflowProperties {
         if (batchTimeout == null || cleanupIdleAfter == null) {
             throw new IllegalStateException("batchTimeout and cleanupIdleAfter must be configured");
         }
+        if (shardCount < 0) {
+            throw new IllegalArgumentException("shardCount must be >= 0");
+        }
+        if (maxInFlight < 0 || maxInFlightBytes < 0) {
+            throw new IllegalArgumentException("maxInFlight and maxInFlightBytes must be >= 0");
+        }
         return new WorkflowEngine.BatchingOptions(
             queueCapacity,
             batchSize,
             batchTimeout,
             cleanupIdleAfter,
             backpressurePolicy,
-            continuous
+            continuous,
+            dispatchMode,
+            shardCount,
+            mailboxType,
+            maxInFlight,
+            maxInFlightBytes,
+            adaptive.toAdaptiveBatchingOptions(),
+            failure.toFailurePolicy(),
+            hotKeys.toHotKeyOptions(),
+            priorityLanes.toPriorityLaneOptions(),
+            expiry.toExpiryOptions()
         );
     }
 
@@ -134,4 +162,600 @@ public class WorkflowProperties {
     public void setContinuous(boolean continuous) {
         this.continuous = continuous;
     }
+
+    /**
+     * affinity 키 배정 방식을 반환한다.
+     */
+    public WorkflowEngine.DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * affinity 키 배정 방식을 설정한다.
+     */
+    public void setDispatchMode(WorkflowEngine.DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+    }
+
+    /**
+     * SHARDED 모드의 샤드 워커 수를 반환한다(0 이면 자동).
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * SHARDED 모드의 샤드 워커 수를 설정한다(0 이면 자동).
+     */
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * per-key 워커 큐 구현을 반환한다.
+     */
+    public WorkflowEngine.MailboxType getMailboxType() {
+        return mailboxType;
+    }
+
+    /**
+     * per-key 워커 큐 구현을 설정한다.
+     */
+    public void setMailboxType(WorkflowEngine.MailboxType mailboxType) {
+        this.mailboxType = mailboxType;
+    }
+
+    /**
+     * 워크플로 전체 in-flight 컨텍스트 상한을 반환한다(0 이면 무제한).
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 워크플로 전체 in-flight 컨텍스트 상한을 설정한다(0 이면 무제한).
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 워크플로 전체 in-flight 추정 바이트 상한을 반환한다(0 이면 무제한).
+     */
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * 워크플로 전체 in-flight 추정 바이트 상한을 설정한다(0 이면 무제한).
+     */
+    public void setMaxInFlightBytes(long maxInFlightBytes) {
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * 적응형 배치 설정을 반환한다.
+     */
+    public Adaptive getAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * 실패 처리(재시도/dead-letter/서킷 브레이커) 설정을 반환한다.
+     */
+    public Failure getFailure() {
+        return failure;
+    }
+
+    /**
+     * hot key 추적 설정을 반환한다.
+     */
+    public HotKeys getHotKeys() {
+        return hotKeys;
+    }
+
+    /**
+     * 우선순위 레인 설정을 반환한다.
+     */
+    public PriorityLanes getPriorityLanes() {
+        return priorityLanes;
+    }
+
+    /**
+     * 컨텍스트 만료 설정을 반환한다.
+     */
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * {@code ees.workflow.adaptive.*} 적응형 배치 설정.
+     */
+    public static class Adaptive {
+
+        private boolean enabled = false;
+        private int minBatchSize = 1;
+        private int maxBatchSize = 1024;
+        // ofMillis 동작을 수행한다.
+        private Duration maxLinger = Duration.ofMillis(5);
+        // ofMillis 동작을 수행한다.
+        private Duration targetLatency = Duration.ofMillis(50);
+
+        /**
+         * 현재 값을 {@link WorkflowEngine.AdaptiveBatchingOptions}로 변환한다.
+         *
+         * @return 적응형 배치 옵션
+         * @throws IllegalArgumentException 배치 크기 범위가 잘못된 경우
+         * @throws IllegalStateException Duration 설정이 누락된 경우
+         */
+        public WorkflowEngine.AdaptiveBatchingOptions toAdaptiveBatchingOptions() {
+            if (maxLinger == null || targetLatency == null) {
+                throw new IllegalStateException("adaptive maxLinger and targetLatency must be configured");
+            }
+            return new WorkflowEngine.AdaptiveBatchingOptions(
+                enabled,
+                minBatchSize,
+                maxBatchSize,
+                maxLinger,
+                targetLatency
+            );
+        }
+
+        /**
+         * 적응형 배치 사용 여부를 반환한다.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 적응형 배치 사용 여부를 설정한다.
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 최소 배치 크기를 반환한다.
+         */
+        public int getMinBatchSize() {
+            return minBatchSize;
+        }
+
+        /**
+         * 최소 배치 크기를 설정한다.
+         */
+        public void setMinBatchSize(int minBatchSize) {
+            this.minBatchSize = minBatchSize;
+        }
+
+        /**
+         * 최대 배치 크기를 반환한다.
+         */
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        /**
+         * 최대 배치 크기를 설정한다.
+         */
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        /**
+         * 배치를 채우기 위한 최대 linger 시간을 반환한다.
+         */
+        public Duration getMaxLinger() {
+            return maxLinger;
+        }
+
+        /**
+         * 배치를 채우기 위한 최대 linger 시간을 설정한다.
+         */
+        public void setMaxLinger(Duration maxLinger) {
+            this.maxLinger = maxLinger;
+        }
+
+        /**
+         * 배치 한 건의 목표 처리 지연을 반환한다.
+         */
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        /**
+         * 배치 한 건의 목표 처리 지연을 설정한다.
+         */
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+    }
+
+    /**
+     * {@code ees.workflow.failure.*} 실패 처리 설정.
+     */
+    public static class Failure {
+
+        private int maxRetries = 0;
+        // ofMillis 동작을 수행한다.
+        private Duration initialBackoff = Duration.ofMillis(100);
+        // ofSeconds 동작을 수행한다.
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private int circuitBreakerThreshold = 0;
+        // ofSeconds 동작을 수행한다.
+        private Duration circuitBreakerOpenDuration = Duration.ofSeconds(5);
+        private String deadLetterSink;
+
+        /**
+         * 현재 값을 {@link WorkflowEngine.FailurePolicy}로 변환한다.
+         *
+         * @return 실패 처리 정책
+         * @throws IllegalArgumentException 재시도/서킷 설정이 음수인 경우
+         * @throws IllegalStateException Duration 설정이 누락된 경우
+         */
+        public WorkflowEngine.FailurePolicy toFailurePolicy() {
+            if (initialBackoff == null || maxBackoff == null || circuitBreakerOpenDuration == null) {
+                throw new IllegalStateException("failure backoff and circuit breaker durations must be configured");
+            }
+            return new WorkflowEngine.FailurePolicy(
+                maxRetries,
+                initialBackoff,
+                maxBackoff,
+                circuitBreakerThreshold,
+                circuitBreakerOpenDuration
+            );
+        }
+
+        /**
+         * 재시도 횟수를 반환한다.
+         */
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        /**
+         * 재시도 횟수를 설정한다.
+         */
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        /**
+         * 첫 재시도 전 대기 시간을 반환한다.
+         */
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        /**
+         * 첫 재시도 전 대기 시간을 설정한다.
+         */
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        /**
+         * 재시도 대기 시간 상한을 반환한다.
+         */
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        /**
+         * 재시도 대기 시간 상한을 설정한다.
+         */
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        /**
+         * 서킷을 여는 Sink 연속 실패 횟수를 반환한다(0 이면 사용 안 함).
+         */
+        public int getCircuitBreakerThreshold() {
+            return circuitBreakerThreshold;
+        }
+
+        /**
+         * 서킷을 여는 Sink 연속 실패 횟수를 설정한다(0 이면 사용 안 함).
+         */
+        public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+            this.circuitBreakerThreshold = circuitBreakerThreshold;
+        }
+
+        /**
+         * 서킷이 열려 있는 시간을 반환한다.
+         */
+        public Duration getCircuitBreakerOpenDuration() {
+            return circuitBreakerOpenDuration;
+        }
+
+        /**
+         * 서킷이 열려 있는 시간을 설정한다.
+         */
+        public void setCircuitBreakerOpenDuration(Duration circuitBreakerOpenDuration) {
+            this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+        }
+
+        /**
+         * dead-letter 로 쓸 Sink 타입({@code SinkRegistry} 조회 키)을 반환한다.
+         */
+        public String getDeadLetterSink() {
+            return deadLetterSink;
+        }
+
+        /**
+         * dead-letter 로 쓸 Sink 타입({@code SinkRegistry} 조회 키)을 설정한다. 비어 있으면 로그만 남기고 버린다.
+         */
+        public void setDeadLetterSink(String deadLetterSink) {
+            this.deadLetterSink = deadLetterSink;
+        }
+    }
+
+    /**
+     * {@code ees.workflow.hot-keys.*} hot key 추적 설정.
+     */
+    public static class HotKeys {
+
+        private boolean enabled = false;
+        private int topN = 10;
+        // ofSeconds 동작을 수행한다.
+        private Duration window = Duration.ofSeconds(10);
+        private double hotShare = 0.2;
+
+        /**
+         * 현재 값을 {@link WorkflowEngine.HotKeyOptions}로 변환한다.
+         *
+         * @return hot key 추적 옵션
+         * @throws IllegalArgumentException topN/hotShare 범위가 잘못된 경우
+         * @throws IllegalStateException window 설정이 누락된 경우
+         */
+        public WorkflowEngine.HotKeyOptions toHotKeyOptions() {
+            if (window == null) {
+                throw new IllegalStateException("hot-keys window must be configured");
+            }
+            return new WorkflowEngine.HotKeyOptions(enabled, topN, window, hotShare);
+        }
+
+        /**
+         * hot key 추적 사용 여부를 반환한다.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * hot key 추적 사용 여부를 설정한다.
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 유지할 상위 키 수를 반환한다.
+         */
+        public int getTopN() {
+            return topN;
+        }
+
+        /**
+         * 유지할 상위 키 수를 설정한다.
+         */
+        public void setTopN(int topN) {
+            this.topN = topN;
+        }
+
+        /**
+         * 카운터 감쇠 주기를 반환한다.
+         */
+        public Duration getWindow() {
+            return window;
+        }
+
+        /**
+         * 카운터 감쇠 주기를 설정한다.
+         */
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        /**
+         * hot key 로 판정할 최근 유입량 비율을 반환한다.
+         */
+        public double getHotShare() {
+            return hotShare;
+        }
+
+        /**
+         * hot key 로 판정할 최근 유입량 비율을 설정한다.
+         */
+        public void setHotShare(double hotShare) {
+            this.hotShare = hotShare;
+        }
+    }
+
+    /**
+     * {@code ees.workflow.priority-lanes.*} 워커 큐 우선순위 레인 설정.
+     */
+    public static class PriorityLanes {
+
+        private boolean enabled = false;
+        private int lanes = 2;
+        private String priorityHeader;
+        private Map<String, Integer> commandLanes = new LinkedHashMap<>();
+        private int defaultLane = 1;
+        private int maxOvertake = 0;
+
+        /**
+         * 현재 값을 {@link WorkflowEngine.PriorityLaneOptions}로 변환한다.
+         *
+         * @return 우선순위 레인 옵션
+         * @throws IllegalArgumentException 레인 번호 범위가 잘못된 경우
+         */
+        public WorkflowEngine.PriorityLaneOptions toPriorityLaneOptions() {
+            return new WorkflowEngine.PriorityLaneOptions(enabled, lanes, priorityHeader,
+                commandLanes == null ? Map.of() : commandLanes, defaultLane, maxOvertake);
+        }
+
+        /**
+         * 우선순위 레인 사용 여부를 반환한다.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 우선순위 레인 사용 여부를 설정한다.
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 레인 수를 반환한다.
+         */
+        public int getLanes() {
+            return lanes;
+        }
+
+        /**
+         * 레인 수를 설정한다.
+         */
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+
+        /**
+         * 레인 번호를 담은 헤더 이름을 반환한다.
+         */
+        public String getPriorityHeader() {
+            return priorityHeader;
+        }
+
+        /**
+         * 레인 번호를 담은 헤더 이름을 설정한다.
+         */
+        public void setPriorityHeader(String priorityHeader) {
+            this.priorityHeader = priorityHeader;
+        }
+
+        /**
+         * 커맨드 이름별 레인 번호를 반환한다.
+         */
+        public Map<String, Integer> getCommandLanes() {
+            return commandLanes;
+        }
+
+        /**
+         * 커맨드 이름별 레인 번호를 설정한다.
+         */
+        public void setCommandLanes(Map<String, Integer> commandLanes) {
+            this.commandLanes = commandLanes;
+        }
+
+        /**
+         * 기본 레인 번호를 반환한다.
+         */
+        public int getDefaultLane() {
+            return defaultLane;
+        }
+
+        /**
+         * 기본 레인 번호를 설정한다.
+         */
+        public void setDefaultLane(int defaultLane) {
+            this.defaultLane = defaultLane;
+        }
+
+        /**
+         * 낮은 레인을 연속으로 앞지를 수 있는 최대 건수를 반환한다.
+         */
+        public int getMaxOvertake() {
+            return maxOvertake;
+        }
+
+        /**
+         * 낮은 레인을 연속으로 앞지를 수 있는 최대 건수를 설정한다.
+         */
+        public void setMaxOvertake(int maxOvertake) {
+            this.maxOvertake = maxOvertake;
+        }
+    }
+
+    /**
+     * {@code ees.workflow.expiry.*} 컨텍스트 만료(TTL/deadline) 설정.
+     */
+    public static class Expiry {
+
+        private boolean enabled = false;
+        private Duration maxAge = Duration.ZERO;
+        private String deadlineHeader;
+        private WorkflowEngine.ExpiredAction action = WorkflowEngine.ExpiredAction.DROP;
+
+        /**
+         * 현재 값을 {@link WorkflowEngine.ExpiryOptions}로 변환한다.
+         *
+         * @return 만료 옵션
+         * @throws IllegalArgumentException 켜져 있는데 maxAge 와 deadlineHeader 가 모두 비어 있는 경우
+         */
+        public WorkflowEngine.ExpiryOptions toExpiryOptions() {
+            return new WorkflowEngine.ExpiryOptions(enabled, maxAge == null ? Duration.ZERO : maxAge, deadlineHeader, action);
+        }
+
+        /**
+         * 만료 검사 사용 여부를 반환한다.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 만료 검사 사용 여부를 설정한다.
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 메시지 생성 후 유효 기간을 반환한다.
+         */
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        /**
+         * 메시지 생성 후 유효 기간을 설정한다.
+         */
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        /**
+         * 만료 시각 헤더 이름을 반환한다.
+         */
+        public String getDeadlineHeader() {
+            return deadlineHeader;
+        }
+
+        /**
+         * 만료 시각 헤더 이름을 설정한다.
+         */
+        public void setDeadlineHeader(String deadlineHeader) {
+            this.deadlineHeader = deadlineHeader;
+        }
+
+        /**
+         * 만료된 컨텍스트 처리 방식을 반환한다.
+         */
+        public WorkflowEngine.ExpiredAction getAction() {
+            return action;
+        }
+
+        /**
+         * 만료된 컨텍스트 처리 방식을 설정한다.
+         */
+        public void setAction(WorkflowEngine.ExpiredAction action) {
+            this.action = action;
+        }
+    }
 }
@@ -14,6 +14,7 @@ import com.ees.framework.handlers.SourceHandler;
 import com.ees.framework.pipeline.PipelineStep;
 import com.ees.framework.sink.Sink;
 import com.ees.framework.source.Source;
+import com.ees.framework.workflow.WorkflowMetricsRegistrar;
 import com.ees.framework.workflow.engine.WorkflowEngine;
 import com.ees.framework.workflow.engine.Workflow;
 import com.ees.framework.workflow.engine.WorkflowNodeResolver;
@@ -73,6 +74,11 @@ class FxFrameworkAutoConfigurationWorkflowTest {
             assertThat(runtime.getWorkflows())
                 .extracting(Workflow::getName)
                 .containsExactly("sample-workflow");
+
+            MeterRegistry registry = new SimpleMeterRegistry();
+            context.getBean(WorkflowMetricsRegistrar.class).bindTo(registry);
+            assertThat(registry.get("ees.workflow.inflight.peak").tag("workflow", "sample-workflow").gauge().value())
+                .isZero();
         });
     }
 
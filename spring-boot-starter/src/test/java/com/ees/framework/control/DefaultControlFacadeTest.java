@@ -0,0 +1,123 @@
+package com.ees.framework.control;
+
+import com.ees.ai.control.ControlFacade.ControlWorkflowState;
+import com.ees.cluster.assignment.AssignmentService;
+import com.ees.cluster.leader.LeaderElectionService;
+import com.ees.cluster.lock.DistributedLockService;
+import com.ees.cluster.membership.ClusterMembershipService;
+import com.ees.cluster.spring.ClusterProperties;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.dsl.WorkflowGraphDsl;
+import com.ees.framework.workflow.engine.Workflow;
+import com.ees.framework.workflow.engine.WorkflowEngine;
+import com.ees.framework.workflow.engine.WorkflowRuntime;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.util.LinearToGraphConverter;
+import com.ees.framework.workflow.util.WorkflowGraphValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultControlFacadeTest {
+
+    @Test
+    void rejectsPauseOfWorkflowWithoutPauseSupport() {
+        AtomicInteger starts = new AtomicInteger();
+        Workflow workflow = new Workflow() {
+            @Override
+            public String getName() {
+                return "custom";
+            }
+
+            @Override
+            public void start() {
+                starts.incrementAndGet();
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+        WorkflowRuntime runtime = mock(WorkflowRuntime.class);
+        when(runtime.getWorkflow("custom")).thenReturn(Optional.of(workflow));
+        DefaultControlFacade facade = facade(runtime);
+
+        assertThatThrownBy(() -> facade.pauseWorkflow("custom"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Workflow does not support pause: custom");
+
+        ControlWorkflowState state = facade.workflowState("custom");
+        assertThat(state.paused()).isFalse();
+        assertThat(starts).hasValue(0);
+    }
+
+    @Test
+    @Timeout(10)
+    void cancelledWorkflowCanBeResumedThroughTheRuntime() throws Exception {
+        WorkflowGraphDefinition graph = WorkflowGraphDsl.define("orders", builder -> builder
+            .source("src", "idle-source")
+            .sink("snk", "sink")
+            .edge("src", "snk")
+            .batchingOptions(WorkflowEngine.BatchingOptions.defaults().toBuilder()
+                .batchTimeout(Duration.ofMillis(20))
+                .continuous(true)
+                .build())
+        );
+        Source<String> idle = List::of;
+        Sink<String> sink = context -> { };
+        Map<String, Object> beans = Map.of("idle-source", idle, "sink", sink);
+        WorkflowRuntime runtime = new WorkflowRuntime(
+            List.of(),
+            List.of(graph),
+            new LinearToGraphConverter(),
+            new WorkflowGraphValidator(),
+            new WorkflowEngine(),
+            node -> beans.get(node.getRefName())
+        );
+        DefaultControlFacade facade = facade(runtime);
+
+        facade.startWorkflow("orders", Map.of());
+        awaitRunning(facade);
+        ControlWorkflowState cancelled = facade.cancelWorkflow("orders");
+        assertThat(cancelled.running()).isFalse();
+
+        facade.resumeWorkflow("orders");
+        awaitRunning(facade);
+        assertThat(facade.pauseWorkflow("orders").paused()).isTrue();
+        assertThat(facade.resumeWorkflow("orders").paused()).isFalse();
+
+        assertThat(facade.cancelWorkflow("orders").running()).isFalse();
+        runtime.stopAll();
+    }
+
+    private void awaitRunning(DefaultControlFacade facade) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!facade.workflowState("orders").running() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(facade.workflowState("orders").running()).isTrue();
+    }
+
+    private DefaultControlFacade facade(WorkflowRuntime runtime) {
+        return new DefaultControlFacade(
+            mock(ClusterMembershipService.class),
+            mock(LeaderElectionService.class),
+            mock(AssignmentService.class),
+            mock(DistributedLockService.class),
+            runtime,
+            new ClusterProperties()
+        );
+    }
+}
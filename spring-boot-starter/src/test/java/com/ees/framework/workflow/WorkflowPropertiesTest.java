@@ -4,6 +4,7 @@ import com.ees.framework.workflow.engine.WorkflowEngine;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -19,6 +20,35 @@ class WorkflowPropertiesTest {
         props.setCleanupIdleAfter(Duration.ofSeconds(2));
         props.setBackpressurePolicy(WorkflowEngine.BackpressurePolicy.ERROR);
         props.setContinuous(true);
+        props.setDispatchMode(WorkflowEngine.DispatchMode.SHARDED);
+        props.setShardCount(8);
+        props.setMailboxType(WorkflowEngine.MailboxType.MPSC_RING);
+        props.setMaxInFlight(1_000);
+        props.setMaxInFlightBytes(1_048_576L);
+        props.getAdaptive().setEnabled(true);
+        props.getAdaptive().setMinBatchSize(4);
+        props.getAdaptive().setMaxBatchSize(256);
+        props.getAdaptive().setMaxLinger(Duration.ofMillis(2));
+        props.getAdaptive().setTargetLatency(Duration.ofMillis(20));
+        props.getFailure().setMaxRetries(3);
+        props.getFailure().setInitialBackoff(Duration.ofMillis(10));
+        props.getFailure().setMaxBackoff(Duration.ofSeconds(1));
+        props.getFailure().setCircuitBreakerThreshold(5);
+        props.getFailure().setCircuitBreakerOpenDuration(Duration.ofSeconds(2));
+        props.getHotKeys().setEnabled(true);
+        props.getHotKeys().setTopN(5);
+        props.getHotKeys().setWindow(Duration.ofSeconds(3));
+        props.getHotKeys().setHotShare(0.5);
+        props.getPriorityLanes().setEnabled(true);
+        props.getPriorityLanes().setLanes(3);
+        props.getPriorityLanes().setPriorityHeader("priority");
+        props.getPriorityLanes().setCommandLanes(Map.of("ALARM", 0));
+        props.getPriorityLanes().setDefaultLane(2);
+        props.getPriorityLanes().setMaxOvertake(16);
+        props.getExpiry().setEnabled(true);
+        props.getExpiry().setMaxAge(Duration.ofSeconds(30));
+        props.getExpiry().setDeadlineHeader("deadline");
+        props.getExpiry().setAction(WorkflowEngine.ExpiredAction.DEAD_LETTER);
 
         WorkflowEngine.BatchingOptions options = props.toBatchingOptions();
 
@@ -28,6 +58,20 @@ class WorkflowPropertiesTest {
         assertThat(options.cleanupIdleAfter()).isEqualTo(Duration.ofSeconds(2));
         assertThat(options.backpressurePolicy()).isEqualTo(WorkflowEngine.BackpressurePolicy.ERROR);
         assertThat(options.continuous()).isTrue();
+        assertThat(options.dispatchMode()).isEqualTo(WorkflowEngine.DispatchMode.SHARDED);
+        assertThat(options.effectiveShardCount()).isEqualTo(8);
+        assertThat(options.mailboxType()).isEqualTo(WorkflowEngine.MailboxType.MPSC_RING);
+        assertThat(options.maxInFlight()).isEqualTo(1_000);
+        assertThat(options.maxInFlightBytes()).isEqualTo(1_048_576L);
+        assertThat(options.adaptiveBatching()).isEqualTo(new WorkflowEngine.AdaptiveBatchingOptions(
+            true, 4, 256, Duration.ofMillis(2), Duration.ofMillis(20)));
+        assertThat(options.failurePolicy()).isEqualTo(new WorkflowEngine.FailurePolicy(
+            3, Duration.ofMillis(10), Duration.ofSeconds(1), 5, Duration.ofSeconds(2)));
+        assertThat(options.hotKeys()).isEqualTo(new WorkflowEngine.HotKeyOptions(true, 5, Duration.ofSeconds(3), 0.5));
+        assertThat(options.priorityLanes()).isEqualTo(new WorkflowEngine.PriorityLaneOptions(
+            true, 3, "priority", Map.of("ALARM", 0), 2, 16));
+        assertThat(options.expiry()).isEqualTo(new WorkflowEngine.ExpiryOptions(
+            true, Duration.ofSeconds(30), "deadline", WorkflowEngine.ExpiredAction.DEAD_LETTER));
     }
 
     @Test
@@ -35,6 +35,7 @@ public final class WorkflowGraphDsl {
         private String startNodeId;
         private final Set<String> endNodeIds = new LinkedHashSet<>();
         private com.ees.framework.workflow.engine.WorkflowEngine.BatchingOptions batchingOptions;
+        private final Map<String, com.ees.framework.workflow.engine.WorkflowEngine.StageOptions> stageOptions = new LinkedHashMap<>();
 
         /**
          * 그래프 워크플로우 빌더를 생성한다.
@@ -130,6 +131,18 @@ public final class WorkflowGraphDsl {
             return this;
         }
 
+        /**
+         * 노드를 전용 스테이지(별도 executor + affinity 별 inbox)로 분리한다.
+         *
+         * @param nodeId 분리할 노드 ID
+         * @param options 스테이지 옵션
+         * @return 빌더
+         */
+        public Builder stage(String nodeId, com.ees.framework.workflow.engine.WorkflowEngine.StageOptions options) {
+            stageOptions.put(nodeId, options);
+            return this;
+        }
+
         /**
          * 노드 간 단순 연결(조건 없음)을 정의한다.
          *
@@ -175,7 +188,8 @@ public final class WorkflowGraphDsl {
                 endNodeIds,
                 new ArrayList<>(nodes.values()),
                 edges,
-                batchingOptions
+                batchingOptions,
+                stageOptions
             );
         }
 
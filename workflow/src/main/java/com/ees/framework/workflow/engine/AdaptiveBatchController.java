@@ -0,0 +1,84 @@
+package com.ees.framework.workflow.engine;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 관측한 큐 깊이와 배치 처리 지연으로 per-key 워커의 유효 배치 크기와 linger 시간을 조정한다.
+ * <p>
+ * 워크플로의 진입 워커들이 하나의 컨트롤러를 공유한다. 규칙은 다음과 같다.
+ * <ul>
+ *     <li>배치 처리 지연(EWMA)이 목표를 넘으면 배치 크기를 절반으로 줄이고 linger 를 끈다.</li>
+ *     <li>지연에 여유가 있고 배치 후에도 큐에 배치 크기 이상 남아 있으면(backlog) 배치 크기를 두 배로 늘린다.</li>
+ *     <li>큐에 일부만 남아 있으면(중간 부하) 남은 지연 여유의 절반까지 linger 해 배치를 채운다.</li>
+ *     <li>큐가 비어 있으면(저부하) linger 를 절반씩 줄여 지연을 우선한다.</li>
+ * </ul>
+ * 샘플 갱신은 다른 워커가 갱신 중이면 건너뛰므로 메시지 처리 경로에서 대기하지 않는다.
+ */
+final class AdaptiveBatchController {
+
+    // 새 샘플의 EWMA 가중치.
+    private static final double SMOOTHING = 0.2;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final long targetLatencyNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int batchSize;
+    private volatile long lingerNanos;
+    private double latencyEwmaNanos = -1;
+
+    AdaptiveBatchController(WorkflowEngine.AdaptiveBatchingOptions options, int initialBatchSize) {
+        this.minBatchSize = options.minBatchSize();
+        this.maxBatchSize = options.maxBatchSize();
+        this.maxLingerNanos = options.maxLinger().toNanos();
+        this.targetLatencyNanos = options.targetLatency().toNanos();
+        this.batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, initialBatchSize));
+    }
+
+    /**
+     * 현재 유효 배치 크기를 반환한다.
+     */
+    int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 배치를 채우기 위해 첫 원소 이후 추가로 기다릴 시간(ns)을 반환한다.
+     */
+    long lingerNanos() {
+        return lingerNanos;
+    }
+
+    /**
+     * 처리한 배치 한 건의 관측값을 반영한다.
+     *
+     * @param size 처리한 배치 크기
+     * @param latencyNanos 배치 처리(스테이지 + Sink) 소요 시간
+     * @param remainingDepth 배치 처리 직후 워커 큐에 남은 원소 수
+     */
+    void onBatch(int size, long latencyNanos, int remainingDepth) {
+        if (size <= 0 || !lock.tryLock()) {
+            return;
+        }
+        try {
+            latencyEwmaNanos = latencyEwmaNanos < 0
+                ? latencyNanos
+                : latencyEwmaNanos + SMOOTHING * (latencyNanos - latencyEwmaNanos);
+            int current = batchSize;
+            if (latencyEwmaNanos > targetLatencyNanos) {
+                batchSize = Math.max(minBatchSize, current / 2);
+                lingerNanos = 0;
+            } else if (remainingDepth >= current) {
+                batchSize = (int) Math.min(maxBatchSize, current * 2L);
+            } else if (remainingDepth > 0) {
+                long headroom = (long) (targetLatencyNanos - latencyEwmaNanos);
+                lingerNanos = Math.min(maxLingerNanos, headroom / 2);
+            } else {
+                lingerNanos = lingerNanos / 2;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
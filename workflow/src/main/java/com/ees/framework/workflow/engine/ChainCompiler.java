@@ -0,0 +1,419 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.MutableFxContext;
+import com.ees.framework.handlers.SinkHandler;
+import com.ees.framework.handlers.SourceHandler;
+import com.ees.framework.pipeline.InPlacePipelineStep;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * 연속된 단건 프로세서(SourceHandler/PipelineStep/SinkHandler)를 배치 스테이지 하나로 컴파일한다.
+ * <p>
+ * 프로세서 목록을 람다 배열로 순회하면 {@code step.apply(ctx)} 호출 지점이 모든 워크플로의 모든 step 구현을 보게 되어
+ * 구현 타입이 셋 이상이면 megamorphic 이 되고 JIT 가 인라이닝을 포기한다. 이 컴파일러는 노드 템플릿 클래스의
+ * 바이트코드를 프로세서마다 {@link MethodHandles.Lookup#defineHiddenClassWithClassData hidden class} 로 복제한다.
+ * 복제된 클래스는 프로세서와 다음 노드를 static final 상수로 들고 있으므로 각 호출 지점은 한 가지 타입만 보고
+ * (monomorphic), 체인 전체가 배치 루프 안으로 인라이닝될 수 있다. hidden class 는 워크플로가 사라지면 함께 언로드된다.
+ * <p>
+ * hidden class 를 정의할 수 없는 환경(템플릿 바이트코드를 읽을 수 없는 클래스로더 등)에서는 같은 의미의
+ * 람다 체인으로 대체한다.
+ */
+@Slf4j
+public final class ChainCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ChainNode END = context -> context;
+    private static final CarrierNode CARRIER_END = context -> { };
+    private static final Map<Class<?>, byte[]> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final BinaryOperator<FxContext<Object>> reconciler;
+    private final boolean hiddenClasses;
+
+    /**
+     * @param reconciler 프로세서 입력과 출력을 받아 affinity 를 확인한 출력을 돌려주는 함수.
+     *                   프로세서가 affinity 를 바꾸지 않았다면 출력을 그대로 반환해야 한다.
+     */
+    public ChainCompiler(BinaryOperator<FxContext<Object>> reconciler) {
+        this(reconciler, true);
+    }
+
+    ChainCompiler(BinaryOperator<FxContext<Object>> reconciler, boolean hiddenClasses) {
+        this.reconciler = Objects.requireNonNull(reconciler, "reconciler must not be null");
+        this.hiddenClasses = hiddenClasses;
+    }
+
+    /**
+     * 체인에 넣을 단건 프로세서 하나.
+     *
+     * @param kind 노드 종류(SOURCE_HANDLER, PIPELINE_STEP, SINK_HANDLER)
+     * @param processor 해당 종류의 프로세서 인스턴스
+     */
+    public record ElementStep(WorkflowNodeKind kind, Object processor) {
+
+        public ElementStep {
+            Objects.requireNonNull(kind, "kind must not be null");
+            Objects.requireNonNull(processor, "processor must not be null");
+            if (kind != WorkflowNodeKind.SOURCE_HANDLER && kind != WorkflowNodeKind.PIPELINE_STEP
+                && kind != WorkflowNodeKind.SINK_HANDLER) {
+                throw new IllegalArgumentException("Not a processor kind: " + kind);
+            }
+        }
+    }
+
+    /**
+     * 프로세서 목록을 배치 단위 스테이지로 컴파일한다. 각 컨텍스트는 목록 순서대로 프로세서를 통과하며,
+     * {@code supports()} 가 false 인 프로세서는 건너뛴다.
+     * 연속된 {@link InPlacePipelineStep} 은 워커가 재사용하는 가변 컨텍스트({@link WorkerContextCarrier}) 하나로 실행하고,
+     * 묶음이 끝날 때 불변 컨텍스트를 한 번 만들어 affinity 를 확인한다.
+     *
+     * @param steps 하나 이상의 프로세서
+     * @return 배치를 받아 같은 크기의 처리 결과를 돌려주는 스테이지
+     */
+    public UnaryOperator<List<FxContext<Object>>> compile(List<ElementStep> steps) {
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("steps must not be empty");
+        }
+        if (hiddenClasses) {
+            try {
+                ChainNode head = link(steps, true);
+                @SuppressWarnings("unchecked")
+                UnaryOperator<List<FxContext<Object>>> stage =
+                    (UnaryOperator<List<FxContext<Object>>>) instantiate(ElementStage.class, List.of(head));
+                return stage;
+            } catch (ReflectiveOperationException | IOException | LinkageError e) {
+                log.warn("Falling back to an interpreted processor chain: {}", e.toString());
+            }
+        }
+        return interpreted(steps);
+    }
+    // interpreted 동작을 수행한다.
+
+    /**
+     * hidden class 를 쓰지 않는 같은 의미의 체인. 노드 클래스가 프로세서 종류마다 하나라 호출 지점이 공유된다.
+     */
+    private UnaryOperator<List<FxContext<Object>>> interpreted(List<ElementStep> steps) {
+        ChainNode head;
+        try {
+            head = link(steps, false);
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new IllegalStateException("Interpreted chain must not define classes", e);
+        }
+        return batch -> {
+            List<FxContext<Object>> out = new ArrayList<>(batch.size());
+            for (FxContext<Object> context : batch) {
+                out.add(head.process(context));
+            }
+            return out;
+        };
+    }
+    // link 동작을 수행한다.
+
+    /**
+     * 프로세서 목록을 뒤에서부터 이어 첫 노드를 반환한다. 연속된 in-place 단계는 하나의 묶음 노드가 된다.
+     */
+    private ChainNode link(List<ElementStep> steps, boolean hidden) throws ReflectiveOperationException, IOException {
+        ChainNode next = END;
+        int i = steps.size() - 1;
+        while (i >= 0) {
+            if (!isInPlace(steps.get(i))) {
+                ElementStep step = steps.get(i--);
+                next = hidden
+                    ? (ChainNode) instantiate(templateFor(step.kind()), List.of(step.processor(), reconciler, next))
+                    : interpretedNode(step, next);
+                continue;
+            }
+            CarrierNode carrier = CARRIER_END;
+            for (; i >= 0 && isInPlace(steps.get(i)); i--) {
+                @SuppressWarnings("unchecked")
+                InPlacePipelineStep<Object> step = (InPlacePipelineStep<Object>) steps.get(i).processor();
+                carrier = hidden
+                    ? (CarrierNode) instantiate(InPlaceStepNode.class, List.of(step, carrier))
+                    : interpretedInPlaceNode(step, carrier);
+            }
+            next = hidden
+                ? (ChainNode) instantiate(InPlaceRunNode.class, List.of(carrier, reconciler, next))
+                : interpretedRunNode(carrier, next);
+        }
+        return next;
+    }
+    // isInPlace 동작을 수행한다.
+
+    private static boolean isInPlace(ElementStep step) {
+        return step.kind() == WorkflowNodeKind.PIPELINE_STEP && step.processor() instanceof InPlacePipelineStep<?>;
+    }
+    // interpretedNode 동작을 수행한다.
+
+    @SuppressWarnings("unchecked")
+    private ChainNode interpretedNode(ElementStep step, ChainNode next) {
+        return switch (step.kind()) {
+            case SOURCE_HANDLER -> {
+                SourceHandler<Object> handler = (SourceHandler<Object>) step.processor();
+                yield ctx -> next.process(handler.supports(ctx) ? reconciler.apply(ctx, handler.handle(ctx)) : ctx);
+            }
+            case PIPELINE_STEP -> {
+                PipelineStep<Object, Object> pipelineStep = (PipelineStep<Object, Object>) step.processor();
+                yield ctx -> next.process(pipelineStep.supports(ctx) ? reconciler.apply(ctx, pipelineStep.apply(ctx)) : ctx);
+            }
+            case SINK_HANDLER -> {
+                SinkHandler<Object> handler = (SinkHandler<Object>) step.processor();
+                yield ctx -> next.process(handler.supports(ctx) ? reconciler.apply(ctx, handler.handle(ctx)) : ctx);
+            }
+            default -> throw new IllegalArgumentException("Not a processor kind: " + step.kind());
+        };
+    }
+    // interpretedInPlaceNode 동작을 수행한다.
+
+    private static CarrierNode interpretedInPlaceNode(InPlacePipelineStep<Object> step, CarrierNode next) {
+        return context -> {
+            if (step.supportsInPlace(context)) {
+                step.applyInPlace(context);
+            }
+            next.process(context);
+        };
+    }
+    // interpretedRunNode 동작을 수행한다.
+
+    private ChainNode interpretedRunNode(CarrierNode head, ChainNode next) {
+        return ctx -> {
+            MutableFxContext<Object> carrier = WorkerContextCarrier.acquire();
+            head.process(carrier.load(ctx));
+            return next.process(reconciler.apply(ctx, carrier.toContext()));
+        };
+    }
+    // templateFor 동작을 수행한다.
+
+    private static Class<?> templateFor(WorkflowNodeKind kind) {
+        return switch (kind) {
+            case SOURCE_HANDLER -> SourceHandlerNode.class;
+            case PIPELINE_STEP -> PipelineStepNode.class;
+            case SINK_HANDLER -> SinkHandlerNode.class;
+            default -> throw new IllegalArgumentException("Not a processor kind: " + kind);
+        };
+    }
+    // instantiate 동작을 수행한다.
+
+    /**
+     * 템플릿 바이트코드로 새 hidden class 를 정의하고 classData 를 static 상수로 가진 인스턴스를 만든다.
+     */
+    private static Object instantiate(Class<?> template, List<Object> classData)
+        throws ReflectiveOperationException, IOException {
+        MethodHandles.Lookup defined = LOOKUP.defineHiddenClassWithClassData(templateBytes(template), classData, true);
+        return defined.lookupClass().getDeclaredConstructor().newInstance();
+    }
+    // templateBytes 동작을 수행한다.
+
+    private static byte[] templateBytes(Class<?> template) throws IOException {
+        byte[] cached = TEMPLATES.get(template);
+        if (cached != null) {
+            return cached;
+        }
+        String name = template.getName();
+        String resource = name.substring(name.lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = template.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Class file not found: " + resource);
+            }
+            byte[] bytes = in.readAllBytes();
+            TEMPLATES.put(template, bytes);
+            return bytes;
+        }
+    }
+
+    /**
+     * 컨텍스트 하나를 자신과 이후 노드에 통과시키는 체인 노드.
+     */
+    interface ChainNode {
+
+        FxContext<Object> process(FxContext<Object> context);
+    }
+
+    /**
+     * 가변 컨텍스트를 자신과 이후 in-place 단계에 통과시키는 노드.
+     */
+    interface CarrierNode {
+
+        void process(MutableFxContext<Object> context);
+    }
+
+    // 아래 템플릿 클래스는 직접 로드해 쓰지 않고 바이트코드만 hidden class 로 복제한다.
+    // static 초기화 시 classData 를 읽으므로 일반 클래스로 초기화하면 실패한다.
+
+    /**
+     * 배치를 순회하며 첫 노드를 호출하는 템플릿. classData: [head]
+     */
+    static final class ElementStage implements UnaryOperator<List<FxContext<Object>>> {
+
+        private static final ChainNode HEAD;
+
+        static {
+            try {
+                HEAD = MethodHandles.classDataAt(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, ChainNode.class, 0);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public List<FxContext<Object>> apply(List<FxContext<Object>> batch) {
+            List<FxContext<Object>> out = new ArrayList<>(batch.size());
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                out.add(HEAD.process(batch.get(i)));
+            }
+            return out;
+        }
+    }
+
+    /**
+     * PipelineStep 템플릿. classData: [step, reconciler, next]
+     */
+    @SuppressWarnings("unchecked")
+    static final class PipelineStepNode implements ChainNode {
+
+        private static final PipelineStep<Object, Object> STEP;
+        private static final BinaryOperator<FxContext<Object>> RECONCILER;
+        private static final ChainNode NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                STEP = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, PipelineStep.class, 0);
+                RECONCILER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, BinaryOperator.class, 1);
+                NEXT = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, ChainNode.class, 2);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public FxContext<Object> process(FxContext<Object> context) {
+            return NEXT.process(STEP.supports(context) ? RECONCILER.apply(context, STEP.apply(context)) : context);
+        }
+    }
+
+    /**
+     * SourceHandler 템플릿. classData: [handler, reconciler, next]
+     */
+    @SuppressWarnings("unchecked")
+    static final class SourceHandlerNode implements ChainNode {
+
+        private static final SourceHandler<Object> HANDLER;
+        private static final BinaryOperator<FxContext<Object>> RECONCILER;
+        private static final ChainNode NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HANDLER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, SourceHandler.class, 0);
+                RECONCILER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, BinaryOperator.class, 1);
+                NEXT = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, ChainNode.class, 2);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public FxContext<Object> process(FxContext<Object> context) {
+            return NEXT.process(HANDLER.supports(context) ? RECONCILER.apply(context, HANDLER.handle(context)) : context);
+        }
+    }
+
+    /**
+     * SinkHandler 템플릿. classData: [handler, reconciler, next]
+     */
+    @SuppressWarnings("unchecked")
+    static final class SinkHandlerNode implements ChainNode {
+
+        private static final SinkHandler<Object> HANDLER;
+        private static final BinaryOperator<FxContext<Object>> RECONCILER;
+        private static final ChainNode NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HANDLER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, SinkHandler.class, 0);
+                RECONCILER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, BinaryOperator.class, 1);
+                NEXT = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, ChainNode.class, 2);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public FxContext<Object> process(FxContext<Object> context) {
+            return NEXT.process(HANDLER.supports(context) ? RECONCILER.apply(context, HANDLER.handle(context)) : context);
+        }
+    }
+
+    /**
+     * in-place 단계 묶음 템플릿. 워커의 가변 컨텍스트로 묶음을 실행하고 불변 컨텍스트를 다음 노드에 넘긴다.
+     * classData: [head, reconciler, next]
+     */
+    @SuppressWarnings("unchecked")
+    static final class InPlaceRunNode implements ChainNode {
+
+        private static final CarrierNode HEAD;
+        private static final BinaryOperator<FxContext<Object>> RECONCILER;
+        private static final ChainNode NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HEAD = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, CarrierNode.class, 0);
+                RECONCILER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, BinaryOperator.class, 1);
+                NEXT = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, ChainNode.class, 2);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public FxContext<Object> process(FxContext<Object> context) {
+            MutableFxContext<Object> carrier = WorkerContextCarrier.acquire();
+            HEAD.process(carrier.load(context));
+            return NEXT.process(RECONCILER.apply(context, carrier.toContext()));
+        }
+    }
+
+    /**
+     * InPlacePipelineStep 템플릿. classData: [step, next]
+     */
+    @SuppressWarnings("unchecked")
+    static final class InPlaceStepNode implements CarrierNode {
+
+        private static final InPlacePipelineStep<Object> STEP;
+        private static final CarrierNode NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                STEP = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, InPlacePipelineStep.class, 0);
+                NEXT = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, CarrierNode.class, 1);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public void process(MutableFxContext<Object> context) {
+            if (STEP.supportsInPlace(context)) {
+                STEP.applyInPlace(context);
+            }
+            NEXT.process(context);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+
+import java.util.function.Predicate;
+
+/**
+ * {@link com.ees.framework.workflow.model.WorkflowEdgeDefinition#getCondition()} 문자열을
+ * 실행 가능한 라우팅 조건으로 변환한다.
+ * <p>
+ * {@link WorkflowEngine#createWorkflow} 시 엣지마다 한 번만 호출되며, 반환된 Predicate 는 메시지마다 per-key 워커 스레드에서
+ * 평가되므로 thread-safe 해야 한다. 조건이 비어 있는 엣지는 컴파일하지 않고 항상 통과로 간주한다.
+ */
+@FunctionalInterface
+public interface EdgeConditionCompiler {
+
+    /**
+     * 조건식을 Predicate 로 변환한다.
+     *
+     * @param condition 비어 있지 않은 조건식
+     * @return 컨텍스트가 엣지를 통과할지 판단하는 Predicate
+     * @throws IllegalArgumentException 조건식을 해석할 수 없는 경우
+     */
+    Predicate<FxContext<?>> compile(String condition);
+
+    /**
+     * 조건식을 지원하지 않는 컴파일러를 반환한다. 조건이 있는 엣지를 만나면 워크플로 생성 시 실패한다.
+     *
+     * @return 조건식을 거부하는 컴파일러
+     */
+    static EdgeConditionCompiler unsupported() {
+        return condition -> {
+            throw new IllegalArgumentException(
+                "Edge condition is not supported without an EdgeConditionCompiler: " + condition);
+        };
+    }
+}
@@ -0,0 +1,383 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 엣지 조건식을 Predicate 트리로 컴파일하는 기본 {@link EdgeConditionCompiler}.
+ * <p>
+ * 문법:
+ * <pre>
+ * expr       := and (('||' | 'or') and)*
+ * and        := unary (('&amp;&amp;' | 'and') unary)*
+ * unary      := ('!' | 'not') unary | '(' expr ')' | comparison
+ * comparison := field [('==' | '!=') literal | 'in' '(' literal (',' literal)* ')']
+ * field      := 'header.'NAME | 'meta.'NAME | 'affinity.kind' | 'affinity.value' | 'command'
+ * literal    := 'text' | "text" | number | true | false | null
+ * </pre>
+ * 비교 연산자 없이 필드만 쓰면 값이 존재하는지(null 아님)를 검사한다. {@code meta.NAME} 은
+ * {@link FxMeta#attributes()} 를 조회하며, 숫자/불리언 리터럴은 같은 타입의 속성값과 비교한다.
+ * 숫자 리터럴과 비교할 때 정수 속성은 {@link FxMeta#longAttribute(String, long)} 로 읽어
+ * 원시값으로 저장된 속성을 박싱하지 않는다.
+ * <p>
+ * 파싱과 리터럴 변환은 컴파일 시 한 번만 수행하고, 결과 Predicate 는 메시지 평가 시 객체를 할당하지 않는다.
+ */
+public final class ExpressionEdgeConditionCompiler implements EdgeConditionCompiler {
+
+    /**
+     * 조건식을 파싱해 Predicate 트리로 변환한다.
+     *
+     * @param condition 조건식
+     * @return 컴파일된 Predicate
+     * @throws IllegalArgumentException 문법 오류가 있는 경우
+     */
+    @Override
+    public Predicate<FxContext<?>> compile(String condition) {
+        if (condition == null || condition.isBlank()) {
+            throw new IllegalArgumentException("condition must not be blank");
+        }
+        Parser parser = new Parser(condition, tokenize(condition));
+        Predicate<FxContext<?>> predicate = parser.expression();
+        parser.expectEnd();
+        return predicate;
+    }
+    // tokenize 동작을 수행한다.
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = source.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw syntaxError(source, i, "unterminated string literal");
+                }
+                tokens.add(new Token(TokenType.STRING, source.substring(i + 1, end), i));
+                i = end + 1;
+            } else if (source.startsWith("==", i) || source.startsWith("!=", i)
+                || source.startsWith("&&", i) || source.startsWith("||", i)) {
+                tokens.add(new Token(TokenType.SYMBOL, source.substring(i, i + 2), i));
+                i += 2;
+            } else if (c == '!' || c == '(' || c == ')' || c == ',') {
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), i));
+                i++;
+            } else if (isWordChar(c)) {
+                int start = i;
+                while (i < source.length() && isWordChar(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, source.substring(start, i), start));
+            } else {
+                throw syntaxError(source, i, "unexpected character '" + c + "'");
+            }
+        }
+        return tokens;
+    }
+    // isWordChar 동작을 수행한다.
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+    // syntaxError 동작을 수행한다.
+
+    private static IllegalArgumentException syntaxError(String source, int position, String message) {
+        return new IllegalArgumentException("Invalid condition '%s' at %d: %s".formatted(source, position, message));
+    }
+
+    private enum TokenType {
+        WORD,
+        STRING,
+        SYMBOL
+    }
+
+    private record Token(TokenType type, String text, int position) {
+        // is 동작을 수행한다.
+        private boolean is(String symbolOrKeyword) {
+            return type != TokenType.STRING && text.equals(symbolOrKeyword);
+        }
+    }
+
+    /**
+     * 비교 대상 필드. 문자열 필드는 리터럴을 문자열로만 비교해 타입 분기를 생략한다.
+     * metaKey 는 {@code meta.NAME} 필드의 속성 키이고, 그 외 필드는 null 이다.
+     */
+    private record Field(Function<FxContext<?>, Object> accessor, boolean stringValued, String metaKey) {
+
+        private Field(Function<FxContext<?>, Object> accessor, boolean stringValued) {
+            this(accessor, stringValued, null);
+        }
+    }
+
+    /**
+     * 리터럴의 원문과 해석된 값. value 는 String/Long/Double/Boolean 또는 null 이다.
+     */
+    private record Literal(String text, Object value) {
+        // matches 동작을 수행한다.
+        private boolean matches(Object candidate) {
+            if (candidate == null || value == null) {
+                return candidate == value;
+            }
+            if (candidate instanceof String s) {
+                return text.equals(s);
+            }
+            if (candidate instanceof Number n && value instanceof Number) {
+                return value instanceof Long l && !(candidate instanceof Double || candidate instanceof Float)
+                    ? n.longValue() == l
+                    : n.doubleValue() == ((Number) value).doubleValue();
+            }
+            return value.equals(candidate);
+        }
+
+        /**
+         * 정수 속성값과 비교한다. {@link #matches(Object)} 에 같은 값을 박싱해 넘긴 것과 결과가 같다.
+         */
+        private boolean matchesLong(long candidate) {
+            if (value instanceof Long l) {
+                return candidate == l;
+            }
+            return value instanceof Double d && candidate == d;
+        }
+    }
+
+    /**
+     * 재귀 하향 파서. 컴파일 1회당 하나씩 생성한다.
+     */
+    private static final class Parser {
+
+        private final String source;
+        private final List<Token> tokens;
+        private int index;
+
+        private Parser(String source, List<Token> tokens) {
+            this.source = source;
+            this.tokens = tokens;
+        }
+        // expression 동작을 수행한다.
+
+        private Predicate<FxContext<?>> expression() {
+            Predicate<FxContext<?>> left = conjunction();
+            while (accept("||") || accept("or")) {
+                Predicate<FxContext<?>> first = left;
+                Predicate<FxContext<?>> second = conjunction();
+                left = ctx -> first.test(ctx) || second.test(ctx);
+            }
+            return left;
+        }
+        // conjunction 동작을 수행한다.
+
+        private Predicate<FxContext<?>> conjunction() {
+            Predicate<FxContext<?>> left = unary();
+            while (accept("&&") || accept("and")) {
+                Predicate<FxContext<?>> first = left;
+                Predicate<FxContext<?>> second = unary();
+                left = ctx -> first.test(ctx) && second.test(ctx);
+            }
+            return left;
+        }
+        // unary 동작을 수행한다.
+
+        private Predicate<FxContext<?>> unary() {
+            if (accept("!") || accept("not")) {
+                Predicate<FxContext<?>> operand = unary();
+                return ctx -> !operand.test(ctx);
+            }
+            if (accept("(")) {
+                Predicate<FxContext<?>> inner = expression();
+                expect(")");
+                return inner;
+            }
+            return comparison();
+        }
+        // comparison 동작을 수행한다.
+
+        private Predicate<FxContext<?>> comparison() {
+            Field field = field();
+            Function<FxContext<?>, Object> accessor = field.accessor();
+            if (accept("==")) {
+                return equalsPredicate(field, literal());
+            }
+            if (accept("!=")) {
+                Predicate<FxContext<?>> equals = equalsPredicate(field, literal());
+                return ctx -> !equals.test(ctx);
+            }
+            if (accept("in")) {
+                return inPredicate(field, literalList());
+            }
+            return ctx -> accessor.apply(ctx) != null;
+        }
+        // equalsPredicate 동작을 수행한다.
+
+        private Predicate<FxContext<?>> equalsPredicate(Field field, Literal literal) {
+            Function<FxContext<?>, Object> accessor = field.accessor();
+            if (literal.value() == null) {
+                return ctx -> accessor.apply(ctx) == null;
+            }
+            if (field.stringValued()) {
+                String expected = literal.text();
+                return ctx -> expected.equals(accessor.apply(ctx));
+            }
+            if (field.metaKey() != null && literal.value() instanceof Number) {
+                String key = field.metaKey();
+                return ctx -> {
+                    FxMeta meta = ctx.meta();
+                    return meta.hasIntegralAttribute(key)
+                        ? literal.matchesLong(meta.longAttribute(key, 0L))
+                        : literal.matches(meta.attributes().get(key));
+                };
+            }
+            return ctx -> literal.matches(accessor.apply(ctx));
+        }
+        // inPredicate 동작을 수행한다.
+
+        private Predicate<FxContext<?>> inPredicate(Field field, List<Literal> literals) {
+            Function<FxContext<?>, Object> accessor = field.accessor();
+            if (field.stringValued() && literals.stream().allMatch(literal -> literal.value() != null)) {
+                Set<String> expected = Set.copyOf(literals.stream().map(Literal::text).toList());
+                return ctx -> accessor.apply(ctx) instanceof String value && expected.contains(value);
+            }
+            Literal[] candidates = literals.toArray(Literal[]::new);
+            if (field.metaKey() != null && literals.stream().anyMatch(literal -> literal.value() instanceof Number)) {
+                String key = field.metaKey();
+                return ctx -> {
+                    FxMeta meta = ctx.meta();
+                    if (meta.hasIntegralAttribute(key)) {
+                        long value = meta.longAttribute(key, 0L);
+                        for (Literal candidate : candidates) {
+                            if (candidate.matchesLong(value)) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+                    Object value = meta.attributes().get(key);
+                    for (Literal candidate : candidates) {
+                        if (candidate.matches(value)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            return ctx -> {
+                Object value = accessor.apply(ctx);
+                for (Literal candidate : candidates) {
+                    if (candidate.matches(value)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        // field 동작을 수행한다.
+
+        private Field field() {
+            Token token = next("field");
+            if (token.type() != TokenType.WORD) {
+                throw syntaxError(source, token.position(), "expected field but found '" + token.text() + "'");
+            }
+            String name = token.text();
+            if (name.equals("command")) {
+                return new Field(ctx -> ctx.command().name(), true);
+            }
+            if (name.equals("affinity.kind")) {
+                return new Field(ctx -> ctx.affinity().kind(), true);
+            }
+            if (name.equals("affinity.value")) {
+                return new Field(ctx -> ctx.affinity().value(), true);
+            }
+            if (name.startsWith("header.") && name.length() > "header.".length()) {
+                String key = name.substring("header.".length());
+                return new Field(ctx -> ctx.headers().get(key), true);
+            }
+            if (name.startsWith("meta.") && name.length() > "meta.".length()) {
+                String key = name.substring("meta.".length());
+                return new Field(ctx -> ctx.meta().attributes().get(key), false, key);
+            }
+            throw syntaxError(source, token.position(), "unknown field '" + name + "'");
+        }
+        // literalList 동작을 수행한다.
+
+        private List<Literal> literalList() {
+            expect("(");
+            List<Literal> literals = new ArrayList<>();
+            do {
+                literals.add(literal());
+            } while (accept(","));
+            expect(")");
+            return literals;
+        }
+        // literal 동작을 수행한다.
+
+        private Literal literal() {
+            Token token = next("literal");
+            if (token.type() == TokenType.STRING) {
+                return new Literal(token.text(), token.text());
+            }
+            if (token.type() == TokenType.WORD) {
+                String text = token.text();
+                switch (text) {
+                    case "null":
+                        return new Literal(text, null);
+                    case "true":
+                    case "false":
+                        return new Literal(text, Boolean.valueOf(text));
+                    default:
+                        break;
+                }
+                try {
+                    return new Literal(text, Long.valueOf(text));
+                } catch (NumberFormatException ignored) {
+                    // 정수가 아니면 실수로 해석을 시도한다.
+                }
+                try {
+                    return new Literal(text, Double.valueOf(text));
+                } catch (NumberFormatException ignored) {
+                    // 아래에서 문법 오류로 보고한다.
+                }
+            }
+            throw syntaxError(source, token.position(), "expected literal but found '" + token.text() + "'");
+        }
+        // accept 동작을 수행한다.
+
+        private boolean accept(String symbolOrKeyword) {
+            if (index < tokens.size() && tokens.get(index).is(symbolOrKeyword)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+        // expect 동작을 수행한다.
+
+        private void expect(String symbol) {
+            Token token = next("'" + symbol + "'");
+            if (!token.is(symbol)) {
+                throw syntaxError(source, token.position(), "expected '" + symbol + "' but found '" + token.text() + "'");
+            }
+        }
+        // next 동작을 수행한다.
+
+        private Token next(String expected) {
+            if (index >= tokens.size()) {
+                throw syntaxError(source, source.length(), "expected " + expected + " but reached end");
+            }
+            return tokens.get(index++);
+        }
+        // expectEnd 동작을 수행한다.
+
+        private void expectEnd() {
+            if (index < tokens.size()) {
+                Token token = tokens.get(index);
+                throw syntaxError(source, token.position(), "unexpected '" + token.text() + "'");
+            }
+        }
+    }
+}
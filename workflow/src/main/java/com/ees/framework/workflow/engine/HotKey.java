@@ -0,0 +1,15 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+
+/**
+ * hot key 추적 결과 한 건.
+ *
+ * @param affinity affinity 키
+ * @param ratePerSecond 최근 window 기준 추정 초당 유입량
+ * @param share 최근 전체 유입량 중 이 키가 차지하는 추정 비율(0~1)
+ * @param queueDepth 이 키의 워커 큐(전용 스테이지와 sub-lane 포함)에 대기 중인 컨텍스트 수.
+ *                   SHARDED 모드에서는 키가 속한 샤드 전체의 큐 길이다.
+ */
+public record HotKey(FxAffinity affinity, double ratePerSecond, double share, long queueDepth) {
+}
@@ -0,0 +1,160 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * affinity 키별 유입 빈도를 추적해 hot key 를 찾는 heavy-hitters 추적기.
+ * <p>
+ * 모든 키의 빈도는 count-min sketch(행 {@value #DEPTH}개)로 고정 메모리에 근사하고, 추정치가 큰 키만
+ * 최대 capacity 개의 후보로 유지한다. 카운터는 lock 없이 증가시키며, 후보가 가득 찬 상태에서 최소 후보보다 큰 키가
+ * 들어올 때만 lock 을 잡고 교체한다.
+ * <p>
+ * window 마다 모든 카운터를 절반으로 줄여(지수 감쇠) 지난 트래픽의 영향을 없앤다. 반감 주기가 W 이면
+ * 정상 상태의 추정치는 2·rate·W 이므로 초당 유입량은 {@code estimate / 2W} 로 근사한다.
+ */
+final class HotKeyTracker {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH_BITS = 10;
+    private static final int WIDTH = 1 << WIDTH_BITS;
+    // 행마다 다른 해시를 만드는 홀수 곱수.
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+    // 워밍업 직후 적은 표본만으로 hot 판정하지 않도록 하는 최소 추정치.
+    private static final long MIN_HOT_COUNT = 32L;
+
+    private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+    private final AtomicLong total = new AtomicLong();
+    private final Map<FxAffinity, Long> candidates = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int capacity;
+    private final long windowNanos;
+    private final double hotShare;
+    private final AtomicLong nextDecayNanos;
+    // 후보가 가득 찼을 때 교체 여부를 lock 없이 먼저 거르는 최소 후보 추정치.
+    private volatile long floor;
+
+    HotKeyTracker(int capacity, Duration window, double hotShare) {
+        this.capacity = capacity;
+        this.windowNanos = window.toNanos();
+        this.hotShare = hotShare;
+        this.nextDecayNanos = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * 키 하나의 유입을 기록한다.
+     */
+    void record(FxAffinity affinity) {
+        maybeDecay();
+        int hash = affinity.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        total.incrementAndGet();
+        offer(affinity, estimate);
+    }
+
+    /**
+     * 키가 최근 유입량의 hotShare 이상을 차지하는 hot key 인지 여부.
+     */
+    boolean isHot(FxAffinity affinity) {
+        Long estimate = candidates.get(affinity);
+        return estimate != null && estimate >= MIN_HOT_COUNT && estimate >= hotShare * total.get();
+    }
+
+    /**
+     * 추정 유입량이 큰 순서로 최대 limit 개의 키를 반환한다.
+     *
+     * @param limit 최대 개수
+     * @return 유입량 내림차순 키와 추정치
+     */
+    List<Map.Entry<FxAffinity, Long>> top(int limit) {
+        List<Map.Entry<FxAffinity, Long>> snapshot = new ArrayList<>(candidates.entrySet().size());
+        candidates.forEach((affinity, estimate) -> snapshot.add(Map.entry(affinity, estimate)));
+        snapshot.sort(Map.Entry.<FxAffinity, Long>comparingByValue(Comparator.reverseOrder()));
+        return snapshot.size() > limit ? List.copyOf(snapshot.subList(0, limit)) : snapshot;
+    }
+
+    /**
+     * 추정치를 초당 유입량으로 환산한다.
+     */
+    double ratePerSecond(long estimate) {
+        return estimate / (2.0 * windowNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * 감쇠된 전체 유입량 추정치를 반환한다.
+     */
+    long total() {
+        return total.get();
+    }
+    // offer 동작을 수행한다.
+
+    private void offer(FxAffinity affinity, long estimate) {
+        if (candidates.replace(affinity, estimate) != null) {
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(affinity, estimate);
+            return;
+        }
+        if (estimate <= floor) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            Map.Entry<FxAffinity, Long> weakest = null;
+            for (Map.Entry<FxAffinity, Long> entry : candidates.entrySet()) {
+                if (weakest == null || entry.getValue() < weakest.getValue()) {
+                    weakest = entry;
+                }
+            }
+            if (weakest != null && estimate > weakest.getValue()) {
+                candidates.remove(weakest.getKey());
+                candidates.put(affinity, estimate);
+                floor = weakest.getValue();
+            } else if (weakest != null) {
+                floor = weakest.getValue();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    // maybeDecay 동작을 수행한다.
+
+    private void maybeDecay() {
+        long next = nextDecayNanos.get();
+        long now = System.nanoTime();
+        if (now - next < 0 || !nextDecayNanos.compareAndSet(next, now + windowNanos)) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, value -> value >>> 1);
+        }
+        total.getAndUpdate(value -> value >>> 1);
+        evictionLock.lock();
+        try {
+            candidates.replaceAll((affinity, estimate) -> estimate >>> 1);
+            candidates.values().removeIf(estimate -> estimate == 0L);
+            floor = floor >>> 1;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    // index 동작을 수행한다.
+
+    private static int index(int hash, int row) {
+        int mixed = (hash ^ (hash >>> 16)) * SEEDS[row];
+        return row * WIDTH + (mixed >>> (Integer.SIZE - WIDTH_BITS));
+    }
+}
@@ -0,0 +1,216 @@
+package com.ees.framework.workflow.engine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 워크플로에 들어와 아직 Sink 까지 처리되지 않은 컨텍스트 수를 추적한다.
+ * <p>
+ * 증감은 lock-free 카운터로 처리하고, 카운트가 0 으로 떨어지는 순간에만 대기자를 깨운다.
+ * 대기자가 없으면 0 전이 시에도 lock 을 잡지 않으므로 메시지 처리 경로의 비용은 원자 연산 1회다.
+ * <p>
+ * 전역 입장 제어를 위해 추정 바이트 합계와 최대치(peak)도 함께 기록하며, 예산 아래로 내려갈 때까지
+ * 기다리는 생산자가 있을 때만 감소 시마다 깨운다.
+ */
+final class InFlightCounter {
+
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong peak = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong peakBytes = new AtomicLong();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicInteger capacityWaiters = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition quiescent = lock.newCondition();
+
+    /**
+     * 컨텍스트 1건이 큐에 들어가기 직전에 호출한다.
+     */
+    void increment() {
+        increment(0L);
+    }
+
+    /**
+     * 추정 크기와 함께 컨텍스트 1건을 더한다.
+     *
+     * @param sizeBytes 추정 바이트 수(바이트 예산을 쓰지 않으면 0)
+     */
+    void increment(long sizeBytes) {
+        long current = inFlight.incrementAndGet();
+        if (current > peak.get()) {
+            peak.accumulateAndGet(current, Math::max);
+        }
+        if (sizeBytes > 0) {
+            long currentBytes = bytes.addAndGet(sizeBytes);
+            if (currentBytes > peakBytes.get()) {
+                peakBytes.accumulateAndGet(currentBytes, Math::max);
+            }
+        }
+    }
+
+    /**
+     * 처리 완료(또는 드롭/실패)된 컨텍스트 수만큼 감소시키고, 0 이 되면 대기자를 깨운다.
+     *
+     * @param count 완료된 컨텍스트 수
+     */
+    void decrement(int count) {
+        decrement(count, 0L);
+    }
+
+    /**
+     * 완료된 컨텍스트 수와 그 추정 바이트 합계만큼 감소시킨다.
+     *
+     * @param count 완료된 컨텍스트 수
+     * @param sizeBytes 완료된 컨텍스트의 추정 바이트 합계
+     */
+    void decrement(int count, long sizeBytes) {
+        if (count <= 0) {
+            return;
+        }
+        if (sizeBytes > 0) {
+            bytes.addAndGet(-sizeBytes);
+        }
+        long remaining = inFlight.addAndGet(-count);
+        if ((remaining == 0 && waiters.get() > 0) || capacityWaiters.get() > 0) {
+            signalAll();
+        }
+    }
+
+    /**
+     * 현재 in-flight 컨텍스트 수를 반환한다.
+     *
+     * @return in-flight 수
+     */
+    long current() {
+        return inFlight.get();
+    }
+
+    /**
+     * 지금까지 관측된 최대 in-flight 수를 반환한다.
+     */
+    long peak() {
+        return peak.get();
+    }
+
+    /**
+     * 현재 in-flight 컨텍스트의 추정 바이트 합계를 반환한다.
+     */
+    long currentBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * 지금까지 관측된 최대 추정 바이트 합계를 반환한다.
+     */
+    long peakBytes() {
+        return peakBytes.get();
+    }
+
+    /**
+     * 크기가 sizeBytes 인 컨텍스트 1건을 더 받아도 예산을 넘지 않는지 확인한다.
+     * 바이트 예산은 in-flight 가 비어있으면 항상 통과시켜 예산보다 큰 단일 컨텍스트도 처리될 수 있게 한다.
+     *
+     * @param maxMessages 최대 in-flight 수(0 이하면 무제한)
+     * @param maxBytes 최대 추정 바이트 합계(0 이하면 무제한)
+     * @param sizeBytes 새 컨텍스트의 추정 바이트 수
+     * @return 받을 수 있으면 true
+     */
+    boolean hasCapacity(long maxMessages, long maxBytes, long sizeBytes) {
+        if (maxMessages > 0 && inFlight.get() >= maxMessages) {
+            return false;
+        }
+        if (maxBytes > 0) {
+            long currentBytes = bytes.get();
+            return currentBytes == 0 || currentBytes + sizeBytes <= maxBytes;
+        }
+        return true;
+    }
+
+    /**
+     * {@link #hasCapacity(long, long, long)} 가 참이 될 때까지 최대 timeout 만큼 대기한다.
+     *
+     * @return timeout 전에 여유가 생기면 true
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    boolean awaitCapacity(long maxMessages, long maxBytes, long sizeBytes, Duration timeout) throws InterruptedException {
+        if (hasCapacity(maxMessages, maxBytes, sizeBytes)) {
+            return true;
+        }
+        long remainingNanos = timeout.toNanos();
+        capacityWaiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (!hasCapacity(maxMessages, maxBytes, sizeBytes)) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = quiescent.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            capacityWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * in-flight 수가 0 이 될 때까지 최대 timeout 만큼 대기한다.
+     *
+     * @param timeout 최대 대기 시간
+     * @return timeout 전에 0 이 되면 true
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    boolean awaitZero(Duration timeout) throws InterruptedException {
+        if (inFlight.get() == 0) {
+            return true;
+        }
+        long remainingNanos = timeout.toNanos();
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (inFlight.get() != 0) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = quiescent.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 카운트와 무관하게 대기자를 깨운다(예: stop 시 즉시 반환이 필요할 때).
+     */
+    void signalAll() {
+        lock.lock();
+        try {
+            quiescent.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 주어진 시간 동안 또는 {@link #signalAll()} 이 호출될 때까지 대기한다.
+     *
+     * @param duration 최대 대기 시간
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    void park(Duration duration) throws InterruptedException {
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            quiescent.await(duration.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ees.framework.workflow.engine;
+
+/**
+ * 우선순위 레인 하나의 큐 대기 시간 집계.
+ *
+ * @param lane 레인 번호(0 이 가장 높은 우선순위)
+ * @param dequeued 워크플로 시작 후 이 레인에서 꺼낸 컨텍스트 수. 전용 스테이지를 거치면 큐마다 한 번씩 센다.
+ * @param averageWaitNanos 큐에 들어간 뒤 워커가 꺼내기까지의 평균 대기 시간(나노초)
+ * @param maxWaitNanos 최대 대기 시간(나노초)
+ */
+public record LaneWaitTime(int lane, long dequeued, long averageWaitNanos, long maxWaitNanos) {
+}
@@ -0,0 +1,151 @@
+package com.ees.framework.workflow.engine;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * per-key 워커의 bounded 큐.
+ * <p>
+ * 생산자는 Source dispatch 스레드(또는 앞 스테이지 워커)이고 소비자는 워커 하나다. 백프레셔 정책은 워커가
+ * 이 연산들을 조합해 구현하므로 구현체는 용량 제한과 대기/깨우기만 책임진다.
+ *
+ * @param <E> 원소 타입
+ */
+interface Mailbox<E> {
+
+    /**
+     * 공간이 있으면 즉시 넣는다.
+     *
+     * @return 넣었으면 true, 가득 찼으면 false
+     */
+    boolean offer(E element);
+
+    /**
+     * 공간이 생길 때까지 최대 timeout 만큼 기다렸다가 넣는다.
+     *
+     * @return 넣었으면 true, 시간 안에 공간이 생기지 않았으면 false
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 가장 오래된 원소를 꺼낸다.
+     *
+     * @return 원소, 비어있으면 null
+     */
+    E poll();
+
+    /**
+     * 원소가 들어올 때까지 최대 timeout 만큼 기다렸다가 꺼낸다.
+     *
+     * @return 원소, 시간 안에 들어오지 않았으면 null
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    E poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 최대 maxElements 개를 순서대로 꺼내 target 에 담는다.
+     *
+     * @return 꺼낸 원소 수
+     */
+    int drainTo(Collection<? super E> target, int maxElements);
+
+    /**
+     * 남은 원소를 모두 꺼내 target 에 담는다.
+     *
+     * @return 꺼낸 원소 수
+     */
+    default int drainTo(Collection<? super E> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * element 를 넣을 공간을 만들기 위해 버릴 원소를 꺼낸다(DROP_OLDEST). 기본 구현은 가장 오래된 원소를 꺼낸다.
+     *
+     * @return 꺼낸 원소, 버릴 원소가 없으면 null
+     */
+    default E evictFor(E element) {
+        return poll();
+    }
+
+    /**
+     * 아직 소비되지 않은 원소를 (identity 기준으로) 하나 제거한다.
+     *
+     * @return 제거했으면 true
+     */
+    boolean remove(E element);
+
+    /**
+     * 대략적인 원소 수를 반환한다.
+     */
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * 종류에 맞는 mailbox 를 생성한다.
+     *
+     * @param type mailbox 종류
+     * @param capacity 용량
+     * @return 새 mailbox
+     */
+    static <E> Mailbox<E> create(WorkflowEngine.MailboxType type, int capacity) {
+        return switch (type) {
+            case ARRAY_BLOCKING -> new BlockingQueueMailbox<>(new ArrayBlockingQueue<>(capacity));
+            case MPSC_RING -> new MpscRingMailbox<>(capacity);
+        };
+    }
+
+    /**
+     * {@link java.util.concurrent.BlockingQueue} 에 위임하는 mailbox.
+     */
+    final class BlockingQueueMailbox<E> implements Mailbox<E> {
+
+        private final ArrayBlockingQueue<E> queue;
+
+        BlockingQueueMailbox(ArrayBlockingQueue<E> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean offer(E element) {
+            return queue.offer(element);
+        }
+
+        @Override
+        public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.offer(element, timeout, unit);
+        }
+
+        @Override
+        public E poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+
+        @Override
+        public int drainTo(Collection<? super E> target, int maxElements) {
+            return queue.drainTo(target, maxElements);
+        }
+
+        @Override
+        public boolean remove(E element) {
+            return queue.remove(element);
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+}
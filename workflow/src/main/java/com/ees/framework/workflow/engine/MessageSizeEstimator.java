@@ -0,0 +1,83 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * 워크플로 전역 in-flight 바이트 예산({@link WorkflowEngine.BatchingOptions#maxInFlightBytes()})에 사용할
+ * 컨텍스트 크기 추정기.
+ * <p>
+ * 같은 컨텍스트에 대해 항상 같은 값을 반환해야 한다(입장 시 더한 값을 처리 완료 시 그대로 뺀다).
+ * 바이트 예산이 설정되지 않으면 호출되지 않는다.
+ */
+@FunctionalInterface
+public interface MessageSizeEstimator {
+
+    /**
+     * 컨텍스트가 힙에서 차지하는 대략적인 바이트 수를 반환한다.
+     *
+     * @param context 대상 컨텍스트
+     * @return 0 이상의 추정 바이트 수
+     */
+    long estimate(FxContext<?> context);
+
+    /**
+     * 페이로드 타입과 헤더 길이로 크기를 추정하는 기본 구현을 반환한다.
+     * <p>
+     * 컨텍스트/메시지/메타/affinity 객체 자체의 고정 비용에 byte[]·ByteBuffer 길이, 문자열 길이,
+     * 헤더 키/값 길이를 더한다. 그 밖의 페이로드는 고정 크기로 본다.
+     *
+     * @return 기본 추정기
+     */
+    static MessageSizeEstimator heuristic() {
+        return Heuristic.INSTANCE;
+    }
+
+    /**
+     * {@link #heuristic()} 구현.
+     */
+    final class Heuristic implements MessageSizeEstimator {
+
+        private static final Heuristic INSTANCE = new Heuristic();
+        // FxContext + FxCommand + FxHeaders + FxMessage + FxMeta + FxAffinity 객체 헤더와 참조 필드.
+        private static final long CONTEXT_OVERHEAD = 256;
+        private static final long OBJECT_PAYLOAD = 64;
+        private static final long ENTRY_OVERHEAD = 48;
+
+        private Heuristic() {
+        }
+
+        @Override
+        public long estimate(FxContext<?> context) {
+            long size = CONTEXT_OVERHEAD + payloadSize(context.message().payload());
+            for (Map.Entry<String, String> header : context.headers().values().entrySet()) {
+                size += ENTRY_OVERHEAD + length(header.getKey()) + length(header.getValue());
+            }
+            return size;
+        }
+        // payloadSize 동작을 수행한다.
+
+        private static long payloadSize(Object payload) {
+            if (payload == null) {
+                return 0;
+            }
+            if (payload instanceof byte[] bytes) {
+                return 16L + bytes.length;
+            }
+            if (payload instanceof ByteBuffer buffer) {
+                return 48L + buffer.remaining();
+            }
+            if (payload instanceof CharSequence text) {
+                return 40L + text.length();
+            }
+            return OBJECT_PAYLOAD;
+        }
+        // length 동작을 수행한다.
+
+        private static long length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ees.framework.workflow.engine;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * lock 없이 동작하는 bounded ring buffer mailbox.
+ * <p>
+ * 슬롯마다 sequence 를 두어 생산자는 tail, 소비자는 head 를 CAS 로 선점한다. 평소에는 워커 하나만 소비하므로
+ * head CAS 는 경합이 없고, DROP_OLDEST 정책에서 생산자가 가장 오래된 원소를 꺼낼 때만 두 번째 소비자가 생긴다.
+ * 대기는 {@link LockSupport#parkNanos} 로 하므로 가상 스레드가 carrier 를 점유하지 않으며,
+ * 생산자/소비자는 상대가 대기 중일 때만 unpark 를 호출한다.
+ * <p>
+ * 시간 제한 {@link #poll(long, TimeUnit)} 은 대기 소비자를 하나만 기억한다(워커 전용).
+ *
+ * @param <E> 원소 타입
+ */
+final class MpscRingMailbox<E> implements Mailbox<E> {
+
+    // remove 로 회수된 슬롯 표시. 소비자는 이 슬롯을 건너뛴다.
+    private static final Object REMOVED = new Object();
+
+    private final int capacity;
+    // 슬롯 수. sequence 로 "발행됨"과 "다음 바퀴에 비어있음"을 구분하려면 최소 2 개가 필요하다.
+    private final int ringSize;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<Object> slots;
+    private final PaddedSequence tail = new PaddedSequence();
+    private final PaddedSequence head = new PaddedSequence();
+    private final ConcurrentLinkedQueue<Thread> waitingProducers = new ConcurrentLinkedQueue<>();
+    // park 직전의 소비자. 생산자가 getAndSet 으로 가져가므로 park 한 번에 unpark 는 한 번만 일어난다.
+    private final AtomicReference<Thread> waitingConsumer = new AtomicReference<>();
+
+    MpscRingMailbox(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.ringSize = Math.max(2, capacity);
+        this.sequences = new AtomicLongArray(ringSize);
+        this.slots = new AtomicReferenceArray<>(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element must not be null");
+        long position = tail.get();
+        while (true) {
+            int index = index(position);
+            long available = sequences.get(index) - position;
+            if (available == 0 && ringSize > capacity && position - head.get() >= capacity) {
+                return false;
+            }
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1);
+                    if (waitingConsumer.get() != null) {
+                        Thread consumer = waitingConsumer.getAndSet(null);
+                        if (consumer != null) {
+                            LockSupport.unpark(consumer);
+                        }
+                    }
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (offer(element)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Thread current = Thread.currentThread();
+        waitingProducers.add(current);
+        try {
+            while (true) {
+                // 대기 등록 후 다시 시도해 소비자가 그 사이 비운 슬롯을 놓치지 않는다.
+                if (offer(element)) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingProducers.remove(current);
+        }
+    }
+
+    @Override
+    public E poll() {
+        E element = take();
+        if (element != null) {
+            wakeProducers();
+        }
+        return element;
+    }
+    // take 동작을 수행한다.
+
+    @SuppressWarnings("unchecked")
+    private E take() {
+        long position = head.get();
+        while (true) {
+            int index = index(position);
+            long available = sequences.get(index) - (position + 1);
+            if (available == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Object element = slots.getAndSet(index, null);
+                    sequences.set(index, position + ringSize);
+                    if (element != REMOVED) {
+                        return (E) element;
+                    }
+                }
+                position = head.get();
+            } else if (available < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Thread current = Thread.currentThread();
+        try {
+            while (true) {
+                // 대기 등록 후 다시 확인해 그 사이 발행된 원소를 놓치지 않는다.
+                waitingConsumer.set(current);
+                element = poll();
+                if (element != null) {
+                    return element;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingConsumer.compareAndSet(current, null);
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = take()) != null) {
+            target.add(element);
+            drained++;
+        }
+        if (drained > 0) {
+            wakeProducers();
+        }
+        return drained;
+    }
+
+    /**
+     * 발행되었지만 아직 소비되지 않은 슬롯에서 원소를 찾아 회수 표시한다. 소비자와는 슬롯 CAS 로 경쟁하므로
+     * 둘 중 한쪽만 원소를 가져간다.
+     */
+    @Override
+    public boolean remove(E element) {
+        long end = tail.get();
+        for (long position = head.get(); position < end; position++) {
+            int index = index(position);
+            if (sequences.get(index) == position + 1 && slots.compareAndSet(index, element, REMOVED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    // wakeProducers 동작을 수행한다.
+
+    private void wakeProducers() {
+        if (!waitingProducers.isEmpty()) {
+            waitingProducers.forEach(LockSupport::unpark);
+        }
+    }
+    // index 동작을 수행한다.
+
+    private int index(long position) {
+        return (int) (position % ringSize);
+    }
+
+    /**
+     * head/tail 이 같은 캐시 라인을 공유하지 않도록 뒤쪽을 채운 카운터.
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedSequence extends AtomicLong {
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
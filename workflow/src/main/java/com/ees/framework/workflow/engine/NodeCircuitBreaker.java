@@ -0,0 +1,146 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.BatchWriteResult;
+import com.ees.framework.sink.Sink;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sink 노드 단위 서킷 브레이커.
+ * <p>
+ * 연속 실패가 threshold 에 이르면 openDuration 동안 열리고, 그동안 해당 노드에 쓰려는 워커는 실패를 반복하지 않고
+ * 대기한다(큐가 차면서 Source 까지 백프레셔가 전파된다). 열린 시간이 지나면 워커 하나만 시험 호출(half-open)을 하고,
+ * 성공하면 닫히고 실패하면 다시 열린다. threshold 가 0 이면 항상 닫혀 있다.
+ * 열림/닫힘 전환은 시험 호출을 맡은 워커만 한다. 열리기 전에 시작된 호출이 늦게 끝나면 그 결과는 연속 실패 수에만
+ * 반영되고, 진행 중인 시험 호출을 가로채지 않는다.
+ * <p>
+ * 대기 중 인터럽트(예: stop)되면 인터럽트 상태를 유지한 채 바로 반환해 남은 컨텍스트 처리를 막지 않는다.
+ */
+@Slf4j
+final class NodeCircuitBreaker {
+
+    // half-open 시험 호출 결과를 기다리는 다른 워커의 재확인 주기.
+    private static final long PROBE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final String workflowName;
+    private final String nodeId;
+    private final int threshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    // 0 이면 닫힘, 아니면 열림 상태가 끝나는 System.nanoTime() 값.
+    private volatile long openUntilNanos;
+
+    NodeCircuitBreaker(String workflowName, String nodeId, int threshold, Duration openDuration) {
+        this.workflowName = workflowName;
+        this.nodeId = nodeId;
+        this.threshold = threshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * 노드 ID 를 반환한다.
+     */
+    String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 브레이커가 열려 있는지 여부.
+     */
+    boolean isOpen() {
+        return openUntilNanos != 0;
+    }
+
+    /**
+     * 브레이커를 거쳐 Sink 에 배치를 쓴다. 한 건이라도 성공하면(또는 빈 배치면) 성공으로 기록한다.
+     * <p>
+     * Sink 가 예외나 {@link Error} 를 던져도 실패로 기록한 뒤 그대로 던지므로, 시험 호출이 어떻게 끝나든 브레이커가
+     * half-open 상태에 묶이지 않는다.
+     */
+    BatchWriteResult write(Sink<Object> sink, List<FxContext<Object>> batch) {
+        boolean probe = acquire();
+        boolean succeeded = false;
+        try {
+            BatchWriteResult result = sink.writeBatch(batch);
+            succeeded = result.succeeded() > 0 || result.size() == 0;
+            return result;
+        } finally {
+            if (succeeded) {
+                onSuccess(probe);
+            } else {
+                onFailure(probe);
+            }
+        }
+    }
+
+    /**
+     * 호출해도 되는 상태가 될 때까지 대기한다. 닫혀 있으면 바로 반환한다.
+     *
+     * @return half-open 시험 호출을 맡았으면 true. 이 경우 {@link #onSuccess(boolean)}/{@link #onFailure(boolean)} 에
+     *     true 를 넘겨 시험 호출을 끝내야 한다
+     */
+    boolean acquire() {
+        while (true) {
+            long until = openUntilNanos;
+            if (until == 0) {
+                return false;
+            }
+            long waitNanos = until - System.nanoTime();
+            if (waitNanos <= 0) {
+                if (probing.compareAndSet(false, true)) {
+                    return true;
+                }
+                waitNanos = PROBE_WAIT_NANOS;
+            }
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 호출 성공을 기록한다. 시험 호출이었으면 닫는다.
+     *
+     * @param probe {@link #acquire()} 가 true 를 반환한 호출인지 여부
+     */
+    void onSuccess(boolean probe) {
+        consecutiveFailures.set(0);
+        if (probe) {
+            openUntilNanos = 0;
+            probing.set(false);
+            log.info("Circuit closed workflow={} node={}", workflowName, nodeId);
+        }
+    }
+
+    /**
+     * 호출 실패를 기록한다. 연속 실패가 threshold 에 이르거나 시험 호출이 실패하면 연다.
+     *
+     * @param probe {@link #acquire()} 가 true 를 반환한 호출인지 여부
+     */
+    void onFailure(boolean probe) {
+        if (threshold <= 0) {
+            return;
+        }
+        if (probe) {
+            openUntilNanos = System.nanoTime() + openNanos;
+            probing.set(false);
+            log.warn("Circuit re-opened workflow={} node={} for {}ms",
+                workflowName, nodeId, TimeUnit.NANOSECONDS.toMillis(openNanos));
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= threshold && openUntilNanos == 0) {
+            openUntilNanos = System.nanoTime() + openNanos;
+            log.warn("Circuit opened workflow={} node={} after {} consecutive failures, pausing for {}ms",
+                workflowName, nodeId, consecutiveFailures.get(), TimeUnit.NANOSECONDS.toMillis(openNanos));
+        }
+    }
+}
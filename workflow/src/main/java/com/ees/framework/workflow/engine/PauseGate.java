@@ -0,0 +1,81 @@
+package com.ees.framework.workflow.engine;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 워크플로 일시정지 게이트.
+ * <p>
+ * 열려 있을 때 {@link #awaitResumed()} 는 volatile 읽기 한 번으로 반환하므로 메시지 처리 경로의 비용이 거의 없다.
+ * 닫혀 있으면 Source 디스패치 스레드와 per-key 워커가 큐를 비우지 않은 채 여기서 대기하고, {@link #resume()} 시 함께 깨어난다.
+ * 가상 스레드가 캐리어 스레드를 붙잡지 않도록 모니터 대신 {@link ReentrantLock} 을 쓴다.
+ */
+final class PauseGate {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition resumed = lock.newCondition();
+    private volatile boolean paused;
+
+    /**
+     * 게이트를 닫는다.
+     *
+     * @return 이미 닫혀 있었으면 false
+     */
+    boolean pause() {
+        lock.lock();
+        try {
+            if (paused) {
+                return false;
+            }
+            paused = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 게이트를 열고 대기 중인 스레드를 모두 깨운다.
+     *
+     * @return 닫혀 있었으면 true
+     */
+    boolean resume() {
+        lock.lock();
+        try {
+            if (!paused) {
+                return false;
+            }
+            paused = false;
+            resumed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 게이트가 닫혀 있는지 여부.
+     */
+    boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * 게이트가 열릴 때까지 대기한다.
+     *
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    void awaitResumed() throws InterruptedException {
+        if (!paused) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (paused) {
+                resumed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
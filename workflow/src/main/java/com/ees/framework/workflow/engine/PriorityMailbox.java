@@ -0,0 +1,331 @@
+package com.ees.framework.workflow.engine;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * 우선순위 레인별 bounded FIFO 를 가진 mailbox.
+ * <p>
+ * 원소는 classifier 가 고른 레인(0 이 가장 높음)에 들어가고, 꺼낼 때는 비어있지 않은 가장 높은 레인의 head 를 준다.
+ * 각 레인 안에서는 도착 순서가 유지되며, 용량도 레인마다 따로 두어 낮은 레인이 가득 차도 높은 레인 원소는 막히지 않는다.
+ * maxOvertake 가 0 보다 크면 낮은 레인에 원소가 기다리는 동안 높은 레인에서 연속으로 꺼낸 수가 그 값에 이르렀을 때
+ * 낮은 레인 중 가장 오래 기다린 head 를 한 번 먼저 꺼내 기아를 막는다.
+ * <p>
+ * 레인별 enqueue 시각을 함께 보관해 꺼낼 때 대기 시간을 {@link LaneStats} 에 집계한다.
+ *
+ * @param <E> 원소 타입
+ */
+final class PriorityMailbox<E> implements Mailbox<E> {
+
+    private final Lane[] lanes;
+    private final ToIntFunction<? super E> classifier;
+    private final int maxOvertake;
+    private final LaneStats[] stats;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int size;
+    // 낮은 레인이 기다리는 동안 높은 레인에서 연속으로 꺼낸 수.
+    private int overtaken;
+
+    /**
+     * @param laneCount 레인 수
+     * @param capacity 레인별 용량
+     * @param classifier 원소의 레인 번호(0 ~ laneCount-1)를 고르는 함수
+     * @param maxOvertake 낮은 레인을 연속으로 앞지를 수 있는 최대 횟수(0 이면 제한 없음)
+     * @param stats 레인별 대기 시간 집계(laneCount 개, 여러 mailbox 가 공유할 수 있다)
+     */
+    PriorityMailbox(int laneCount, int capacity, ToIntFunction<? super E> classifier, int maxOvertake, LaneStats[] stats) {
+        if (laneCount <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("laneCount and capacity must be > 0");
+        }
+        if (stats.length != laneCount) {
+            throw new IllegalArgumentException("stats must have one entry per lane");
+        }
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(capacity);
+        }
+        this.classifier = Objects.requireNonNull(classifier, "classifier must not be null");
+        this.maxOvertake = maxOvertake;
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element must not be null");
+        Lane lane = lanes[laneOf(element)];
+        lock.lock();
+        try {
+            if (lane.isFull()) {
+                return false;
+            }
+            insert(lane, element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(element, "element must not be null");
+        Lane lane = lanes[laneOf(element)];
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (lane.isFull()) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            insert(lane, element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : extract(select());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return extract(select());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && size > 0) {
+                target.add(extract(select()));
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 원소가 들어갈 레인에서 가장 오래된 원소를 꺼낸다. 다른 레인의 원소는 버리지 않는다.
+     */
+    @Override
+    public E evictFor(E element) {
+        int index = laneOf(element);
+        lock.lock();
+        try {
+            return lanes[index].isEmpty() ? null : extract(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(E element) {
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                if (lane.remove(element)) {
+                    size--;
+                    notFull.signalAll();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    // laneOf 동작을 수행한다.
+
+    private int laneOf(E element) {
+        int lane = classifier.applyAsInt(element);
+        return Math.max(0, Math.min(lanes.length - 1, lane));
+    }
+    // insert 동작을 수행한다.
+
+    private void insert(Lane lane, E element) {
+        lane.add(element, System.nanoTime());
+        size++;
+        notEmpty.signal();
+    }
+    // select 동작을 수행한다.
+
+    /**
+     * 다음에 꺼낼 레인을 고른다. lock 을 잡은 상태에서 비어있지 않을 때만 호출한다.
+     */
+    private int select() {
+        int highest = 0;
+        while (lanes[highest].isEmpty()) {
+            highest++;
+        }
+        int starving = -1;
+        for (int i = highest + 1; i < lanes.length; i++) {
+            if (!lanes[i].isEmpty() && (starving < 0 || lanes[i].headNanos() - lanes[starving].headNanos() < 0)) {
+                starving = i;
+            }
+        }
+        if (starving < 0) {
+            overtaken = 0;
+            return highest;
+        }
+        if (maxOvertake > 0 && overtaken >= maxOvertake) {
+            overtaken = 0;
+            return starving;
+        }
+        overtaken++;
+        return highest;
+    }
+    // extract 동작을 수행한다.
+
+    @SuppressWarnings("unchecked")
+    private E extract(int index) {
+        Lane lane = lanes[index];
+        long waitedNanos = System.nanoTime() - lane.headNanos();
+        E element = (E) lane.removeFirst();
+        size--;
+        stats[index].record(waitedNanos);
+        notFull.signalAll();
+        return element;
+    }
+
+    /**
+     * 레인 하나의 원소와 enqueue 시각을 담는 고정 크기 ring. lock 을 잡은 상태에서만 접근한다.
+     */
+    private static final class Lane {
+
+        private final Object[] elements;
+        private final long[] enqueuedNanos;
+        private int head;
+        private int count;
+
+        private Lane(int capacity) {
+            this.elements = new Object[capacity];
+            this.enqueuedNanos = new long[capacity];
+        }
+        // isFull 동작을 수행한다.
+
+        private boolean isFull() {
+            return count == elements.length;
+        }
+        // isEmpty 동작을 수행한다.
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+        // add 동작을 수행한다.
+
+        private void add(Object element, long nanos) {
+            int tail = (head + count) % elements.length;
+            elements[tail] = element;
+            enqueuedNanos[tail] = nanos;
+            count++;
+        }
+        // headNanos 동작을 수행한다.
+
+        private long headNanos() {
+            return enqueuedNanos[head];
+        }
+        // removeFirst 동작을 수행한다.
+
+        private Object removeFirst() {
+            Object element = elements[head];
+            elements[head] = null;
+            head = (head + 1) % elements.length;
+            count--;
+            return element;
+        }
+        // remove 동작을 수행한다.
+
+        /**
+         * identity 가 같은 원소를 제거하고 뒤 원소를 한 칸씩 당긴다.
+         */
+        private boolean remove(Object element) {
+            for (int i = 0; i < count; i++) {
+                int index = (head + i) % elements.length;
+                if (elements[index] != element) {
+                    continue;
+                }
+                for (int j = i; j < count - 1; j++) {
+                    int from = (head + j + 1) % elements.length;
+                    int to = (head + j) % elements.length;
+                    elements[to] = elements[from];
+                    enqueuedNanos[to] = enqueuedNanos[from];
+                }
+                elements[(head + count - 1) % elements.length] = null;
+                count--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 레인 하나의 대기 시간 집계. 같은 워크플로의 모든 워커 mailbox 가 공유한다.
+     */
+    static final class LaneStats {
+
+        private final LongAdder dequeued = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        // record 동작을 수행한다.
+
+        void record(long waitedNanos) {
+            long waited = Math.max(0L, waitedNanos);
+            dequeued.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        // snapshot 동작을 수행한다.
+
+        LaneWaitTime snapshot(int lane) {
+            long count = dequeued.sum();
+            long average = count == 0 ? 0L : totalWaitNanos.sum() / count;
+            return new LaneWaitTime(lane, count, average, maxWaitNanos.get());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.MutableFxContext;
+
+/**
+ * per-key 워커 하나가 소유하고 재사용하는 {@link MutableFxContext}.
+ * <p>
+ * 워커는 실행 중 자기 스레드에 {@link #bind()} 해 두고, 컴파일된 in-place 단계 묶음은 {@link #acquire()} 로 가변 컨텍스트를 얻는다.
+ * 워커는 컨텍스트를 하나씩 순서대로 처리하고, 묶음은 끝날 때 불변 컨텍스트를 만들어 다음 노드로 넘긴 뒤에는 가변 컨텍스트를 더 쓰지 않는다.
+ * 그래서 동시에 쓰이는 가변 컨텍스트는 워커당 하나뿐이며, 메시지마다 {@link MutableFxContext#load(com.ees.framework.context.FxContext)} 로
+ * 덮어써 재사용한다. 배치가 Sink 쓰기(또는 hand-off)까지 끝나면 {@link #release()} 로 마지막 메시지의 참조를 놓는다.
+ * 바인딩되지 않은 스레드(예: stop 중 남은 큐를 처리하는 스레드)에서는 매번 새로 만든다.
+ */
+final class WorkerContextCarrier {
+
+    private static final ThreadLocal<WorkerContextCarrier> BOUND = new ThreadLocal<>();
+
+    private final MutableFxContext<Object> carrier = new MutableFxContext<>();
+
+    /**
+     * 현재 스레드에 바인딩된 워커의 가변 컨텍스트를 반환한다. 바인딩된 워커가 없으면 새로 만든다.
+     */
+    static MutableFxContext<Object> acquire() {
+        WorkerContextCarrier bound = BOUND.get();
+        return bound != null ? bound.carrier : new MutableFxContext<>();
+    }
+
+    /**
+     * 현재 스레드에 이 워커의 가변 컨텍스트를 바인딩한다.
+     */
+    void bind() {
+        BOUND.set(this);
+    }
+
+    /**
+     * 현재 스레드의 바인딩을 해제한다.
+     */
+    void unbind() {
+        BOUND.remove();
+    }
+
+    /**
+     * 가변 컨텍스트가 쥔 참조를 놓는다.
+     */
+    void release() {
+        carrier.clear();
+    }
+
+    /**
+     * 이 워커의 가변 컨텍스트를 반환한다.
+     */
+    MutableFxContext<Object> carrier() {
+        return carrier;
+    }
+}
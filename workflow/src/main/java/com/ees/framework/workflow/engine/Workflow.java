@@ -1,11 +1,16 @@
 package com.ees.framework.workflow.engine;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * 단일 Workflow 인스턴스를 표현하는 인터페이스.
  * - 이름
  * - start/stop 생명주기
  *
  * 실제 구현은 WorkflowEngine 에서 생성된다.
+ * 이름과 start/stop 외의 메서드는 기본 구현이 있어, 엔진 밖의 구현은 필요한 것만 재정의하면 된다.
+ * 상태/지표 조회는 "해당 기능 없음"(false, 0, 빈 목록)을 반환하고, pause/resume 은 아무것도 하지 않는 것이 기본이다.
  */
 public interface Workflow {
 
@@ -30,4 +35,149 @@ public interface Workflow {
      *
      */
     void stop();
+
+    /**
+     * {@link #pause()}/{@link #resume()} 를 지원하는지 여부. 제어 API 는 지원하지 않는 워크플로의 pause 요청을 거절한다.
+     * 기본 구현은 false.
+     */
+    default boolean supportsPause() {
+        return false;
+    }
+
+    /**
+     * Source 읽기와 per-key 워커 처리를 일시정지한다.
+     * 큐에 쌓인 컨텍스트와 워커는 그대로 유지되므로 {@link #resume()} 즉시 이어서 처리된다.
+     * 실행 중이 아니면 아무것도 하지 않는다.
+     * 기본 구현은 일시정지를 지원하지 않으므로({@link #supportsPause()} 가 false) 아무것도 하지 않는다.
+     */
+    default void pause() {
+    }
+
+    /**
+     * 일시정지된 워크플로를 이어서 실행한다. 일시정지 상태가 아니면 아무것도 하지 않는다.
+     * 기본 구현은 아무것도 하지 않는다.
+     */
+    default void resume() {
+    }
+
+    /**
+     * 일시정지 상태인지 여부.
+     * 기본 구현은 false.
+     */
+    default boolean isPaused() {
+        return false;
+    }
+
+    /**
+     * start 이후 stop 되지 않았는지 여부(일시정지 중에도 true).
+     * 기본 구현은 false.
+     */
+    default boolean isRunning() {
+        return false;
+    }
+
+    /**
+     * Source 를 stop 까지 반복해서 읽는지 여부. false 면 {@link #start()} 는 Source 를 끝까지 읽고 처리한 뒤 반환한다.
+     * 기본 구현은 false.
+     */
+    default boolean isContinuous() {
+        return false;
+    }
+
+    /**
+     * 워커 큐에 대기 중인 컨텍스트 수의 합을 반환한다.
+     * 기본 구현은 0.
+     */
+    default long queueDepth() {
+        return 0L;
+    }
+
+    /**
+     * 큐에 들어갔지만 아직 Sink 까지 처리되지 않은 컨텍스트 수를 반환한다.
+     * 기본 구현은 0.
+     */
+    default long inFlight() {
+        return 0L;
+    }
+
+    /**
+     * 워크플로 생성 이후 관측된 최대 in-flight 컨텍스트 수를 반환한다.
+     * 기본 구현은 0.
+     */
+    default long peakInFlight() {
+        return 0L;
+    }
+
+    /**
+     * in-flight 컨텍스트의 추정 바이트 합계를 반환한다. 바이트 예산을 설정하지 않았으면 0 이다.
+     * 기본 구현은 0.
+     */
+    default long inFlightBytes() {
+        return 0L;
+    }
+
+    /**
+     * 워크플로 생성 이후 관측된 최대 추정 바이트 합계를 반환한다. 바이트 예산을 설정하지 않았으면 0 이다.
+     * 기본 구현은 0.
+     */
+    default long peakInFlightBytes() {
+        return 0L;
+    }
+
+    /**
+     * 진입 워커가 현재 사용하는 배치 크기를 반환한다. 적응형 배치가 꺼져 있으면 설정된 batchSize 다.
+     * 기본 구현은 0.
+     */
+    default int currentBatchSize() {
+        return 0;
+    }
+
+    /**
+     * 최근 유입량이 가장 큰 키를 최대 limit 개 반환한다. hot key 추적이 꺼져 있으면 빈 목록이다.
+     * 기본 구현은 빈 목록.
+     *
+     * @param limit 최대 개수
+     * @return 추정 유입량 내림차순 키 목록
+     */
+    default List<HotKey> hotKeys(int limit) {
+        return List.of();
+    }
+
+    /**
+     * 만료(TTL/deadline)로 처리 전에 버리거나 dead-letter 로 보낸 컨텍스트 수를 반환한다.
+     * 기본 구현은 0.
+     */
+    default long expiredCount() {
+        return 0L;
+    }
+
+    /**
+     * 우선순위 레인별 큐 대기 시간 집계를 레인 번호 순으로 반환한다. 우선순위 레인이 꺼져 있으면 빈 목록이다.
+     * 기본 구현은 빈 목록.
+     *
+     * @return 레인별 대기 시간
+     */
+    default List<LaneWaitTime> laneWaitTimes() {
+        return List.of();
+    }
+
+    /**
+     * in-flight 컨텍스트가 모두 처리될 때까지 대기한다.
+     * 엔진 구현은 폴링하지 않고 마지막 컨텍스트가 처리되는 시점에 바로 깨어난다.
+     * 기본 구현은 {@link #inFlight()} 가 0 이 될 때까지 10ms 간격으로 확인한다(in-flight 를 추적하지 않는 구현은 바로 true).
+     *
+     * @param timeout 최대 대기 시간
+     * @return timeout 전에 모든 컨텍스트가 처리되면 true
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    default boolean awaitQuiescence(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(10L);
+        }
+        return true;
+    }
 }
@@ -1,10 +1,13 @@
 package com.ees.framework.workflow.engine;
 
 import com.ees.framework.context.FxContext;
-import com.ees.framework.handlers.SinkHandler;
-import com.ees.framework.handlers.SourceHandler;
-import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.pipeline.BatchPipelineStep;
+import com.ees.framework.sink.BatchWriteResult;
 import com.ees.framework.sink.Sink;
+import com.ees.framework.source.AcknowledgingSource;
+import com.ees.framework.source.PartitionedSource;
+import com.ees.framework.source.PushSource;
 import com.ees.framework.source.Source;
 import com.ees.framework.context.FxAffinity;
 import com.ees.framework.workflow.affinity.AffinityKeyResolver;
@@ -14,22 +17,37 @@ import com.ees.framework.workflow.model.WorkflowGraphDefinition;
 import com.ees.framework.workflow.model.WorkflowNodeDefinition;
 import com.ees.framework.workflow.model.WorkflowNodeKind;
 import lombok.AccessLevel;
+import lombok.Builder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -39,8 +57,34 @@ import java.util.stream.Collectors;
 @Slf4j
 public class WorkflowEngine {
 
+    private static final Predicate<FxContext<?>> ALWAYS = ctx -> true;
+
+    /**
+     * dead-letter 컨텍스트의 {@link FxMeta#attributes()} 에 기록되는 워크플로 이름 키.
+     */
+    public static final String DEAD_LETTER_WORKFLOW = "deadLetter.workflow";
+    /**
+     * dead-letter 컨텍스트의 실패한 Sink 노드 ID 키(Sink 요소 실패일 때만).
+     */
+    public static final String DEAD_LETTER_NODE = "deadLetter.node";
+    /**
+     * dead-letter 컨텍스트의 예외 클래스 이름 키.
+     */
+    public static final String DEAD_LETTER_ERROR = "deadLetter.error";
+    /**
+     * dead-letter 컨텍스트의 예외 메시지 키.
+     */
+    public static final String DEAD_LETTER_MESSAGE = "deadLetter.message";
+    /**
+     * 만료되어 dead-letter 로 보낸 컨텍스트의 만료 시각(ISO-8601) 키.
+     */
+    public static final String DEAD_LETTER_EXPIRED_AT = "deadLetter.expiredAt";
+
     private final BatchingOptions batching;
     private final AffinityKeyResolver affinityKeyResolver;
+    private final EdgeConditionCompiler conditionCompiler;
+    private final MessageSizeEstimator sizeEstimator;
+    private final Sink<Object> deadLetterSink;
 
     /**
      * 기본 배치 옵션과 DefaultAffinityKeyResolver 로 워크플로 엔진을 생성한다.
@@ -60,13 +104,68 @@ public class WorkflowEngine {
 
     /**
      * 배치 옵션과 affinity 리졸버를 모두 주입받아 워크플로 엔진을 생성한다.
+     * 엣지 조건식은 {@link ExpressionEdgeConditionCompiler} 로 컴파일한다.
      *
      * @param batching 배치/백프레셔 옵션
      * @param affinityKeyResolver affinity kind/value 를 계산할 리졸버
      */
     public WorkflowEngine(BatchingOptions batching, AffinityKeyResolver affinityKeyResolver) {
+        this(batching, affinityKeyResolver, new ExpressionEdgeConditionCompiler());
+    }
+
+    /**
+     * 배치 옵션, affinity 리졸버, 엣지 조건 컴파일러를 주입받아 워크플로 엔진을 생성한다.
+     *
+     * @param batching 배치/백프레셔 옵션
+     * @param affinityKeyResolver affinity kind/value 를 계산할 리졸버
+     * @param conditionCompiler 엣지 조건식을 라우팅 Predicate 로 변환할 컴파일러
+     */
+    public WorkflowEngine(
+        BatchingOptions batching,
+        AffinityKeyResolver affinityKeyResolver,
+        EdgeConditionCompiler conditionCompiler
+    ) {
+        this(batching, affinityKeyResolver, conditionCompiler, MessageSizeEstimator.heuristic());
+    }
+
+    /**
+     * 배치 옵션, affinity 리졸버, 엣지 조건 컴파일러, 메시지 크기 추정기를 주입받아 워크플로 엔진을 생성한다.
+     *
+     * @param batching 배치/백프레셔 옵션
+     * @param affinityKeyResolver affinity kind/value 를 계산할 리졸버
+     * @param conditionCompiler 엣지 조건식을 라우팅 Predicate 로 변환할 컴파일러
+     * @param sizeEstimator {@link BatchingOptions#maxInFlightBytes()} 예산에 사용할 컨텍스트 크기 추정기
+     */
+    public WorkflowEngine(
+        BatchingOptions batching,
+        AffinityKeyResolver affinityKeyResolver,
+        EdgeConditionCompiler conditionCompiler,
+        MessageSizeEstimator sizeEstimator
+    ) {
+        this(batching, affinityKeyResolver, conditionCompiler, sizeEstimator, null);
+    }
+
+    /**
+     * 배치 옵션, affinity 리졸버, 엣지 조건 컴파일러, 메시지 크기 추정기와 dead-letter Sink 를 주입받아 워크플로 엔진을 생성한다.
+     *
+     * @param batching 배치/백프레셔 옵션
+     * @param affinityKeyResolver affinity kind/value 를 계산할 리졸버
+     * @param conditionCompiler 엣지 조건식을 라우팅 Predicate 로 변환할 컴파일러
+     * @param sizeEstimator {@link BatchingOptions#maxInFlightBytes()} 예산에 사용할 컨텍스트 크기 추정기
+     * @param deadLetterSink 재시도를 소진한 컨텍스트를 받을 Sink(null 이면 로그만 남기고 버린다)
+     */
+    public WorkflowEngine(
+        BatchingOptions batching,
+        AffinityKeyResolver affinityKeyResolver,
+        EdgeConditionCompiler conditionCompiler,
+        MessageSizeEstimator sizeEstimator,
+        Sink<Object> deadLetterSink
+    ) {
         this.batching = Objects.requireNonNull(batching, "batching must not be null");
         this.affinityKeyResolver = Objects.requireNonNull(affinityKeyResolver, "affinityKeyResolver must not be null");
+        this.conditionCompiler = Objects.requireNonNull(conditionCompiler, "conditionCompiler must not be null");
+        this.sizeEstimator = Objects.requireNonNull(sizeEstimator, "sizeEstimator must not be null");
+        this.deadLetterSink = deadLetterSink;
         log.info("Initialized WorkflowEngine batchingOptions={} affinityKeyResolver={}",
             this.batching, this.affinityKeyResolver.getClass().getSimpleName());
         if (log.isDebugEnabled() && this.affinityKeyResolver instanceof DefaultAffinityKeyResolver resolver) {
@@ -87,7 +186,33 @@ public class WorkflowEngine {
             log.debug("Creating workflow name={} nodes={} edges={} batchingOptions={}",
                 graph.getName(), graph.getNodes().size(), graph.getEdges().size(), effectiveBatching);
         }
-        return new DefaultWorkflow(graph, resolver, effectiveBatching, affinityKeyResolver);
+        return new DefaultWorkflow(graph, resolver, effectiveBatching, affinityKeyResolver, compileEdgeConditions(graph),
+            sizeEstimator, deadLetterSink);
+    }
+    // compileEdgeConditions 동작을 수행한다.
+
+    /**
+     * 조건이 있는 엣지를 워크플로 생성 시점에 한 번만 컴파일한다. 조건이 없는 엣지는 맵에 넣지 않는다.
+     */
+    private Map<WorkflowEdgeDefinition, Predicate<FxContext<?>>> compileEdgeConditions(WorkflowGraphDefinition graph) {
+        Map<WorkflowEdgeDefinition, Predicate<FxContext<?>>> compiled = new HashMap<>();
+        for (WorkflowEdgeDefinition edge : graph.getEdges()) {
+            if (isUnconditional(edge)) {
+                continue;
+            }
+            try {
+                compiled.put(edge, conditionCompiler.compile(edge.getCondition().trim()));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("Invalid condition on edge %s -> %s: %s".formatted(
+                    edge.getFromNodeId(), edge.getToNodeId(), ex.getMessage()), ex);
+            }
+        }
+        return Map.copyOf(compiled);
+    }
+    // isUnconditional 동작을 수행한다.
+
+    private static boolean isUnconditional(WorkflowEdgeDefinition edge) {
+        return edge.getCondition() == null || edge.getCondition().isBlank();
     }
     // resolveBatching 동작을 수행한다.
 
@@ -124,14 +249,41 @@ public class WorkflowEngine {
         private final WorkflowNodeResolver resolver;
         private final BatchingOptions batching;
         private final AffinityKeyResolver affinityKeyResolver;
+        private final Map<WorkflowEdgeDefinition, Predicate<FxContext<?>>> edgeConditions;
+        private final MessageSizeEstimator sizeEstimator;
+        private final Sink<Object> deadLetterSink;
         // AtomicBoolean 동작을 수행한다.
 
         private final AtomicBoolean running = new AtomicBoolean(false);
         // AtomicBoolean 동작을 수행한다.
         private final AtomicBoolean accepting = new AtomicBoolean(false);
+        // stop 으로 워커 실행기를 종료했는지 여부. 종료된 인스턴스는 다시 시작할 수 없다.
+        private volatile boolean terminated;
         private final ExecutorService workerExecutor =
             Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory());
         private final ConcurrentMap<FxAffinity, PerKeyWorker> workers = new ConcurrentHashMap<>();
+        // SHARDED 모드에서만 사용하는 고정 크기 샤드 워커 배열.
+        private volatile PerKeyWorker[] shards;
+        private final InFlightCounter inFlight = new InFlightCounter();
+        private final List<PushSubscriber> pushSubscribers = new CopyOnWriteArrayList<>();
+        // 노드 ID 별 전용 스테이지. start 시 파이프라인 조립과 함께 다시 만든다.
+        private final Map<String, StageLane> lanes = new ConcurrentHashMap<>();
+        // 적응형 배치가 켜져 있으면 진입 워커들이 공유하는 배치 크기/linger 컨트롤러.
+        private volatile AdaptiveBatchController adaptive;
+        // Sink 노드 ID 별 서킷 브레이커. 여러 경로가 같은 Sink 로 합류하면 공유한다.
+        private final Map<String, NodeCircuitBreaker> breakers = new ConcurrentHashMap<>();
+        // pause/resume 게이트. 닫히면 Source 디스패치와 워커가 큐를 유지한 채 대기한다.
+        private final PauseGate pauseGate = new PauseGate();
+        // hot key 추적기. HotKeyOptions 가 켜져 있을 때 start 에서 생성된다.
+        private volatile HotKeyTracker hotKeys;
+        // 만료로 처리 전에 버리거나 dead-letter 로 보낸 컨텍스트 수.
+        private final LongAdder expired = new LongAdder();
+        // 우선순위 레인별 큐 대기 시간 집계. PriorityLaneOptions 가 켜져 있을 때 start 에서 생성된다.
+        private volatile PriorityMailbox.LaneStats[] laneStats;
+        // 처리 완료 통지를 요구하는 Source. start 에서 Source 를 확인한 뒤 설정된다.
+        private volatile AcknowledgingSource<Object> acknowledger;
+        // 연속된 단건 프로세서를 프로세서별 hidden class 체인으로 컴파일한다.
+        private final ChainCompiler chainCompiler = new ChainCompiler(this::reconcileAffinity);
         /**
          * name를 반환한다.
          * @return 
@@ -144,9 +296,18 @@ public class WorkflowEngine {
 
         /**
          * 그래프 정의를 기반으로 파이프라인을 조립하고 per-key 워커를 구동한다.
+         * <p>
+         * continuous 모드에서 Source 가 {@link PushSource} 이면 폴링 대신 구독하며,
+         * Source 가 완료되거나 stop 될 때까지 반환하지 않는다.
+         * Source 가 {@link PartitionedSource} 이고 파티션이 둘 이상이면 파티션마다 리더 스레드를 띄워 병렬로 읽는다.
+         * stop 된 인스턴스는 워커 실행기가 종료되었으므로 다시 시작하지 않고 {@link IllegalStateException} 을 던진다.
          */
         @Override
         public void start() {
+            if (terminated) {
+                throw new IllegalStateException("Workflow " + graph.getName()
+                    + " was stopped and cannot be started again; create a new instance");
+            }
             if (!running.compareAndSet(false, true)) {
                 log.warn("Workflow {} is already running", graph.getName());
                 return;
@@ -163,22 +324,54 @@ public class WorkflowEngine {
             }
             PipelineChain chain = buildPipelineChain(startNode);
             if (log.isDebugEnabled()) {
-                log.debug("Workflow {} pipeline processors={} sink={}",
+                log.debug("Workflow {} pipeline stages={} sink={} routes={}",
                     graph.getName(),
-                    chain.processors().size(),
-                    chain.sink().getClass().getSimpleName());
+                    chain.stages().size(),
+                    chain.sink() != null ? chain.sink().getClass().getSimpleName() : null,
+                    chain.routes().size());
+            }
+            if (batching.hotKeys().enabled() && hotKeys == null) {
+                HotKeyOptions options = batching.hotKeys();
+                hotKeys = new HotKeyTracker(Math.max(16, options.topN() * 4), options.window(), options.hotShare());
+            }
+            if (batching.priorityLanes().enabled() && laneStats == null) {
+                PriorityMailbox.LaneStats[] stats = new PriorityMailbox.LaneStats[batching.priorityLanes().lanes()];
+                for (int lane = 0; lane < stats.length; lane++) {
+                    stats[lane] = new PriorityMailbox.LaneStats();
+                }
+                laneStats = stats;
+            }
+            if (batching.adaptiveBatching().enabled() && adaptive == null) {
+                adaptive = new AdaptiveBatchController(batching.adaptiveBatching(), batching.batchSize());
+            }
+            if (batching.dispatchMode() == DispatchMode.SHARDED && shards == null) {
+                shards = createShards(chain);
             }
             @SuppressWarnings("unchecked")
             Source<Object> source = (Source<Object>) resolver.resolve(startNode);
+            if (source instanceof AcknowledgingSource<Object> acknowledging && acknowledging.requiresAcknowledgement()) {
+                requireUnconditionalHandoffs(chain);
+                acknowledger = acknowledging;
+            }
 
             boolean continuous = batching.continuous();
+            List<Source<Object>> readers = readersOf(source);
+            if (readers.size() > 1) {
+                runParallelSources(readers, chain, continuous);
+                return;
+            }
+            source = readers.get(0);
+            if (continuous && source instanceof PushSource<Object> pushSource) {
+                runPushSource(pushSource, chain);
+                return;
+            }
             do {
                 accepting.set(true);
                 long dispatched = dispatch(source, chain);
                 accepting.set(false);
                 waitForPendingWork();
                 if (dispatched == 0 && running.get() && continuous) {
-                    sleepQuietly(batching.batchTimeout());
+                    idleWait(batching.batchTimeout());
                 }
             } while (running.get() && continuous);
 
@@ -193,244 +386,1127 @@ public class WorkflowEngine {
             if (!running.compareAndSet(true, false)) {
                 return;
             }
+            terminated = true;
             accepting.set(false);
             log.info("Stopping workflow: {}", graph.getName());
+            pauseGate.resume();
+            inFlight.signalAll();
+            pushSubscribers.forEach(PushSubscriber::cancel);
             workers.values().forEach(PerKeyWorker::stop);
+            PerKeyWorker[] pool = shards;
+            if (pool != null) {
+                for (PerKeyWorker shard : pool) {
+                    shard.stop();
+                }
+            }
+            lanes.values().forEach(StageLane::stop);
             waitForPendingWork();
             workerExecutor.shutdown();
+            lanes.values().forEach(StageLane::shutdown);
         }
-        // dispatch 동작을 수행한다.
 
-        private long dispatch(Source<Object> source, PipelineChain chain) {
-            long count = 0L;
-            for (FxContext<Object> ctx : source.read()) {
-                if (!running.get()) {
-                    break;
-                }
-                FxContext<Object> normalized = normalizeAffinity(ctx);
-                PerKeyWorker worker = workers.computeIfAbsent(normalized.affinity(), key -> createWorker(key, chain));
-                worker.enqueue(normalized);
-                count++;
-            }
-            return count;
+        /**
+         * 큐에 들어갔지만 아직 Sink 까지 처리되지 않은 컨텍스트 수를 반환한다.
+         *
+         * @return in-flight 컨텍스트 수
+         */
+        @Override
+        public long inFlight() {
+            return inFlight.current();
         }
-        // createWorker 동작을 수행한다.
 
-        private PerKeyWorker createWorker(FxAffinity affinity, PipelineChain chain) {
-            PerKeyWorker worker = new PerKeyWorker(affinity, chain);
-            worker.start();
-            return worker;
+        @Override
+        public long peakInFlight() {
+            return inFlight.peak();
         }
-        // buildPipelineChain 동작을 수행한다.
 
-        private PipelineChain buildPipelineChain(WorkflowNodeDefinition startNode) {
-            Map<String, WorkflowNodeDefinition> nodesById = graph.getNodes().stream()
-                .collect(Collectors.toMap(WorkflowNodeDefinition::getId, n -> n));
-            Map<String, List<String>> edgesByFrom = graph.getEdges().stream()
-                .collect(Collectors.groupingBy(
-                    edge -> edge.getFromNodeId(),
-                    Collectors.mapping(WorkflowEdgeDefinition::getToNodeId, Collectors.toList())
-                ));
-
-            List<java.util.function.Function<FxContext<Object>, FxContext<Object>>> processors = new ArrayList<>();
-            Sink<Object> sink = null;
-            WorkflowNodeDefinition current = startNode;
-            while (true) {
-                List<WorkflowNodeDefinition> nextNodes = successors(current, nodesById, edgesByFrom);
-                if (nextNodes.isEmpty()) {
-                    break;
-                }
-                if (nextNodes.size() > 1) {
-                    throw new IllegalStateException(
-                        "Branching workflows are not supported yet for node: " + current.getId());
-                }
-                WorkflowNodeDefinition next = nextNodes.get(0);
-                switch (next.getKind()) {
-                    case SOURCE_HANDLER -> {
-                        @SuppressWarnings("unchecked")
-                        SourceHandler<Object> handler = (SourceHandler<Object>) resolver.resolve(next);
-                        processors.add(sourceHandlerFn(handler));
-                    }
-                    case PIPELINE_STEP -> {
-                        @SuppressWarnings("unchecked")
-                        PipelineStep<Object, Object> step = (PipelineStep<Object, Object>) resolver.resolve(next);
-                        processors.add(pipelineStepFn(step));
-                    }
-                    case SINK_HANDLER -> {
-                        @SuppressWarnings("unchecked")
-                        SinkHandler<Object> handler = (SinkHandler<Object>) resolver.resolve(next);
-                        processors.add(sinkHandlerFn(handler));
-                    }
-                    case SINK -> {
-                        @SuppressWarnings("unchecked")
-                        Sink<Object> resolvedSink = (Sink<Object>) resolver.resolve(next);
-                        sink = resolvedSink;
-                    }
-                    case SOURCE -> throw new IllegalStateException("Unexpected SOURCE after start: " + next.getId());
-                }
-                if (next.getKind() == WorkflowNodeKind.SINK) {
-                    break;
-                }
-                current = next;
+        @Override
+        public long inFlightBytes() {
+            return inFlight.currentBytes();
+        }
+
+        @Override
+        public long peakInFlightBytes() {
+            return inFlight.peakBytes();
+        }
+
+        @Override
+        public int currentBatchSize() {
+            AdaptiveBatchController controller = adaptive;
+            return controller != null ? controller.batchSize() : batching.batchSize();
+        }
+
+        @Override
+        public boolean supportsPause() {
+            return true;
+        }
+
+        /**
+         * Source 디스패치와 모든 워커를 멈춘다. 큐에 쌓인 컨텍스트와 per-key 워커는 그대로 유지된다.
+         * 이미 처리 중인 배치는 끝까지 처리하고, push 소스는 credit 이 반환되지 않아 자연히 멈춘다.
+         */
+        @Override
+        public void pause() {
+            if (!running.get()) {
+                log.warn("Workflow {} is not running; ignoring pause", graph.getName());
+                return;
             }
-            if (sink == null) {
-                throw new IllegalStateException("Sink node is required for workflow: " + graph.getName());
+            if (pauseGate.pause()) {
+                log.info("Paused workflow: {} queueDepth={} inFlight={}", graph.getName(), queueDepth(), inFlight.current());
             }
-            return new PipelineChain(processors, sink);
         }
-        // successors 동작을 수행한다.
 
-        private List<WorkflowNodeDefinition> successors(
-            WorkflowNodeDefinition node,
-            Map<String, WorkflowNodeDefinition> nodesById,
-            Map<String, List<String>> edgesByFrom
-        ) {
-            List<String> toIds = edgesByFrom.getOrDefault(node.getId(), List.of());
-            List<WorkflowNodeDefinition> next = new ArrayList<>();
-            for (String id : toIds) {
-                WorkflowNodeDefinition target = nodesById.get(id);
-                if (target != null) {
-                    next.add(target);
-                }
+        /**
+         * 일시정지된 Source 디스패치와 워커를 깨운다.
+         */
+        @Override
+        public void resume() {
+            if (pauseGate.resume()) {
+                log.info("Resumed workflow: {} queueDepth={}", graph.getName(), queueDepth());
             }
-            return next;
         }
-        // sourceHandlerFn 동작을 수행한다.
 
-        private java.util.function.Function<FxContext<Object>, FxContext<Object>> sourceHandlerFn(
-            SourceHandler<Object> handler
-        ) {
-            return ctx -> {
-                FxContext<Object> normalized = normalizeAffinity(ctx);
-                return handler.supports(normalized) ? handler.handle(normalized) : normalized;
-            };
+        @Override
+        public boolean isPaused() {
+            return pauseGate.isPaused();
         }
-        // sinkHandlerFn 동작을 수행한다.
 
-        private java.util.function.Function<FxContext<Object>, FxContext<Object>> sinkHandlerFn(
-            SinkHandler<Object> handler
-        ) {
-            return ctx -> {
-                FxContext<Object> normalized = normalizeAffinity(ctx);
-                return handler.supports(normalized) ? handler.handle(normalized) : normalized;
-            };
+        @Override
+        public boolean isRunning() {
+            return running.get();
         }
-        // pipelineStepFn 동작을 수행한다.
 
-        private java.util.function.Function<FxContext<Object>, FxContext<Object>> pipelineStepFn(
-            PipelineStep<Object, Object> step
-        ) {
-            return ctx -> {
-                FxContext<Object> normalized = normalizeAffinity(ctx);
-                return step.supports(normalized) ? step.apply(normalized) : normalized;
-            };
+        @Override
+        public boolean isContinuous() {
+            return batching.continuous();
         }
-        // waitForPendingWork 동작을 수행한다.
 
-        private void waitForPendingWork() {
-            Duration waitWindow = batching.cleanupIdleAfter().plus(batching.batchTimeout());
-            long deadlineNanos = System.nanoTime() + waitWindow.toNanos();
-            while (hasPendingWork() && System.nanoTime() < deadlineNanos) {
-                sleepQuietly(Duration.ofMillis(10));
+        @Override
+        public List<HotKey> hotKeys(int limit) {
+            HotKeyTracker tracker = hotKeys;
+            if (tracker == null || limit <= 0) {
+                return List.of();
+            }
+            long total = Math.max(1L, tracker.total());
+            List<HotKey> result = new ArrayList<>();
+            for (Map.Entry<FxAffinity, Long> entry : tracker.top(limit)) {
+                long estimate = entry.getValue();
+                result.add(new HotKey(entry.getKey(), tracker.ratePerSecond(estimate),
+                    Math.min(1.0, (double) estimate / total), queueDepthOf(entry.getKey())));
             }
+            return result;
+        }
+        @Override
+        public long expiredCount() {
+            return expired.sum();
         }
-        // hasPendingWork 동작을 수행한다.
 
-        private boolean hasPendingWork() {
-            return workers.values().stream().anyMatch(PerKeyWorker::hasPendingWork);
+        @Override
+        public List<LaneWaitTime> laneWaitTimes() {
+            PriorityLaneOptions options = batching.priorityLanes();
+            if (!options.enabled()) {
+                return List.of();
+            }
+            PriorityMailbox.LaneStats[] stats = laneStats;
+            List<LaneWaitTime> result = new ArrayList<>(options.lanes());
+            for (int lane = 0; lane < options.lanes(); lane++) {
+                result.add(stats != null ? stats[lane].snapshot(lane) : new LaneWaitTime(lane, 0L, 0L, 0L));
+            }
+            return result;
         }
-        // normalizeAffinity 동작을 수행한다.
+        // queueDepthOf 동작을 수행한다.
 
-        private FxContext<Object> normalizeAffinity(FxContext<Object> context) {
-            FxAffinity resolved = affinityKeyResolver.resolve(context);
-            if (resolved == null || resolved.value() == null) {
-                throw new IllegalStateException("Affinity value is required for ordered/parallel execution");
+        /**
+         * 키 하나의 진입 워커(SHARDED 면 샤드)와 전용 스테이지 워커(sub-lane 포함) 큐 길이 합을 반환한다.
+         */
+        private long queueDepthOf(FxAffinity affinity) {
+            long depth = 0L;
+            PerKeyWorker[] pool = shards;
+            PerKeyWorker entry = pool != null ? pool[shardIndex(affinity, pool.length)] : workers.get(affinity);
+            if (entry != null) {
+                depth += entry.queue.size();
             }
-            if (resolved.kind() == null) {
-                throw new IllegalStateException("Affinity kind is required for ordered/parallel execution");
+            for (StageLane lane : lanes.values()) {
+                depth += lane.queueDepthOf(affinity);
             }
-            if (affinityKeyResolver instanceof DefaultAffinityKeyResolver resolver) {
-                String expectedKind = resolver.defaultKind();
-                if (expectedKind != null && !expectedKind.equals(resolved.kind())) {
-                    String message = "Affinity kind mismatch: expected %s but got %s".formatted(expectedKind, resolved.kind());
-                    log.error(message);
-                    throw new IllegalStateException(message);
+            return depth;
+        }
+
+        /**
+         * 진입 워커(키별 또는 샤드)와 전용 스테이지 워커 큐에 대기 중인 컨텍스트 수의 합을 반환한다.
+         */
+        @Override
+        public long queueDepth() {
+            long depth = 0L;
+            for (PerKeyWorker worker : workers.values()) {
+                depth += worker.queue.size();
+            }
+            PerKeyWorker[] pool = shards;
+            if (pool != null) {
+                for (PerKeyWorker shard : pool) {
+                    depth += shard.queue.size();
                 }
             }
-            return context.withAffinity(resolved);
+            for (StageLane lane : lanes.values()) {
+                for (PerKeyWorker worker : lane.workers().values()) {
+                    depth += worker.queue.size();
+                }
+            }
+            return depth;
+        }
+
+        /**
+         * 마지막 in-flight 컨텍스트가 처리될 때까지 대기한다.
+         *
+         * @param timeout 최대 대기 시간
+         * @return timeout 전에 in-flight 가 0 이 되면 true
+         * @throws InterruptedException 대기 중 인터럽트된 경우
+         */
+        @Override
+        public boolean awaitQuiescence(Duration timeout) throws InterruptedException {
+            Objects.requireNonNull(timeout, "timeout must not be null");
+            return inFlight.awaitZero(timeout);
+        }
+        // dispatch 동작을 수행한다.
+
+        private long dispatch(Source<Object> source, PipelineChain chain) {
+            long count = 0L;
+            Iterator<FxContext<Object>> iterator = source.read().iterator();
+            while (awaitResumed() && running.get() && iterator.hasNext()) {
+                dispatchOne(iterator.next(), chain);
+                count++;
+            }
+            return count;
         }
-        // sleepQuietly 동작을 수행한다.
+        // awaitResumed 동작을 수행한다.
 
-        private void sleepQuietly(Duration duration) {
+        /**
+         * 일시정지 중이면 resume 또는 stop 까지 대기한다. 인터럽트되면 인터럽트 상태를 복원하고 false 를 반환한다.
+         */
+        private boolean awaitResumed() {
             try {
-                Thread.sleep(duration.toMillis());
-            } catch (InterruptedException e) {
+                pauseGate.awaitResumed();
+                return true;
+            } catch (InterruptedException ex) {
                 Thread.currentThread().interrupt();
+                return false;
             }
         }
-        // removeWorker 동작을 수행한다.
+        // dispatchOne 동작을 수행한다.
 
-        private PerKeyWorker removeWorker(FxAffinity affinity) {
-            return workers.remove(affinity);
+        private void dispatchOne(FxContext<Object> ctx, PipelineChain chain) {
+            FxContext<Object> normalized = normalizeAffinity(ctx);
+            HotKeyTracker tracker = hotKeys;
+            if (tracker != null) {
+                tracker.record(normalized.affinity());
+            }
+            PerKeyWorker worker = workerFor(normalized.affinity(), chain);
+            long size = sizeOf(normalized);
+            if (admit(worker, normalized, size)) {
+                worker.enqueue(normalized, size);
+            }
         }
+        // admit 동작을 수행한다.
 
         /**
-         * Per-key mailbox + worker that drains contexts in order and applies the pipeline chain.
+         * 워크플로 전역 in-flight 예산(건수/추정 바이트)을 확인하고, 초과하면 per-key 큐에 넣기 전에 백프레셔 정책을 적용한다.
+         * <p>
+         * DROP_OLDEST 는 같은 키 큐에서 가장 오래된 컨텍스트를 버려 자리를 만들고, 그 키 큐가 비어 있으면
+         * (예산을 다른 키가 쓰고 있으면) 새 컨텍스트를 버린다.
+         *
+         * @return 큐에 넣어도 되면 true, 새 컨텍스트를 버렸으면 false
          */
-        private final class PerKeyWorker implements Runnable {
+        private boolean admit(PerKeyWorker worker, FxContext<Object> context, long size) {
+            long maxMessages = batching.maxInFlight();
+            long maxBytes = batching.maxInFlightBytes();
+            if ((maxMessages <= 0 && maxBytes <= 0) || inFlight.hasCapacity(maxMessages, maxBytes, size)) {
+                return true;
+            }
+            switch (batching.backpressurePolicy()) {
+                case BLOCK -> {
+                    try {
+                        if (!inFlight.awaitCapacity(maxMessages, maxBytes, size, batching.batchTimeout())) {
+                            throw new IllegalStateException("Workflow in-flight budget exceeded; backpressure threshold exceeded");
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for workflow in-flight budget", ex);
+                    }
+                    return true;
+                }
+                case DROP_OLDEST -> {
+                    while (!inFlight.hasCapacity(maxMessages, maxBytes, size)) {
+                        if (!worker.dropOldest(context)) {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Dropped context due to in-flight budget workflow={} affinity={} inFlight={}",
+                                    graph.getName(), context.affinity(), inFlight.current());
+                            }
+                            acknowledge(List.of(context));
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                case ERROR -> throw new IllegalStateException("Workflow in-flight budget exceeded; backpressure threshold exceeded");
+                default -> throw new IllegalStateException("Unsupported backpressure policy: " + batching.backpressurePolicy());
+            }
+        }
+        // sizeOf 동작을 수행한다.
 
-            private final FxAffinity affinity;
-            private final PipelineChain chain;
-            // queueCapacity 동작을 수행한다.
-            private final ArrayBlockingQueue<FxContext<Object>> queue = new ArrayBlockingQueue<>(batching.queueCapacity());
-            // AtomicBoolean 동작을 수행한다.
-            private final AtomicBoolean active = new AtomicBoolean(true);
-            // AtomicBoolean 동작을 수행한다.
-            private final AtomicBoolean processing = new AtomicBoolean(false);
-            // nanoTime 동작을 수행한다.
-            private volatile long lastActivityNanos = System.nanoTime();
-            private Future<?> task;
-            // PerKeyWorker 동작을 수행한다.
+        private long sizeOf(FxContext<Object> context) {
+            return batching.maxInFlightBytes() > 0 ? sizeEstimator.estimate(context) : 0L;
+        }
+        // sizeOf 동작을 수행한다.
 
-            private PerKeyWorker(FxAffinity affinity, PipelineChain chain) {
-                this.affinity = affinity;
-                this.chain = chain;
+        private long sizeOf(List<FxContext<Object>> batch) {
+            if (batching.maxInFlightBytes() <= 0) {
+                return 0L;
             }
-            // start 동작을 수행한다.
+            long total = 0L;
+            for (FxContext<Object> context : batch) {
+                total += sizeEstimator.estimate(context);
+            }
+            return total;
+        }
+        // runPushSource 동작을 수행한다.
 
-            private void start() {
-                task = workerExecutor.submit(this);
-                if (log.isDebugEnabled()) {
-                    log.debug("Started per-key worker workflow={} affinity={}", graph.getName(), affinity);
-                }
+        private void runPushSource(PushSource<Object> source, PipelineChain chain) {
+            accepting.set(true);
+            RuntimeException failure;
+            try {
+                failure = subscribe(source, chain, pushCreditWindow());
+            } finally {
+                accepting.set(false);
             }
-            // stop 동작을 수행한다.
+            waitForPendingWork();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        // subscribe 동작을 수행한다.
 
-            private void stop() {
-                active.set(false);
-                if (task != null && !task.isDone() && !task.isCancelled()) {
-                    task.cancel(true);
+        /**
+         * push 소스를 구독하고 완료/취소될 때까지 대기한다.
+         *
+         * @return 구독이 실패로 끝났으면 그 예외, 아니면 null
+         */
+        private RuntimeException subscribe(PushSource<Object> source, PipelineChain chain, int creditWindow) {
+            PushSubscriber subscriber = new PushSubscriber(chain, creditWindow);
+            pushSubscribers.add(subscriber);
+            try {
+                source.subscribe(subscriber);
+                subscriber.awaitTermination();
+            } finally {
+                pushSubscribers.remove(subscriber);
+            }
+            return subscriber.failure();
+        }
+        // readersOf 동작을 수행한다.
+
+        private List<Source<Object>> readersOf(Source<Object> source) {
+            if (!(source instanceof PartitionedSource<Object> partitioned)) {
+                return List.of(source);
+            }
+            List<Source<Object>> partitions = List.copyOf(partitioned.partitions());
+            if (partitions.isEmpty()) {
+                throw new IllegalStateException("PartitionedSource returned no partitions for workflow: " + graph.getName());
+            }
+            return partitions;
+        }
+        // runParallelSources 동작을 수행한다.
+
+        /**
+         * 파티션마다 전용 리더 스레드에서 Source 를 읽어 같은 per-key 디스패처로 넘긴다.
+         * <p>
+         * 디스패치 경로(워커 조회/생성, 예산 확인, mailbox offer)는 여러 생산자를 허용하므로 리더끼리 잠그지 않는다.
+         * 리더가 모두 끝날 때까지 accepting 을 유지해 읽는 도중 워커가 정리되지 않게 하고, 라운드마다 drain 을
+         * 기다리지 않아 한 파티션의 처리 지연이 다른 파티션 읽기를 막지 않는다. push credit window 는 파티션 수로 나눈다.
+         * 리더 하나가 실패하면 나머지 리더도 멈추고, 남은 컨텍스트를 처리한 뒤 첫 실패를 다시 던진다.
+         */
+        private void runParallelSources(List<Source<Object>> readers, PipelineChain chain, boolean continuous) {
+            log.info("Starting parallel source readers workflow={} readers={}", graph.getName(), readers.size());
+            int creditWindow = Math.max(1, pushCreditWindow() / readers.size());
+            AtomicReference<RuntimeException> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>(readers.size());
+            accepting.set(true);
+            try {
+                for (int i = 0; i < readers.size(); i++) {
+                    Source<Object> reader = readers.get(i);
+                    threads.add(Thread.ofVirtual()
+                        .name("fx-" + graph.getName() + "-source-" + i)
+                        .start(() -> readPartition(reader, chain, continuous, creditWindow, failure)));
                 }
+                for (Thread thread : threads) {
+                    joinReader(thread);
+                }
+            } finally {
+                accepting.set(false);
             }
-            // enqueue 동작을 수행한다.
+            waitForPendingWork();
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+        // readPartition 동작을 수행한다.
 
-            private void enqueue(FxContext<Object> context) {
-                if (!running.get()) {
-                    throw new IllegalStateException("Workflow is stopping; cannot enqueue new context");
+        private void readPartition(
+            Source<Object> reader,
+            PipelineChain chain,
+            boolean continuous,
+            int creditWindow,
+            AtomicReference<RuntimeException> failure
+        ) {
+            try {
+                if (continuous && reader instanceof PushSource<Object> pushSource) {
+                    RuntimeException pushFailure = subscribe(pushSource, chain, creditWindow);
+                    if (pushFailure != null) {
+                        throw pushFailure;
+                    }
+                    return;
                 }
-                try {
+                do {
+                    long dispatched = dispatch(reader, chain);
+                    if (dispatched == 0 && running.get() && continuous) {
+                        idleWait(batching.batchTimeout());
+                    }
+                } while (running.get() && continuous && failure.get() == null);
+            } catch (RuntimeException ex) {
+                if (failure.compareAndSet(null, ex)) {
+                    log.error("Source reader failed workflow={} thread={}", graph.getName(), Thread.currentThread().getName(), ex);
+                    pushSubscribers.forEach(PushSubscriber::cancel);
+                }
+            }
+        }
+        // joinReader 동작을 수행한다.
+
+        private void joinReader(Thread thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+                try {
+                    thread.join(batching.cleanupIdleAfter().plus(batching.batchTimeout()).toMillis());
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        // pushCreditWindow 동작을 수행한다.
+
+        private int pushCreditWindow() {
+            long lanes = batching.dispatchMode() == DispatchMode.SHARDED ? batching.effectiveShardCount() : 1L;
+            long window = batching.queueCapacity() * lanes;
+            if (batching.maxInFlight() > 0) {
+                window = Math.min(window, batching.maxInFlight());
+            }
+            return (int) Math.min(Integer.MAX_VALUE, window);
+        }
+        // acknowledge 동작을 수행한다.
+
+        /**
+         * 처리가 끝난(또는 백프레셔로 버린) 컨텍스트를 Source 에 통지한다.
+         * 통지 실패가 처리 결과를 바꾸지 않도록 예외는 로그만 남긴다.
+         */
+        private void acknowledge(List<FxContext<Object>> contexts) {
+            AcknowledgingSource<Object> target = acknowledger;
+            if (target == null || contexts.isEmpty()) {
+                return;
+            }
+            try {
+                target.acknowledge(contexts);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to acknowledge {} contexts to source workflow={}", contexts.size(), graph.getName(), ex);
+            }
+        }
+        // requireUnconditionalHandoffs 동작을 수행한다.
+
+        /**
+         * 완료 통지는 hand-off 가 없는 체인의 워커가 배치 단위로 보낸다. 조건부 분기 뒤에 전용 스테이지가 있으면
+         * 같은 컨텍스트의 완료 시점을 한 워커가 판단할 수 없으므로, 통지를 요구하는 Source 에서는 거부한다.
+         */
+        private void requireUnconditionalHandoffs(PipelineChain chain) {
+            if (chain.handoff() != null) {
+                requireUnconditionalHandoffs(chain.handoff().chain());
+                return;
+            }
+            for (Route route : chain.routes()) {
+                if (route.next().handsOff()) {
+                    throw new IllegalStateException(
+                        "Acknowledging source does not support stage hand-off behind branches in workflow: " + graph.getName());
+                }
+            }
+        }
+        // complete 동작을 수행한다.
+
+        private void complete(int count, long sizeBytes) {
+            inFlight.decrement(count, sizeBytes);
+            replenishPushCredits(count);
+        }
+        // replenishPushCredits 동작을 수행한다.
+
+        /**
+         * 처리가 끝난 건수만큼 push 구독자에게 credit 을 돌려준다.
+         * 구독자가 여럿이면(파티션별 구독) 돌려받지 못한 credit 이 가장 많은 구독자부터 채워
+         * 어느 파티션도 credit 이 마른 채로 남지 않게 한다.
+         */
+        private void replenishPushCredits(int count) {
+            Iterator<PushSubscriber> iterator = pushSubscribers.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            PushSubscriber first = iterator.next();
+            if (!iterator.hasNext()) {
+                first.replenish(count);
+                return;
+            }
+            synchronized (pushSubscribers) {
+                int remaining = count;
+                while (remaining > 0) {
+                    PushSubscriber target = null;
+                    long deficit = 0L;
+                    for (PushSubscriber subscriber : pushSubscribers) {
+                        long outstanding = subscriber.outstanding();
+                        if (outstanding > deficit) {
+                            deficit = outstanding;
+                            target = subscriber;
+                        }
+                    }
+                    if (target == null) {
+                        return;
+                    }
+                    int granted = (int) Math.min(remaining, deficit);
+                    target.replenish(granted);
+                    remaining -= granted;
+                }
+            }
+        }
+        // workerFor 동작을 수행한다.
+
+        private PerKeyWorker workerFor(FxAffinity affinity, PipelineChain chain) {
+            PerKeyWorker[] pool = shards;
+            if (pool != null) {
+                return pool[shardIndex(affinity, pool.length)];
+            }
+            return workers.computeIfAbsent(affinity, key -> createWorker(key, chain));
+        }
+        // createWorker 동작을 수행한다.
+
+        private PerKeyWorker createWorker(FxAffinity affinity, PipelineChain chain) {
+            PerKeyWorker worker = new PerKeyWorker(affinity, chain, false);
+            worker.start();
+            return worker;
+        }
+        // createShards 동작을 수행한다.
+
+        private PerKeyWorker[] createShards(PipelineChain chain) {
+            int shardCount = batching.effectiveShardCount();
+            PerKeyWorker[] pool = new PerKeyWorker[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                pool[i] = new PerKeyWorker(FxAffinity.of("shard", i), chain, true);
+                pool[i].start();
+            }
+            log.info("Started sharded workers workflow={} shardCount={}", graph.getName(), shardCount);
+            return pool;
+        }
+        // shardIndex 동작을 수행한다.
+
+        private int shardIndex(FxAffinity affinity, int shardCount) {
+            int hash = affinity.hashCode();
+            return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+        }
+        // buildPipelineChain 동작을 수행한다.
+
+        private PipelineChain buildPipelineChain(WorkflowNodeDefinition startNode) {
+            Map<String, WorkflowNodeDefinition> nodesById = graph.getNodes().stream()
+                .collect(Collectors.toMap(WorkflowNodeDefinition::getId, n -> n));
+            Map<String, List<WorkflowEdgeDefinition>> edgesByFrom = graph.getEdges().stream()
+                .collect(Collectors.groupingBy(WorkflowEdgeDefinition::getFromNodeId));
+            Map<String, Object> resolvedNodes = new HashMap<>();
+            for (String nodeId : graph.getStageOptions().keySet()) {
+                WorkflowNodeDefinition node = nodesById.get(nodeId);
+                if (node == null || node.getKind() == WorkflowNodeKind.SOURCE) {
+                    throw new IllegalStateException("Stage options require a non-source node: " + nodeId);
+                }
+                if (graph.getStageOptions().get(nodeId).subLanes() > 1 && !batching.hotKeys().enabled()) {
+                    throw new IllegalStateException("Stage sub-lanes require hot key tracking to be enabled: " + nodeId);
+                }
+            }
+            lanes.clear();
+            PipelineChain chain = buildSegment(startNode, nodesById, edgesByFrom, resolvedNodes, new HashSet<>(), null);
+            if (!chain.reachesSink()) {
+                throw new IllegalStateException("Sink node is required for workflow: " + graph.getName());
+            }
+            return chain;
+        }
+        // buildSegment 동작을 수행한다.
+
+        /**
+         * entry 노드부터 분기 없이 이어지는 구간을 하나의 세그먼트로 묶는다.
+         * 후속 노드가 여러 개이거나 조건이 붙은 엣지를 만나면 세그먼트를 끝내고 엣지마다 하위 세그먼트를 만든다.
+         * 여러 경로가 같은 노드로 합류하면 해당 노드는 경로마다 한 번씩 실행된다(join 없음).
+         * 전용 스테이지로 지정된 노드를 만나면 세그먼트를 끝내고 해당 스테이지로 hand-off 한다.
+         * laneNodeId 는 지금 조립 중인 스테이지의 시작 노드로, 자기 자신에게 다시 hand-off 하지 않도록 한다.
+         */
+        private PipelineChain buildSegment(
+            WorkflowNodeDefinition entry,
+            Map<String, WorkflowNodeDefinition> nodesById,
+            Map<String, List<WorkflowEdgeDefinition>> edgesByFrom,
+            Map<String, Object> resolvedNodes,
+            Set<String> path,
+            String laneNodeId
+        ) {
+            List<UnaryOperator<List<FxContext<Object>>>> stages = new ArrayList<>();
+            List<ChainCompiler.ElementStep> elementSteps = new ArrayList<>();
+            WorkflowNodeDefinition current = entry;
+            while (true) {
+                if (!path.add(current.getId())) {
+                    throw new IllegalStateException("Workflow graph contains a cycle at node: " + current.getId());
+                }
+                StageOptions stageOptions = graph.getStageOptions().get(current.getId());
+                if (stageOptions != null && !current.getId().equals(laneNodeId)) {
+                    flushElementStage(elementSteps, stages);
+                    StageLane lane = laneFor(current, stageOptions, nodesById, edgesByFrom, resolvedNodes, path);
+                    return new PipelineChain(stages, null, List.of(), lane, null);
+                }
+                switch (current.getKind()) {
+                    case SOURCE -> {
+                        if (!current.getId().equals(graph.getStartNodeId())) {
+                            throw new IllegalStateException("Unexpected SOURCE after start: " + current.getId());
+                        }
+                    }
+                    case SOURCE_HANDLER, PIPELINE_STEP, SINK_HANDLER -> {
+                        Object resolved = resolvedNodes.computeIfAbsent(current.getId(), id -> resolver.resolve(nodesById.get(id)));
+                        if (resolved instanceof BatchPipelineStep<?, ?> batchStep) {
+                            flushElementStage(elementSteps, stages);
+                            @SuppressWarnings("unchecked")
+                            BatchPipelineStep<Object, Object> step = (BatchPipelineStep<Object, Object>) batchStep;
+                            stages.add(batchStepStage(step));
+                        } else {
+                            elementSteps.add(new ChainCompiler.ElementStep(current.getKind(), resolved));
+                        }
+                    }
+                    case SINK -> {
+                        @SuppressWarnings("unchecked")
+                        Sink<Object> sink = (Sink<Object>) resolvedNodes.computeIfAbsent(
+                            current.getId(), id -> resolver.resolve(nodesById.get(id)));
+                        flushElementStage(elementSteps, stages);
+                        return new PipelineChain(stages, sink, List.of(), null, breakerFor(current.getId()));
+                    }
+                }
+                List<WorkflowEdgeDefinition> outgoing = edgesByFrom.getOrDefault(current.getId(), List.of()).stream()
+                    .filter(edge -> nodesById.containsKey(edge.getToNodeId()))
+                    .toList();
+                if (outgoing.isEmpty()) {
+                    flushElementStage(elementSteps, stages);
+                    return new PipelineChain(stages, null, List.of());
+                }
+                if (outgoing.size() == 1 && isUnconditional(outgoing.get(0))) {
+                    current = nodesById.get(outgoing.get(0).getToNodeId());
+                    continue;
+                }
+                List<Route> routes = new ArrayList<>(outgoing.size());
+                for (WorkflowEdgeDefinition edge : outgoing) {
+                    routes.add(new Route(
+                        edgeConditions.getOrDefault(edge, ALWAYS),
+                        buildSegment(nodesById.get(edge.getToNodeId()), nodesById, edgesByFrom, resolvedNodes,
+                            new HashSet<>(path), null)
+                    ));
+                }
+                flushElementStage(elementSteps, stages);
+                return new PipelineChain(stages, null, routes);
+            }
+        }
+        // breakerFor 동작을 수행한다.
+
+        private NodeCircuitBreaker breakerFor(String nodeId) {
+            FailurePolicy policy = batching.failurePolicy();
+            return breakers.computeIfAbsent(nodeId, id -> new NodeCircuitBreaker(
+                graph.getName(), id, policy.circuitBreakerThreshold(), policy.circuitBreakerOpenDuration()));
+        }
+        // laneFor 동작을 수행한다.
+
+        /**
+         * 전용 스테이지를 노드 ID 당 하나만 만든다. 여러 경로가 같은 스테이지로 합류하면 같은 inbox 를 공유한다.
+         */
+        private StageLane laneFor(
+            WorkflowNodeDefinition node,
+            StageOptions options,
+            Map<String, WorkflowNodeDefinition> nodesById,
+            Map<String, List<WorkflowEdgeDefinition>> edgesByFrom,
+            Map<String, Object> resolvedNodes,
+            Set<String> path
+        ) {
+            StageLane existing = lanes.get(node.getId());
+            if (existing != null) {
+                return existing;
+            }
+            Set<String> lanePath = new HashSet<>(path);
+            lanePath.remove(node.getId());
+            PipelineChain laneChain = buildSegment(node, nodesById, edgesByFrom, resolvedNodes, lanePath, node.getId());
+            StageLane lane = new StageLane(
+                node.getId(),
+                laneChain,
+                options.queueCapacity() > 0 ? options.queueCapacity() : batching.queueCapacity(),
+                options.batchSize() > 0 ? options.batchSize() : batching.batchSize(),
+                options.subLanes()
+            );
+            lanes.put(node.getId(), lane);
+            return lane;
+        }
+        // flushElementStage 동작을 수행한다.
+
+        /**
+         * 연속된 단건 프로세서를 배치당 한 번 순회하는 단일 스테이지로 합친다.
+         * 프로세서마다 호출 지점이 따로 생기도록 {@link ChainCompiler} 로 컴파일한다.
+         */
+        private void flushElementStage(
+            List<ChainCompiler.ElementStep> elementSteps,
+            List<UnaryOperator<List<FxContext<Object>>>> stages
+        ) {
+            if (elementSteps.isEmpty()) {
+                return;
+            }
+            stages.add(chainCompiler.compile(List.copyOf(elementSteps)));
+            elementSteps.clear();
+        }
+        // batchStepStage 동작을 수행한다.
+
+        /**
+         * {@link BatchPipelineStep} 을 배치 스테이지로 감싼다. supports 를 만족하는 컨텍스트만 모아 한 번 호출하고,
+         * 나머지는 원래 위치에 그대로 둔다.
+         */
+        private UnaryOperator<List<FxContext<Object>>> batchStepStage(BatchPipelineStep<Object, Object> step) {
+            return batch -> {
+                List<FxContext<Object>> out = new ArrayList<>(batch.size());
+                List<FxContext<Object>> supported = new ArrayList<>(batch.size());
+                for (FxContext<Object> context : batch) {
+                    out.add(context);
+                    if (step.supports(context)) {
+                        supported.add(context);
+                    }
+                }
+                if (supported.isEmpty()) {
+                    return out;
+                }
+                List<FxContext<Object>> results = step.applyBatch(supported);
+                if (results == null || results.size() != supported.size()) {
+                    throw new IllegalStateException("BatchPipelineStep %s returned %s results for %d contexts".formatted(
+                        step.getClass().getSimpleName(), results == null ? null : results.size(), supported.size()));
+                }
+                int next = 0;
+                for (int i = 0; i < out.size(); i++) {
+                    if (out.get(i) == supported.get(next)) {
+                        out.set(i, reconcileAffinity(supported.get(next), results.get(next)));
+                        next++;
+                        if (next == supported.size()) {
+                            break;
+                        }
+                    }
+                }
+                return out;
+            };
+        }
+        // executeSegment 동작을 수행한다.
+
+        /**
+         * 세그먼트의 스테이지(단건 프로세서 묶음 또는 배치 단계)를 배치에 순서대로 적용한 뒤, 배치 전체를 Sink 에 한 번에 쓰거나
+         * 다음 스테이지로 hand-off 하고, 하위 세그먼트로 보낼 결과를 반환한다.
+         */
+        private List<FxContext<Object>> executeSegment(PipelineChain chain, List<FxContext<Object>> contexts) {
+            List<FxContext<Object>> current = contexts;
+            for (UnaryOperator<List<FxContext<Object>>> stage : chain.stages()) {
+                current = stage.apply(current);
+            }
+            if (chain.sink() != null) {
+                writeToSink(chain, current);
+            }
+            if (chain.handoff() != null) {
+                chain.handoff().handoff(current);
+            }
+            return current;
+        }
+        // executeGuarded 동작을 수행한다.
+
+        /**
+         * 세그먼트를 실행하고, 예외가 나면 같은 배치를 컨텍스트 하나씩 순서대로 다시 실행해 실패한 컨텍스트만 격리한다.
+         * 격리 실행도 실패한 컨텍스트는 {@link FailurePolicy} 에 따라 재시도한 뒤 dead-letter 로 보낸다.
+         * 재시도 대기는 이 워커에서만 일어나므로 같은 키의 다음 컨텍스트만 기다리고 다른 키는 계속 처리된다.
+         * <p>
+         * 성공한 컨텍스트는 조건을 통과한 것만 모아 하위 세그먼트마다 따로 이 메서드로 실행한다. 격리와 재시도는 실패한
+         * 세그먼트 안에서만 일어나므로 한 분기가 실패해도 이미 성공한 형제 분기나 상위 Sink 를 다시 쓰지 않는다.
+         * FxContext 는 불변이므로 분기마다 복사하지 않고 같은 인스턴스를 공유한다.
+         */
+        private void executeGuarded(PipelineChain chain, List<FxContext<Object>> batch) {
+            List<FxContext<Object>> current;
+            try {
+                current = executeSegment(chain, batch);
+            } catch (RuntimeException ex) {
+                if (batch.size() == 1) {
+                    current = retryOrDeadLetter(chain, batch.get(0), ex);
+                } else {
+                    log.warn("Batch of {} contexts failed in workflow {}; isolating contexts one by one",
+                        batch.size(), graph.getName(), ex);
+                    current = new ArrayList<>(batch.size());
+                    for (FxContext<Object> context : batch) {
+                        try {
+                            current.addAll(executeSegment(chain, List.of(context)));
+                        } catch (RuntimeException single) {
+                            current.addAll(retryOrDeadLetter(chain, context, single));
+                        }
+                    }
+                }
+            }
+            for (Route route : chain.routes()) {
+                List<FxContext<Object>> matched = new ArrayList<>(current.size());
+                for (FxContext<Object> context : current) {
+                    if (route.condition().test(context)) {
+                        matched.add(context);
+                    }
+                }
+                if (!matched.isEmpty()) {
+                    executeGuarded(route.next(), matched);
+                }
+            }
+        }
+        // retryOrDeadLetter 동작을 수행한다.
+
+        /**
+         * 실패한 세그먼트만 컨텍스트 하나로 다시 실행한다. 성공하면 하위 세그먼트로 보낼 결과를, 재시도를 소진하면
+         * dead-letter 로 보낸 뒤 빈 리스트를 반환한다.
+         */
+        private List<FxContext<Object>> retryOrDeadLetter(PipelineChain chain, FxContext<Object> context, RuntimeException error) {
+            RuntimeException last = error;
+            FxContext<Object> attempt = context;
+            int maxRetries = batching.failurePolicy().maxRetries();
+            for (int retry = 1; retry <= maxRetries; retry++) {
+                if (!backoff(retry)) {
+                    break;
+                }
+                attempt = withRetries(context, retry);
+                try {
+                    return executeSegment(chain, List.of(attempt));
+                } catch (RuntimeException ex) {
+                    last = ex;
+                }
+            }
+            deadLetter(attempt, last, null);
+            return List.of();
+        }
+        // writeToSink 동작을 수행한다.
+
+        /**
+         * 노드 서킷 브레이커를 거쳐 Sink 에 배치를 쓴다. 배치 전체 실패(예외)는 호출자에게 그대로 던지고,
+         * 요소 단위 실패는 해당 컨텍스트만 재시도한 뒤 dead-letter 로 보낸다.
+         */
+        private void writeToSink(PipelineChain chain, List<FxContext<Object>> batch) {
+            BatchWriteResult result = chain.breaker().write(chain.sink(), batch);
+            if (result.isSuccess()) {
+                return;
+            }
+            reportSinkFailures(chain.sink(), batch, result);
+            for (BatchWriteResult.Failure failure : result.failures()) {
+                retrySinkWrite(chain, batch.get(failure.index()), failure.error());
+            }
+        }
+        // retrySinkWrite 동작을 수행한다.
+
+        private void retrySinkWrite(PipelineChain chain, FxContext<Object> context, Throwable error) {
+            Throwable last = error;
+            FxContext<Object> attempt = context;
+            int maxRetries = batching.failurePolicy().maxRetries();
+            for (int retry = 1; retry <= maxRetries; retry++) {
+                if (!backoff(retry)) {
+                    break;
+                }
+                attempt = withRetries(context, retry);
+                try {
+                    BatchWriteResult result = chain.breaker().write(chain.sink(), List.of(attempt));
+                    if (result.isSuccess()) {
+                        return;
+                    }
+                    last = result.failures().get(0).error();
+                } catch (RuntimeException ex) {
+                    last = ex;
+                }
+            }
+            deadLetter(attempt, last, chain.breaker().nodeId());
+        }
+        // backoff 동작을 수행한다.
+
+        /**
+         * retry 번째 재시도 전 지수 백오프만큼 대기한다. 인터럽트되면(예: stop) 재시도를 포기하도록 false 를 반환한다.
+         */
+        private boolean backoff(int retry) {
+            FailurePolicy policy = batching.failurePolicy();
+            long delayMillis = policy.initialBackoff().toMillis() << Math.min(retry - 1, 30);
+            delayMillis = Math.min(Math.max(delayMillis, 0L), policy.maxBackoff().toMillis());
+            try {
+                Thread.sleep(delayMillis);
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        // withRetries 동작을 수행한다.
+
+        private FxContext<Object> withRetries(FxContext<Object> context, int retry) {
+            FxMeta meta = context.meta();
+            return new FxContext<>(context.command(), context.headers(), context.message(),
+                meta.withRetries(meta.retries() + retry), context.affinity());
+        }
+        // deadLetter 동작을 수행한다.
+
+        /**
+         * 재시도를 소진한 컨텍스트를 dead-letter Sink 로 보낸다. 실패 원인은 {@link FxMeta#attributes()} 의
+         * {@code deadLetter.*} 키로 덧붙인다. dead-letter Sink 가 없거나 실패하면 로그만 남긴다.
+         */
+        private void deadLetter(FxContext<Object> context, Throwable error, String nodeId) {
+            if (deadLetterSink == null) {
+                log.error("Dropping context after {} retries workflow={} affinity={} node={}",
+                    context.meta().retries(), graph.getName(), context.affinity(), nodeId, error);
+                return;
+            }
+            FxMeta.AttributeBuilder attributes = context.meta().toAttributeBuilder()
+                .put(DEAD_LETTER_WORKFLOW, graph.getName());
+            if (nodeId != null) {
+                attributes.put(DEAD_LETTER_NODE, nodeId);
+            }
+            attributes.put(DEAD_LETTER_ERROR, error.getClass().getName());
+            if (error.getMessage() != null) {
+                attributes.put(DEAD_LETTER_MESSAGE, error.getMessage());
+            }
+            writeDeadLetter(context, attributes);
+        }
+        // discardExpired 동작을 수행한다.
+
+        /**
+         * 배치에서 만료된 컨텍스트를 빼고 남은 컨텍스트를 반환한다. 만료된 컨텍스트가 없으면 batch 를 그대로 반환한다.
+         * 만료된 컨텍스트는 {@link ExpiryOptions#action()} 에 따라 버리거나 dead-letter Sink 로 보낸다.
+         */
+        private List<FxContext<Object>> discardExpired(List<FxContext<Object>> batch) {
+            ExpiryOptions options = batching.expiry();
+            long nowMillis = System.currentTimeMillis();
+            List<FxContext<Object>> live = null;
+            for (int i = 0; i < batch.size(); i++) {
+                FxContext<Object> context = batch.get(i);
+                long deadline = options.deadlineMillis(context);
+                if (deadline > nowMillis) {
+                    if (live != null) {
+                        live.add(context);
+                    }
+                    continue;
+                }
+                if (live == null) {
+                    live = new ArrayList<>(batch.size());
+                    live.addAll(batch.subList(0, i));
+                }
+                expired.increment();
+                onExpired(context, deadline);
+            }
+            return live != null ? live : batch;
+        }
+        // onExpired 동작을 수행한다.
+
+        private void onExpired(FxContext<Object> context, long deadlineMillis) {
+            if (batching.expiry().action() == ExpiredAction.DROP || deadLetterSink == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Discarded expired context workflow={} affinity={} deadline={}",
+                        graph.getName(), context.affinity(), Instant.ofEpochMilli(deadlineMillis));
+                }
+                return;
+            }
+            FxMeta.AttributeBuilder attributes = context.meta().toAttributeBuilder()
+                .put(DEAD_LETTER_WORKFLOW, graph.getName())
+                .put(DEAD_LETTER_EXPIRED_AT, Instant.ofEpochMilli(deadlineMillis).toString());
+            writeDeadLetter(context, attributes);
+        }
+        // writeDeadLetter 동작을 수행한다.
+
+        private void writeDeadLetter(FxContext<Object> context, FxMeta.AttributeBuilder attributes) {
+            FxMeta meta = context.meta();
+            FxContext<Object> dead = new FxContext<>(context.command(), context.headers(), context.message(),
+                new FxMeta(meta.sourceId(), meta.pipelineStep(), meta.retries(), attributes.build()), context.affinity());
+            try {
+                deadLetterSink.write(dead);
+            } catch (RuntimeException ex) {
+                log.error("Dead-letter sink failed workflow={} affinity={}", graph.getName(), context.affinity(), ex);
+            }
+        }
+        // reportSinkFailures 동작을 수행한다.
+
+        private void reportSinkFailures(Sink<Object> sink, List<FxContext<Object>> batch, BatchWriteResult result) {
+            log.warn("Sink {} failed {} of {} contexts in workflow {}",
+                sink.getClass().getSimpleName(), result.failures().size(), result.size(), graph.getName());
+            for (BatchWriteResult.Failure failure : result.failures()) {
+                FxContext<Object> context = batch.get(failure.index());
+                log.warn("Sink write failed workflow={} affinity={} index={}",
+                    graph.getName(), context.affinity(), failure.index(), failure.error());
+            }
+        }
+        // waitForPendingWork 동작을 수행한다.
+
+        private void waitForPendingWork() {
+            if (!awaitResumed()) {
+                return;
+            }
+            Duration waitWindow = batching.cleanupIdleAfter().plus(batching.batchTimeout());
+            try {
+                if (!inFlight.awaitZero(waitWindow)) {
+                    log.warn("Workflow {} did not drain within {} inFlight={}",
+                        graph.getName(), waitWindow, inFlight.current());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // idleWait 동작을 수행한다.
+
+        private void idleWait(Duration duration) {
+            try {
+                inFlight.park(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // reconcileAffinity 동작을 수행한다.
+
+        /**
+         * 단계 출력의 affinity 를 확인한다. 입력은 dispatch 시점에 이미 정규화되었으므로 단계가 affinity 를 바꾸지 않았다면
+         * 다시 해석하지 않고 그대로 반환하며, 바뀐 경우에만 {@link #normalizeAffinity(FxContext)} 로 재검증한다.
+         */
+        private FxContext<Object> reconcileAffinity(FxContext<Object> input, FxContext<Object> output) {
+            if (output == input || output.affinity() == input.affinity() || output.affinity().equals(input.affinity())) {
+                return output;
+            }
+            return normalizeAffinity(output);
+        }
+        // normalizeAffinity 동작을 수행한다.
+
+        /**
+         * affinity 를 해석/검증한다. 해석 결과가 컨텍스트의 affinity 와 같으면 새 컨텍스트를 만들지 않는다.
+         */
+        private FxContext<Object> normalizeAffinity(FxContext<Object> context) {
+            FxAffinity resolved = affinityKeyResolver.resolve(context);
+            if (resolved == null || resolved.value() == null) {
+                throw new IllegalStateException("Affinity value is required for ordered/parallel execution");
+            }
+            if (resolved.kind() == null) {
+                throw new IllegalStateException("Affinity kind is required for ordered/parallel execution");
+            }
+            if (affinityKeyResolver instanceof DefaultAffinityKeyResolver resolver) {
+                String expectedKind = resolver.defaultKind();
+                if (expectedKind != null && !expectedKind.equals(resolved.kind())) {
+                    String message = "Affinity kind mismatch: expected %s but got %s".formatted(expectedKind, resolved.kind());
+                    log.error(message);
+                    throw new IllegalStateException(message);
+                }
+            }
+            if (resolved == context.affinity() || resolved.equals(context.affinity())) {
+                return context;
+            }
+            return context.withAffinity(resolved);
+        }
+        // newMailbox 동작을 수행한다.
+
+        /**
+         * 워커 큐를 만든다. 우선순위 레인이 켜져 있으면 mailboxType 대신 레인별 FIFO 를 가진 {@link PriorityMailbox} 를 쓴다.
+         */
+        private Mailbox<FxContext<Object>> newMailbox(int capacity) {
+            PriorityLaneOptions options = batching.priorityLanes();
+            if (!options.enabled()) {
+                return Mailbox.create(batching.mailboxType(), capacity);
+            }
+            return new PriorityMailbox<>(options.lanes(), capacity, options::laneOf, options.maxOvertake(), laneStats);
+        }
+        // removeWorker 동작을 수행한다.
+
+        private PerKeyWorker removeWorker(FxAffinity affinity) {
+            return workers.remove(affinity);
+        }
+
+        /**
+         * Per-key mailbox + worker that drains contexts in order and applies the pipeline chain.
+         * <p>
+         * SHARDED 모드에서는 하나의 워커가 해시가 같은 여러 키를 담당하며(pinned), idle 정리 대상이 아니다.
+         */
+        private final class PerKeyWorker implements Runnable {
+
+            private final FxAffinity affinity;
+            private final PipelineChain chain;
+            private final boolean pinned;
+            // 전용 스테이지 워커이면 소속 스테이지, 진입 워커이면 null.
+            private final StageLane lane;
+            private final Mailbox<FxContext<Object>> queue;
+            private final int batchSize;
+            // in-place 단계 묶음이 메시지마다 덮어써 쓰는 가변 컨텍스트. 배치가 끝나면 참조를 놓는다.
+            private final WorkerContextCarrier carrier = new WorkerContextCarrier();
+            // AtomicBoolean 동작을 수행한다.
+            private final AtomicBoolean active = new AtomicBoolean(true);
+            // nanoTime 동작을 수행한다.
+            private volatile long lastActivityNanos = System.nanoTime();
+            // 스테이지 워커가 종료 절차에 들어갔는지 여부(hand-off 재시도 판단용).
+            private volatile boolean retired;
+            // run 과 stop 중 먼저 잡은 쪽이 큐를 처리한다. 시작 전에 취소된 태스크의 큐가 남지 않도록 한다.
+            private final AtomicBoolean claimed = new AtomicBoolean();
+            private Future<?> task;
+            // PerKeyWorker 동작을 수행한다.
+
+            private PerKeyWorker(FxAffinity affinity, PipelineChain chain, boolean pinned) {
+                this(affinity, chain, pinned, null);
+            }
+            // PerKeyWorker 동작을 수행한다.
+
+            private PerKeyWorker(FxAffinity affinity, PipelineChain chain, boolean pinned, StageLane lane) {
+                this.affinity = affinity;
+                this.chain = chain;
+                this.pinned = pinned;
+                this.lane = lane;
+                this.queue = newMailbox(lane != null ? lane.queueCapacity() : batching.queueCapacity());
+                this.batchSize = lane != null ? lane.batchSize() : batching.batchSize();
+            }
+            // start 동작을 수행한다.
+
+            private void start() {
+                task = (lane != null ? lane.executor() : workerExecutor).submit(this);
+                if (log.isDebugEnabled()) {
+                    log.debug("Started per-key worker workflow={} affinity={}", graph.getName(), affinity);
+                }
+            }
+            // stop 동작을 수행한다.
+
+            private void stop() {
+                active.set(false);
+                if (task != null && !task.isDone() && !task.isCancelled()) {
+                    task.cancel(true);
+                }
+                if (claimed.compareAndSet(false, true)) {
+                    finish(new ArrayList<>());
+                }
+            }
+            // enqueue 동작을 수행한다.
+
+            private void enqueue(FxContext<Object> context, long size) {
+                if (!running.get()) {
+                    throw new IllegalStateException("Workflow is stopping; cannot enqueue new context");
+                }
+                inFlight.increment(size);
+                try {
                     switch (batching.backpressurePolicy()) {
                         case BLOCK -> {
                             boolean enqueued = queue.offer(context, batching.batchTimeout().toMillis(), TimeUnit.MILLISECONDS);
                             if (!enqueued) {
+                                complete(1, size);
                                 throw new IllegalStateException("Workflow queue is full; backpressure threshold exceeded");
                             }
                         }
                         case DROP_OLDEST -> {
                             if (!queue.offer(context)) {
-                                queue.poll();
+                                dropOldest(context);
                                 boolean enqueued = queue.offer(context);
                                 if (!enqueued) {
+                                    complete(1, size);
                                     throw new IllegalStateException("Workflow queue is full; backpressure threshold exceeded after drop-oldest");
                                 }
                                 if (log.isDebugEnabled()) {
@@ -442,96 +1518,426 @@ public class WorkflowEngine {
                         case ERROR -> {
                             boolean enqueued = queue.offer(context);
                             if (!enqueued) {
+                                complete(1, size);
                                 throw new IllegalStateException("Workflow queue is full; backpressure threshold exceeded");
                             }
                         }
                     }
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                    throw new IllegalStateException("Interrupted while enqueuing workflow items", ex);
+                } catch (InterruptedException ex) {
+                    complete(1, size);
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while enqueuing workflow items", ex);
+                }
+            }
+            // dropOldest 동작을 수행한다.
+
+            /**
+             * incoming 을 넣을 공간을 만들기 위해 큐에서 가장 오래된 컨텍스트를 꺼내 버리고 완료 처리한다.
+             * 우선순위 레인을 쓰면 incoming 과 같은 레인에서만 버린다.
+             *
+             * @return 버린 컨텍스트가 있으면 true
+             */
+            private boolean dropOldest(FxContext<Object> incoming) {
+                FxContext<Object> dropped = queue.evictFor(incoming);
+                if (dropped == null) {
+                    return false;
+                }
+                complete(1, sizeOf(dropped));
+                acknowledge(List.of(dropped));
+                return true;
+            }
+            /**
+             * run를 수행한다.
+             */
+
+            @Override
+            public void run() {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                List<FxContext<Object>> batch = new ArrayList<>(batchSize);
+                carrier.bind();
+                try {
+                    while (shouldContinue()) {
+                        if (pauseGate.isPaused()) {
+                            pauseGate.awaitResumed();
+                            continue;
+                        }
+                        FxContext<Object> first = queue.poll(batching.batchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                        if (first == null) {
+                            if (shouldCleanup()) {
+                                break;
+                            }
+                            continue;
+                        }
+                        batch.add(first);
+                        // poll 중에 일시정지되었으면 꺼낸 head 를 쥔 채 기다려 순서를 유지한다.
+                        pauseGate.awaitResumed();
+                        AdaptiveBatchController controller = lane == null ? adaptive : null;
+                        int limit = controller != null ? controller.batchSize() : batchSize;
+                        queue.drainTo(batch, limit - 1);
+                        if (controller != null && batch.size() < limit && controller.lingerNanos() > 0) {
+                            linger(batch, limit, controller.lingerNanos());
+                        }
+                        long startNanos = System.nanoTime();
+                        try {
+                            processBatch(batch);
+                        } finally {
+                            if (controller != null) {
+                                controller.onBatch(batch.size(), System.nanoTime() - startNanos, queue.size());
+                            }
+                            batch.clear();
+                        }
+                        lastActivityNanos = System.nanoTime();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    try {
+                        finish(batch);
+                    } finally {
+                        carrier.unbind();
+                    }
+                }
+            }
+            // finish 동작을 수행한다.
+
+            private void finish(List<FxContext<Object>> batch) {
+                if (lane != null) {
+                    retired = true;
+                    lane.workers().remove(affinity, this);
+                    drainRemaining(batch);
+                } else {
+                    drainRemaining(batch);
+                    if (!pinned) {
+                        removeWorker(affinity);
+                    }
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Stopped per-key worker workflow={} affinity={}", graph.getName(), affinity);
+                }
+            }
+            // linger 동작을 수행한다.
+
+            /**
+             * 배치가 limit 에 찰 때까지 최대 lingerNanos 동안 더 기다린다. 인터럽트되면 모은 만큼만 처리하도록 즉시 반환한다.
+             */
+            private void linger(List<FxContext<Object>> batch, int limit, long lingerNanos) {
+                long deadline = System.nanoTime() + lingerNanos;
+                try {
+                    while (batch.size() < limit) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            return;
+                        }
+                        FxContext<Object> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            return;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, limit - batch.size());
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // shouldContinue 동작을 수행한다.
+
+            private boolean shouldContinue() {
+                return (running.get() && active.get()) || accepting.get() || !queue.isEmpty()
+                    || (lane != null && inFlight.current() > 0);
+            }
+            // shouldCleanup 동작을 수행한다.
+
+            private boolean shouldCleanup() {
+                if (pinned) {
+                    return false;
+                }
+                if (!accepting.get() && queue.isEmpty()) {
+                    long idleNanos = System.nanoTime() - lastActivityNanos;
+                    return idleNanos >= batching.cleanupIdleAfter().toNanos();
+                }
+                return false;
+            }
+            // processBatch 동작을 수행한다.
+
+            private void processBatch(List<FxContext<Object>> batch) {
+                try {
+                    List<FxContext<Object>> live = batching.expiry().enabled() ? discardExpired(batch) : batch;
+                    if (!live.isEmpty()) {
+                        executeGuarded(chain, live);
+                    }
+                    if (chain.handoff() == null) {
+                        acknowledge(batch);
+                    }
+                } finally {
+                    carrier.release();
+                    if (lane != null) {
+                        inFlight.decrement(batch.size(), sizeOf(batch));
+                    } else {
+                        complete(batch.size(), sizeOf(batch));
+                    }
+                }
+            }
+            // accept 동작을 수행한다.
+
+            /**
+             * 앞 스테이지가 넘긴 컨텍스트를 inbox 에 넣는다. inbox 가 가득 차면 빌 때까지 대기해 앞 스테이지에 백프레셔를 건다.
+             * stop 중 인터럽트된 워커에서 호출되어도 컨텍스트를 잃지 않도록 인터럽트를 미뤘다가 복원한다.
+             *
+             * @return 워커가 처리를 보장하면 true, 이미 종료 절차에 들어가 되돌려받았으면 false
+             */
+            private boolean accept(FxContext<Object> context) {
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        if (queue.offer(context, batching.batchTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                            break;
+                        }
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return !retired || !queue.remove(context);
+            }
+            // drainRemaining 동작을 수행한다.
+
+            private void drainRemaining(List<FxContext<Object>> reusable) {
+                if (!queue.isEmpty()) {
+                    queue.drainTo(reusable);
+                }
+                if (!reusable.isEmpty()) {
+                    processBatch(reusable);
+                    reusable.clear();
+                }
+                FxContext<Object> remaining;
+                while ((remaining = queue.poll()) != null) {
+                    processBatch(List.of(remaining));
+                }
+            }
+        }
+        /**
+         * 전용 스테이지: 노드 하나부터 시작하는 하위 체인을 자체 executor 와 affinity 별 워커에서 실행한다.
+         * <p>
+         * 앞 스테이지의 per-key 워커가 배치 순서대로 hand-off 하고, 스테이지 워커도 affinity 별 FIFO 로 처리하므로
+         * 키 단위 순서가 스테이지를 건너도 유지된다. 넘겨받은 컨텍스트는 in-flight 로 다시 집계되며,
+         * push 소스 credit 은 진입 워커가 배치를 넘긴 시점에 반환된다.
+         */
+        private final class StageLane {
+
+            private final String nodeId;
+            private final PipelineChain chain;
+            private final int queueCapacity;
+            private final int batchSize;
+            private final ExecutorService executor;
+            private final ConcurrentMap<FxAffinity, PerKeyWorker> workers = new ConcurrentHashMap<>();
+            private final int subLanes;
+            // hot key 별 sub-lane 워커 키. 0 번은 원래 키이므로 hot 판정 전후로 같은 워커를 이어서 쓴다.
+            private final ConcurrentMap<FxAffinity, FxAffinity[]> subLaneKeys = new ConcurrentHashMap<>();
+            private final AtomicInteger subLaneCursor = new AtomicInteger();
+
+            private StageLane(String nodeId, PipelineChain chain, int queueCapacity, int batchSize, int subLanes) {
+                this.nodeId = nodeId;
+                this.chain = chain;
+                this.queueCapacity = queueCapacity;
+                this.batchSize = batchSize;
+                this.subLanes = subLanes;
+                this.executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("fx-" + graph.getName() + "-" + nodeId + "-", 0).factory());
+            }
+            // handoff 동작을 수행한다.
+
+            private void handoff(List<FxContext<Object>> batch) {
+                for (FxContext<Object> context : batch) {
+                    inFlight.increment(sizeOf(context));
+                    FxAffinity workerKey = workerKey(context.affinity());
+                    while (!workers.computeIfAbsent(workerKey, this::createWorker).accept(context)) {
+                        // 종료 중인 워커에서 되돌려받았으면 새 워커로 다시 넘긴다.
+                    }
+                }
+            }
+            // workerKey 동작을 수행한다.
+
+            /**
+             * sub-lane 이 설정되어 있고 키가 hot 이면 sub-lane 워커 키를 돌아가며 고른다. 아니면 affinity 그대로다.
+             * 컨텍스트의 affinity 는 바꾸지 않으므로 Sink/메트릭에서는 원래 키로 보인다.
+             */
+            private FxAffinity workerKey(FxAffinity affinity) {
+                HotKeyTracker tracker = hotKeys;
+                if (subLanes <= 1 || tracker == null || !tracker.isHot(affinity)) {
+                    return affinity;
+                }
+                FxAffinity[] keys = subLaneKeys.computeIfAbsent(affinity, this::createSubLaneKeys);
+                return keys[Math.floorMod(subLaneCursor.getAndIncrement(), subLanes)];
+            }
+            // createSubLaneKeys 동작을 수행한다.
+
+            private FxAffinity[] createSubLaneKeys(FxAffinity affinity) {
+                FxAffinity[] keys = new FxAffinity[subLanes];
+                keys[0] = affinity;
+                for (int i = 1; i < subLanes; i++) {
+                    keys[i] = FxAffinity.of(affinity.kind(), affinity.value() + "#" + i);
+                }
+                log.info("Splitting hot key into sub-lanes workflow={} stage={} affinity={} subLanes={}",
+                    graph.getName(), nodeId, affinity, subLanes);
+                return keys;
+            }
+            // queueDepthOf 동작을 수행한다.
+
+            private long queueDepthOf(FxAffinity affinity) {
+                FxAffinity[] keys = subLaneKeys.get(affinity);
+                if (keys == null) {
+                    PerKeyWorker worker = workers.get(affinity);
+                    return worker != null ? worker.queue.size() : 0L;
+                }
+                long depth = 0L;
+                for (FxAffinity key : keys) {
+                    PerKeyWorker worker = workers.get(key);
+                    if (worker != null) {
+                        depth += worker.queue.size();
+                    }
+                }
+                return depth;
+            }
+            // createWorker 동작을 수행한다.
+
+            private PerKeyWorker createWorker(FxAffinity affinity) {
+                PerKeyWorker worker = new PerKeyWorker(affinity, chain, false, this);
+                worker.start();
+                if (log.isDebugEnabled()) {
+                    log.debug("Started stage worker workflow={} stage={} affinity={}", graph.getName(), nodeId, affinity);
                 }
+                return worker;
             }
+            // stop 동작을 수행한다.
+
             /**
-             * run를 수행한다.
+             * 새 작업을 받지 않도록 표시만 하고 인터럽트하지 않는다. 워커는 in-flight 가 0 이 될 때까지 남은 hand-off 를 처리한다.
              */
+            private void stop() {
+                workers.values().forEach(worker -> worker.active.set(false));
+            }
+            // shutdown 동작을 수행한다.
+
+            private void shutdown() {
+                executor.shutdown();
+            }
+
+            private PipelineChain chain() {
+                return chain;
+            }
+
+            private int queueCapacity() {
+                return queueCapacity;
+            }
+
+            private int batchSize() {
+                return batchSize;
+            }
+
+            private ExecutorService executor() {
+                return executor;
+            }
+
+            private ConcurrentMap<FxAffinity, PerKeyWorker> workers() {
+                return workers;
+            }
+        }
+
+        /**
+         * {@link PushSource} 를 구독해 수신한 컨텍스트를 per-key 워커로 분배하는 구독자.
+         * <p>
+         * 처음에 credit window 만큼 요청하고, 워커가 처리(또는 드롭)를 끝낸 건수만큼 다시 요청하므로
+         * 큐에 쌓이는 컨텍스트 수는 window 를 넘지 않는다.
+         */
+        private final class PushSubscriber implements Flow.Subscriber<FxContext<Object>> {
+
+            private final PipelineChain chain;
+            private final int creditWindow;
+            private final CountDownLatch terminated = new CountDownLatch(1);
+            // 요청했지만 아직 credit 으로 돌려받지 못한(처리 중인) 건수.
+            private final AtomicLong outstanding = new AtomicLong();
+            private Flow.Subscription subscription;
+            private volatile RuntimeException failure;
+
+            private PushSubscriber(PipelineChain chain, int creditWindow) {
+                this.chain = chain;
+                this.creditWindow = creditWindow;
+            }
 
             @Override
-            public void run() {
-                List<FxContext<Object>> batch = new ArrayList<>(batching.batchSize());
+            public synchronized void onSubscribe(Flow.Subscription subscription) {
+                if (this.subscription != null || !running.get()) {
+                    subscription.cancel();
+                    return;
+                }
+                this.subscription = subscription;
+                if (log.isDebugEnabled()) {
+                    log.debug("Subscribed push source workflow={} creditWindow={}", graph.getName(), creditWindow);
+                }
+                subscription.request(creditWindow);
+            }
+
+            @Override
+            public void onNext(FxContext<Object> item) {
+                if (!running.get()) {
+                    return;
+                }
+                outstanding.incrementAndGet();
                 try {
-                    while (shouldContinue()) {
-                        FxContext<Object> first = queue.poll(batching.batchTimeout().toMillis(), TimeUnit.MILLISECONDS);
-                        if (first == null) {
-                            if (shouldCleanup()) {
-                                break;
-                            }
-                            continue;
-                        }
-                        batch.add(first);
-                        queue.drainTo(batch, batching.batchSize() - 1);
-                        processBatch(batch);
-                        batch.clear();
-                        lastActivityNanos = System.nanoTime();
-                    }
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                } finally {
-                    drainRemaining(batch);
-                    removeWorker(affinity);
-                    if (log.isDebugEnabled()) {
-                        log.debug("Stopped per-key worker workflow={} affinity={}", graph.getName(), affinity);
-                    }
+                    dispatchOne(item, chain);
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                    cancel();
                 }
             }
-            // shouldContinue 동작을 수행한다.
 
-            private boolean shouldContinue() {
-                return (running.get() && active.get()) || accepting.get() || !queue.isEmpty();
+            @Override
+            public void onError(Throwable throwable) {
+                failure = throwable instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException("Push source failed", throwable);
+                terminated.countDown();
             }
-            // shouldCleanup 동작을 수행한다.
 
-            private boolean shouldCleanup() {
-                if (!accepting.get() && queue.isEmpty()) {
-                    long idleNanos = System.nanoTime() - lastActivityNanos;
-                    return idleNanos >= batching.cleanupIdleAfter().toNanos();
-                }
-                return false;
+            @Override
+            public void onComplete() {
+                terminated.countDown();
             }
-            // processBatch 동작을 수행한다.
 
-            private void processBatch(List<FxContext<Object>> batch) {
-                processing.set(true);
-                try {
-                    for (FxContext<Object> ctx : batch) {
-                        FxContext<Object> current = ctx;
-                        for (java.util.function.Function<FxContext<Object>, FxContext<Object>> processor : chain.processors()) {
-                            current = processor.apply(current);
-                        }
-                        chain.sink().write(current);
-                    }
-                } finally {
-                    processing.set(false);
+            private synchronized void replenish(int count) {
+                outstanding.addAndGet(-count);
+                if (subscription != null && count > 0 && terminated.getCount() > 0) {
+                    subscription.request(count);
                 }
             }
-            // drainRemaining 동작을 수행한다.
 
-            private void drainRemaining(List<FxContext<Object>> reusable) {
-                if (!queue.isEmpty()) {
-                    queue.drainTo(reusable);
-                    if (!reusable.isEmpty()) {
-                        processBatch(reusable);
-                        reusable.clear();
-                    }
+            private synchronized void cancel() {
+                if (subscription != null) {
+                    subscription.cancel();
                 }
-                FxContext<Object> remaining;
-                while ((remaining = queue.poll()) != null) {
-                    processBatch(List.of(remaining));
+                terminated.countDown();
+            }
+
+            private void awaitTermination() {
+                try {
+                    terminated.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
                 }
             }
-            // hasPendingWork 동작을 수행한다.
 
-            private boolean hasPendingWork() {
-                return processing.get() || !queue.isEmpty();
+            private RuntimeException failure() {
+                return failure;
+            }
+            // outstanding 동작을 수행한다.
+
+            private long outstanding() {
+                return outstanding.get();
             }
         }
         // findNode 동작을 수행한다.
@@ -543,24 +1949,80 @@ public class WorkflowEngine {
                 .orElseThrow(() -> new IllegalArgumentException("Node not found: " + nodeId));
         }
 
+        /**
+         * 분기 없이 이어지는 프로세서 구간과 그 끝(Sink, 조건부 분기 목록 또는 다음 전용 스테이지).
+         */
         private record PipelineChain(
-            List<java.util.function.Function<FxContext<Object>, FxContext<Object>>> processors,
-            Sink<Object> sink
+            List<UnaryOperator<List<FxContext<Object>>>> stages,
+            Sink<Object> sink,
+            List<Route> routes,
+            StageLane handoff,
+            NodeCircuitBreaker breaker
+        ) {
+            // PipelineChain 동작을 수행한다.
+            private PipelineChain(List<UnaryOperator<List<FxContext<Object>>>> stages, Sink<Object> sink, List<Route> routes) {
+                this(stages, sink, routes, null, null);
+            }
+            // reachesSink 동작을 수행한다.
+            private boolean reachesSink() {
+                return sink != null
+                    || (handoff != null && handoff.chain().reachesSink())
+                    || routes.stream().anyMatch(route -> route.next().reachesSink());
+            }
+            // handsOff 동작을 수행한다.
+            private boolean handsOff() {
+                return handoff != null || routes.stream().anyMatch(route -> route.next().handsOff());
+            }
+        }
+
+        private record Route(
+            Predicate<FxContext<?>> condition,
+            PipelineChain next
         ) {
         }
     }
 
     /**
      * 배치 및 백프레셔 옵션.
+     *
+     * @param queueCapacity 워커별 큐 용량
+     * @param batchSize 한 번에 드레인할 최대 컨텍스트 수
+     * @param batchTimeout 큐 poll 대기 시간
+     * @param cleanupIdleAfter idle per-key 워커 정리 시간
+     * @param backpressurePolicy 큐가 가득 찼을 때의 정책(SHARDED 모드에서는 DROP_OLDEST 를 쓸 수 없다)
+     * @param continuous Source 를 stop 까지 반복해서 읽을지 여부
+     * @param dispatchMode affinity 키를 워커에 배정하는 방식
+     * @param shardCount SHARDED 모드의 샤드 워커 수(0 이면 CPU 코어 수 기반 자동 계산)
+     * @param mailboxType per-key 워커 큐 구현
+     * @param maxInFlight 워크플로 전체 in-flight 컨텍스트 상한(0 이면 무제한, per-key 큐 용량과 별개)
+     * @param maxInFlightBytes 워크플로 전체 in-flight 추정 바이트 상한(0 이면 무제한, {@link MessageSizeEstimator} 로 추정)
+     * @param adaptiveBatching 적응형 배치 크기/linger 설정
+     * @param failurePolicy 처리 실패 시 재시도/dead-letter/서킷 브레이커 설정
+     * @param hotKeys hot key 추적 설정
+     * @param priorityLanes 워커 큐 우선순위 레인 설정
+     * @param expiry 컨텍스트 만료(TTL/deadline) 설정
      */
+    @Builder(toBuilder = true)
     public record BatchingOptions(
         int queueCapacity,
         int batchSize,
         Duration batchTimeout,
         Duration cleanupIdleAfter,
         BackpressurePolicy backpressurePolicy,
-        boolean continuous
+        boolean continuous,
+        DispatchMode dispatchMode,
+        int shardCount,
+        MailboxType mailboxType,
+        int maxInFlight,
+        long maxInFlightBytes,
+        AdaptiveBatchingOptions adaptiveBatching,
+        FailurePolicy failurePolicy,
+        HotKeyOptions hotKeys,
+        PriorityLaneOptions priorityLanes,
+        ExpiryOptions expiry
     ) {
+        private static final int AUTO_SHARDS_PER_CORE = 2;
+
         public BatchingOptions {
             if (queueCapacity <= 0) {
                 throw new IllegalArgumentException("queueCapacity must be > 0");
@@ -577,6 +2039,63 @@ public class WorkflowEngine {
                 throw new IllegalArgumentException("cleanupIdleAfter must be > 0");
             }
             Objects.requireNonNull(backpressurePolicy, "backpressurePolicy must not be null");
+            Objects.requireNonNull(dispatchMode, "dispatchMode must not be null");
+            if (dispatchMode == DispatchMode.SHARDED && backpressurePolicy == BackpressurePolicy.DROP_OLDEST) {
+                // 샤드 큐는 여러 키가 공유하므로 가장 오래된 항목을 버리면 다른 키의 컨텍스트가 버려진다.
+                throw new IllegalArgumentException("DROP_OLDEST backpressure is not supported in SHARDED dispatch mode");
+            }
+            if (shardCount < 0) {
+                throw new IllegalArgumentException("shardCount must be >= 0");
+            }
+            Objects.requireNonNull(mailboxType, "mailboxType must not be null");
+            if (maxInFlight < 0) {
+                throw new IllegalArgumentException("maxInFlight must be >= 0");
+            }
+            if (maxInFlightBytes < 0) {
+                throw new IllegalArgumentException("maxInFlightBytes must be >= 0");
+            }
+            Objects.requireNonNull(adaptiveBatching, "adaptiveBatching must not be null");
+            Objects.requireNonNull(failurePolicy, "failurePolicy must not be null");
+            Objects.requireNonNull(hotKeys, "hotKeys must not be null");
+            Objects.requireNonNull(priorityLanes, "priorityLanes must not be null");
+            Objects.requireNonNull(expiry, "expiry must not be null");
+        }
+
+        /**
+         * 키 전용(PER_KEY) 워커 모드로 배치 옵션을 생성한다.
+         *
+         * @param queueCapacity 워커별 큐 용량
+         * @param batchSize 한 번에 드레인할 최대 컨텍스트 수
+         * @param batchTimeout 큐 poll 대기 시간
+         * @param cleanupIdleAfter idle per-key 워커 정리 시간
+         * @param backpressurePolicy 큐가 가득 찼을 때의 정책
+         * @param continuous Source 를 stop 까지 반복해서 읽을지 여부
+         */
+        public BatchingOptions(
+            int queueCapacity,
+            int batchSize,
+            Duration batchTimeout,
+            Duration cleanupIdleAfter,
+            BackpressurePolicy backpressurePolicy,
+            boolean continuous
+        ) {
+            this(queueCapacity, batchSize, batchTimeout, cleanupIdleAfter, backpressurePolicy, continuous,
+                DispatchMode.PER_KEY, 0, MailboxType.ARRAY_BLOCKING, 0, 0L, AdaptiveBatchingOptions.disabled(),
+                FailurePolicy.defaults(), HotKeyOptions.disabled(), PriorityLaneOptions.disabled(),
+                ExpiryOptions.disabled());
+        }
+
+        /**
+         * SHARDED 모드에서 실제로 사용할 샤드 워커 수를 반환한다.
+         * shardCount 가 0 이면 가용 CPU 코어 수 × {@value #AUTO_SHARDS_PER_CORE} 를 사용한다.
+         *
+         * @return 1 이상의 샤드 수
+         */
+        public int effectiveShardCount() {
+            if (shardCount > 0) {
+                return shardCount;
+            }
+            return Math.max(1, Runtime.getRuntime().availableProcessors() * AUTO_SHARDS_PER_CORE);
         }
 
         /**
@@ -591,14 +2110,393 @@ public class WorkflowEngine {
                 Duration.ofMillis(200),
                 Duration.ofSeconds(30),
                 BackpressurePolicy.BLOCK,
-                false
+                false,
+                DispatchMode.PER_KEY,
+                0,
+                MailboxType.ARRAY_BLOCKING,
+                0,
+                0L,
+                AdaptiveBatchingOptions.disabled(),
+                FailurePolicy.defaults(),
+                HotKeyOptions.disabled(),
+                PriorityLaneOptions.disabled(),
+                ExpiryOptions.disabled()
             );
         }
     }
 
+    /**
+     * 적응형 배치 설정.
+     * <p>
+     * 켜면 진입 워커의 배치 크기가 {@link BatchingOptions#batchSize()} 에서 시작해 minBatchSize~maxBatchSize 사이에서
+     * 큐 깊이와 배치 처리 지연(목표 targetLatency)에 따라 조정되고, 중간 부하에서는 최대 maxLinger 만큼 배치를 채우며 기다린다.
+     * 전용 스테이지 워커는 {@link StageOptions} 의 고정 배치 크기를 그대로 쓴다.
+     *
+     * @param enabled 사용 여부
+     * @param minBatchSize 최소 배치 크기
+     * @param maxBatchSize 최대 배치 크기
+     * @param maxLinger 배치를 채우기 위한 최대 추가 대기 시간
+     * @param targetLatency 배치 한 건의 목표 처리 지연
+     */
+    @Builder(toBuilder = true)
+    public record AdaptiveBatchingOptions(
+        boolean enabled,
+        int minBatchSize,
+        int maxBatchSize,
+        Duration maxLinger,
+        Duration targetLatency
+    ) {
+
+        public AdaptiveBatchingOptions {
+            if (minBatchSize <= 0) {
+                throw new IllegalArgumentException("minBatchSize must be > 0");
+            }
+            if (maxBatchSize < minBatchSize) {
+                throw new IllegalArgumentException("maxBatchSize must be >= minBatchSize");
+            }
+            Objects.requireNonNull(maxLinger, "maxLinger must not be null");
+            if (maxLinger.isNegative()) {
+                throw new IllegalArgumentException("maxLinger must be >= 0");
+            }
+            Objects.requireNonNull(targetLatency, "targetLatency must not be null");
+            if (targetLatency.isNegative() || targetLatency.isZero()) {
+                throw new IllegalArgumentException("targetLatency must be > 0");
+            }
+        }
+
+        /**
+         * 고정 배치 크기를 사용하는(비활성) 설정을 반환한다.
+         *
+         * @return 비활성 AdaptiveBatchingOptions
+         */
+        public static AdaptiveBatchingOptions disabled() {
+            return new AdaptiveBatchingOptions(false, 1, 1024, Duration.ofMillis(5), Duration.ofMillis(50));
+        }
+    }
+
+    /**
+     * 파이프라인 단계/Sink 가 실패했을 때의 처리 정책.
+     * <p>
+     * 배치가 예외로 실패하면 컨텍스트를 하나씩 다시 실행해 실패한 컨텍스트만 격리하고, 그 컨텍스트는 같은 워커에서
+     * initialBackoff 부터 두 배씩(최대 maxBackoff) 기다리며 maxRetries 번 재시도한 뒤 dead-letter Sink 로 보낸다.
+     * 재시도 동안 같은 키의 뒤 컨텍스트는 대기하므로 키별 순서가 유지된다. Sink 노드마다 연속 실패가
+     * circuitBreakerThreshold 에 이르면 circuitBreakerOpenDuration 동안 해당 Sink 호출을 멈춘다.
+     *
+     * @param maxRetries 격리 실행 실패 후 재시도 횟수(0 이면 바로 dead-letter)
+     * @param initialBackoff 첫 재시도 전 대기 시간
+     * @param maxBackoff 재시도 대기 시간 상한
+     * @param circuitBreakerThreshold 서킷을 여는 Sink 연속 실패 횟수(0 이면 사용 안 함)
+     * @param circuitBreakerOpenDuration 서킷이 열려 있는 시간
+     */
+    @Builder(toBuilder = true)
+    public record FailurePolicy(
+        int maxRetries,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        int circuitBreakerThreshold,
+        Duration circuitBreakerOpenDuration
+    ) {
+
+        public FailurePolicy {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must be >= 0");
+            }
+            Objects.requireNonNull(initialBackoff, "initialBackoff must not be null");
+            Objects.requireNonNull(maxBackoff, "maxBackoff must not be null");
+            if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("backoff must satisfy 0 <= initialBackoff <= maxBackoff");
+            }
+            if (circuitBreakerThreshold < 0) {
+                throw new IllegalArgumentException("circuitBreakerThreshold must be >= 0");
+            }
+            Objects.requireNonNull(circuitBreakerOpenDuration, "circuitBreakerOpenDuration must not be null");
+            if (circuitBreakerOpenDuration.isNegative()) {
+                throw new IllegalArgumentException("circuitBreakerOpenDuration must be >= 0");
+            }
+        }
+
+        /**
+         * 재시도와 서킷 브레이커를 쓰지 않는 기본 정책을 반환한다. 실패한 컨텍스트는 격리된 뒤 바로 dead-letter 로 간다.
+         *
+         * @return 기본 FailurePolicy
+         */
+        public static FailurePolicy defaults() {
+            return new FailurePolicy(0, Duration.ofMillis(100), Duration.ofSeconds(5), 0, Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * hot key 추적 설정.
+     * <p>
+     * 켜면 Source 디스패치마다 affinity 키를 count-min sketch 기반 추적기에 기록해 유입량 상위 키를
+     * {@link Workflow#hotKeys(int)} 로 노출한다. 최근 유입량의 hotShare 이상을 차지하는 키는 hot key 로 판정되며,
+     * {@link StageOptions#subLanes()} 를 지정한 스테이지에서 여러 워커로 나눠 처리된다.
+     *
+     * @param enabled 사용 여부
+     * @param topN 추적 결과로 유지할 상위 키 수(내부 후보는 그 4배)
+     * @param window 카운터를 절반으로 줄이는 감쇠 주기
+     * @param hotShare hot key 로 판정할 최근 유입량 비율(0 초과 1 이하)
+     */
+    @Builder(toBuilder = true)
+    public record HotKeyOptions(boolean enabled, int topN, Duration window, double hotShare) {
+
+        public HotKeyOptions {
+            if (topN <= 0) {
+                throw new IllegalArgumentException("topN must be > 0");
+            }
+            Objects.requireNonNull(window, "window must not be null");
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("window must be > 0");
+            }
+            if (!(hotShare > 0.0 && hotShare <= 1.0)) {
+                throw new IllegalArgumentException("hotShare must be in (0, 1]");
+            }
+        }
+
+        /**
+         * hot key 를 추적하지 않는 설정을 반환한다.
+         *
+         * @return 비활성 HotKeyOptions
+         */
+        public static HotKeyOptions disabled() {
+            return new HotKeyOptions(false, 10, Duration.ofSeconds(10), 0.2);
+        }
+    }
+
+    /**
+     * per-key 워커 큐의 우선순위 레인 설정.
+     * <p>
+     * 켜면 워커 큐(진입 워커, SHARDED 샤드, 전용 스테이지 inbox)가 레인 수만큼의 FIFO 로 나뉘고, 워커는 비어있지 않은
+     * 가장 높은 레인(0)부터 꺼낸다. 레인은 priorityHeader 헤더 값(정수), commandLanes 의 커맨드 이름, defaultLane 순으로
+     * 정해진다. 각 레인 안의 도착 순서는 항상 유지되지만, 같은 키라도 다른 레인의 컨텍스트는 서로 앞지른다.
+     * 용량({@link BatchingOptions#queueCapacity()})은 레인마다 따로 적용되고, DROP_OLDEST 는 들어오는 컨텍스트와 같은
+     * 레인에서만 버린다. 레인별 큐 대기 시간은 {@link Workflow#laneWaitTimes()} 로 노출된다.
+     *
+     * @param enabled 사용 여부
+     * @param lanes 레인 수(2 이상, 0 이 가장 높은 우선순위)
+     * @param priorityHeader 레인 번호를 담은 헤더 이름(null 이면 헤더를 보지 않음). 범위를 벗어나면 가장 가까운 레인을 쓴다
+     * @param commandLanes {@link com.ees.framework.context.FxCommand#name()} 별 레인 번호
+     * @param defaultLane 헤더/커맨드로 정해지지 않은 컨텍스트의 레인
+     * @param maxOvertake 낮은 레인에 컨텍스트가 기다리는 동안 높은 레인이 연속으로 앞지를 수 있는 최대 건수.
+     *                    이 값에 이르면 낮은 레인 중 가장 오래 기다린 컨텍스트를 하나 먼저 꺼낸다(0 이면 엄격한 우선순위)
+     */
+    @Builder(toBuilder = true)
+    public record PriorityLaneOptions(
+        boolean enabled,
+        int lanes,
+        String priorityHeader,
+        Map<String, Integer> commandLanes,
+        int defaultLane,
+        int maxOvertake
+    ) {
+
+        public PriorityLaneOptions {
+            if (lanes < 2) {
+                throw new IllegalArgumentException("lanes must be >= 2");
+            }
+            commandLanes = Map.copyOf(Objects.requireNonNull(commandLanes, "commandLanes must not be null"));
+            for (Map.Entry<String, Integer> entry : commandLanes.entrySet()) {
+                if (entry.getValue() < 0 || entry.getValue() >= lanes) {
+                    throw new IllegalArgumentException("lane of command " + entry.getKey() + " must be in [0, lanes)");
+                }
+            }
+            if (defaultLane < 0 || defaultLane >= lanes) {
+                throw new IllegalArgumentException("defaultLane must be in [0, lanes)");
+            }
+            if (maxOvertake < 0) {
+                throw new IllegalArgumentException("maxOvertake must be >= 0");
+            }
+        }
+
+        /**
+         * 컨텍스트가 들어갈 레인 번호를 반환한다.
+         *
+         * @param context 대상 컨텍스트
+         * @return 0 ~ lanes-1 의 레인 번호
+         */
+        public int laneOf(FxContext<?> context) {
+            if (priorityHeader != null) {
+                String value = context.headers().get(priorityHeader);
+                if (value != null) {
+                    try {
+                        return Math.max(0, Math.min(lanes - 1, Integer.parseInt(value.trim())));
+                    } catch (NumberFormatException ignored) {
+                        // 숫자가 아닌 헤더는 커맨드/기본 레인으로 넘긴다.
+                    }
+                }
+            }
+            Integer lane = commandLanes.get(context.command().name());
+            return lane != null ? lane : defaultLane;
+        }
+
+        /**
+         * 우선순위 레인을 쓰지 않는 설정을 반환한다.
+         *
+         * @return 비활성 PriorityLaneOptions
+         */
+        public static PriorityLaneOptions disabled() {
+            return new PriorityLaneOptions(false, 2, null, Map.of(), 1, 0);
+        }
+    }
+
+    /**
+     * 컨텍스트 만료(TTL/deadline) 설정.
+     * <p>
+     * 켜면 워커가 큐에서 꺼낸 컨텍스트를 프로세서에 넘기기 전에 만료 여부를 확인한다. 만료 시각은
+     * {@link com.ees.framework.context.FxMessage#timestamp()} + maxAge 와 deadlineHeader 헤더 값 중 이른 쪽이다.
+     * 만료된 컨텍스트는 처리하지 않고 action 에 따라 버리거나 dead-letter Sink 로 보내며
+     * {@link Workflow#expiredCount()} 에 집계된다. 전용 스테이지 inbox 에서 꺼낼 때도 같은 검사를 한다.
+     *
+     * @param enabled 사용 여부
+     * @param maxAge 메시지 생성 후 유효 기간(0 이면 나이로 만료하지 않음)
+     * @param deadlineHeader 만료 시각을 담은 헤더 이름(epoch millis 또는 ISO-8601 instant, null 이면 보지 않음).
+     *                       해석할 수 없는 값은 무시한다
+     * @param action 만료된 컨텍스트 처리 방식
+     */
+    @Builder(toBuilder = true)
+    public record ExpiryOptions(boolean enabled, Duration maxAge, String deadlineHeader, ExpiredAction action) {
+
+        public ExpiryOptions {
+            Objects.requireNonNull(maxAge, "maxAge must not be null");
+            if (maxAge.isNegative()) {
+                throw new IllegalArgumentException("maxAge must be >= 0");
+            }
+            Objects.requireNonNull(action, "action must not be null");
+            if (enabled && maxAge.isZero() && deadlineHeader == null) {
+                throw new IllegalArgumentException("maxAge or deadlineHeader must be configured");
+            }
+        }
+
+        /**
+         * 컨텍스트의 만료 시각을 epoch millis 로 반환한다.
+         *
+         * @param context 대상 컨텍스트
+         * @return 만료 시각, 만료 조건이 없으면 {@link Long#MAX_VALUE}
+         */
+        public long deadlineMillis(FxContext<?> context) {
+            long deadline = Long.MAX_VALUE;
+            if (!maxAge.isZero()) {
+                deadline = context.message().timestamp().toEpochMilli() + maxAge.toMillis();
+            }
+            if (deadlineHeader != null) {
+                String value = context.headers().get(deadlineHeader);
+                if (value != null) {
+                    deadline = Math.min(deadline, parseDeadline(value.trim()));
+                }
+            }
+            return deadline;
+        }
+        // parseDeadline 동작을 수행한다.
+
+        private static long parseDeadline(String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException ignored) {
+                // epoch millis 가 아니면 ISO-8601 instant 로 해석한다.
+            }
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        /**
+         * 만료 검사를 하지 않는 설정을 반환한다.
+         *
+         * @return 비활성 ExpiryOptions
+         */
+        public static ExpiryOptions disabled() {
+            return new ExpiryOptions(false, Duration.ZERO, null, ExpiredAction.DROP);
+        }
+    }
+
+    /**
+     * 만료된 컨텍스트 처리 방식.
+     */
+    public enum ExpiredAction {
+        /** 처리하지 않고 버린다. */
+        DROP,
+        /** dead-letter Sink 로 보낸다({@link #DEAD_LETTER_EXPIRED_AT} 속성 추가). dead-letter Sink 가 없으면 버린다. */
+        DEAD_LETTER
+    }
+
+    /**
+     * 노드를 전용 스테이지로 분리할 때의 옵션.
+     * <p>
+     * {@link WorkflowGraphDefinition#getStageOptions()} 에 노드 ID 로 등록하면 해당 노드부터 다음 전용 스테이지
+     * 직전까지를 별도 executor 와 affinity 별 bounded inbox 에서 실행한다. 앞 스테이지는 배치를 inbox 에 넘긴 뒤
+     * 바로 다음 배치를 처리하므로 CPU 단계와 I/O 단계(예: synchronous KafkaSink)가 겹쳐 실행된다.
+     *
+     * @param queueCapacity affinity 별 inbox 용량(0 이면 워크플로 queueCapacity 사용)
+     * @param batchSize 스테이지 워커가 한 번에 드레인할 최대 컨텍스트 수(0 이면 워크플로 batchSize 사용)
+     * @param subLanes hot key 를 나눠 처리할 워커 수(0 또는 1 이면 나누지 않음). 2 이상은 이 스테이지부터 Sink 까지
+     *                 같은 키 안의 처리 순서가 필요 없는(교환 가능한) 경우에만 지정한다.
+     *                 {@link HotKeyOptions#enabled()} 가 켜져 있어야 한다.
+     */
+    @Builder(toBuilder = true)
+    public record StageOptions(int queueCapacity, int batchSize, int subLanes) {
+
+        public StageOptions {
+            if (queueCapacity < 0) {
+                throw new IllegalArgumentException("queueCapacity must be >= 0");
+            }
+            if (batchSize < 0) {
+                throw new IllegalArgumentException("batchSize must be >= 0");
+            }
+            if (subLanes < 0) {
+                throw new IllegalArgumentException("subLanes must be >= 0");
+            }
+        }
+
+        /**
+         * 키 단위 순서를 유지하는(sub-lane 없는) 스테이지 옵션을 생성한다.
+         *
+         * @param queueCapacity affinity 별 inbox 용량(0 이면 워크플로 queueCapacity 사용)
+         * @param batchSize 스테이지 워커가 한 번에 드레인할 최대 컨텍스트 수(0 이면 워크플로 batchSize 사용)
+         */
+        public StageOptions(int queueCapacity, int batchSize) {
+            this(queueCapacity, batchSize, 0);
+        }
+
+        /**
+         * 워크플로 배치 옵션을 그대로 따르는 스테이지 옵션을 반환한다.
+         *
+         * @return 기본 StageOptions
+         */
+        public static StageOptions defaults() {
+            return new StageOptions(0, 0);
+        }
+    }
+
     public enum BackpressurePolicy {
         BLOCK,
         DROP_OLDEST,
         ERROR
     }
+
+    /**
+     * affinity 키를 워커에 배정하는 방식.
+     */
+    public enum DispatchMode {
+        /** 키마다 전용 큐/가상 스레드 워커를 생성하고 idle 시 정리한다. */
+        PER_KEY,
+        /**
+         * 키 해시로 고정 개수의 샤드 워커에 배정해 키 수와 무관하게 메모리를 제한한다.
+         * 샤드 큐는 여러 키가 공유하므로 {@link BackpressurePolicy#DROP_OLDEST} 와 함께 쓸 수 없다.
+         */
+        SHARDED
+    }
+
+    /**
+     * per-key 워커 큐(mailbox) 구현.
+     * <p>
+     * 어느 쪽이든 용량과 {@link BackpressurePolicy} 동작은 같다.
+     */
+    public enum MailboxType {
+        /** {@link java.util.concurrent.ArrayBlockingQueue} 기반(기본값). offer/poll 이 하나의 lock 을 공유한다. */
+        ARRAY_BLOCKING,
+        /** lock-free bounded ring buffer. 생산자와 워커가 lock 을 다투지 않고 park/unpark 로만 대기한다. */
+        MPSC_RING
+    }
 }
@@ -6,23 +6,35 @@ import com.ees.framework.workflow.util.LinearToGraphConverter;
 import com.ees.framework.workflow.util.WorkflowGraphValidator;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 여러 개의 WorkflowDefinition / WorkflowGraphDefinition 을 등록하고 실행한다.
  * - WorkflowDefinition 은 LinearToGraphConverter 를 통해 그래프로 변환 후 등록
  * - 등록 시 WorkflowGraphValidator 로 검증
  * - WorkflowEngine 을 통해 실행 가능한 Workflow 를 생성/관리
+ * - 워크플로마다 전용 가상 스레드에서 Source 루프를 실행해, 한 워크플로가 다른 워크플로의 시작을 막지 않는다
+ * - 중지된 Workflow 인스턴스는 다시 시작할 수 없으므로, 중지할 때 같은 정의로 새 인스턴스를 등록해 다시 시작할 수 있게 한다
  */
 @Slf4j
 public class WorkflowRuntime {
 
-    private final Map<String, Workflow> workflows = new LinkedHashMap<>();
+    // stopAll 이 Source 스레드 종료를 기다리는 최대 시간.
+    private static final Duration SOURCE_THREAD_JOIN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Map<String, Workflow> workflows = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, WorkflowGraphDefinition> graphs = new ConcurrentHashMap<>();
+    private final Map<String, Thread> sourceThreads = new ConcurrentHashMap<>();
     private final WorkflowGraphValidator validator;
     private final WorkflowEngine engine;
     private final WorkflowNodeResolver resolver;
@@ -72,19 +84,79 @@ public class WorkflowRuntime {
     }
 
     /**
-     * 등록된 모든 Workflow 를 시작한다. 이미 실행 중인 워크플로는 그대로 둔다.
+     * 등록된 모든 Workflow 를 각자의 스레드({@code fx-workflow-<name>})에서 동시에 시작한다.
+     * <p>
+     * continuous 가 아닌 워크플로는 Source 를 끝까지 처리할 때까지 기다렸다가 반환하고,
+     * continuous 워크플로는 stop 까지 자기 스레드에서 계속 실행되므로 기다리지 않는다.
+     * 기다린 워크플로 중 실패한 것이 있으면 모두 끝난 뒤 첫 예외를 다시 던진다.
+     * 이미 실행 중인 워크플로는 그대로 둔다.
      */
     public void startAll() {
         log.info("Starting all workflows count={}", workflows.size());
-        workflows.values().forEach(Workflow::start);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Thread> finite = new ArrayList<>();
+        for (Workflow workflow : getWorkflows()) {
+            Thread thread = launch(workflow, failure);
+            if (thread != null && !workflow.isContinuous()) {
+                finite.add(thread);
+            }
+        }
+        for (Thread thread : finite) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for workflows to finish");
+                return;
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
     }
 
     /**
-     * 등록된 모든 Workflow 를 중지한다. 실행 중이 아니어도 예외를 발생시키지 않는다.
+     * 등록된 모든 Workflow 를 중지하고 Source 스레드가 끝날 때까지 잠시 기다린다.
+     * 실행 중이 아니어도 예외를 발생시키지 않는다. 중지한 워크플로는 새 인스턴스로 교체되어 {@link #startAll()} 로 다시 시작할 수 있다.
      */
-    public void stopAll() {
+    public synchronized void stopAll() {
         log.info("Stopping all workflows count={}", workflows.size());
-        workflows.values().forEach(Workflow::stop);
+        getWorkflows().forEach(workflow -> stop(workflow.getName()));
+    }
+
+    /**
+     * 이름으로 Workflow 하나를 전용 스레드({@code fx-workflow-<name>})에서 시작하고 바로 반환한다.
+     * 이미 실행 중이면 그대로 둔다. 실패는 해당 스레드에서 로그로 남긴다.
+     *
+     * @param name 워크플로 논리 이름
+     * @return 시작한 Workflow
+     * @throws IllegalArgumentException 등록되지 않은 이름인 경우
+     */
+    public synchronized Workflow start(String name) {
+        Workflow workflow = requireWorkflow(name);
+        launch(workflow, new AtomicReference<>());
+        return workflow;
+    }
+
+    /**
+     * 이름으로 Workflow 하나를 중지하고 Source 스레드가 끝날 때까지 잠시 기다린다.
+     * 중지된 인스턴스는 다시 시작할 수 없으므로 같은 정의로 만든 새 인스턴스를 등록하고 반환한다.
+     *
+     * @param name 워크플로 논리 이름
+     * @return 새로 등록된(실행 중이 아닌) Workflow
+     * @throws IllegalArgumentException 등록되지 않은 이름인 경우
+     */
+    public synchronized Workflow stop(String name) {
+        Workflow workflow = requireWorkflow(name);
+        workflow.stop();
+        Thread thread = sourceThreads.get(name);
+        if (thread != null) {
+            joinSourceThread(name, thread);
+        }
+        Workflow fresh = engine.createWorkflow(graphs.get(name), resolver);
+        workflows.put(name, fresh);
+        log.info("Stopped workflow {} and registered a fresh instance", name);
+        return fresh;
     }
 
     /**
@@ -103,7 +175,9 @@ public class WorkflowRuntime {
      * @return 등록된 워크플로들의 복사본
      */
     public Collection<Workflow> getWorkflows() {
-        return List.copyOf(workflows.values());
+        synchronized (workflows) {
+            return List.copyOf(workflows.values());
+        }
     }
 
     /**
@@ -114,11 +188,64 @@ public class WorkflowRuntime {
         log.info("Rebinding all workflows count={}", workflows.size());
         stopAll();
         workflows.clear();
+        graphs.clear();
         linearDefinitions.forEach(this::registerWorkflowDefinition);
         graphDefinitions.forEach(this::registerGraphDefinition);
         startAll();
         log.info("Rebind complete workflows={}", workflows.size());
     }
+    // requireWorkflow 동작을 수행한다.
+
+    private Workflow requireWorkflow(String name) {
+        Workflow workflow = workflows.get(name);
+        if (workflow == null) {
+            throw new IllegalArgumentException("Unknown workflow: " + name);
+        }
+        return workflow;
+    }
+    // launch 동작을 수행한다.
+
+    /**
+     * 워크플로를 전용 가상 스레드에서 시작한다. 같은 워크플로의 Source 스레드가 아직 살아 있으면 새로 띄우지 않는다.
+     *
+     * @return 새로 띄운 스레드, 이미 실행 중이면 null
+     */
+    private Thread launch(Workflow workflow, AtomicReference<RuntimeException> failure) {
+        Thread existing = sourceThreads.get(workflow.getName());
+        if (existing != null && existing.isAlive()) {
+            log.warn("Workflow {} is already running", workflow.getName());
+            return null;
+        }
+        Thread thread = Thread.ofVirtual()
+            .name("fx-workflow-" + workflow.getName())
+            .unstarted(() -> runWorkflow(workflow, failure));
+        sourceThreads.put(workflow.getName(), thread);
+        thread.start();
+        return thread;
+    }
+    // runWorkflow 동작을 수행한다.
+
+    private void runWorkflow(Workflow workflow, AtomicReference<RuntimeException> failure) {
+        try {
+            workflow.start();
+        } catch (RuntimeException e) {
+            log.error("Workflow {} failed", workflow.getName(), e);
+            failure.compareAndSet(null, e);
+        } finally {
+            sourceThreads.remove(workflow.getName(), Thread.currentThread());
+        }
+    }
+    // joinSourceThread 동작을 수행한다.
+
+    private void joinSourceThread(String name, Thread thread) {
+        try {
+            if (!thread.join(SOURCE_THREAD_JOIN_TIMEOUT)) {
+                log.warn("Source thread of workflow {} did not stop within {}", name, SOURCE_THREAD_JOIN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
     // registerWorkflowDefinition 동작을 수행한다.
 
     private void registerWorkflowDefinition(WorkflowDefinition definition) {
@@ -138,6 +265,7 @@ public class WorkflowRuntime {
         }
         Workflow workflow = engine.createWorkflow(graph, resolver);
         workflows.put(workflow.getName(), workflow);
+        graphs.put(workflow.getName(), graph);
         log.info("Registered workflow name={} nodes={} edges={}",
             workflow.getName(), graph.getNodes().size(), graph.getEdges().size());
         if (log.isDebugEnabled()) {
@@ -6,6 +6,7 @@ import lombok.Value;
 import com.ees.framework.workflow.engine.WorkflowEngine;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -45,6 +46,11 @@ public class WorkflowGraphDefinition {
      */
     WorkflowEngine.BatchingOptions batchingOptions;
 
+    /**
+     * 전용 스테이지로 분리해 실행할 노드 ID → 스테이지 옵션. 비어 있으면 모든 노드를 per-key 워커 안에서 실행한다.
+     */
+    Map<String, WorkflowEngine.StageOptions> stageOptions;
+
     /**
      * 그래프 워크플로우 정의를 구성하는 생성자.
      *
@@ -54,6 +60,7 @@ public class WorkflowGraphDefinition {
      * @param nodes 그래프 노드 목록
      * @param edges 그래프 엣지 목록
      * @param batchingOptions 배치/백프레셔 옵션 (null 이면 기본값 사용)
+     * @param stageOptions 노드 ID 별 전용 스테이지 옵션 (null 이면 없음)
      */
     @Builder
     public WorkflowGraphDefinition(
@@ -62,7 +69,8 @@ public class WorkflowGraphDefinition {
         @Singular Set<String> endNodeIds,
         @Singular List<WorkflowNodeDefinition> nodes,
         @Singular("edge") List<WorkflowEdgeDefinition> edges,
-        WorkflowEngine.BatchingOptions batchingOptions
+        WorkflowEngine.BatchingOptions batchingOptions,
+        @Singular Map<String, WorkflowEngine.StageOptions> stageOptions
     ) {
         this.name = Objects.requireNonNull(name, "name must not be null");
         this.startNodeId = Objects.requireNonNull(startNodeId, "startNodeId must not be null");
@@ -72,6 +80,28 @@ public class WorkflowGraphDefinition {
         this.batchingOptions = batchingOptions == null
             ? WorkflowEngine.BatchingOptions.defaults()
             : batchingOptions;
+        this.stageOptions = stageOptions == null ? Map.of() : Map.copyOf(stageOptions);
+    }
+
+    /**
+     * 전용 스테이지 없이 그래프 워크플로우 정의를 생성한다.
+     *
+     * @param name 워크플로우 이름
+     * @param startNodeId 시작 노드 ID
+     * @param endNodeIds 종료 노드 ID 집합
+     * @param nodes 그래프 노드 목록
+     * @param edges 그래프 엣지 목록
+     * @param batchingOptions 배치/백프레셔 옵션 (null 이면 기본값 사용)
+     */
+    public WorkflowGraphDefinition(
+        String name,
+        String startNodeId,
+        Set<String> endNodeIds,
+        List<WorkflowNodeDefinition> nodes,
+        List<WorkflowEdgeDefinition> edges,
+        WorkflowEngine.BatchingOptions batchingOptions
+    ) {
+        this(name, startNodeId, endNodeIds, nodes, edges, batchingOptions, Map.of());
     }
 
     /**
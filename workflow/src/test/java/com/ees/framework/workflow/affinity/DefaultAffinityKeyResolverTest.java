@@ -33,4 +33,33 @@ class DefaultAffinityKeyResolverTest {
         assertThat(updated.kind()).isEqualTo("lotId");
         assertThat(updated.value()).isEqualTo("EQ-1");
     }
+
+    @Test
+    void resolvesHeaderAffinityToInternedInstance() {
+        DefaultAffinityKeyResolver resolver = new DefaultAffinityKeyResolver("equipmentId");
+        FxHeaders headers = FxHeaders.empty().with("affinity-value", "42");
+
+        FxAffinity first = resolver.resolve(context(headers));
+        FxAffinity second = resolver.resolve(context(headers));
+
+        assertThat(second).isSameAs(first);
+        assertThat(first).isSameAs(FxAffinity.of("equipmentId", 42L));
+        assertThat(first.hasNumericId()).isTrue();
+        assertThat(first.numericId()).isEqualTo(42L);
+        // intern 캐시를 거치지 않은 인스턴스와도 값으로 같다.
+        FxAffinity plain = new FxAffinity("equipmentId", "42");
+        assertThat(plain).isEqualTo(first).hasSameHashCodeAs(first);
+        assertThat(FxAffinity.of("equipmentId", "042").hasNumericId()).isFalse();
+        assertThat(FxAffinity.of("equipmentId", -7L).value()).isEqualTo("-7");
+    }
+
+    private static FxContext<String> context(FxHeaders headers) {
+        return new FxContext<>(
+            FxCommand.of("cmd"),
+            headers,
+            FxMessage.now("src", "payload"),
+            FxMeta.empty(),
+            FxAffinity.none()
+        );
+    }
 }
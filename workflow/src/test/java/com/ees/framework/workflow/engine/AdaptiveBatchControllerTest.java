@@ -0,0 +1,65 @@
+package com.ees.framework.workflow.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchControllerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void growsBatchSizeUpToMaxWhileBacklogRemains() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(options(), 8);
+
+        for (int i = 0; i < 10; i++) {
+            controller.onBatch(controller.batchSize(), FAST, 10_000);
+        }
+
+        assertThat(controller.batchSize()).isEqualTo(64);
+        assertThat(controller.lingerNanos()).isZero();
+    }
+
+    @Test
+    void shrinksBatchSizeAndDisablesLingerWhenLatencyExceedsTarget() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(options(), 32);
+        controller.onBatch(32, FAST, 1);
+        assertThat(controller.lingerNanos()).isPositive();
+
+        for (int i = 0; i < 10; i++) {
+            controller.onBatch(controller.batchSize(), SLOW, 10_000);
+        }
+
+        assertThat(controller.batchSize()).isEqualTo(2);
+        assertThat(controller.lingerNanos()).isZero();
+    }
+
+    @Test
+    void lingersUnderModerateLoadAndDecaysWhenIdle() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(options(), 16);
+
+        controller.onBatch(4, FAST, 3);
+        long lingered = controller.lingerNanos();
+        assertThat(lingered).isEqualTo(Duration.ofMillis(2).toNanos());
+
+        controller.onBatch(4, FAST, 0);
+        controller.onBatch(4, FAST, 0);
+
+        assertThat(controller.lingerNanos()).isEqualTo(lingered / 4);
+        assertThat(controller.batchSize()).isEqualTo(16);
+    }
+
+    @Test
+    void clampsInitialBatchSizeToConfiguredRange() {
+        assertThat(new AdaptiveBatchController(options(), 1).batchSize()).isEqualTo(2);
+        assertThat(new AdaptiveBatchController(options(), 1_000).batchSize()).isEqualTo(64);
+    }
+
+    private WorkflowEngine.AdaptiveBatchingOptions options() {
+        return new WorkflowEngine.AdaptiveBatchingOptions(true, 2, 64, Duration.ofMillis(2), Duration.ofMillis(10));
+    }
+}
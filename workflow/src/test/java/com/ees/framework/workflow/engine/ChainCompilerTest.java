@@ -0,0 +1,163 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.context.MutableFxContext;
+import com.ees.framework.handlers.SinkHandler;
+import com.ees.framework.handlers.SourceHandler;
+import com.ees.framework.pipeline.InPlacePipelineStep;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ChainCompilerTest {
+
+    @Test
+    void compilesEachProcessorIntoItsOwnHiddenClassAndKeepsOrder() {
+        List<FxContext<Object>> reconciled = new ArrayList<>();
+        UnaryOperator<List<FxContext<Object>>> stage = new ChainCompiler(recording(reconciled)).compile(steps());
+
+        List<FxContext<Object>> out = stage.apply(List.of(context("a"), context("skip")));
+
+        assertThat(stage.getClass().getName()).startsWith(ChainCompiler.ElementStage.class.getName() + "/");
+        assertThat(out).extracting(ctx -> ctx.message().payload()).containsExactly("a|src|step|sink", "skip|src|sink");
+        // supports 가 false 인 step 은 reconcile 도 호출하지 않는다.
+        assertThat(reconciled).hasSize(5);
+    }
+
+    @Test
+    void interpretedFallbackHasSameSemantics() {
+        List<FxContext<Object>> reconciled = new ArrayList<>();
+        UnaryOperator<List<FxContext<Object>>> stage = new ChainCompiler(recording(reconciled), false).compile(steps());
+
+        List<FxContext<Object>> out = stage.apply(List.of(context("a"), context("skip")));
+
+        assertThat(stage.getClass().getName()).doesNotStartWith(ChainCompiler.ElementStage.class.getName());
+        assertThat(out).extracting(ctx -> ctx.message().payload()).containsExactly("a|src|step|sink", "skip|src|sink");
+        assertThat(reconciled).hasSize(5);
+    }
+
+    @Test
+    void runsConsecutiveInPlaceStepsOnWorkerCarrier() {
+        for (boolean hidden : new boolean[] {true, false}) {
+            List<FxContext<Object>> reconciled = new ArrayList<>();
+            UnaryOperator<List<FxContext<Object>>> stage =
+                new ChainCompiler(recording(reconciled), hidden).compile(inPlaceSteps());
+            WorkerContextCarrier carrier = new WorkerContextCarrier();
+            carrier.bind();
+            try {
+                List<FxContext<Object>> first = stage.apply(List.of(tagged("a"), context("skip")));
+                carrier.release();
+                List<FxContext<Object>> second = stage.apply(List.of(tagged("b"), context("skip")));
+
+                // 워커의 가변 컨텍스트를 다음 메시지/배치가 덮어써도 앞서 만든 불변 컨텍스트는 그대로다.
+                assertThat(WorkerContextCarrier.acquire()).isSameAs(carrier.carrier());
+                assertThat(first.get(0).headers().values())
+                    .containsOnly(entry("origin", "test"), entry("first", "1"), entry("second", "2"));
+                assertThat(first.get(0).meta().longAttribute("count", -1L)).isEqualTo(7L);
+                assertThat(first.get(1).headers().values()).containsOnlyKeys("first");
+                assertThat(second).extracting(ctx -> ctx.message().payload()).containsExactly("b|src|sink", "skip|src|sink");
+                // in-place 묶음은 단계 수와 무관하게 한 번만 reconcile 한다.
+                assertThat(reconciled).hasSize(12);
+            } finally {
+                carrier.unbind();
+            }
+        }
+    }
+
+    @Test
+    void rejectsNonProcessorKinds() {
+        assertThatThrownBy(() -> new ChainCompiler.ElementStep(WorkflowNodeKind.SINK, (Object) "sink"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ChainCompiler((in, out) -> out).compile(List.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<ChainCompiler.ElementStep> steps() {
+        SourceHandler<Object> source = ctx -> append(ctx, "src");
+        PipelineStep<Object, Object> step = new PipelineStep<>() {
+            @Override
+            public boolean supports(FxContext<?> context) {
+                return !String.valueOf(context.message().payload()).startsWith("skip");
+            }
+
+            @Override
+            public FxContext<Object> apply(FxContext<Object> context) {
+                return append(context, "step");
+            }
+        };
+        SinkHandler<Object> sink = ctx -> append(ctx, "sink");
+        return List.of(
+            new ChainCompiler.ElementStep(WorkflowNodeKind.SOURCE_HANDLER, source),
+            new ChainCompiler.ElementStep(WorkflowNodeKind.PIPELINE_STEP, step),
+            new ChainCompiler.ElementStep(WorkflowNodeKind.SINK_HANDLER, sink)
+        );
+    }
+
+    private static List<ChainCompiler.ElementStep> inPlaceSteps() {
+        SourceHandler<Object> source = ctx -> append(ctx, "src");
+        InPlacePipelineStep<Object> first = ctx -> ctx.putHeader("first", "1").putLongAttribute("count", 7L);
+        InPlacePipelineStep<Object> second = new InPlacePipelineStep<>() {
+            @Override
+            public boolean supportsInPlace(MutableFxContext<Object> context) {
+                return !String.valueOf(context.message().payload()).startsWith("skip");
+            }
+
+            @Override
+            public void applyInPlace(MutableFxContext<Object> context) {
+                context.putHeader("second", "2");
+            }
+        };
+        SinkHandler<Object> sink = ctx -> append(ctx, "sink");
+        return List.of(
+            new ChainCompiler.ElementStep(WorkflowNodeKind.SOURCE_HANDLER, source),
+            new ChainCompiler.ElementStep(WorkflowNodeKind.PIPELINE_STEP, first),
+            new ChainCompiler.ElementStep(WorkflowNodeKind.PIPELINE_STEP, second),
+            new ChainCompiler.ElementStep(WorkflowNodeKind.SINK_HANDLER, sink)
+        );
+    }
+
+    private static BinaryOperator<FxContext<Object>> recording(List<FxContext<Object>> reconciled) {
+        return (input, output) -> {
+            reconciled.add(output);
+            return output;
+        };
+    }
+
+    private static FxContext<Object> append(FxContext<Object> context, String suffix) {
+        return new FxContext<>(
+            context.command(),
+            context.headers(),
+            FxMessage.now("src", (Object) (context.message().payload() + "|" + suffix)),
+            context.meta(),
+            context.affinity()
+        );
+    }
+
+    private static FxContext<Object> tagged(String payload) {
+        return context(payload).withHeaders(FxHeaders.empty().with("origin", "test"));
+    }
+
+    private static FxContext<Object> context(String payload) {
+        return new FxContext<>(
+            FxCommand.of("ingest"),
+            FxHeaders.empty(),
+            FxMessage.now("src", (Object) payload),
+            FxMeta.empty(),
+            FxAffinity.of("equipmentId", "eq-1")
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionEdgeConditionCompilerTest {
+
+    private final ExpressionEdgeConditionCompiler compiler = new ExpressionEdgeConditionCompiler();
+
+    private final FxContext<String> context = new FxContext<>(
+        FxCommand.of("ingest"),
+        FxHeaders.empty().with("x-tenant", "acme"),
+        FxMessage.now("src", "payload"),
+        new FxMeta("src", null, 0, Map.of("retries", 3, "priority", "high", "urgent", true)),
+        FxAffinity.of("equipmentId", "eq-1")
+    );
+
+    @Test
+    void evaluatesFieldComparisons() {
+        assertThat(test("header.x-tenant == 'acme'")).isTrue();
+        assertThat(test("header.x-tenant != \"acme\"")).isFalse();
+        assertThat(test("command == 'ingest'")).isTrue();
+        assertThat(test("affinity.kind == 'equipmentId' and affinity.value in ('eq-1', 'eq-2')")).isTrue();
+        assertThat(test("meta.retries == 3 && meta.urgent == true")).isTrue();
+        assertThat(test("meta.priority in ('low', 'mid')")).isFalse();
+    }
+
+    @Test
+    void supportsExistenceNegationAndGrouping() {
+        assertThat(test("header.x-tenant")).isTrue();
+        assertThat(test("header.missing == null")).isTrue();
+        assertThat(test("not header.missing")).isTrue();
+        assertThat(test("!(command == 'ingest' || meta.retries == 0) or affinity.value == 'eq-1'")).isTrue();
+        assertThat(test("(command == 'other' || meta.retries == 0) && header.x-tenant")).isFalse();
+    }
+
+    @Test
+    void comparesNumericLiteralsAgainstPrimitiveAndBoxedAttributes() {
+        FxContext<String> primitive = context.withMeta(new FxMeta("src", null, 0, FxMeta.attributeBuilder(4)
+            .putLong("offset", 1_048_576L)
+            .putInt("partition", 3)
+            .put("ratio", 2.5)
+            .put("code", "7")
+            .build()));
+
+        assertThat(compiler.compile("meta.offset == 1048576").test(primitive)).isTrue();
+        assertThat(compiler.compile("meta.offset != 1048577").test(primitive)).isTrue();
+        assertThat(compiler.compile("meta.partition == 3.0").test(primitive)).isTrue();
+        assertThat(compiler.compile("meta.partition in ('3', 1, 3)").test(primitive)).isTrue();
+        assertThat(compiler.compile("meta.partition in ('3', 4)").test(primitive)).isFalse();
+        assertThat(compiler.compile("meta.partition == '3'").test(primitive)).isFalse();
+        assertThat(compiler.compile("meta.ratio == 2").test(primitive)).isFalse();
+        assertThat(compiler.compile("meta.ratio in (2, 2.5)").test(primitive)).isTrue();
+        assertThat(compiler.compile("meta.code == 7").test(primitive)).isTrue();
+        assertThat(compiler.compile("meta.missing == 0").test(primitive)).isFalse();
+        assertThat(compiler.compile("meta.missing in (0, null)").test(primitive)).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        assertThatThrownBy(() -> compiler.compile("payload == 'x'"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unknown field");
+        assertThatThrownBy(() -> compiler.compile("command == 'x"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unterminated");
+        assertThatThrownBy(() -> compiler.compile("(command == 'x'"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compiler.compile("command == 'x' header.a"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unexpected");
+    }
+
+    private boolean test(String expression) {
+        Predicate<FxContext<?>> predicate = compiler.compile(expression);
+        return predicate.test(context);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyTrackerTest {
+
+    @Test
+    void ranksSkewedKeyFirstAndMarksItHot() {
+        HotKeyTracker tracker = new HotKeyTracker(16, Duration.ofMinutes(1), 0.2);
+        FxAffinity hot = FxAffinity.of("equipmentId", "eq-hot");
+        for (int i = 0; i < 5_000; i++) {
+            tracker.record(hot);
+            tracker.record(FxAffinity.of("equipmentId", "eq-" + (i % 500)));
+        }
+
+        List<Map.Entry<FxAffinity, Long>> top = tracker.top(3);
+
+        assertThat(top).hasSize(3);
+        assertThat(top.get(0).getKey()).isEqualTo(hot);
+        assertThat(top.get(0).getValue()).isGreaterThanOrEqualTo(5_000L);
+        assertThat(tracker.isHot(hot)).isTrue();
+        assertThat(tracker.isHot(FxAffinity.of("equipmentId", "eq-1"))).isFalse();
+    }
+
+    @Test
+    void keepsCandidatesBoundedByCapacity() {
+        HotKeyTracker tracker = new HotKeyTracker(16, Duration.ofMinutes(1), 0.2);
+        for (int i = 0; i < 10_000; i++) {
+            tracker.record(FxAffinity.of("equipmentId", "eq-" + i));
+        }
+
+        assertThat(tracker.top(100)).hasSizeLessThanOrEqualTo(16);
+        assertThat(tracker.total()).isEqualTo(10_000L);
+    }
+
+    @Test
+    void decaysOldTrafficEveryWindow() throws Exception {
+        HotKeyTracker tracker = new HotKeyTracker(16, Duration.ofMillis(20), 0.2);
+        FxAffinity hot = FxAffinity.of("equipmentId", "eq-hot");
+        for (int i = 0; i < 1_000; i++) {
+            tracker.record(hot);
+        }
+        assertThat(tracker.isHot(hot)).isTrue();
+
+        FxAffinity other = FxAffinity.of("equipmentId", "eq-other");
+        for (int round = 0; round < 8; round++) {
+            Thread.sleep(25);
+            tracker.record(other);
+        }
+
+        // 창이 8 번 지나는 동안 1000 → 3 으로 줄어 최소 추정치 아래로 떨어진다.
+        assertThat(tracker.isHot(hot)).isFalse();
+        assertThat(tracker.total()).isLessThan(100L);
+    }
+}
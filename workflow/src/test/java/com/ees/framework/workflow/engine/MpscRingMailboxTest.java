@@ -0,0 +1,111 @@
+package com.ees.framework.workflow.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingMailboxTest {
+
+    @Test
+    void keepsFifoOrderAndCapacityBound() {
+        MpscRingMailbox<String> mailbox = new MpscRingMailbox<>(3);
+
+        assertThat(mailbox.offer("a")).isTrue();
+        assertThat(mailbox.offer("b")).isTrue();
+        assertThat(mailbox.offer("c")).isTrue();
+        assertThat(mailbox.offer("d")).isFalse();
+        assertThat(mailbox.size()).isEqualTo(3);
+
+        assertThat(mailbox.poll()).isEqualTo("a");
+        assertThat(mailbox.offer("d")).isTrue();
+        List<String> drained = new ArrayList<>();
+        assertThat(mailbox.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(drained).containsExactly("b", "c");
+        assertThat(mailbox.poll()).isEqualTo("d");
+        assertThat(mailbox.poll()).isNull();
+        assertThat(mailbox.isEmpty()).isTrue();
+    }
+
+    @Test
+    void removedElementsAreSkippedByConsumer() {
+        MpscRingMailbox<String> mailbox = new MpscRingMailbox<>(4);
+        String removed = new String("b");
+        mailbox.offer("a");
+        mailbox.offer(removed);
+        mailbox.offer("c");
+
+        assertThat(mailbox.remove(removed)).isTrue();
+        assertThat(mailbox.remove(removed)).isFalse();
+
+        List<String> drained = new ArrayList<>();
+        mailbox.drainTo(drained);
+        assertThat(drained).containsExactly("a", "c");
+    }
+
+    @Test
+    void timedOperationsWakeOnCounterpart() throws Exception {
+        MpscRingMailbox<String> mailbox = new MpscRingMailbox<>(1);
+        mailbox.offer("first");
+        CountDownLatch offered = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                if (mailbox.offer("second", 2, TimeUnit.SECONDS)) {
+                    offered.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(offered.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(mailbox.poll()).isEqualTo("first");
+        assertThat(offered.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(mailbox.poll(1, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(mailbox.poll(10, TimeUnit.MILLISECONDS)).isNull();
+        producer.join();
+    }
+
+    @Test
+    void deliversEveryElementInProducerOrderUnderContention() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingMailbox<long[]> mailbox = new MpscRingMailbox<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    try {
+                        while (!mailbox.offer(new long[] {producer, i}, 1, TimeUnit.SECONDS)) {
+                            // 소비자가 비울 때까지 재시도한다.
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }));
+        }
+
+        Map<Long, Long> lastByProducer = new HashMap<>();
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = mailbox.poll(1, TimeUnit.SECONDS);
+            assertThat(element).isNotNull();
+            Long last = lastByProducer.put(element[0], element[1]);
+            assertThat(element[1]).isEqualTo(last == null ? 0L : last + 1);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(mailbox.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,82 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.BatchWriteResult;
+import com.ees.framework.sink.Sink;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class NodeCircuitBreakerTest {
+
+    @Test
+    void probeEndingWithErrorReopensInsteadOfStayingHalfOpen() throws Exception {
+        NodeCircuitBreaker breaker = new NodeCircuitBreaker("wf", "sink", 1, Duration.ofMillis(20));
+
+        assertThrows(IllegalStateException.class, () -> breaker.write(failing(new IllegalStateException("down")), List.of()));
+        assertThat(breaker.isOpen()).isTrue();
+        Thread.sleep(30);
+        assertThrows(FatalSinkError.class, () -> breaker.write(failing(new FatalSinkError()), List.of()));
+        assertThat(breaker.isOpen()).isTrue();
+
+        // 시험 호출이 Error 로 끝나도 다음 시험 호출이 가능해야 한다.
+        BatchWriteResult result = assertTimeoutPreemptively(Duration.ofSeconds(2),
+            () -> breaker.write(succeeding(), List.of()));
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void failureOfCallStartedBeforeOpeningDoesNotInterruptProbe() throws Exception {
+        NodeCircuitBreaker breaker = new NodeCircuitBreaker("wf", "sink", 1, Duration.ofMillis(50));
+        boolean stale = breaker.acquire();
+        boolean failing = breaker.acquire();
+        breaker.onFailure(failing);
+        assertThat(breaker.isOpen()).isTrue();
+        Thread.sleep(60);
+        boolean probe = breaker.acquire();
+        assertThat(stale).isFalse();
+        assertThat(probe).isTrue();
+
+        // 열리기 전에 시작된 호출의 늦은 실패는 시험 호출을 끝내거나 브레이커를 다시 열지 않는다.
+        breaker.onFailure(stale);
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(breaker::acquire);
+        Thread.sleep(150);
+        assertThat(waiting).isNotDone();
+
+        breaker.onSuccess(probe);
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    private Sink<Object> failing(Throwable error) {
+        return new Sink<>() {
+            @Override
+            public void write(FxContext<Object> context) {
+            }
+
+            @Override
+            public BatchWriteResult writeBatch(List<FxContext<Object>> contexts) {
+                if (error instanceof Error fatal) {
+                    throw fatal;
+                }
+                throw (RuntimeException) error;
+            }
+        };
+    }
+
+    private Sink<Object> succeeding() {
+        return context -> {
+        };
+    }
+
+    private static final class FatalSinkError extends Error {
+    }
+}
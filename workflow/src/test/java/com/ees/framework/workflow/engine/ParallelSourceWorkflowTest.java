@@ -0,0 +1,152 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.DemandSubscription;
+import com.ees.framework.source.PartitionedSource;
+import com.ees.framework.source.PushSource;
+import com.ees.framework.source.Source;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelSourceWorkflowTest {
+
+    @Test
+    void readsPartitionsOnSeparateThreadsAndKeepsPerKeyOrder() throws Exception {
+        Set<String> readerThreads = ConcurrentHashMap.newKeySet();
+        List<Source<String>> partitions = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            List<FxContext<String>> contexts = partitionContexts(p, 2, 50);
+            partitions.add(() -> {
+                readerThreads.add(Thread.currentThread().getName());
+                return contexts;
+            });
+        }
+        Map<String, List<String>> payloadsByKey = new ConcurrentHashMap<>();
+        Sink<String> sink = recordingSink(payloadsByKey);
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(8)
+            .batchSize(4)
+            .batchTimeout(Duration.ofMillis(20))
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("parallel", options), resolverFor(partitioned(partitions), sink));
+        workflow.start();
+
+        assertThat(readerThreads).hasSize(4).allMatch(name -> name.startsWith("fx-parallel-source-"));
+        assertThat(payloadsByKey).hasSize(8);
+        assertThat(payloadsByKey.values()).allSatisfy(payloads -> assertThat(payloads).hasSize(50).isSorted());
+        assertThat(workflow.inFlight()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    @Timeout(10)
+    void subscribesEachPushPartitionAndReturnsCreditsToStarvedPartitions() throws Exception {
+        List<ListPushSource> partitions = new ArrayList<>();
+        for (int p = 0; p < 3; p++) {
+            partitions.add(new ListPushSource(partitionContexts(p, 2, 30)));
+        }
+        Map<String, List<String>> payloadsByKey = new ConcurrentHashMap<>();
+        Sink<String> sink = recordingSink(payloadsByKey);
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(6)
+            .batchSize(2)
+            .batchTimeout(Duration.ofMillis(20))
+            .continuous(true)
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("parallel", options), resolverFor(partitioned(partitions), sink));
+        workflow.start();
+
+        assertThat(payloadsByKey).hasSize(6);
+        assertThat(payloadsByKey.values()).allSatisfy(payloads -> assertThat(payloads).hasSize(30).isSorted());
+        assertThat(partitions).allSatisfy(partition -> assertThat(partition.subscribed()).isTrue());
+
+        workflow.stop();
+    }
+
+    private static PartitionedSource<String> partitioned(List<? extends Source<String>> partitions) {
+        return new PartitionedSource<>() {
+            @Override
+            public List<? extends Source<String>> partitions() {
+                return partitions;
+            }
+
+            @Override
+            public Iterable<FxContext<String>> read() {
+                throw new AssertionError("workflow must read partitions instead");
+            }
+        };
+    }
+
+    private static Sink<String> recordingSink(Map<String, List<String>> payloadsByKey) {
+        return ctx -> payloadsByKey.computeIfAbsent(ctx.affinity().value(), ignored -> new CopyOnWriteArrayList<>())
+            .add(ctx.message().payload());
+    }
+
+    private static List<FxContext<String>> partitionContexts(int partition, int keys, int perKey) {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < perKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                contexts.add(context("p" + partition + "-k" + k, String.format("%03d", i)));
+            }
+        }
+        return contexts;
+    }
+
+    private static final class ListPushSource implements PushSource<String> {
+
+        private final List<FxContext<String>> contexts;
+        private volatile boolean subscribed;
+
+        private ListPushSource(List<FxContext<String>> contexts) {
+            this.contexts = contexts;
+        }
+
+        @Override
+        public Iterable<FxContext<String>> read() {
+            return contexts;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super FxContext<String>> subscriber) {
+            subscribed = true;
+            DemandSubscription subscription = new DemandSubscription();
+            subscriber.onSubscribe(subscription);
+            Thread.ofVirtual().start(() -> {
+                int emitted = 0;
+                try {
+                    while (emitted < contexts.size() && !subscription.isCancelled()) {
+                        if (!subscription.awaitDemand(Duration.ofMillis(50)) || !subscription.tryConsume()) {
+                            continue;
+                        }
+                        subscriber.onNext(contexts.get(emitted++));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                subscriber.onComplete();
+            });
+        }
+
+        boolean subscribed() {
+            return subscribed;
+        }
+    }
+}
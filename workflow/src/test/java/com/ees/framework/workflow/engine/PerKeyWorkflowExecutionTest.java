@@ -1,11 +1,11 @@
 package com.ees.framework.workflow.engine;
 
 import com.ees.framework.context.FxAffinity;
-import com.ees.framework.context.FxCommand;
 import com.ees.framework.context.FxContext;
-import com.ees.framework.context.FxHeaders;
 import com.ees.framework.context.FxMessage;
-import com.ees.framework.context.FxMeta;
+import com.ees.framework.pipeline.BatchPipelineStep;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.BatchWriteResult;
 import com.ees.framework.sink.Sink;
 import com.ees.framework.source.Source;
 import com.ees.framework.workflow.engine.WorkflowEngine.BackpressurePolicy;
@@ -24,6 +24,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.awaitQuietly;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.scriptedSource;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -105,8 +109,13 @@ class PerKeyWorkflowExecutionTest {
             context("eq-1", "second"),
             context("eq-1", "third")
         );
-        Source<String> source = () -> contexts;
         CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch sourceDrained = new CountDownLatch(1);
+        Source<String> source = scriptedSource(contexts, index -> {
+            if (index > 0) {
+                awaitQuietly(firstWritten);
+            }
+        }, sourceDrained);
         Object monitor = new Object();
         boolean[] state = new boolean[] {false, false}; // [0]=blocking, [1]=release
         TrackingSink sink = new TrackingSink(contexts.size()) {
@@ -137,6 +146,7 @@ class PerKeyWorkflowExecutionTest {
         runner.start();
 
         assertThat(firstWritten.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(sourceDrained.await(1, TimeUnit.SECONDS)).isTrue();
         synchronized (monitor) {
             long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
             while (!state[0] && System.nanoTime() < deadlineNanos) {
@@ -189,49 +199,338 @@ class PerKeyWorkflowExecutionTest {
         workflow.stop();
     }
 
-    private WorkflowGraphDefinition linearGraph() {
-        return new WorkflowGraphDefinition(
-            "per-key",
+    @Test
+    void shardedModeRejectsDropOldestBecauseShardQueuesMixKeys() {
+        WorkflowEngine.BatchingOptions.BatchingOptionsBuilder builder = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .dispatchMode(WorkflowEngine.DispatchMode.SHARDED)
+            .backpressurePolicy(BackpressurePolicy.DROP_OLDEST);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, builder::build);
+        assertThat(ex).hasMessageContaining("SHARDED");
+    }
+
+    @Test
+    void shardedModePreservesOrderPerKeyWithFixedWorkerPool() throws Exception {
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .dispatchMode(WorkflowEngine.DispatchMode.SHARDED)
+            .shardCount(4)
+            .build();
+        WorkflowGraphDefinition graph = new WorkflowGraphDefinition(
+            "per-key-sharded",
             "source",
             Set.of("sink"),
             List.of(
                 new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
                 new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
             ),
-            List.of(new WorkflowEdgeDefinition("source", "sink", null))
+            List.of(new WorkflowEdgeDefinition("source", "sink", null)),
+            options
+        );
+        int keys = 200;
+        int perKey = 5;
+        List<FxContext<String>> contexts = new java.util.ArrayList<>();
+        for (int seq = 0; seq < perKey; seq++) {
+            for (int key = 0; key < keys; key++) {
+                contexts.add(context("eq-" + key, Integer.toString(seq)));
+            }
+        }
+        Set<Long> workerThreads = ConcurrentHashMap.newKeySet();
+        TrackingSink sink = new TrackingSink(contexts.size()) {
+            @Override
+            public void write(FxContext<String> context) {
+                workerThreads.add(Thread.currentThread().threadId());
+                super.write(context);
+            }
+        };
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(() -> contexts, sink));
+        workflow.start();
+
+        assertThat(sink.await(Duration.ofSeconds(2))).isTrue();
+        for (int key = 0; key < keys; key++) {
+            assertThat(sink.payloads("eq-" + key)).containsExactly("0", "1", "2", "3", "4");
+        }
+        assertThat(workerThreads).hasSizeLessThanOrEqualTo(4);
+
+        workflow.stop();
+    }
+
+    @Test
+    void awaitQuiescenceWakesWhenLastContextIsWritten() throws Exception {
+        WorkflowGraphDefinition graph = linearGraph();
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "a1"),
+            context("eq-2", "b1"),
+            context("eq-3", "c1")
+        );
+        CountDownLatch sinkEntered = new CountDownLatch(contexts.size());
+        CountDownLatch releaseSink = new CountDownLatch(1);
+        TrackingSink sink = new TrackingSink(contexts.size()) {
+            @Override
+            public void write(FxContext<String> context) {
+                sinkEntered.countDown();
+                awaitQuietly(releaseSink);
+                super.write(context);
+            }
+        };
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(() -> contexts, sink));
+        Thread runner = new Thread(workflow::start);
+        runner.start();
+
+        assertThat(sinkEntered.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(workflow.awaitQuiescence(Duration.ofMillis(100))).isFalse();
+        assertThat(workflow.inFlight()).isEqualTo(3);
+
+        releaseSink.countDown();
+        assertThat(workflow.awaitQuiescence(Duration.ofSeconds(1))).isTrue();
+        assertThat(workflow.inFlight()).isZero();
+        assertThat(sink.await(Duration.ZERO)).isTrue();
+
+        runner.join(2_000);
+        workflow.stop();
+    }
+
+    @Test
+    void writesDrainedBatchToSinkAndContinuesAfterPartialFailure() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "p0"),
+            context("eq-1", "p1"),
+            context("eq-1", "p2"),
+            context("eq-1", "p3"),
+            context("eq-1", "p4"),
+            context("eq-1", "p5")
         );
+        CountDownLatch sourceDrained = new CountDownLatch(1);
+        Source<String> source = scriptedSource(contexts, sourceDrained);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = new Sink<>() {
+            @Override
+            public void write(FxContext<String> context) {
+                if ("p2".equals(context.message().payload())) {
+                    throw new IllegalStateException("rejected");
+                }
+                written.add(context.message().payload());
+            }
+
+            @Override
+            public BatchWriteResult writeBatch(List<FxContext<String>> batch) {
+                awaitQuietly(sourceDrained);
+                batchSizes.add(batch.size());
+                return Sink.super.writeBatch(batch);
+            }
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchSize(4)
+            .batchTimeout(Duration.ofMillis(20))
+            .build();
+
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(linearGraph(), resolverFor(source, sink));
+        workflow.start();
+
+        assertThat(written).containsExactly("p0", "p1", "p3", "p4", "p5");
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(contexts.size());
+        assertThat(batchSizes).anyMatch(size -> size > 1);
+        assertThat(workflow.inFlight()).isZero();
+
+        workflow.stop();
     }
 
-    private WorkflowNodeResolver resolverFor(Source<String> source, Sink<String> sink) {
-        Map<String, Object> beans = Map.of(
-            "source-bean", source,
-            "sink-bean", sink
+    @Test
+    void invokesBatchPipelineStepWithSupportedContextsOfDrainedBatch() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "a"),
+            context("eq-1", "skip"),
+            context("eq-1", "b"),
+            context("eq-1", "c")
         );
-        return node -> {
-            Object bean = beans.get(node.getRefName());
-            if (bean == null) {
-                throw new IllegalArgumentException("No bean for refName: " + node.getRefName());
+        CountDownLatch sourceDrained = new CountDownLatch(1);
+        Source<String> source = scriptedSource(contexts, sourceDrained);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        BatchPipelineStep<String, String> upper = new BatchPipelineStep<>() {
+            @Override
+            public boolean supports(FxContext<?> context) {
+                return !"skip".equals(context.message().payload());
+            }
+
+            @Override
+            public List<FxContext<String>> applyBatch(List<FxContext<String>> batch) {
+                awaitQuietly(sourceDrained);
+                batchSizes.add(batch.size());
+                return batch.stream()
+                    .map(ctx -> new FxContext<>(ctx.command(), ctx.headers(),
+                        FxMessage.now("step", ctx.message().payload().toUpperCase()), ctx.meta(), ctx.affinity()))
+                    .toList();
             }
-            return bean;
         };
+        TrackingSink sink = new TrackingSink(contexts.size());
+        WorkflowGraphDefinition graph = new WorkflowGraphDefinition(
+            "batch-step",
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("step", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(
+                new WorkflowEdgeDefinition("source", "step", null),
+                new WorkflowEdgeDefinition("step", "sink", null)
+            )
+        );
+        Map<String, Object> beans = Map.of("source-bean", source, "step-bean", upper, "sink-bean", sink);
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchSize(8)
+            .batchTimeout(Duration.ofMillis(20))
+            .build();
+
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(graph, node -> beans.get(node.getRefName()));
+        workflow.start();
+
+        assertThat(sink.await(Duration.ofSeconds(1))).isTrue();
+        assertThat(sink.payloads("eq-1")).containsExactly("A", "skip", "B", "C");
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(3);
+        assertThat(batchSizes).anyMatch(size -> size > 1);
+
+        workflow.stop();
     }
 
-    private FxContext<String> context(String key, String payload) {
-        return new FxContext<>(
-            FxCommand.of("ingest"),
-            FxHeaders.empty(),
-            FxMessage.now("src", payload),
-            FxMeta.empty(),
-            FxAffinity.of("equipmentId", key)
+    @Test
+    void passesUnchangedContextsThroughStepsAndResolvesOnlyChangedAffinity() throws Exception {
+        FxContext<String> kept = context("eq-1", "keep");
+        FxContext<String> rebound = context("eq-1", "rebind");
+        List<FxContext<String>> contexts = List.of(kept, rebound);
+        PipelineStep<String, String> step = ctx -> "rebind".equals(ctx.message().payload())
+            ? new FxContext<>(ctx.command(), ctx.headers().with("affinity-value", "eq-9"), ctx.message(), ctx.meta(),
+                FxAffinity.none())
+            : ctx;
+        List<FxContext<String>> written = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(contexts.size());
+        Sink<String> sink = ctx -> {
+            written.add(ctx);
+            latch.countDown();
+        };
+        WorkflowGraphDefinition graph = new WorkflowGraphDefinition(
+            "affinity-once",
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("first", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+                new WorkflowNodeDefinition("second", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(
+                new WorkflowEdgeDefinition("source", "first", null),
+                new WorkflowEdgeDefinition("first", "second", null),
+                new WorkflowEdgeDefinition("second", "sink", null)
+            )
         );
+        Source<String> source = () -> contexts;
+        Map<String, Object> beans = Map.of("source-bean", source, "step-bean", step, "sink-bean", sink);
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, node -> beans.get(node.getRefName()));
+        workflow.start();
+
+        assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(written.get(0)).isSameAs(kept);
+        assertThat(written.get(1).affinity()).isEqualTo(FxAffinity.of("equipmentId", "eq-9"));
+
+        workflow.stop();
+    }
+
+    @Test
+    void lockFreeMailboxPreservesOrderPerKeyUnderBackpressure() throws Exception {
+        List<FxContext<String>> contexts = new java.util.ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            contexts.add(context("eq-" + (i % 4), String.format("%03d", i)));
+        }
+        Source<String> source = () -> contexts;
+        TrackingSink sink = new TrackingSink(contexts.size());
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(4)
+            .batchSize(3)
+            .batchTimeout(Duration.ofMillis(50))
+            .mailboxType(WorkflowEngine.MailboxType.MPSC_RING)
+            .build();
+
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(linearGraph(), resolverFor(source, sink));
+        workflow.start();
+
+        assertThat(sink.await(Duration.ofSeconds(2))).isTrue();
+        for (int key = 0; key < 4; key++) {
+            assertThat(sink.payloads("eq-" + key)).hasSize(100).isSorted();
+        }
+
+        workflow.stop();
     }
 
-    private void awaitQuietly(CountDownLatch latch) {
-        try {
-            latch.await(1, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    @Test
+    void adaptiveBatchingGrowsBatchSizeUnderBacklogAndKeepsOrder() throws Exception {
+        List<FxContext<String>> contexts = new java.util.ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            contexts.add(context("eq-1", String.format("%04d", i)));
         }
+        CountDownLatch sourceDrained = new CountDownLatch(1);
+        Source<String> source = scriptedSource(contexts, sourceDrained);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = new Sink<>() {
+            @Override
+            public void write(FxContext<String> context) {
+                written.add(context.message().payload());
+            }
+
+            @Override
+            public BatchWriteResult writeBatch(List<FxContext<String>> batch) {
+                // 첫 배치를 Source 가 모두 적재할 때까지 붙잡아 backlog 를 만든다.
+                awaitQuietly(sourceDrained);
+                batchSizes.add(batch.size());
+                return Sink.super.writeBatch(batch);
+            }
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(1_024)
+            .batchSize(4)
+            .adaptiveBatching(new WorkflowEngine.AdaptiveBatchingOptions(
+                true, 1, 64, Duration.ZERO, Duration.ofSeconds(5)))
+            .build();
+        WorkflowGraphDefinition graph = new WorkflowGraphDefinition(
+            "adaptive",
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(new WorkflowEdgeDefinition("source", "sink", null)),
+            options
+        );
+
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(graph, resolverFor(source, sink));
+        workflow.start();
+
+        assertThat(workflow.awaitQuiescence(Duration.ofSeconds(2))).isTrue();
+        assertThat(written).hasSize(1_000).isSorted();
+        assertThat(batchSizes.get(0)).isEqualTo(4);
+        assertThat(batchSizes).contains(64);
+        assertThat(workflow.currentBatchSize()).isGreaterThan(4);
+
+        workflow.stop();
+    }
+
+    private WorkflowGraphDefinition linearGraph() {
+        return new WorkflowGraphDefinition(
+            "per-key",
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(new WorkflowEdgeDefinition("source", "sink", null))
+        );
     }
 
     private static class TrackingSink implements Sink<String> {
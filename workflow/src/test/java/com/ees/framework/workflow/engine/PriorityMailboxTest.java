@@ -0,0 +1,89 @@
+package com.ees.framework.workflow.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityMailboxTest {
+
+    @Test
+    void dequeuesHigherLaneFirstAndKeepsFifoWithinEachLane() {
+        PriorityMailbox<String> mailbox = mailbox(4, 0);
+
+        mailbox.offer("t1");
+        mailbox.offer("t2");
+        mailbox.offer("!a1");
+        mailbox.offer("t3");
+        mailbox.offer("!a2");
+
+        List<String> drained = new ArrayList<>();
+        assertThat(mailbox.drainTo(drained)).isEqualTo(5);
+        assertThat(drained).containsExactly("!a1", "!a2", "t1", "t2", "t3");
+    }
+
+    @Test
+    void boundsCapacityPerLaneAndEvictsOnlyFromIncomingLane() {
+        PriorityMailbox<String> mailbox = mailbox(2, 0);
+        assertThat(mailbox.offer("t1")).isTrue();
+        assertThat(mailbox.offer("t2")).isTrue();
+        assertThat(mailbox.offer("t3")).isFalse();
+
+        assertThat(mailbox.offer("!a1")).isTrue();
+        assertThat(mailbox.evictFor("t3")).isEqualTo("t1");
+        assertThat(mailbox.offer("t3")).isTrue();
+        assertThat(mailbox.size()).isEqualTo(3);
+
+        assertThat(mailbox.remove("t2")).isTrue();
+        List<String> drained = new ArrayList<>();
+        mailbox.drainTo(drained);
+        assertThat(drained).containsExactly("!a1", "t3");
+    }
+
+    @Test
+    void letsStarvingLaneThroughAfterMaxOvertake() {
+        PriorityMailbox<String> mailbox = mailbox(8, 2);
+        mailbox.offer("t1");
+        mailbox.offer("t2");
+        for (int i = 1; i <= 5; i++) {
+            mailbox.offer("!a" + i);
+        }
+
+        List<String> drained = new ArrayList<>();
+        mailbox.drainTo(drained);
+
+        assertThat(drained).containsExactly("!a1", "!a2", "t1", "!a3", "!a4", "t2", "!a5");
+    }
+
+    @Test
+    void recordsWaitTimePerLane() throws Exception {
+        PriorityMailbox.LaneStats[] stats = {new PriorityMailbox.LaneStats(), new PriorityMailbox.LaneStats()};
+        PriorityMailbox<String> mailbox = new PriorityMailbox<>(2, 4, PriorityMailboxTest::lane, 0, stats);
+        mailbox.offer("t1");
+        Thread.sleep(20);
+        mailbox.offer("!a1");
+
+        assertThat(mailbox.poll(1, TimeUnit.SECONDS)).isEqualTo("!a1");
+        assertThat(mailbox.poll(1, TimeUnit.SECONDS)).isEqualTo("t1");
+        assertThat(mailbox.poll(10, TimeUnit.MILLISECONDS)).isNull();
+
+        LaneWaitTime alarm = stats[0].snapshot(0);
+        LaneWaitTime telemetry = stats[1].snapshot(1);
+        assertThat(alarm.dequeued()).isEqualTo(1L);
+        assertThat(telemetry.dequeued()).isEqualTo(1L);
+        assertThat(telemetry.maxWaitNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(telemetry.averageWaitNanos()).isGreaterThan(alarm.averageWaitNanos());
+    }
+
+    private static PriorityMailbox<String> mailbox(int capacity, int maxOvertake) {
+        PriorityMailbox.LaneStats[] stats = {new PriorityMailbox.LaneStats(), new PriorityMailbox.LaneStats()};
+        return new PriorityMailbox<>(2, capacity, PriorityMailboxTest::lane, maxOvertake, stats);
+    }
+
+    private static int lane(String element) {
+        return element.startsWith("!") ? 0 : 1;
+    }
+}
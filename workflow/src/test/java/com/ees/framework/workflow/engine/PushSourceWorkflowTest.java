@@ -0,0 +1,99 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.DemandSubscription;
+import com.ees.framework.source.PushSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PushSourceWorkflowTest {
+
+    @Test
+    void consumesPushSourceWithinCreditWindow() throws Exception {
+        int queueCapacity = 4;
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            contexts.add(context("eq-" + (i % 2), String.format("%03d", i)));
+        }
+        AtomicInteger written = new AtomicInteger();
+        ListPushSource source = new ListPushSource(contexts, written);
+        Map<String, List<String>> payloadsByKey = new ConcurrentHashMap<>();
+        Sink<String> sink = ctx -> {
+            payloadsByKey.computeIfAbsent(ctx.affinity().value(), ignored -> new CopyOnWriteArrayList<>())
+                .add(ctx.message().payload());
+            written.incrementAndGet();
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(queueCapacity)
+            .batchSize(2)
+            .batchTimeout(Duration.ofMillis(20))
+            .continuous(true)
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("push", options), resolverFor(source, sink));
+        workflow.start();
+
+        assertThat(written.get()).isEqualTo(contexts.size());
+        assertThat(payloadsByKey.get("eq-0")).isSorted().hasSize(20);
+        assertThat(payloadsByKey.get("eq-1")).hasSize(20);
+        assertThat(source.maxOutstanding()).isLessThanOrEqualTo(queueCapacity);
+
+        workflow.stop();
+    }
+
+    private static final class ListPushSource implements PushSource<String> {
+
+        private final List<FxContext<String>> contexts;
+        private final AtomicInteger written;
+        private final AtomicInteger maxOutstanding = new AtomicInteger();
+
+        private ListPushSource(List<FxContext<String>> contexts, AtomicInteger written) {
+            this.contexts = contexts;
+            this.written = written;
+        }
+
+        @Override
+        public Iterable<FxContext<String>> read() {
+            return contexts;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super FxContext<String>> subscriber) {
+            DemandSubscription subscription = new DemandSubscription();
+            subscriber.onSubscribe(subscription);
+            Thread.ofVirtual().start(() -> {
+                int emitted = 0;
+                try {
+                    while (emitted < contexts.size() && !subscription.isCancelled()) {
+                        if (!subscription.awaitDemand(Duration.ofMillis(50)) || !subscription.tryConsume()) {
+                            continue;
+                        }
+                        subscriber.onNext(contexts.get(emitted++));
+                        maxOutstanding.accumulateAndGet(emitted - written.get(), Math::max);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                subscriber.onComplete();
+            });
+        }
+
+        int maxOutstanding() {
+            return maxOutstanding.get();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.AcknowledgingSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowAcknowledgementTest {
+
+    @Test
+    void acknowledgesWrittenDeadLetteredAndExpiredContexts() {
+        RecordingSource source = new RecordingSource(true, List.of(
+            context("eq-1", "ok-1", Instant.now(), FxHeaders.empty()),
+            context("eq-2", "fail", Instant.now(), FxHeaders.empty()),
+            context("eq-1", "stale", Instant.now().minus(Duration.ofHours(1)), FxHeaders.empty()),
+            context("eq-2", "ok-2", Instant.now(), FxHeaders.empty())
+        ));
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            if (ctx.message().payload().equals("fail")) {
+                throw new IllegalStateException("boom");
+            }
+            written.add(ctx.message().payload());
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .expiry(WorkflowEngine.ExpiryOptions.disabled().toBuilder()
+                .enabled(true)
+                .maxAge(Duration.ofMinutes(1))
+                .build())
+            .build();
+
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(sourceToSink("ack", options), resolverFor(source, sink));
+        workflow.start();
+
+        assertThat(written).containsExactlyInAnyOrder("ok-1", "ok-2");
+        assertThat(source.acknowledged).containsExactlyInAnyOrder("ok-1", "fail", "stale", "ok-2");
+
+        workflow.stop();
+    }
+
+    @Test
+    void skipsAcknowledgementWhenSourceDoesNotRequireIt() {
+        RecordingSource source = new RecordingSource(false, List.of(context("eq-1", "ok-1", Instant.now(), FxHeaders.empty())));
+        List<String> written = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults();
+
+        Workflow workflow = new WorkflowEngine(options)
+            .createWorkflow(sourceToSink("ack", options), resolverFor(source, (Sink<String>) ctx -> written.add(ctx.message().payload())));
+        workflow.start();
+
+        assertThat(written).containsExactly("ok-1");
+        assertThat(source.acknowledged).isEmpty();
+
+        workflow.stop();
+    }
+
+    private static final class RecordingSource implements AcknowledgingSource<String> {
+
+        private final boolean requiresAcknowledgement;
+        private final List<FxContext<String>> contexts;
+        private final List<String> acknowledged = new CopyOnWriteArrayList<>();
+
+        private RecordingSource(boolean requiresAcknowledgement, List<FxContext<String>> contexts) {
+            this.requiresAcknowledgement = requiresAcknowledgement;
+            this.contexts = contexts;
+        }
+
+        @Override
+        public Iterable<FxContext<String>> read() {
+            return contexts;
+        }
+
+        @Override
+        public void acknowledge(List<? extends FxContext<?>> contexts) {
+            contexts.forEach(ctx -> acknowledged.add(String.valueOf(ctx.message().payload())));
+        }
+
+        @Override
+        public boolean requiresAcknowledgement() {
+            return requiresAcknowledgement;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.affinity.DefaultAffinityKeyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.awaitQuietly;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.scriptedSource;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowAdmissionControlTest {
+
+    @Test
+    void globalBudgetBoundsInFlightAcrossKeys() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            contexts.add(context("eq-" + (i % 50), "p" + i));
+        }
+        AtomicInteger written = new AtomicInteger();
+        Sink<String> sink = ctx -> {
+            sleepQuietly(1);
+            written.incrementAndGet();
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchTimeout(Duration.ofSeconds(1))
+            .maxInFlight(10)
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("admission", options), resolverFor(() -> contexts, sink));
+        workflow.start();
+
+        assertThat(written.get()).isEqualTo(200);
+        assertThat(workflow.peakInFlight()).isBetween(1L, 10L);
+        assertThat(workflow.inFlight()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    void byteBudgetUsesSizeEstimatorAndReleasesOnCompletion() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            contexts.add(context("eq-" + (i % 8), "p" + i));
+        }
+        Sink<String> sink = ctx -> sleepQuietly(1);
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchTimeout(Duration.ofSeconds(1))
+            .maxInFlightBytes(300)
+            .build();
+        WorkflowEngine engine = new WorkflowEngine(options, new DefaultAffinityKeyResolver(),
+            new ExpressionEdgeConditionCompiler(), ctx -> 100L);
+
+        Workflow workflow = engine.createWorkflow(sourceToSink("admission", options), resolverFor(() -> contexts, sink));
+        workflow.start();
+
+        assertThat(workflow.peakInFlightBytes()).isBetween(100L, 300L);
+        assertThat(workflow.peakInFlight()).isLessThanOrEqualTo(3L);
+        assertThat(workflow.inFlightBytes()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    void errorPolicyRejectsWhenBudgetExhausted() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "first"),
+            context("eq-2", "second")
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        Sink<String> sink = ctx -> awaitQuietly(release);
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .backpressurePolicy(WorkflowEngine.BackpressurePolicy.ERROR)
+            .maxInFlight(1)
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("admission", options), resolverFor(() -> contexts, sink));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                workflow.start();
+            } catch (Throwable ex) {
+                failure.set(ex);
+            }
+        });
+        runner.start();
+        runner.join(2_000);
+        release.countDown();
+        workflow.stop();
+
+        assertThat(failure.get())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("in-flight budget");
+    }
+
+    @Test
+    void dropOldestDiscardsWithinSameKeyWhenBudgetExhausted() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "first"),
+            context("eq-1", "second"),
+            context("eq-1", "third")
+        );
+        CountDownLatch firstWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            if ("first".equals(ctx.message().payload())) {
+                firstWriting.countDown();
+                awaitQuietly(release);
+            }
+            written.add(ctx.message().payload());
+        };
+        // first 가 Sink 에서 대기하는 동안 second 가 예산 두 번째 자리를 차지하고, third 가 들어오며 second 를 밀어낸다.
+        Source<String> source = scriptedSource(contexts, index -> {
+            if (index == 1) {
+                awaitQuietly(firstWriting);
+            }
+        }, null);
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchSize(1)
+            .backpressurePolicy(WorkflowEngine.BackpressurePolicy.DROP_OLDEST)
+            .maxInFlight(2)
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("admission", options), resolverFor(source, sink));
+        Thread runner = new Thread(workflow::start);
+        runner.start();
+        assertThat(firstWriting.await(1, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        release.countDown();
+        runner.join(2_000);
+        workflow.stop();
+
+        assertThat(written).containsExactly("first", "third");
+        assertThat(workflow.peakInFlight()).isEqualTo(2L);
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.affinity.DefaultAffinityKeyResolver;
+import com.ees.framework.workflow.model.WorkflowEdgeDefinition;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolver;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkflowBranchingTest {
+
+    @Test
+    void fansOutEachContextToEverySinkWithOrderPerKey() {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "a1"),
+            context("eq-2", "b1"),
+            context("eq-1", "a2"),
+            context("eq-2", "b2")
+        );
+        AtomicInteger stepCalls = new AtomicInteger();
+        PipelineStep<String, String> upper = ctx -> {
+            stepCalls.incrementAndGet();
+            return new FxContext<>(
+                ctx.command(),
+                ctx.headers(),
+                FxMessage.now("step", ctx.message().payload().toUpperCase()),
+                ctx.meta(),
+                ctx.affinity()
+            );
+        };
+        RecordingSink left = new RecordingSink();
+        RecordingSink right = new RecordingSink();
+        WorkflowGraphDefinition graph = graph(
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("step", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+                new WorkflowNodeDefinition("left", WorkflowNodeKind.SINK, "left-bean"),
+                new WorkflowNodeDefinition("right", WorkflowNodeKind.SINK, "right-bean")
+            ),
+            List.of(
+                new WorkflowEdgeDefinition("source", "step", null),
+                new WorkflowEdgeDefinition("step", "left", null),
+                new WorkflowEdgeDefinition("step", "right", null)
+            )
+        );
+        Source<String> source = () -> contexts;
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolver(Map.of(
+            "source-bean", source, "step-bean", upper, "left-bean", left, "right-bean", right)));
+        workflow.start();
+
+        assertThat(stepCalls.get()).isEqualTo(contexts.size());
+        assertThat(left.payloads("eq-1")).containsExactly("A1", "A2");
+        assertThat(left.payloads("eq-2")).containsExactly("B1", "B2");
+        assertThat(right.payloads("eq-1")).containsExactly("A1", "A2");
+        assertThat(right.payloads("eq-2")).containsExactly("B1", "B2");
+
+        workflow.stop();
+    }
+
+    @Test
+    void routesContextsByCompiledEdgeCondition() {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "alarm"),
+            context("eq-1", "normal"),
+            context("eq-2", "alarm")
+        );
+        RecordingSink alarms = new RecordingSink();
+        RecordingSink others = new RecordingSink();
+        WorkflowGraphDefinition graph = graph(
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("alarms", WorkflowNodeKind.SINK, "alarms-bean"),
+                new WorkflowNodeDefinition("others", WorkflowNodeKind.SINK, "others-bean")
+            ),
+            List.of(
+                new WorkflowEdgeDefinition("source", "alarms", "alarm"),
+                new WorkflowEdgeDefinition("source", "others", "!alarm")
+            )
+        );
+        EdgeConditionCompiler compiler = condition -> condition.startsWith("!")
+            ? ctx -> !condition.substring(1).equals(ctx.message().payload())
+            : ctx -> condition.equals(ctx.message().payload());
+        Source<String> source = () -> contexts;
+
+        Workflow workflow = new WorkflowEngine(
+            WorkflowEngine.BatchingOptions.defaults(),
+            new DefaultAffinityKeyResolver(),
+            compiler
+        ).createWorkflow(graph, resolver(Map.of(
+            "source-bean", source, "alarms-bean", alarms, "others-bean", others)));
+        workflow.start();
+
+        assertThat(alarms.payloads("eq-1")).containsExactly("alarm");
+        assertThat(alarms.payloads("eq-2")).containsExactly("alarm");
+        assertThat(others.payloads("eq-1")).containsExactly("normal");
+        assertThat(others.payloads("eq-2")).isEmpty();
+
+        workflow.stop();
+    }
+
+    @Test
+    void routesWithBuiltInExpressionLanguage() {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "a1").withHeaders(FxHeaders.empty().with("severity", "high")),
+            context("eq-1", "a2"),
+            context("eq-2", "b1").withHeaders(FxHeaders.empty().with("severity", "low"))
+        );
+        RecordingSink urgent = new RecordingSink();
+        RecordingSink rest = new RecordingSink();
+        WorkflowGraphDefinition graph = graph(
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("urgent", WorkflowNodeKind.SINK, "urgent-bean"),
+                new WorkflowNodeDefinition("rest", WorkflowNodeKind.SINK, "rest-bean")
+            ),
+            List.of(
+                new WorkflowEdgeDefinition("source", "urgent", "header.severity == 'high' && command == 'ingest'"),
+                new WorkflowEdgeDefinition("source", "rest", "!(header.severity == 'high')")
+            )
+        );
+        Source<String> source = () -> contexts;
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolver(Map.of(
+            "source-bean", source, "urgent-bean", urgent, "rest-bean", rest)));
+        workflow.start();
+
+        assertThat(urgent.payloads("eq-1")).containsExactly("a1");
+        assertThat(urgent.payloads("eq-2")).isEmpty();
+        assertThat(rest.payloads("eq-1")).containsExactly("a2");
+        assertThat(rest.payloads("eq-2")).containsExactly("b1");
+
+        workflow.stop();
+    }
+
+    @Test
+    void failsToCreateWhenConditionCannotBeCompiled() {
+        WorkflowGraphDefinition graph = graph(
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(new WorkflowEdgeDefinition("source", "sink", "payload == 'x'"))
+        );
+        Source<String> source = List::of;
+        WorkflowNodeResolver resolver = resolver(Map.of("source-bean", source, "sink-bean", new RecordingSink()));
+
+        assertThrows(IllegalStateException.class, () -> new WorkflowEngine().createWorkflow(graph, resolver));
+    }
+
+    private WorkflowGraphDefinition graph(List<WorkflowNodeDefinition> nodes, List<WorkflowEdgeDefinition> edges) {
+        return new WorkflowGraphDefinition(
+            "branching",
+            "source",
+            Set.of(),
+            nodes,
+            edges,
+            WorkflowEngine.BatchingOptions.defaults()
+        );
+    }
+
+    private static final class RecordingSink implements Sink<String> {
+
+        private final Map<String, List<String>> payloadsByKey = new ConcurrentHashMap<>();
+
+        @Override
+        public void write(FxContext<String> context) {
+            payloadsByKey.computeIfAbsent(context.affinity().value(), ignored -> new CopyOnWriteArrayList<>())
+                .add(context.message().payload());
+        }
+
+        List<String> payloads(String key) {
+            return payloadsByKey.getOrDefault(key, List.of());
+        }
+    }
+}
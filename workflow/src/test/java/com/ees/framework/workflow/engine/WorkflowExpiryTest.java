@@ -0,0 +1,101 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.workflow.affinity.DefaultAffinityKeyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceStepSink;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkflowExpiryTest {
+
+    @Test
+    void dropsContextsOlderThanMaxAgeBeforeAnyProcessorRuns() throws Exception {
+        Instant stale = Instant.now().minus(Duration.ofHours(1));
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "old-1", stale, FxHeaders.empty()),
+            context("eq-1", "fresh-1", Instant.now(), FxHeaders.empty()),
+            context("eq-2", "old-2", stale, FxHeaders.empty()),
+            context("eq-1", "fresh-2", Instant.now(), FxHeaders.empty())
+        );
+        AtomicInteger stepCalls = new AtomicInteger();
+        PipelineStep<String, String> step = ctx -> {
+            stepCalls.incrementAndGet();
+            return ctx;
+        };
+        List<String> written = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .expiry(WorkflowEngine.ExpiryOptions.disabled().toBuilder()
+                .enabled(true)
+                .maxAge(Duration.ofMinutes(1))
+                .build())
+            .build();
+
+        Workflow workflow = engine(options, null)
+            .createWorkflow(sourceStepSink("expiry", options), resolverFor(() -> contexts, step, ctx -> written.add(ctx.message().payload())));
+        workflow.start();
+
+        assertThat(written).containsExactly("fresh-1", "fresh-2");
+        assertThat(stepCalls.get()).isEqualTo(2);
+        assertThat(workflow.expiredCount()).isEqualTo(2L);
+        assertThat(workflow.inFlight()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    void divertsContextsPastDeadlineHeaderToDeadLetter() throws Exception {
+        Instant past = Instant.now().minusSeconds(5);
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "late-millis", Instant.now(), FxHeaders.empty().with("deadline", Long.toString(past.toEpochMilli()))),
+            context("eq-1", "late-iso", Instant.now(), FxHeaders.empty().with("deadline", past.toString())),
+            context("eq-1", "on-time", Instant.now(), FxHeaders.empty().with("deadline", Instant.now().plusSeconds(60).toString())),
+            context("eq-1", "no-deadline", Instant.now(), FxHeaders.empty().with("deadline", "soon"))
+        );
+        List<String> written = new CopyOnWriteArrayList<>();
+        List<FxContext<Object>> deadLetters = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .expiry(WorkflowEngine.ExpiryOptions.disabled().toBuilder()
+                .enabled(true)
+                .deadlineHeader("deadline")
+                .action(WorkflowEngine.ExpiredAction.DEAD_LETTER)
+                .build())
+            .build();
+
+        Workflow workflow = engine(options, deadLetters::add)
+            .createWorkflow(sourceStepSink("expiry", options), resolverFor(() -> contexts, ctx -> ctx, ctx -> written.add(ctx.message().payload())));
+        workflow.start();
+
+        assertThat(written).containsExactly("on-time", "no-deadline");
+        assertThat(deadLetters).extracting(ctx -> ctx.message().payload()).containsExactly("late-millis", "late-iso");
+        assertThat(deadLetters.get(0).meta().attributes())
+            .containsEntry(WorkflowEngine.DEAD_LETTER_WORKFLOW, "expiry")
+            .containsEntry(WorkflowEngine.DEAD_LETTER_EXPIRED_AT, Instant.ofEpochMilli(past.toEpochMilli()).toString());
+        assertThat(workflow.expiredCount()).isEqualTo(2L);
+
+        workflow.stop();
+    }
+
+    @Test
+    void rejectsEnabledExpiryWithoutCondition() {
+        assertThatThrownBy(() -> WorkflowEngine.ExpiryOptions.disabled().toBuilder().enabled(true).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private WorkflowEngine engine(WorkflowEngine.BatchingOptions options, Sink<Object> deadLetterSink) {
+        return new WorkflowEngine(options, new DefaultAffinityKeyResolver(), new ExpressionEdgeConditionCompiler(),
+            MessageSizeEstimator.heuristic(), deadLetterSink);
+    }
+}
@@ -0,0 +1,202 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.affinity.DefaultAffinityKeyResolver;
+import com.ees.framework.workflow.model.WorkflowEdgeDefinition;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceStepSink;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowFailurePolicyTest {
+
+    @Test
+    void retriesPoisonSinkWriteThenDeadLettersWithoutBlockingOtherContexts() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "a1"),
+            context("eq-1", "poison"),
+            context("eq-1", "a2"),
+            context("eq-2", "b1")
+        );
+        AtomicInteger poisonAttempts = new AtomicInteger();
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            if ("poison".equals(ctx.message().payload())) {
+                poisonAttempts.incrementAndGet();
+                throw new IllegalArgumentException("bad payload");
+            }
+            written.add(ctx.message().payload());
+        };
+        List<FxContext<Object>> deadLetters = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .failurePolicy(WorkflowEngine.FailurePolicy.defaults().toBuilder()
+                .maxRetries(2)
+                .initialBackoff(Duration.ofMillis(5))
+                .build())
+            .build();
+
+        Workflow workflow = engine(options, deadLetters::add)
+            .createWorkflow(sourceToSink("failure", options), resolverFor(() -> contexts, null, sink));
+        workflow.start();
+
+        assertThat(written).containsExactlyInAnyOrder("a1", "a2", "b1");
+        assertThat(written.indexOf("a1")).isLessThan(written.indexOf("a2"));
+        assertThat(poisonAttempts.get()).isEqualTo(3);
+        assertThat(deadLetters).singleElement().satisfies(dead -> {
+            assertThat(dead.message().payload()).isEqualTo("poison");
+            assertThat(dead.meta().retries()).isEqualTo(2);
+            assertThat(dead.meta().attributes())
+                .containsEntry(WorkflowEngine.DEAD_LETTER_WORKFLOW, "failure")
+                .containsEntry(WorkflowEngine.DEAD_LETTER_NODE, "sink")
+                .containsEntry(WorkflowEngine.DEAD_LETTER_ERROR, IllegalArgumentException.class.getName())
+                .containsEntry(WorkflowEngine.DEAD_LETTER_MESSAGE, "bad payload");
+        });
+        assertThat(workflow.inFlight()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    void isolatesFailingContextInBatchAndRetriesInKeyOrder() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "p1"),
+            context("eq-1", "flaky"),
+            context("eq-1", "p3")
+        );
+        PipelineStep<String, String> step = ctx -> {
+            String payload = ctx.message().payload();
+            if ("flaky".equals(payload) && ctx.meta().retries() < 2) {
+                throw new IllegalStateException("transient");
+            }
+            return ctx;
+        };
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> written.add(ctx.message().payload() + "#" + ctx.meta().retries());
+        List<FxContext<Object>> deadLetters = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .failurePolicy(WorkflowEngine.FailurePolicy.defaults().toBuilder()
+                .maxRetries(3)
+                .initialBackoff(Duration.ofMillis(5))
+                .build())
+            .build();
+
+        Workflow workflow = engine(options, deadLetters::add)
+            .createWorkflow(sourceStepSink("failure", options), resolverFor(() -> contexts, step, sink));
+        workflow.start();
+
+        assertThat(written).containsExactly("p1#0", "flaky#2", "p3#0");
+        assertThat(deadLetters).isEmpty();
+
+        workflow.stop();
+    }
+
+    @Test
+    void retriesOnlyFailingBranchWithoutRewritingSiblingSink() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "p1"),
+            context("eq-1", "flaky"),
+            context("eq-1", "p3")
+        );
+        PipelineStep<String, String> step = ctx -> {
+            if ("flaky".equals(ctx.message().payload()) && ctx.meta().retries() < 1) {
+                throw new IllegalStateException("transient");
+            }
+            return ctx;
+        };
+        List<String> audited = new CopyOnWriteArrayList<>();
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> auditSink = ctx -> audited.add(ctx.message().payload());
+        Sink<String> sink = ctx -> written.add(ctx.message().payload() + "#" + ctx.meta().retries());
+        List<FxContext<Object>> deadLetters = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .failurePolicy(WorkflowEngine.FailurePolicy.defaults().toBuilder()
+                .maxRetries(2)
+                .initialBackoff(Duration.ofMillis(5))
+                .build())
+            .build();
+        WorkflowGraphDefinition graph = new WorkflowGraphDefinition("failure", "source", Set.of("audit", "sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("audit", WorkflowNodeKind.SINK, "audit-bean"),
+                new WorkflowNodeDefinition("step", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")),
+            List.of(
+                new WorkflowEdgeDefinition("source", "audit", null),
+                new WorkflowEdgeDefinition("source", "step", null),
+                new WorkflowEdgeDefinition("step", "sink", null)),
+            options);
+        Map<String, Object> beans = Map.of(
+            "source-bean", (Source<String>) () -> contexts,
+            "audit-bean", auditSink,
+            "step-bean", step,
+            "sink-bean", sink);
+
+        Workflow workflow = engine(options, deadLetters::add)
+            .createWorkflow(graph, node -> beans.get(node.getRefName()));
+        workflow.start();
+
+        assertThat(audited).containsExactly("p1", "flaky", "p3");
+        assertThat(written).containsExactly("p1#0", "flaky#1", "p3#0");
+        assertThat(deadLetters).isEmpty();
+
+        workflow.stop();
+    }
+
+    @Test
+    void openCircuitPausesFailingSinkInsteadOfSpinning() throws Exception {
+        List<FxContext<String>> contexts = List.of(
+            context("eq-1", "m1"),
+            context("eq-1", "m2"),
+            context("eq-1", "m3")
+        );
+        AtomicInteger calls = new AtomicInteger();
+        Sink<String> sink = ctx -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("down");
+        };
+        List<FxContext<Object>> deadLetters = new CopyOnWriteArrayList<>();
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchSize(1)
+            .failurePolicy(WorkflowEngine.FailurePolicy.defaults().toBuilder()
+                .maxRetries(1)
+                .initialBackoff(Duration.ZERO)
+                .circuitBreakerThreshold(1)
+                .circuitBreakerOpenDuration(Duration.ofMillis(100))
+                .build())
+            .build();
+
+        Workflow workflow = engine(options, deadLetters::add)
+            .createWorkflow(sourceToSink("failure", options), resolverFor(() -> contexts, null, sink));
+        long started = System.nanoTime();
+        workflow.start();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        // 첫 실패 이후 호출은 모두 열린 서킷을 기다린 시험 호출이므로 100ms 이상 간격을 둔다.
+        assertThat(calls.get()).isEqualTo(6);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(500);
+        assertThat(deadLetters).hasSize(3);
+
+        workflow.stop();
+    }
+
+    private WorkflowEngine engine(WorkflowEngine.BatchingOptions options, Sink<Object> deadLetterSink) {
+        return new WorkflowEngine(options, new DefaultAffinityKeyResolver(), new ExpressionEdgeConditionCompiler(),
+            MessageSizeEstimator.heuristic(), deadLetterSink);
+    }
+}
@@ -0,0 +1,151 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.sink.Sink;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.awaitQuietly;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowPauseResumeTest {
+
+    @Test
+    void customWorkflowOnlyImplementsLifecycleAndGetsDefaults() throws Exception {
+        Workflow workflow = new Workflow() {
+            @Override
+            public String getName() {
+                return "custom";
+            }
+
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+
+        assertThat(workflow.isPaused()).isFalse();
+        assertThat(workflow.isRunning()).isFalse();
+        assertThat(workflow.isContinuous()).isFalse();
+        assertThat(workflow.queueDepth()).isZero();
+        assertThat(workflow.inFlight()).isZero();
+        assertThat(workflow.peakInFlight()).isZero();
+        assertThat(workflow.inFlightBytes()).isZero();
+        assertThat(workflow.peakInFlightBytes()).isZero();
+        assertThat(workflow.currentBatchSize()).isZero();
+        assertThat(workflow.hotKeys(10)).isEmpty();
+        assertThat(workflow.expiredCount()).isZero();
+        assertThat(workflow.laneWaitTimes()).isEmpty();
+
+        assertThat(workflow.supportsPause()).isFalse();
+        workflow.pause();
+        assertThat(workflow.isPaused()).isFalse();
+        workflow.resume();
+        assertThat(workflow.awaitQuiescence(Duration.ofMillis(1))).isTrue();
+    }
+
+    @Test
+    void pauseKeepsQueuedContextsAndResumeContinuesInOrder() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            contexts.add(context("eq-1", String.format("%02d", i)));
+        }
+        CountDownLatch firstWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            if (firstWriting.getCount() > 0) {
+                firstWriting.countDown();
+                awaitQuietly(release);
+            }
+            written.add(ctx.message().payload());
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchSize(1)
+            .build();
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(sourceToSink("pause", options), resolverFor(() -> contexts, sink));
+        Thread runner = new Thread(workflow::start);
+        runner.start();
+
+        assertThat(firstWriting.await(1, TimeUnit.SECONDS)).isTrue();
+        // 소스는 디스패치마다 일시정지 여부를 확인하므로, 나머지가 큐에 들어간 뒤 일시정지한다.
+        awaitQueueDepth(workflow, 49);
+        workflow.pause();
+        release.countDown();
+        Thread.sleep(200);
+
+        assertThat(workflow.supportsPause()).isTrue();
+        assertThat(workflow.isPaused()).isTrue();
+        assertThat(workflow.isRunning()).isTrue();
+        assertThat(written).containsExactly("00");
+        assertThat(workflow.queueDepth()).isPositive();
+        long depth = workflow.queueDepth();
+        Thread.sleep(100);
+        assertThat(workflow.queueDepth()).isEqualTo(depth);
+        assertThat(written).hasSize(1);
+
+        workflow.resume();
+        runner.join(2_000);
+
+        assertThat(workflow.isPaused()).isFalse();
+        assertThat(written).hasSize(50).isSorted();
+        assertThat(workflow.queueDepth()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    void stopWhilePausedDrainsQueuedContexts() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            contexts.add(context("eq-" + (i % 2), "p" + i));
+        }
+        CountDownLatch firstWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            if (firstWriting.getCount() > 0) {
+                firstWriting.countDown();
+                awaitQuietly(release);
+            }
+            written.add(ctx.message().payload());
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .batchSize(1)
+            .build();
+        Workflow workflow = new WorkflowEngine(options).createWorkflow(sourceToSink("pause", options), resolverFor(() -> contexts, sink));
+        Thread runner = new Thread(workflow::start);
+        runner.start();
+
+        assertThat(firstWriting.await(1, TimeUnit.SECONDS)).isTrue();
+        workflow.pause();
+        release.countDown();
+        long queued = workflow.queueDepth();
+        workflow.stop();
+        runner.join(2_000);
+
+        assertThat(written.size()).isGreaterThanOrEqualTo((int) queued + 1);
+        assertThat(workflow.inFlight()).isZero();
+        assertThat(workflow.isPaused()).isFalse();
+    }
+
+    private void awaitQueueDepth(Workflow workflow, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (workflow.queueDepth() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(workflow.queueDepth()).isEqualTo(expected);
+    }
+}
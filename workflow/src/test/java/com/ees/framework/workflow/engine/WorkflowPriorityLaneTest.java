@@ -0,0 +1,103 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.awaitQuietly;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.scriptedSource;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.sourceToSink;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkflowPriorityLaneTest {
+
+    @Test
+    @Timeout(10)
+    void alarmOvertakesQueuedTelemetryOfSameKey() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            contexts.add(context("telemetry", FxHeaders.empty(), "t" + i));
+        }
+        contexts.add(context("ALARM", FxHeaders.empty(), "alarm"));
+        contexts.add(context("telemetry", FxHeaders.empty().with("priority", "0"), "urgent"));
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch dispatched = new CountDownLatch(1);
+        Source<String> source = scriptedSource(contexts, index -> {
+            if (index == 1) {
+                // 워커가 첫 컨텍스트를 꺼내 Sink 에 들어간 뒤에 나머지를 넣는다.
+                awaitQuietly(processing);
+            }
+        }, dispatched);
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            if (written.isEmpty()) {
+                // 첫 컨텍스트를 처리하는 동안 나머지가 모두 큐에 쌓이게 한다.
+                processing.countDown();
+                awaitQuietly(dispatched);
+            }
+            written.add(ctx.message().payload());
+        };
+        WorkflowEngine.BatchingOptions options = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+            .queueCapacity(16)
+            .batchSize(1)
+            .batchTimeout(Duration.ofMillis(20))
+            .priorityLanes(WorkflowEngine.PriorityLaneOptions.disabled().toBuilder()
+                .enabled(true)
+                .priorityHeader("priority")
+                .commandLanes(Map.of("ALARM", 0))
+                .build())
+            .build();
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(sourceToSink("priority", options), resolverFor(source, sink));
+        workflow.start();
+
+        assertThat(written).hasSize(12);
+        assertThat(written.subList(0, 3)).containsExactly("t0", "alarm", "urgent");
+        assertThat(written.subList(3, 12)).containsExactly("t1", "t2", "t3", "t4", "t5", "t6", "t7", "t8", "t9");
+        List<LaneWaitTime> waits = workflow.laneWaitTimes();
+        assertThat(waits).extracting(LaneWaitTime::lane).containsExactly(0, 1);
+        assertThat(waits.get(0).dequeued()).isEqualTo(2L);
+        assertThat(waits.get(1).dequeued()).isEqualTo(10L);
+        assertThat(waits.get(1).maxWaitNanos()).isGreaterThan(waits.get(0).maxWaitNanos());
+
+        workflow.stop();
+    }
+
+    @Test
+    void rejectsLaneOutsideRange() {
+        WorkflowEngine.PriorityLaneOptions.PriorityLaneOptionsBuilder builder =
+            WorkflowEngine.PriorityLaneOptions.disabled().toBuilder().enabled(true);
+
+        assertThatThrownBy(() -> builder.commandLanes(Map.of("ALARM", 2)).build())
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.commandLanes(Map.of()).defaultLane(-1).build())
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(WorkflowEngine.BatchingOptions.defaults().priorityLanes().enabled()).isFalse();
+    }
+
+    private static FxContext<String> context(String command, FxHeaders headers, String payload) {
+        return new FxContext<>(
+            FxCommand.of(command),
+            headers,
+            FxMessage.now("src", payload),
+            FxMeta.empty(),
+            FxAffinity.of("equipmentId", "eq-1")
+        );
+    }
+}
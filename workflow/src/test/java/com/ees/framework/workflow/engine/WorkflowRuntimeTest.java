@@ -14,13 +14,17 @@ import com.ees.framework.workflow.model.WorkflowNodeDefinition;
 import com.ees.framework.workflow.util.LinearToGraphConverter;
 import com.ees.framework.workflow.util.WorkflowGraphValidator;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class WorkflowRuntimeTest {
 
@@ -73,6 +77,112 @@ class WorkflowRuntimeTest {
         runtime.stopAll();
     }
 
+    @Test
+    @Timeout(10)
+    void continuousWorkflowRunsOnItsOwnThreadWithoutBlockingOthers() throws Exception {
+        WorkflowGraphDefinition continuous = WorkflowGraphDsl.define("continuous", builder -> builder
+            .source("src", "idle-source")
+            .sink("snk", "sink-a")
+            .edge("src", "snk")
+            .batchingOptions(WorkflowEngine.BatchingOptions.defaults().toBuilder()
+                .batchTimeout(Duration.ofMillis(20))
+                .continuous(true)
+                .build())
+        );
+        WorkflowGraphDefinition finite = WorkflowGraphDsl.define("finite", builder -> builder
+            .source("src", "shared-source")
+            .sink("snk", "sink-b")
+            .edge("src", "snk")
+        );
+        CountingSource idle = new CountingSource(1) {
+            @Override
+            public Iterable<FxContext<String>> read() {
+                super.read();
+                return List.of();
+            }
+        };
+        CountingSource source = new CountingSource(1);
+        CountingSink sinkA = new CountingSink();
+        CountingSink sinkB = new CountingSink();
+
+        WorkflowRuntime runtime = new WorkflowRuntime(
+            List.of(),
+            List.of(continuous, finite),
+            new LinearToGraphConverter(),
+            new WorkflowGraphValidator(),
+            new WorkflowEngine(),
+            new StaticResolver(Map.of(
+                "idle-source", idle,
+                "shared-source", source,
+                "sink-a", sinkA,
+                "sink-b", sinkB
+            ))
+        );
+
+        // continuous 워크플로가 먼저 등록되어 있어도 startAll 은 finite 워크플로가 끝나면 반환한다.
+        runtime.startAll();
+
+        assertThat(sinkB.awaitWrites()).isTrue();
+        assertThat(idle.awaitStarts()).isTrue();
+        Workflow running = runtime.getWorkflow("continuous").orElseThrow();
+        assertThat(running.isRunning()).isTrue();
+
+        runtime.stopAll();
+
+        assertThat(running.isRunning()).isFalse();
+    }
+
+    @Test
+    @Timeout(10)
+    void stoppedWorkflowIsReplacedByFreshInstanceThatCanStartAgain() throws Exception {
+        WorkflowGraphDefinition continuous = WorkflowGraphDsl.define("continuous", builder -> builder
+            .source("src", "idle-source")
+            .sink("snk", "sink-a")
+            .edge("src", "snk")
+            .batchingOptions(WorkflowEngine.BatchingOptions.defaults().toBuilder()
+                .batchTimeout(Duration.ofMillis(20))
+                .continuous(true)
+                .build())
+        );
+        AtomicReference<CountDownLatch> reads = new AtomicReference<>(new CountDownLatch(1));
+        com.ees.framework.source.Source<String> idle = () -> {
+            reads.get().countDown();
+            return List.of();
+        };
+        WorkflowRuntime runtime = new WorkflowRuntime(
+            List.of(),
+            List.of(continuous),
+            new LinearToGraphConverter(),
+            new WorkflowGraphValidator(),
+            new WorkflowEngine(),
+            new StaticResolver(Map.of("idle-source", idle, "sink-a", new CountingSink()))
+        );
+
+        Workflow first = runtime.start("continuous");
+        assertThat(reads.get().await(1, TimeUnit.SECONDS)).isTrue();
+        Workflow fresh = runtime.stop("continuous");
+
+        assertThat(fresh).isNotSameAs(first);
+        assertThat(first.isRunning()).isFalse();
+        assertThat(fresh.isRunning()).isFalse();
+        assertThat(runtime.getWorkflow("continuous")).containsSame(fresh);
+        assertThatThrownBy(first::start)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("cannot be started again");
+
+        reads.set(new CountDownLatch(1));
+        assertThat(runtime.start("continuous")).isSameAs(fresh);
+        assertThat(reads.get().await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(fresh.isRunning()).isTrue();
+
+        runtime.stopAll();
+
+        assertThat(fresh.isRunning()).isFalse();
+        assertThatThrownBy(() -> runtime.start("missing"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unknown workflow: missing");
+    }
+
     private static class StaticResolver implements WorkflowNodeResolver {
 
         private final Map<String, Object> beans;
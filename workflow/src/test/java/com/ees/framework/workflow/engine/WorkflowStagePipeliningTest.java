@@ -0,0 +1,211 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxContext;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.model.WorkflowEdgeDefinition;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.context;
+import static com.ees.framework.workflow.engine.WorkflowTestFixtures.resolverFor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkflowStagePipeliningTest {
+
+    private static final WorkflowEngine.BatchingOptions OPTIONS = WorkflowEngine.BatchingOptions.defaults().toBuilder()
+        .batchSize(1)
+        .batchTimeout(Duration.ofMillis(20))
+        .build();
+
+    @Test
+    void slowSinkStageDoesNotStallUpstreamStep() throws Exception {
+        int total = 5;
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            contexts.add(context("eq-1", "p" + i));
+        }
+        CountDownLatch stepped = new CountDownLatch(total);
+        PipelineStep<String, String> step = ctx -> {
+            stepped.countDown();
+            return ctx;
+        };
+        List<String> written = new CopyOnWriteArrayList<>();
+        Sink<String> sink = ctx -> {
+            try {
+                // 스테이지가 분리되지 않았다면 첫 write 가 끝나기 전에 나머지 step 이 실행될 수 없다.
+                assertThat(stepped.await(2, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(ctx.message().payload());
+        };
+        WorkflowGraphDefinition graph = WorkflowGraphDefinition.builder()
+            .name("staged")
+            .startNodeId("source")
+            .nodes(nodes())
+            .edges(edges())
+            .batchingOptions(OPTIONS)
+            .stageOption("sink", WorkflowEngine.StageOptions.defaults())
+            .build();
+        Source<String> source = () -> contexts;
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(source, step, sink));
+        workflow.start();
+
+        assertThat(workflow.awaitQuiescence(Duration.ofSeconds(2))).isTrue();
+        assertThat(written).containsExactly("p0", "p1", "p2", "p3", "p4");
+        assertThat(workflow.inFlight()).isZero();
+
+        workflow.stop();
+    }
+
+    @Test
+    void preservesOrderPerKeyAcrossDedicatedStages() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            contexts.add(context("eq-" + (i % 4), String.format("%03d", i)));
+        }
+        PipelineStep<String, String> step = ctx -> ctx;
+        Map<String, List<String>> payloadsByKey = new ConcurrentHashMap<>();
+        Sink<String> sink = ctx -> payloadsByKey
+            .computeIfAbsent(ctx.affinity().value(), ignored -> new CopyOnWriteArrayList<>())
+            .add(ctx.message().payload());
+        WorkflowGraphDefinition graph = WorkflowGraphDefinition.builder()
+            .name("staged-order")
+            .startNodeId("source")
+            .nodes(nodes())
+            .edges(edges())
+            .batchingOptions(OPTIONS.toBuilder().batchSize(8).build())
+            .stageOption("step", new WorkflowEngine.StageOptions(2, 3))
+            .stageOption("sink", WorkflowEngine.StageOptions.defaults())
+            .build();
+        Source<String> source = () -> contexts;
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(source, step, sink));
+        workflow.start();
+
+        assertThat(workflow.awaitQuiescence(Duration.ofSeconds(2))).isTrue();
+        assertThat(payloadsByKey).hasSize(4);
+        payloadsByKey.values().forEach(payloads -> assertThat(payloads).hasSize(50).isSorted());
+
+        workflow.stop();
+    }
+
+    @Test
+    void splitsHotKeyIntoSubLanesForCommutativeStageAndKeepsColdKeyOrder() throws Exception {
+        List<FxContext<String>> contexts = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            contexts.add(context("eq-hot", String.format("%03d", i)));
+            if (i % 20 == 0) {
+                contexts.add(context("eq-cold", String.format("%03d", i)));
+            }
+        }
+        Set<String> hotStepThreads = ConcurrentHashMap.newKeySet();
+        PipelineStep<String, String> step = ctx -> {
+            if ("eq-hot".equals(ctx.affinity().value())) {
+                hotStepThreads.add(Thread.currentThread().getName());
+            }
+            return ctx;
+        };
+        Map<String, List<String>> payloadsByKey = new ConcurrentHashMap<>();
+        Sink<String> sink = ctx -> payloadsByKey
+            .computeIfAbsent(ctx.affinity().value(), ignored -> new CopyOnWriteArrayList<>())
+            .add(ctx.message().payload());
+        WorkflowGraphDefinition graph = WorkflowGraphDefinition.builder()
+            .name("hot-key")
+            .startNodeId("source")
+            .nodes(nodes())
+            .edges(edges())
+            .batchingOptions(OPTIONS.toBuilder()
+                .batchSize(8)
+                .hotKeys(WorkflowEngine.HotKeyOptions.disabled().toBuilder().enabled(true).build())
+                .build())
+            .stageOption("step", WorkflowEngine.StageOptions.defaults().toBuilder().subLanes(4).build())
+            .build();
+        Source<String> source = () -> contexts;
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(source, step, sink));
+        workflow.start();
+
+        assertThat(workflow.awaitQuiescence(Duration.ofSeconds(2))).isTrue();
+        assertThat(hotStepThreads).hasSizeGreaterThan(1);
+        assertThat(payloadsByKey.get("eq-hot")).hasSize(400).doesNotHaveDuplicates();
+        assertThat(payloadsByKey.get("eq-cold")).hasSize(20).isSorted();
+        List<HotKey> hotKeys = workflow.hotKeys(2);
+        assertThat(hotKeys).extracting(hotKey -> hotKey.affinity().value()).containsExactly("eq-hot", "eq-cold");
+        assertThat(hotKeys.get(0).share()).isGreaterThan(0.9);
+        assertThat(hotKeys.get(0).ratePerSecond()).isPositive();
+
+        workflow.stop();
+    }
+
+    @Test
+    void rejectsSubLanesWithoutHotKeyTracking() {
+        WorkflowGraphDefinition graph = WorkflowGraphDefinition.builder()
+            .name("sub-lanes-invalid")
+            .startNodeId("source")
+            .nodes(nodes())
+            .edges(edges())
+            .batchingOptions(OPTIONS)
+            .stageOption("step", new WorkflowEngine.StageOptions(0, 0, 2))
+            .build();
+        Source<String> source = List::of;
+        PipelineStep<String, String> step = ctx -> ctx;
+        Sink<String> sink = ctx -> {
+        };
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(source, step, sink));
+
+        assertThrows(IllegalStateException.class, workflow::start);
+    }
+
+    @Test
+    void rejectsStageOptionsOnSourceNode() {
+        WorkflowGraphDefinition graph = WorkflowGraphDefinition.builder()
+            .name("staged-invalid")
+            .startNodeId("source")
+            .nodes(nodes())
+            .edges(edges())
+            .batchingOptions(OPTIONS)
+            .stageOption("source", WorkflowEngine.StageOptions.defaults())
+            .build();
+        Source<String> source = List::of;
+        PipelineStep<String, String> step = ctx -> ctx;
+        Sink<String> sink = ctx -> {
+        };
+
+        Workflow workflow = new WorkflowEngine().createWorkflow(graph, resolverFor(source, step, sink));
+
+        assertThrows(IllegalStateException.class, workflow::start);
+    }
+
+    private List<WorkflowNodeDefinition> nodes() {
+        return List.of(
+            new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+            new WorkflowNodeDefinition("step", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+            new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+        );
+    }
+
+    private List<WorkflowEdgeDefinition> edges() {
+        return List.of(
+            new WorkflowEdgeDefinition("source", "step", null),
+            new WorkflowEdgeDefinition("step", "sink", null)
+        );
+    }
+}
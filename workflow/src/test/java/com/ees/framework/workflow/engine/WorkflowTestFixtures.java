@@ -0,0 +1,179 @@
+package com.ees.framework.workflow.engine;
+
+import com.ees.framework.context.FxAffinity;
+import com.ees.framework.context.FxCommand;
+import com.ees.framework.context.FxContext;
+import com.ees.framework.context.FxHeaders;
+import com.ees.framework.context.FxMessage;
+import com.ees.framework.context.FxMeta;
+import com.ees.framework.pipeline.PipelineStep;
+import com.ees.framework.sink.Sink;
+import com.ees.framework.source.Source;
+import com.ees.framework.workflow.model.WorkflowEdgeDefinition;
+import com.ees.framework.workflow.model.WorkflowGraphDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeDefinition;
+import com.ees.framework.workflow.model.WorkflowNodeKind;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * 워크플로 엔진 테스트가 공유하는 그래프/리졸버/컨텍스트/Source 픽스처.
+ * <p>
+ * 그래프 노드는 source/step/sink 이고, 각 노드의 refName 은 source-bean/step-bean/sink-bean 이다.
+ */
+final class WorkflowTestFixtures {
+
+    private WorkflowTestFixtures() {
+    }
+
+    /**
+     * source → sink 그래프를 만든다.
+     */
+    static WorkflowGraphDefinition sourceToSink(String name, WorkflowEngine.BatchingOptions options) {
+        return new WorkflowGraphDefinition(
+            name,
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(new WorkflowEdgeDefinition("source", "sink", null)),
+            options
+        );
+    }
+
+    /**
+     * source → step → sink 그래프를 만든다.
+     */
+    static WorkflowGraphDefinition sourceStepSink(String name, WorkflowEngine.BatchingOptions options) {
+        return new WorkflowGraphDefinition(
+            name,
+            "source",
+            Set.of("sink"),
+            List.of(
+                new WorkflowNodeDefinition("source", WorkflowNodeKind.SOURCE, "source-bean"),
+                new WorkflowNodeDefinition("step", WorkflowNodeKind.PIPELINE_STEP, "step-bean"),
+                new WorkflowNodeDefinition("sink", WorkflowNodeKind.SINK, "sink-bean")
+            ),
+            List.of(
+                new WorkflowEdgeDefinition("source", "step", null),
+                new WorkflowEdgeDefinition("step", "sink", null)
+            ),
+            options
+        );
+    }
+
+    /**
+     * refName → Bean 맵으로 리졸버를 만든다. 없는 refName 은 IllegalArgumentException 으로 실패한다.
+     */
+    static WorkflowNodeResolver resolver(Map<String, Object> beans) {
+        return node -> {
+            Object bean = beans.get(node.getRefName());
+            if (bean == null) {
+                throw new IllegalArgumentException("No bean for refName: " + node.getRefName());
+            }
+            return bean;
+        };
+    }
+
+    /**
+     * source-bean/sink-bean 리졸버를 만든다.
+     */
+    static WorkflowNodeResolver resolverFor(Source<String> source, Sink<String> sink) {
+        return resolverFor(source, null, sink);
+    }
+
+    /**
+     * source-bean/step-bean/sink-bean 리졸버를 만든다. step 이 null 이면 step-bean 을 등록하지 않는다.
+     */
+    static WorkflowNodeResolver resolverFor(Source<String> source, PipelineStep<String, String> step, Sink<String> sink) {
+        Map<String, Object> beans = new HashMap<>();
+        beans.put("source-bean", source);
+        beans.put("sink-bean", sink);
+        if (step != null) {
+            beans.put("step-bean", step);
+        }
+        return resolver(beans);
+    }
+
+    /**
+     * equipmentId affinity 를 가진 ingest 컨텍스트를 만든다.
+     */
+    static FxContext<String> context(String key, String payload) {
+        return new FxContext<>(
+            FxCommand.of("ingest"),
+            FxHeaders.empty(),
+            FxMessage.now("src", payload),
+            FxMeta.empty(),
+            FxAffinity.of("equipmentId", key)
+        );
+    }
+
+    /**
+     * 메시지 시각과 헤더를 지정한 ingest 컨텍스트를 만든다.
+     */
+    static FxContext<String> context(String key, String payload, Instant timestamp, FxHeaders headers) {
+        return new FxContext<>(
+            FxCommand.of("ingest"),
+            headers,
+            new FxMessage<>("src", payload, timestamp, null),
+            FxMeta.empty(),
+            FxAffinity.of("equipmentId", key)
+        );
+    }
+
+    /**
+     * contexts 를 차례로 내보내고, 다 내보내면 drained 를 내리는 Source 를 만든다.
+     */
+    static Source<String> scriptedSource(List<FxContext<String>> contexts, CountDownLatch drained) {
+        return scriptedSource(contexts, index -> {
+        }, drained);
+    }
+
+    /**
+     * contexts 를 차례로 내보내는 Source 를 만든다. index 번째 컨텍스트를 내보내기 직전에 beforeEmit 을 호출해
+     * 테스트가 Source 진행을 멈춰 둘 수 있게 하고, 다 내보내면 drained(null 가능)를 내린다.
+     */
+    static Source<String> scriptedSource(List<FxContext<String>> contexts, IntConsumer beforeEmit, CountDownLatch drained) {
+        return () -> () -> new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index < contexts.size()) {
+                    return true;
+                }
+                if (drained != null) {
+                    drained.countDown();
+                }
+                return false;
+            }
+
+            @Override
+            public FxContext<String> next() {
+                beforeEmit.accept(index);
+                return contexts.get(index++);
+            }
+        };
+    }
+
+    /**
+     * latch 를 최대 2 초 기다린다. 인터럽트되면 인터럽트 상태만 남기고 반환한다.
+     */
+    static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}